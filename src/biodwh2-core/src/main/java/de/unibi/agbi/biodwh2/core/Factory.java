@@ -91,7 +91,8 @@ public final class Factory {
     }
 
     private static boolean isUriClassInBioDWH(final String uri) {
-        return uri.endsWith(".class") && uri.contains("de/unibi/agbi/biodwh2");
+        // Versioned classes of multi-release jars are resolved by the class loader and not loaded by name
+        return uri.endsWith(".class") && uri.contains("de/unibi/agbi/biodwh2") && !uri.startsWith("META-INF/");
     }
 
     private static String getClassPathFromUri(final String uri) {
@@ -2,13 +2,30 @@ package de.unibi.agbi.biodwh2.core;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import de.unibi.agbi.biodwh2.core.etl.ArtifactExecutor;
 import de.unibi.agbi.biodwh2.core.etl.GraphMapper;
 import de.unibi.agbi.biodwh2.core.etl.GraphMerger;
 import de.unibi.agbi.biodwh2.core.etl.Updater;
 import de.unibi.agbi.biodwh2.core.exceptions.*;
+import de.unibi.agbi.biodwh2.core.io.graph.DeltaFormat;
+import de.unibi.agbi.biodwh2.core.io.graph.GraphDeltaExporter;
+import de.unibi.agbi.biodwh2.core.io.graph.GraphMLGraphWriter;
+import de.unibi.agbi.biodwh2.core.io.graph.GraphWriter;
+import de.unibi.agbi.biodwh2.core.memory.MemoryBudget;
 import de.unibi.agbi.biodwh2.core.model.*;
+import de.unibi.agbi.biodwh2.core.model.graph.FilteredGraphView;
 import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphFileFormat;
+import de.unibi.agbi.biodwh2.core.model.graph.SlowQueryLog;
+import de.unibi.agbi.biodwh2.core.model.graph.SubgraphFilter;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.ChangeType;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.ElementType;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.GraphDiffSummary;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.IdentityMode;
 import de.unibi.agbi.biodwh2.core.model.graph.migration.GraphMigrator;
+import de.unibi.agbi.biodwh2.core.monitoring.MetricsFileReporter;
+import de.unibi.agbi.biodwh2.core.monitoring.MetricsRegistry;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressReporter;
 import de.unibi.agbi.biodwh2.core.text.TableFormatter;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -32,12 +49,14 @@ public final class Workspace {
     private final String workingDirectory;
     private final Configuration configuration;
     private final DataSource[] dataSources;
+    private final ArtifactExecutor artifactExecutor;
 
     public Workspace(final String workingDirectory) {
         this.workingDirectory = workingDirectory;
         createWorkingDirectoryIfNotExists();
         configuration = createOrLoadConfiguration();
         dataSources = getUsedDataSources();
+        artifactExecutor = new ArtifactExecutor(configuration.getBackgroundArtifactThreads());
     }
 
     private void createWorkingDirectoryIfNotExists() {
@@ -96,6 +115,98 @@ public final class Workspace {
         return configuration;
     }
 
+    public ArtifactExecutor getArtifactExecutor() {
+        return artifactExecutor;
+    }
+
+    /**
+     * Export the mapped graph of the workspace in the given format.
+     *
+     * @param outputPath path of the exported file or directory, or null to export into the workspace sources
+     */
+    public boolean exportMappedGraph(final GraphFileFormat format, final Path outputPath) {
+        return exportMappedGraph(format, outputPath, null);
+    }
+
+    /**
+     * Export the part of the mapped graph selected by the filter in the given format. The subgraph is streamed from
+     * the mapped graph without creating a copy.
+     *
+     * @param outputPath path of the exported file or directory, or null to export into the workspace sources
+     * @param filter     subgraph filter or null to export the complete graph
+     */
+    public boolean exportMappedGraph(final GraphFileFormat format, final Path outputPath,
+                                     final SubgraphFilter filter) {
+        final Path graphFilePath = getFilePath(WorkspaceFileType.MAPPED_PERSISTENT_GRAPH);
+        if (Files.notExists(graphFilePath)) {
+            if (LOGGER.isErrorEnabled())
+                LOGGER.error("The workspace contains no mapped graph yet, please update the workspace first");
+            return false;
+        }
+        final Path exportPath = outputPath != null ? outputPath : getDefaultExportPath(format);
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("Exporting mapped graph as " + format + " to '" + exportPath + "'");
+        try (Graph graph = new Graph(graphFilePath, true, true)) {
+            final GraphWriter writer = GraphWriter.forFormat(format, configuration);
+            if (filter == null)
+                return writer.write(exportPath, graph);
+            filter.dataSourceIds(configuration.getDataSourceIds());
+            return writer.write(exportPath, new FilteredGraphView(graph, filter));
+        }
+    }
+
+    /**
+     * Export only the changes of the mapped graph since the previous delta export. The element manifest written next
+     * to the changes is used by the next delta export.
+     *
+     * @param outputPath           output directory or null to export into the workspace sources
+     * @param previousManifestPath manifest of the previous export or null to use the manifest in the output directory
+     */
+    public boolean exportMappedGraphDelta(final DeltaFormat format, final Path outputPath,
+                                          final Path previousManifestPath, final IdentityMode mode) {
+        final Path graphFilePath = getFilePath(WorkspaceFileType.MAPPED_PERSISTENT_GRAPH);
+        if (Files.notExists(graphFilePath)) {
+            if (LOGGER.isErrorEnabled())
+                LOGGER.error("The workspace contains no mapped graph yet, please update the workspace first");
+            return false;
+        }
+        final Path exportPath = outputPath != null ? outputPath : getFilePath(WorkspaceFileType.MAPPED_DELTA);
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("Exporting mapped graph delta as " + format + " to '" + exportPath + "'");
+        try (Graph graph = new Graph(graphFilePath, true, true)) {
+            final GraphDiffSummary summary = new GraphDeltaExporter(format, mode).export(graph, exportPath,
+                                                                                         previousManifestPath);
+            if (LOGGER.isInfoEnabled()) {
+                long upserts = 0;
+                long deletes = 0;
+                for (final ElementType type : ElementType.values()) {
+                    upserts += summary.getTotalCount(ChangeType.ADDED, type);
+                    upserts += summary.getTotalCount(ChangeType.CHANGED, type);
+                    deletes += summary.getTotalCount(ChangeType.REMOVED, type);
+                }
+                LOGGER.info("Exported " + upserts + " upserts and " + deletes + " deletes");
+            }
+            return true;
+        } catch (IOException e) {
+            if (LOGGER.isErrorEnabled())
+                LOGGER.error("Failed to export the mapped graph delta", e);
+            return false;
+        }
+    }
+
+    private Path getDefaultExportPath(final GraphFileFormat format) {
+        switch (format) {
+            case NEO4J_CSV:
+                return getFilePath(WorkspaceFileType.MAPPED_NEO4J_CSV);
+            case COLUMNAR:
+                return getFilePath(WorkspaceFileType.MAPPED_COLUMNAR);
+            case GRAPH_ML:
+            default:
+                return getFilePath(configuration.shouldCompressGraphML() ? WorkspaceFileType.MAPPED_GRAPHML_GZIP :
+                                   WorkspaceFileType.MAPPED_GRAPHML);
+        }
+    }
+
     public void checkState(final boolean verbose) {
         if (prepareDataSources() && LOGGER.isInfoEnabled()) {
             LOGGER.info(createStateTable(verbose));
@@ -161,14 +272,37 @@ public final class Workspace {
                                          "have been added to the workspace config.json either directly or via " +
                                          "command line.");
         if (prepareDataSources()) {
-            for (final DataSource dataSource : dataSources)
-                if (dataSourceId == null || dataSource.getId().equals(dataSourceId))
-                    processDataSource(dataSource, version, skipUpdate);
-            mergeDataSources();
-            mapDataSources();
+            SlowQueryLog.getInstance().configure(configuration.getSlowQueryLogThresholdMilliseconds());
+            ProgressReporter.getInstance().configure(configuration.getProgressReportIntervalSeconds(),
+                                                     getFilePath(WorkspaceFileType.PROGRESS_STATUS));
+            MemoryBudget.getInstance().configure(configuration.getMemoryPressureThresholdPercent(),
+                                                 configuration.getDefaultMemoryBudgetPercent(),
+                                                 configuration.getMemoryBudgetsMegabytes());
+            try (MetricsFileReporter ignored = startMetricsFileReporter()) {
+                for (final DataSource dataSource : dataSources)
+                    if (dataSourceId == null || dataSource.getId().equals(dataSourceId))
+                        processDataSource(dataSource, version, skipUpdate);
+                mergeDataSources();
+                mapDataSources();
+            } finally {
+                artifactExecutor.awaitAll();
+                SlowQueryLog.getInstance().logSummary();
+            }
         }
     }
 
+    private MetricsFileReporter startMetricsFileReporter() {
+        final String metricsFilePath = configuration.getMetricsFilePath();
+        if (metricsFilePath == null || metricsFilePath.isEmpty())
+            return null;
+        final Path path = Paths.get(workingDirectory).resolve(metricsFilePath);
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("Dumping metrics to '" + path + "' every " + configuration.getMetricsDumpIntervalSeconds() +
+                        " seconds");
+        return new MetricsFileReporter(MetricsRegistry.getInstance(), path,
+                                       configuration.getMetricsDumpIntervalSeconds());
+    }
+
     private void processDataSource(final DataSource dataSource, final String version, final boolean skipUpdate) {
         if (LOGGER.isInfoEnabled())
             LOGGER.info("Processing of data source '" + dataSource.getId() + "' started");
@@ -217,8 +351,8 @@ public final class Workspace {
 
     private boolean areDataSourceExportsMissing(final DataSource dataSource) {
         return fileDoesNotExist(dataSource.getFilePath(this, DataSourceFileType.PERSISTENT_GRAPH)) ||
-               (!configuration.shouldSkipGraphMLExport() && fileDoesNotExist(
-                       dataSource.getFilePath(this, DataSourceFileType.INTERMEDIATE_GRAPHML)));
+               (!configuration.shouldSkipGraphMLExport() && fileDoesNotExist(dataSource.getFilePath(
+                       this, GraphMLGraphWriter.getIntermediateFileType(configuration.shouldCompressGraphML()))));
     }
 
     private boolean fileDoesNotExist(final Path filePath) {
@@ -235,7 +369,24 @@ public final class Workspace {
         if (!filePath.toFile().exists())
             return true;
         final Integer exportedVersion = GraphMigrator.peekVersion(filePath);
-        return exportedVersion == null || Graph.VERSION > exportedVersion;
+        return exportedVersion == null || (Graph.VERSION > exportedVersion && !migrateExportedGraph(filePath));
+    }
+
+    /**
+     * @return whether the graph was migrated to the current version, so it doesn't need to be exported again
+     */
+    private boolean migrateExportedGraph(final Path filePath) {
+        final GraphMigrator migrator = new GraphMigrator();
+        if (!migrator.canMigrate(filePath))
+            return false;
+        try {
+            migrator.migrate(filePath);
+            return true;
+        } catch (GraphMigrationException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Failed to migrate graph '" + filePath + "', exporting it again", e);
+            return false;
+        }
     }
 
     private void mergeDataSources() {
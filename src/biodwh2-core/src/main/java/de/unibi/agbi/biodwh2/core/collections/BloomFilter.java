@@ -0,0 +1,146 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Probabilistic set answering whether a value was added to it. Values which were added are always found, values which
+ * weren't are found with the configured false positive rate as long as no more values than expected were added.
+ * Values can't be removed. Adding and testing values is thread-safe without locking. Values without a stable hash
+ * are always reported as possibly contained.
+ */
+public final class BloomFilter implements Serializable {
+    private static final long serialVersionUID = -6480178396209212531L;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_BITS = Long.SIZE;
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long numberOfBits;
+    private final int numberOfHashFunctions;
+    private final AtomicLongArray words;
+    private final AtomicLong insertions;
+
+    public BloomFilter(final long expectedInsertions) {
+        this(expectedInsertions, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    public BloomFilter(final long expectedInsertions, final double falsePositiveRate) {
+        if (expectedInsertions < 1)
+            throw new IllegalArgumentException(
+                    "Expected insertions must be greater than zero but were " + expectedInsertions);
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException(
+                    "False positive rate must be between 0 and 1 exclusive but was " + falsePositiveRate);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        final double ln2 = Math.log(2);
+        final long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        final int length = (int) Math.min(Integer.MAX_VALUE, (Math.max(MIN_BITS, bits) + Long.SIZE - 1) / Long.SIZE);
+        numberOfBits = (long) length * Long.SIZE;
+        numberOfHashFunctions = Math.max(1, (int) Math.round((double) numberOfBits / expectedInsertions * ln2));
+        words = new AtomicLongArray(length);
+        insertions = new AtomicLong();
+    }
+
+    private BloomFilter(final BloomFilter source) {
+        expectedInsertions = source.expectedInsertions;
+        falsePositiveRate = source.falsePositiveRate;
+        numberOfBits = source.numberOfBits;
+        numberOfHashFunctions = source.numberOfHashFunctions;
+        words = new AtomicLongArray(source.words.length());
+        for (int i = 0; i < words.length(); i++)
+            words.set(i, source.words.get(i));
+        insertions = new AtomicLong(source.insertions.get());
+    }
+
+    public BloomFilter copy() {
+        return new BloomFilter(this);
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * @return the false positive rate the filter was sized for
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * @return whether more values were added than expected, so the false positive rate exceeds the configured rate
+     */
+    public boolean isSaturated() {
+        return insertions.get() > expectedInsertions;
+    }
+
+    public long getSizeInBytes() {
+        return numberOfBits / Byte.SIZE;
+    }
+
+    /**
+     * Integral numbers are hashed by their long value, so the same number is found regardless of its type. Values
+     * without a hash which is stable between JVM runs, such as enums, are not added, as the filter may be persisted.
+     */
+    public void add(final Object value) {
+        if (value == null || !ValueHashing.hasStableHash(value))
+            return;
+        final long hash = ValueHashing.hash(value);
+        final long secondHash = secondHash(hash);
+        for (int i = 0; i < numberOfHashFunctions; i++)
+            setBit(Long.remainderUnsigned(hash + i * secondHash, numberOfBits));
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Double hashing derives all bit positions from two hashes. The second hash is odd to never be zero.
+     */
+    private static long secondHash(final long hash) {
+        return ValueHashing.mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private void setBit(final long bit) {
+        final int index = (int) (bit >>> 6);
+        final long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(index);
+        } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+    }
+
+    /**
+     * @return false if the value was never added or true if it probably was or has no stable hash
+     */
+    public boolean mightContain(final Object value) {
+        if (value == null)
+            return false;
+        if (!ValueHashing.hasStableHash(value))
+            return true;
+        final long hash = ValueHashing.hash(value);
+        final long secondHash = secondHash(hash);
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            final long bit = Long.remainderUnsigned(hash + i * secondHash, numberOfBits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the false positive rate estimated from the fraction of set bits, which exceeds the configured rate once
+     * the filter is saturated
+     */
+    public double estimateFalsePositiveRate() {
+        long setBits = 0;
+        for (int i = 0; i < words.length(); i++)
+            setBits += Long.bitCount(words.get(i));
+        return Math.pow((double) setBits / numberOfBits, numberOfHashFunctions);
+    }
+}
@@ -0,0 +1,85 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Sketch estimating the number of distinct values added to it in constant memory. With the default precision of 11,
+ * the sketch uses 2048 registers of one byte each and has a standard error of about 2.3%. Values can't be removed.
+ */
+public final class HyperLogLog implements Serializable {
+    private static final long serialVersionUID = 4279013570318407142L;
+    public static final int DEFAULT_PRECISION = 11;
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(final int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION)
+            throw new IllegalArgumentException(
+                    "Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + " but was " + precision);
+        this.precision = precision;
+        registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(final HyperLogLog source) {
+        precision = source.precision;
+        registers = Arrays.copyOf(source.registers, source.registers.length);
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(this);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Integral numbers are hashed by their long value, so the same number is counted once regardless of its type.
+     */
+    public void add(final Object value) {
+        if (value != null)
+            addHash(ValueHashing.hash(value));
+    }
+
+    private void addHash(final long hash) {
+        final int index = (int) (hash >>> (Long.SIZE - precision));
+        // The marker bit limits the rank if all remaining bits are zero
+        final int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index])
+            registers[index] = (byte) rank;
+    }
+
+    public void merge(final HyperLogLog other) {
+        if (other.precision != precision)
+            throw new IllegalArgumentException(
+                    "Failed to merge sketches of precision " + other.precision + " and " + precision);
+        for (int i = 0; i < registers.length; i++)
+            if (other.registers[i] > registers[i])
+                registers[i] = other.registers[i];
+    }
+
+    public long estimate() {
+        final int count = registers.length;
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (final byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0)
+                zeroRegisters++;
+        }
+        final double alpha = 0.7213 / (1 + 1.079 / count);
+        final double estimate = alpha * count * count / sum;
+        // Linear counting is more accurate for small cardinalities
+        if (estimate <= 2.5 * count && zeroRegisters > 0)
+            return Math.round(count * Math.log((double) count / zeroRegisters));
+        return Math.round(estimate);
+    }
+}
@@ -0,0 +1,59 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of long values stored as bits in pages of 65536 values, which are allocated on first use. Suited for ids which
+ * are dense in some ranges but spread over the whole long range, as node ids allocated in different runs. Not thread
+ * safe.
+ */
+public final class LongBitSet {
+    private static final int PAGE_BITS = 16;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / Long.SIZE;
+    private static final long OFFSET_MASK = (1L << PAGE_BITS) - 1;
+
+    private final Map<Long, long[]> pages = new HashMap<>();
+    private long cardinality;
+
+    /**
+     * @return whether the value was not yet contained
+     */
+    public boolean set(final long value) {
+        final long[] page = pages.computeIfAbsent(value >>> PAGE_BITS, k -> new long[WORDS_PER_PAGE]);
+        final int offset = (int) (value & OFFSET_MASK);
+        final long mask = 1L << offset;
+        if ((page[offset >>> 6] & mask) != 0)
+            return false;
+        page[offset >>> 6] |= mask;
+        cardinality++;
+        return true;
+    }
+
+    public boolean get(final long value) {
+        final long[] page = pages.get(value >>> PAGE_BITS);
+        if (page == null)
+            return false;
+        final int offset = (int) (value & OFFSET_MASK);
+        return (page[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Add all values of the other set to this set.
+     */
+    public void or(final LongBitSet other) {
+        for (final Map.Entry<Long, long[]> entry : other.pages.entrySet()) {
+            final long[] page = pages.computeIfAbsent(entry.getKey(), k -> new long[WORDS_PER_PAGE]);
+            final long[] otherPage = entry.getValue();
+            for (int i = 0; i < WORDS_PER_PAGE; i++) {
+                final long added = otherPage[i] & ~page[i];
+                cardinality += Long.bitCount(added);
+                page[i] |= added;
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+import de.unibi.agbi.biodwh2.core.memory.MemoryBudget;
+import de.unibi.agbi.biodwh2.core.memory.MemoryConsumer;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Hash map which accounts its approximate size against the {@link MemoryBudget} of a stage and spills all in-memory
+ * entries to a temporary MVStore file once the stage exceeds its budget or the heap is under pressure. Keys and
+ * values need to be serializable by MVStore.
+ * <p>
+ * If the values are mutated after being put into the map, the map needs to be created with promotion on access, so
+ * that spilled values are moved back into memory when accessed and changes to them are not lost.
+ */
+public final class SpillableMap<K, V> extends AbstractMap<K, V> implements MemoryConsumer, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillableMap.class);
+    private static final int BUDGET_CHECK_INTERVAL = 1024;
+    private static final int SPILL_STORE_CACHE_SIZE_MB = 4;
+
+    private final String name;
+    private final String stage;
+    private final long estimatedEntryBytes;
+    private final boolean promoteOnAccess;
+    private final Map<K, V> memory;
+    private MVStore spillStore;
+    private MVMap<K, V> spillMap;
+    private Path spillFilePath;
+    private volatile boolean releaseRequested;
+    private int putsSinceBudgetCheck;
+
+    public SpillableMap(final String name, final String stage, final long estimatedEntryBytes) {
+        this(name, stage, estimatedEntryBytes, false);
+    }
+
+    public SpillableMap(final String name, final String stage, final long estimatedEntryBytes,
+                        final boolean promoteOnAccess) {
+        this.name = name;
+        this.stage = stage;
+        this.estimatedEntryBytes = estimatedEntryBytes;
+        this.promoteOnAccess = promoteOnAccess;
+        memory = new HashMap<>();
+        MemoryBudget.getInstance().register(this);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        return memory.size() * estimatedEntryBytes;
+    }
+
+    @Override
+    public void requestRelease() {
+        releaseRequested = true;
+    }
+
+    @Override
+    public V get(final Object key) {
+        final V value = memory.get(key);
+        if (value != null || spillMap == null)
+            return value;
+        if (!promoteOnAccess)
+            return spillMap.get(key);
+        //noinspection unchecked
+        final V spilledValue = spillMap.remove((K) key);
+        if (spilledValue != null) {
+            //noinspection unchecked
+            memory.put((K) key, spilledValue);
+            MemoryBudget.getInstance().account(stage, estimatedEntryBytes);
+        }
+        return spilledValue;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return memory.containsKey(key) || (spillMap != null && spillMap.containsKey(key));
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        V previous = memory.put(key, value);
+        if (previous == null) {
+            MemoryBudget.getInstance().account(stage, estimatedEntryBytes);
+            if (spillMap != null)
+                previous = spillMap.remove(key);
+        }
+        if (++putsSinceBudgetCheck >= BUDGET_CHECK_INTERVAL || releaseRequested)
+            checkBudget();
+        return previous;
+    }
+
+    private void checkBudget() {
+        putsSinceBudgetCheck = 0;
+        final MemoryBudget budget = MemoryBudget.getInstance();
+        if (releaseRequested || budget.isOverBudget(stage) || budget.isUnderPressure())
+            spill();
+    }
+
+    /**
+     * Move all in-memory entries to the spill file.
+     */
+    public void spill() {
+        releaseRequested = false;
+        if (memory.isEmpty())
+            return;
+        if (spillMap == null)
+            openSpillStore();
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("Spilling " + memory.size() + " entries of '" + name + "' to disk");
+        spillMap.putAll(memory);
+        MemoryBudget.getInstance().account(stage, -getEstimatedBytes());
+        memory.clear();
+        spillStore.commit();
+    }
+
+    private void openSpillStore() {
+        try {
+            spillFilePath = Files.createTempFile("biodwh2-spill-", ".mv");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create spill file for '" + name + "'", e);
+        }
+        final File spillFile = spillFilePath.toFile();
+        spillFile.deleteOnExit();
+        spillStore = new MVStore.Builder().fileName(spillFile.getAbsolutePath()).cacheSize(SPILL_STORE_CACHE_SIZE_MB)
+                                          .autoCommitDisabled().open();
+        spillMap = spillStore.openMap(name);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final V value = memory.remove(key);
+        if (value != null) {
+            MemoryBudget.getInstance().account(stage, -estimatedEntryBytes);
+            return value;
+        }
+        //noinspection unchecked
+        return spillMap != null ? spillMap.remove((K) key) : null;
+    }
+
+    @Override
+    public int size() {
+        return memory.size() + (spillMap != null ? spillMap.size() : 0);
+    }
+
+    @Override
+    public void clear() {
+        MemoryBudget.getInstance().account(stage, -getEstimatedBytes());
+        memory.clear();
+        if (spillMap != null)
+            spillMap.clear();
+    }
+
+    public boolean hasSpilled() {
+        return spillMap != null;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final Iterator<Entry<K, V>> memoryIterator = memory.entrySet().iterator();
+                if (spillMap == null)
+                    return memoryIterator;
+                final Iterator<Entry<K, V>> spillIterator = spillMap.entrySet().iterator();
+                return new Iterator<Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return memoryIterator.hasNext() || spillIterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        return memoryIterator.hasNext() ? memoryIterator.next() : spillIterator.next();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SpillableMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        MemoryBudget.getInstance().unregister(this);
+        MemoryBudget.getInstance().account(stage, -getEstimatedBytes());
+        memory.clear();
+        if (spillStore != null) {
+            spillStore.closeImmediately();
+            spillStore = null;
+            spillMap = null;
+            try {
+                Files.deleteIfExists(spillFilePath);
+            } catch (IOException e) {
+                if (LOGGER.isWarnEnabled())
+                    LOGGER.warn("Failed to delete spill file '" + spillFilePath + "'", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+/**
+ * 64-bit hashes of property values for probabilistic structures. Integral numbers are hashed by their long value, so
+ * the same number has the same hash regardless of its type. Only strings, numbers, booleans and characters have
+ * hashes which are stable between JVM runs, other values are hashed by their hash code.
+ */
+final class ValueHashing {
+    private ValueHashing() {
+    }
+
+    static long hash(final Object value) {
+        if (value instanceof String)
+            return hash((String) value);
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            return mix(((Number) value).longValue());
+        if (value instanceof Double || value instanceof Float)
+            return mix(Double.doubleToLongBits(((Number) value).doubleValue()));
+        if (value instanceof Boolean)
+            return mix((Boolean) value ? 1 : 0);
+        if (value instanceof Character)
+            return mix((Character) value);
+        return mix(value.hashCode());
+    }
+
+    /**
+     * @return whether the hash of the value is the same in every JVM run, so it may be persisted
+     */
+    static boolean hasStableHash(final Object value) {
+        return value instanceof String || value instanceof Long || value instanceof Integer ||
+               value instanceof Short || value instanceof Byte || value instanceof Double || value instanceof Float ||
+               value instanceof Boolean || value instanceof Character;
+    }
+
+    private static long hash(final String value) {
+        // 64-bit FNV-1a, as the 32-bit string hash code collides too often for large cardinalities
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,182 @@
+package de.unibi.agbi.biodwh2.core.etl;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.text.TableFormatter;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Generates secondary artifacts of exported graphs, such as the GraphML file and meta graph statistics, in the
+ * background so the pipeline can proceed with the next data source. Each submitted graph is no longer modified by
+ * the exporter, is read by the artifacts in order and closed once all of them finished.
+ */
+public final class ArtifactExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactExecutor.class);
+
+    public interface Artifact {
+        String getName();
+
+        /**
+         * @return whether the artifact was generated successfully
+         */
+        boolean generate(final Graph graph);
+    }
+
+    public static Artifact artifact(final String name, final Predicate<Graph> generator) {
+        return new Artifact() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public boolean generate(final Graph graph) {
+                return generator.test(graph);
+            }
+        };
+    }
+
+    public static final class Failure {
+        private final String dataSourceId;
+        private final String artifactName;
+        private final Exception exception;
+
+        Failure(final String dataSourceId, final String artifactName, final Exception exception) {
+            this.dataSourceId = dataSourceId;
+            this.artifactName = artifactName;
+            this.exception = exception;
+        }
+
+        public String getDataSourceId() {
+            return dataSourceId;
+        }
+
+        public String getArtifactName() {
+            return artifactName;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+    }
+
+    private final int numberOfThreads;
+    private final Map<String, List<Future<?>>> pendingTasks;
+    private final List<Failure> failures;
+    private ExecutorService executor;
+
+    public ArtifactExecutor(final int numberOfThreads) {
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+        pendingTasks = new HashMap<>();
+        failures = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Submit the artifacts of a data source graph. The executor takes ownership of the graph and closes it after
+     * all artifacts were generated.
+     */
+    public synchronized void submit(final String dataSourceId, final Graph graph, final List<Artifact> artifacts) {
+        if (artifacts.isEmpty()) {
+            graph.close();
+            return;
+        }
+        if (executor == null)
+            executor = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+                final Thread thread = new Thread(runnable, "biodwh2-artifacts");
+                thread.setDaemon(true);
+                return thread;
+            });
+        final Future<?> future = executor.submit(() -> generateArtifacts(dataSourceId, graph, artifacts));
+        pendingTasks.computeIfAbsent(dataSourceId, k -> new ArrayList<>()).add(future);
+    }
+
+    private void generateArtifacts(final String dataSourceId, final Graph graph, final List<Artifact> artifacts) {
+        try {
+            for (final Artifact artifact : artifacts)
+                generateArtifact(dataSourceId, graph, artifact);
+        } finally {
+            graph.close();
+        }
+    }
+
+    private void generateArtifact(final String dataSourceId, final Graph graph, final Artifact artifact) {
+        try {
+            if (!artifact.generate(graph))
+                addFailure(dataSourceId, artifact.getName(), null);
+        } catch (RuntimeException e) {
+            addFailure(dataSourceId, artifact.getName(), e);
+        }
+    }
+
+    private void addFailure(final String dataSourceId, final String artifactName, final Exception e) {
+        failures.add(new Failure(dataSourceId, artifactName, e));
+        if (LOGGER.isErrorEnabled())
+            LOGGER.error("Failed to generate " + artifactName + " of data source '" + dataSourceId + "'", e);
+    }
+
+    /**
+     * Wait until all artifacts of the data source were generated and its graph was closed.
+     */
+    public void await(final String dataSourceId) {
+        final List<Future<?>> futures;
+        synchronized (this) {
+            futures = pendingTasks.remove(dataSourceId);
+        }
+        if (futures != null)
+            for (final Future<?> future : futures)
+                awaitFuture(future);
+    }
+
+    private static void awaitFuture(final Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (LOGGER.isErrorEnabled())
+                LOGGER.error("Artifact generation failed unexpectedly", e.getCause());
+        }
+    }
+
+    /**
+     * Wait until all submitted artifacts were generated, report and clear failures and stop the background threads.
+     */
+    public void awaitAll() {
+        final List<String> dataSourceIds;
+        synchronized (this) {
+            dataSourceIds = new ArrayList<>(pendingTasks.keySet());
+        }
+        if (!dataSourceIds.isEmpty() && LOGGER.isInfoEnabled())
+            LOGGER.info("Waiting for background artifacts of " + StringUtils.join(dataSourceIds, ", "));
+        for (final String dataSourceId : dataSourceIds)
+            await(dataSourceId);
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
+        }
+        logFailures();
+        failures.clear();
+    }
+
+    private void logFailures() {
+        if (failures.isEmpty() || !LOGGER.isErrorEnabled())
+            return;
+        final List<List<String>> rows = new ArrayList<>();
+        for (final Failure failure : failures)
+            rows.add(Arrays.asList(failure.dataSourceId, failure.artifactName,
+                                   failure.exception == null ? "-" : String.valueOf(failure.exception.getMessage())));
+        LOGGER.error("Failed to generate " + failures.size() + " background artifacts:\n" +
+                     new TableFormatter().format(Arrays.asList("SourceID", "Artifact", "Error"), rows));
+    }
+
+    public List<Failure> getFailures() {
+        return new ArrayList<>(failures);
+    }
+}
@@ -2,6 +2,7 @@ package de.unibi.agbi.biodwh2.core.etl;
 
 import de.unibi.agbi.biodwh2.core.DataSource;
 import de.unibi.agbi.biodwh2.core.Workspace;
+import de.unibi.agbi.biodwh2.core.collections.SpillableMap;
 import de.unibi.agbi.biodwh2.core.exceptions.ExporterException;
 import de.unibi.agbi.biodwh2.core.graphics.MetaGraphImage;
 import de.unibi.agbi.biodwh2.core.io.FileUtils;
@@ -15,48 +16,72 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class GraphExporter<D extends DataSource> {
     private static final Logger LOGGER = LoggerFactory.getLogger(GraphExporter.class);
     public static final String ID_KEY = "id";
 
     protected final D dataSource;
+    private final List<SpillableMap<?, ?>> spillableMaps;
 
     public GraphExporter(final D dataSource) {
         this.dataSource = dataSource;
+        spillableMaps = new ArrayList<>();
     }
 
     public abstract long getExportVersion();
 
     public final boolean export(final Workspace workspace) throws ExporterException {
-        boolean exportSuccessful;
-        try (Graph g = new Graph(dataSource.getFilePath(workspace, DataSourceFileType.PERSISTENT_GRAPH))) {
+        final Graph g = new Graph(dataSource.getFilePath(workspace, DataSourceFileType.PERSISTENT_GRAPH));
+        boolean exportSuccessful = false;
+        try {
             exportSuccessful = exportGraph(workspace, g);
-            if (exportSuccessful) {
-                exportSuccessful = trySaveGraphToFile(workspace, g);
-                if (exportSuccessful)
-                    generateMetaGraphStatistics(workspace, g);
-            }
+        } finally {
+            closeSpillableMaps();
+            if (!exportSuccessful)
+                g.close();
         }
+        // The graph is not modified anymore and handed over to the background artifacts which close it when done
+        if (exportSuccessful)
+            workspace.getArtifactExecutor().submit(dataSource.getId(), g, createArtifacts(workspace));
         return exportSuccessful;
     }
 
     protected abstract boolean exportGraph(final Workspace workspace, final Graph graph) throws ExporterException;
 
-    private boolean trySaveGraphToFile(final Workspace workspace, final Graph g) {
-        final GraphMLGraphWriter writer = new GraphMLGraphWriter();
+    /**
+     * Create a lookup map which is accounted against the memory budget of this data source and spilled to disk when
+     * the budget is exceeded. The map is closed automatically after {@link #exportGraph(Workspace, Graph)} returned.
+     */
+    protected final <K, V> SpillableMap<K, V> createSpillableMap(final String name, final long estimatedEntryBytes) {
+        return createSpillableMap(name, estimatedEntryBytes, false);
+    }
+
+    protected final <K, V> SpillableMap<K, V> createSpillableMap(final String name, final long estimatedEntryBytes,
+                                                                final boolean promoteOnAccess) {
+        final SpillableMap<K, V> map = new SpillableMap<>(dataSource.getId() + "." + name, dataSource.getId(),
+                                                          estimatedEntryBytes, promoteOnAccess);
+        spillableMaps.add(map);
+        return map;
+    }
+
+    private void closeSpillableMaps() {
+        for (final SpillableMap<?, ?> map : spillableMaps)
+            map.close();
+        spillableMaps.clear();
+    }
+
+    private List<ArtifactExecutor.Artifact> createArtifacts(final Workspace workspace) {
+        final List<ArtifactExecutor.Artifact> artifacts = new ArrayList<>();
+        final GraphMLGraphWriter writer = GraphMLGraphWriter.forConfiguration(workspace.getConfiguration());
         if (workspace.getConfiguration().shouldSkipGraphMLExport()) {
             if (LOGGER.isInfoEnabled())
                 LOGGER.info("Skipping '" + dataSource.getId() + "' GraphML export as per configuration");
             writer.removeOldExport(workspace, dataSource);
-            return true;
-        }
-        if (LOGGER.isInfoEnabled())
-            LOGGER.info("Save '" + dataSource.getId() + "' data source graph to GraphML");
-        return writer.write(workspace, dataSource, g);
-    }
-
-    private void generateMetaGraphStatistics(final Workspace workspace, final Graph g) {
+        } else
+            artifacts.add(ArtifactExecutor.artifact("GraphML export", g -> saveGraphToFile(workspace, writer, g)));
         final Path metaGraphImageFilePath = dataSource.getFilePath(workspace, DataSourceFileType.META_GRAPH_IMAGE);
         final Path metaGraphStatsFilePath = dataSource.getFilePath(workspace, DataSourceFileType.META_GRAPH_STATISTICS);
         final Path metaGraphDynamicVisFilePath = dataSource.getFilePath(workspace, DataSourceFileType.META_GRAPH_DYNAMIC_VIS);
@@ -66,26 +91,65 @@ public abstract class GraphExporter<D extends DataSource> {
             FileUtils.safeDelete(metaGraphImageFilePath);
             FileUtils.safeDelete(metaGraphStatsFilePath);
             FileUtils.safeDelete(metaGraphDynamicVisFilePath);
-            return;
+            return artifacts;
         }
+        final MetaGraphHolder metaGraph = new MetaGraphHolder();
+        artifacts.add(ArtifactExecutor.artifact("meta graph statistics", g -> {
+            if (metaGraph.get(g) != null) {
+                final String statistics = new MetaGraphStatisticsWriter(metaGraph.get(g)).write();
+                if (LOGGER.isInfoEnabled())
+                    LOGGER.info(statistics);
+                FileUtils.writeTextToUTF8File(metaGraphStatsFilePath, statistics);
+            }
+            return true;
+        }));
+        artifacts.add(ArtifactExecutor.artifact("meta graph image", g -> {
+            if (metaGraph.get(g) != null) {
+                if (LOGGER.isInfoEnabled())
+                    LOGGER.info("Exporting meta graph image to " + metaGraphImageFilePath);
+                new MetaGraphImage(metaGraph.get(g), 1024, 1024).drawAndSaveImage(metaGraphImageFilePath);
+            }
+            return true;
+        }));
+        artifacts.add(ArtifactExecutor.artifact("meta graph visualisation", g -> {
+            if (metaGraph.get(g) != null)
+                new MetaGraphDynamicVisWriter(metaGraph.get(g)).write(metaGraphDynamicVisFilePath);
+            return true;
+        }));
+        return artifacts;
+    }
+
+    private boolean saveGraphToFile(final Workspace workspace, final GraphMLGraphWriter writer, final Graph g) {
         if (LOGGER.isInfoEnabled())
-            LOGGER.info("Generating '" + dataSource.getId() + "' data source meta graph");
-        final MetaGraph metaGraph = new MetaGraph(g);
-        if (metaGraph.getNodeLabelCount() == 0 && metaGraph.getEdgeLabelCount() == 0) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Skipping meta graph image generation of empty meta graph");
-            return;
-        }
-        final String statistics = new MetaGraphStatisticsWriter(metaGraph).write();
-        if (LOGGER.isInfoEnabled()) {
-            LOGGER.info(statistics);
-            LOGGER.info("Exporting meta graph image to " + metaGraphImageFilePath);
+            LOGGER.info("Save '" + dataSource.getId() + "' data source graph to GraphML");
+        if (writer.write(workspace, dataSource, g))
+            return true;
+        // Remove incomplete exports so the data source is exported again on the next run
+        writer.removeOldExport(workspace, dataSource);
+        return false;
+    }
+
+    /**
+     * Builds the meta graph once for all meta graph artifacts, which are generated in order on the same thread.
+     */
+    private final class MetaGraphHolder {
+        private boolean built;
+        private MetaGraph metaGraph;
+
+        MetaGraph get(final Graph g) {
+            if (!built) {
+                built = true;
+                if (LOGGER.isInfoEnabled())
+                    LOGGER.info("Generating '" + dataSource.getId() + "' data source meta graph");
+                metaGraph = new MetaGraph(g);
+                if (metaGraph.getNodeLabelCount() == 0 && metaGraph.getEdgeLabelCount() == 0) {
+                    if (LOGGER.isWarnEnabled())
+                        LOGGER.warn("Skipping meta graph image generation of empty meta graph");
+                    metaGraph = null;
+                }
+            }
+            return metaGraph;
         }
-        final MetaGraphImage image = new MetaGraphImage(metaGraph, 1024, 1024);
-        image.drawAndSaveImage(metaGraphImageFilePath);
-        FileUtils.writeTextToUTF8File(metaGraphStatsFilePath, statistics);
-        final MetaGraphDynamicVisWriter visWriter = new MetaGraphDynamicVisWriter(metaGraph);
-        visWriter.write(metaGraphDynamicVisFilePath);
     }
 
     protected final <T> void createNodesFromModels(final Graph g, final Iterable<T> models) {
@@ -8,6 +8,8 @@ import de.unibi.agbi.biodwh2.core.io.graph.GraphMLGraphWriter;
 import de.unibi.agbi.biodwh2.core.model.WorkspaceFileType;
 import de.unibi.agbi.biodwh2.core.model.graph.*;
 import de.unibi.agbi.biodwh2.core.model.graph.meta.MetaGraph;
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
 import de.unibi.agbi.biodwh2.core.text.MetaGraphDynamicVisWriter;
 import de.unibi.agbi.biodwh2.core.text.MetaGraphStatisticsWriter;
 import org.slf4j.Logger;
@@ -56,6 +58,7 @@ public final class GraphMapper {
         if (LOGGER.isInfoEnabled())
             LOGGER.info("Mapping paths");
         mapPaths(graph, map);
+        graph.rebuildStaleClosureIndices();
     }
 
     private Map<String, MappingDescriber> getDataSourceDescriberMap(final DataSource[] dataSources) {
@@ -80,16 +83,25 @@ public final class GraphMapper {
         final String prefixedMappingLabel = describer.prefixLabel(localMappingLabel);
         if (LOGGER.isInfoEnabled())
             LOGGER.info("Mapping nodes with label '" + prefixedMappingLabel + "'");
-        for (final Node node : graph.getNodes(prefixedMappingLabel)) {
-            final NodeMappingDescription[] mappingDescriptions = describer.describe(graph, node, localMappingLabel);
-            if (mappingDescriptions != null)
-                for (final NodeMappingDescription mappingDescription : mappingDescriptions)
-                    if (mappingDescription != null) {
-                        final Map<String, Long> idNodeIdMap = labelIdNodeIdMap.computeIfAbsent(
-                                mappingDescription.getType(), k -> new HashMap<>());
-                        mergeMatchingNodes(graph, mappingDescription, idNodeIdMap, node.getId());
-                    }
+        final ProfilingEvents.MapDescriber event = ProfilingEvents.beginMapDescriber();
+        long numberOfNodes = 0;
+        try (ProgressTracker tracker = ProgressTracker.start("Mapping nodes " + prefixedMappingLabel,
+                                                             graph.getNumberOfNodes(prefixedMappingLabel))) {
+            for (final Node node : graph.getNodes(prefixedMappingLabel)) {
+                numberOfNodes++;
+                tracker.step();
+                final NodeMappingDescription[] mappingDescriptions = describer.describe(graph, node,
+                                                                                        localMappingLabel);
+                if (mappingDescriptions != null)
+                    for (final NodeMappingDescription mappingDescription : mappingDescriptions)
+                        if (mappingDescription != null) {
+                            final Map<String, Long> idNodeIdMap = labelIdNodeIdMap.computeIfAbsent(
+                                    mappingDescription.getType(), k -> new HashMap<>());
+                            mergeMatchingNodes(graph, mappingDescription, idNodeIdMap, node.getId());
+                        }
+            }
         }
+        event.end(describer.getDataSourceId(), localMappingLabel, numberOfNodes);
     }
 
     private void mergeMatchingNodes(final Graph graph, final NodeMappingDescription description,
@@ -161,10 +173,15 @@ public final class GraphMapper {
         if (LOGGER.isInfoEnabled())
             LOGGER.info("Mapping edge paths " + path);
         final PathMapping.Segment segment = path.get(0);
-        for (final Node node : graph.getNodes(describer.prefixLabel(segment.fromNodeLabel))) {
-            final long[] currentPathIds = new long[path.getSegmentCount() * 2 + 1];
-            currentPathIds[0] = node.getId();
-            buildPathRecursively(graph, describer, path, 0, currentPathIds);
+        final String fromNodeLabel = describer.prefixLabel(segment.fromNodeLabel);
+        try (ProgressTracker tracker = ProgressTracker.start("Mapping edge paths " + path,
+                                                             graph.getNumberOfNodes(fromNodeLabel))) {
+            for (final Node node : graph.getNodes(fromNodeLabel)) {
+                tracker.step();
+                final long[] currentPathIds = new long[path.getSegmentCount() * 2 + 1];
+                currentPathIds[0] = node.getId();
+                buildPathRecursively(graph, describer, path, 0, currentPathIds);
+            }
         }
     }
 
@@ -226,15 +243,18 @@ public final class GraphMapper {
 
     private void saveGraph(final Graph graph, final Workspace workspace) {
         final Path outputGraphFilePath = workspace.getFilePath(WorkspaceFileType.MAPPED_GRAPHML);
+        final Path compressedOutputGraphFilePath = workspace.getFilePath(WorkspaceFileType.MAPPED_GRAPHML_GZIP);
+        FileUtils.safeDelete(outputGraphFilePath);
+        FileUtils.safeDelete(compressedOutputGraphFilePath);
         if (workspace.getConfiguration().shouldSkipGraphMLExport()) {
             if (LOGGER.isInfoEnabled())
                 LOGGER.info("Skipping mapped graph GraphML export as per configuration");
-            FileUtils.safeDelete(outputGraphFilePath);
             return;
         }
         if (LOGGER.isInfoEnabled())
             LOGGER.info("Save mapped graph to GraphML");
-        new GraphMLGraphWriter().write(outputGraphFilePath, graph);
+        final GraphMLGraphWriter writer = GraphMLGraphWriter.forConfiguration(workspace.getConfiguration());
+        writer.write(writer.isCompressed() ? compressedOutputGraphFilePath : outputGraphFilePath, graph);
     }
 
     private void generateMetaGraphStatistics(final Graph graph, final Workspace workspace) {
@@ -11,6 +11,7 @@ import de.unibi.agbi.biodwh2.core.model.DataSourceFileType;
 import de.unibi.agbi.biodwh2.core.model.WorkspaceFileType;
 import de.unibi.agbi.biodwh2.core.model.graph.Graph;
 import de.unibi.agbi.biodwh2.core.model.graph.meta.MetaGraph;
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
 import de.unibi.agbi.biodwh2.core.text.MetaGraphDynamicVisWriter;
 import de.unibi.agbi.biodwh2.core.text.MetaGraphStatisticsWriter;
 import org.slf4j.Logger;
@@ -41,11 +42,17 @@ public class GraphMerger {
         if (!intermediateGraphFilePath.toFile().exists())
             throw new MergerException(
                     "Failed to merge data source " + dataSource.getId() + " because the exported graph is missing");
+        // The exported graph is still open while its artifacts are generated in the background
+        workspace.getArtifactExecutor().await(dataSource.getId());
         try (Graph databaseToMerge = new Graph(intermediateGraphFilePath, true, true)) {
+            final ProfilingEvents.MergeSource event = ProfilingEvents.beginMergeSource();
+            final long numberOfNodes = databaseToMerge.getNumberOfNodes();
+            final long numberOfEdges = databaseToMerge.getNumberOfEdges();
             if (LOGGER.isInfoEnabled())
-                LOGGER.info("Adding " + databaseToMerge.getNumberOfNodes() + " nodes and " +
-                            databaseToMerge.getNumberOfEdges() + " edges");
-            mergedGraph.mergeDatabase(dataSource.getId(), databaseToMerge);
+                LOGGER.info("Adding " + numberOfNodes + " nodes and " + numberOfEdges + " edges");
+            final int threads = workspace.getConfiguration().getMergeThreads();
+            mergedGraph.mergeDatabase(dataSource.getId(), databaseToMerge, threads);
+            event.end(dataSource.getId(), numberOfNodes, numberOfEdges);
         } catch (GraphCacheException e) {
             throw new MergerException("Failed to merge data source " + dataSource.getId(), e);
         }
@@ -53,15 +60,18 @@ public class GraphMerger {
 
     private void saveMergedGraph(final Workspace workspace, final Graph mergedGraph) {
         final Path outputGraphFilePath = workspace.getFilePath(WorkspaceFileType.MERGED_GRAPHML);
+        final Path compressedOutputGraphFilePath = workspace.getFilePath(WorkspaceFileType.MERGED_GRAPHML_GZIP);
+        FileUtils.safeDelete(outputGraphFilePath);
+        FileUtils.safeDelete(compressedOutputGraphFilePath);
         if (workspace.getConfiguration().shouldSkipGraphMLExport()) {
             if (LOGGER.isInfoEnabled())
                 LOGGER.info("Skipping merged graph GraphML export as per configuration");
-            FileUtils.safeDelete(outputGraphFilePath);
             return;
         }
         if (LOGGER.isInfoEnabled())
             LOGGER.info("Save merged graph to GraphML");
-        new GraphMLGraphWriter().write(outputGraphFilePath, mergedGraph);
+        final GraphMLGraphWriter writer = GraphMLGraphWriter.forConfiguration(workspace.getConfiguration());
+        writer.write(writer.isCompressed() ? compressedOutputGraphFilePath : outputGraphFilePath, mergedGraph);
     }
 
     private void generateMetaGraphStatistics(final Graph graph, final Workspace workspace) {
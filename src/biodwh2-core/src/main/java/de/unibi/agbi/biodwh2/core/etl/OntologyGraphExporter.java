@@ -23,6 +23,8 @@ public abstract class OntologyGraphExporter<D extends DataSource> extends GraphE
     }
 
     protected static final String ID_PROPERTY = "id";
+    protected static final String TERM_LABEL = "Term";
+    protected static final String IS_A_LABEL = "IS_A";
 
     public OntologyGraphExporter(final D dataSource) {
         super(dataSource);
@@ -34,7 +36,7 @@ public abstract class OntologyGraphExporter<D extends DataSource> extends GraphE
         graph.addIndex(IndexDescription.forNode("Subset", ID_PROPERTY, IndexDescription.Type.UNIQUE));
         graph.addIndex(IndexDescription.forNode("SynonymType", ID_PROPERTY, IndexDescription.Type.UNIQUE));
         graph.addIndex(IndexDescription.forNode("Idspace", ID_PROPERTY, IndexDescription.Type.UNIQUE));
-        graph.addIndex(IndexDescription.forNode("Term", ID_PROPERTY, IndexDescription.Type.UNIQUE));
+        graph.addIndex(IndexDescription.forNode(TERM_LABEL, ID_PROPERTY, IndexDescription.Type.UNIQUE));
         graph.addIndex(IndexDescription.forNode("Typedef", ID_PROPERTY, IndexDescription.Type.UNIQUE));
         graph.addIndex(IndexDescription.forNode("Instance", ID_PROPERTY, IndexDescription.Type.UNIQUE));
         try {
@@ -45,6 +47,7 @@ public abstract class OntologyGraphExporter<D extends DataSource> extends GraphE
         } catch (IOException e) {
             throw new ExporterFormatException("Failed to export '" + getOntologyFileName() + "'", e);
         }
+        graph.buildClosureIndex(TERM_LABEL, IS_A_LABEL);
         return true;
     }
 
@@ -161,7 +164,7 @@ public abstract class OntologyGraphExporter<D extends DataSource> extends GraphE
         builder.withPropertyIfNotNull("builtin", term.builtin());
         final Node node = builder.build();
         handleRelationshipsWithRelId(graph, term.getRelationships(), node, relationCache);
-        handleRelationships(graph, term.isA(), "IS_A", node, relationCache);
+        handleRelationships(graph, term.isA(), IS_A_LABEL, node, relationCache);
         handleRelationships(graph, term.equivalentTo(), "EQUIVALENT_TO", node, relationCache);
         handleRelationships(graph, term.disjointFrom(), "DISJOINT_FROM", node, relationCache);
         handleRelationships(graph, term.unionOf(), "UNION_OF", node, relationCache);
@@ -284,7 +287,7 @@ public abstract class OntologyGraphExporter<D extends DataSource> extends GraphE
         handleRelationships(graph, typedef.intersectionOf(), "INTERSECTION_OF", node, relationCache);
         handleRelationships(graph, typedef.holdsOverChain(), "HOLDS_OVER_CHAIN", node, relationCache);
         handleRelationships(graph, typedef.equivalentToChain(), "EQUIVALENT_TO_CHAIN", node, relationCache);
-        handleRelationships(graph, typedef.isA(), "IS_A", node, relationCache);
+        handleRelationships(graph, typedef.isA(), IS_A_LABEL, node, relationCache);
         handleRelationships(graph, typedef.equivalentTo(), "EQUIVALENT_TO", node, relationCache);
         handleRelationships(graph, typedef.disjointFrom(), "DISJOINT_FROM", node, relationCache);
         handleRelationships(graph, typedef.unionOf(), "UNION_OF", node, relationCache);
@@ -0,0 +1,26 @@
+package de.unibi.agbi.biodwh2.core.exceptions;
+
+public class GraphMigrationException extends RuntimeException {
+    private static final long serialVersionUID = 4607938126154791342L;
+
+    public GraphMigrationException() {
+        super();
+    }
+
+    public GraphMigrationException(final String message) {
+        super(message);
+    }
+
+    public GraphMigrationException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+    public GraphMigrationException(final Throwable cause) {
+        super(cause);
+    }
+
+    public GraphMigrationException(final String message, final Throwable cause, final boolean enableSuppression,
+                               final boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
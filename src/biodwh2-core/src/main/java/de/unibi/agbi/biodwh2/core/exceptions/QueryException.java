@@ -0,0 +1,26 @@
+package de.unibi.agbi.biodwh2.core.exceptions;
+
+public class QueryException extends RuntimeException {
+    private static final long serialVersionUID = 4417069385132586231L;
+
+    public QueryException() {
+        super();
+    }
+
+    public QueryException(final String message) {
+        super(message);
+    }
+
+    public QueryException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+    public QueryException(final Throwable cause) {
+        super(cause);
+    }
+
+    public QueryException(final String message, final Throwable cause, final boolean enableSuppression,
+                          final boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,26 @@
+package de.unibi.agbi.biodwh2.core.exceptions;
+
+public class QueryTimeoutException extends QueryException {
+    private static final long serialVersionUID = -6254189036112947365L;
+
+    public QueryTimeoutException() {
+        super();
+    }
+
+    public QueryTimeoutException(final String message) {
+        super(message);
+    }
+
+    public QueryTimeoutException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+    public QueryTimeoutException(final Throwable cause) {
+        super(cause);
+    }
+
+    public QueryTimeoutException(final String message, final Throwable cause, final boolean enableSuppression,
+                                 final boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
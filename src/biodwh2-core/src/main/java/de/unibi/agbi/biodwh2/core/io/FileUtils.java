@@ -8,6 +8,7 @@ import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import de.unibi.agbi.biodwh2.core.DataSource;
 import de.unibi.agbi.biodwh2.core.Workspace;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 
 import java.io.*;
@@ -37,6 +38,13 @@ public final class FileUtils {
         return new BufferedInputStream(Files.newInputStream(Paths.get(filePath)));
     }
 
+    public static BufferedInputStream openInput(final Workspace workspace, final DataSource dataSource,
+                                                final String fileName,
+                                                final ProgressTracker tracker) throws IOException {
+        final Path filePath = Paths.get(dataSource.resolveSourceFilePath(workspace, fileName));
+        return new BufferedInputStream(tracker.track(Files.newInputStream(filePath)));
+    }
+
     public static GZIPInputStream openGzip(final Workspace workspace, final DataSource dataSource,
                                            final String fileName) throws IOException {
         return new GZIPInputStream(openInput(workspace, dataSource, fileName));
@@ -141,6 +149,13 @@ public final class FileUtils {
         return openSeparatedValuesFile(stream, typeClass, '\t', false);
     }
 
+    public static <T> MappingIterator<T> openGzipTsv(final Workspace workspace, final DataSource dataSource,
+                                                     final String fileName, final Class<T> typeClass,
+                                                     final ProgressTracker tracker) throws IOException {
+        final InputStream stream = new GZIPInputStream(openInput(workspace, dataSource, fileName, tracker));
+        return openSeparatedValuesFile(stream, typeClass, '\t', false);
+    }
+
     public static <T> MappingIterator<T> openGzipTsvWithHeader(final Workspace workspace, final DataSource dataSource,
                                                                final String fileName,
                                                                final Class<T> typeClass) throws IOException {
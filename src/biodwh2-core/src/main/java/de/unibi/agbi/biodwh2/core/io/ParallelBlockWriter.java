@@ -0,0 +1,157 @@
+package de.unibi.agbi.biodwh2.core.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes blocks of output which are produced and optionally compressed by worker threads. Blocks are written in the
+ * order they were submitted. The number of blocks in flight is bounded, so the memory usage only depends on the block
+ * size and the number of threads.
+ * <p>
+ * With gzip enabled, every block is deflated independently with a sync flush, which ends it on a byte boundary. The
+ * concatenated blocks form a single deflate stream, which is wrapped in a standard gzip header and trailer, so the
+ * output can be read by any gzip reader.
+ */
+public final class ParallelBlockWriter implements AutoCloseable {
+    private static final byte[] GZIP_HEADER = new byte[]{
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private static final class Block {
+        final byte[] data;
+        final byte[] compressed;
+        final int compressedLength;
+
+        Block(final byte[] data, final byte[] compressed, final int compressedLength) {
+            this.data = data;
+            this.compressed = compressed;
+            this.compressedLength = compressedLength;
+        }
+    }
+
+    private final OutputStream outputStream;
+    private final boolean gzip;
+    private final int maxBlocksInFlight;
+    private final ExecutorService executor;
+    private final Deque<Future<Block>> pending;
+    private final CRC32 crc;
+    private long uncompressedLength;
+    private boolean closed;
+
+    public ParallelBlockWriter(final OutputStream outputStream, final boolean gzip,
+                               final int threads) throws IOException {
+        this.outputStream = outputStream;
+        this.gzip = gzip;
+        final int workers = Math.max(1, threads);
+        maxBlocksInFlight = workers * 2;
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            final Thread thread = new Thread(runnable, "block-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pending = new ArrayDeque<>();
+        crc = new CRC32();
+        if (gzip)
+            outputStream.write(GZIP_HEADER);
+    }
+
+    /**
+     * Submit the producer of the next block. Blocks until the oldest block was written, if too many blocks are in
+     * flight.
+     */
+    public void submit(final Callable<byte[]> producer) throws IOException {
+        if (pending.size() >= maxBlocksInFlight)
+            writeBlock(pending.removeFirst());
+        pending.addLast(executor.submit(() -> createBlock(producer.call())));
+    }
+
+    private Block createBlock(final byte[] data) {
+        if (!gzip)
+            return new Block(data, null, 0);
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            // A sync flush of the complete input produces at most a few bytes more than the input itself
+            byte[] buffer = new byte[data.length + data.length / 1000 + 64];
+            int length = 0;
+            while (true) {
+                length += deflater.deflate(buffer, length, buffer.length - length, Deflater.SYNC_FLUSH);
+                if (length < buffer.length)
+                    break;
+                final byte[] grown = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, length);
+                buffer = grown;
+            }
+            return new Block(data, buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeBlock(final Future<Block> future) throws IOException {
+        final Block block;
+        try {
+            block = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing blocks", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to produce block", e.getCause());
+        }
+        if (gzip) {
+            crc.update(block.data, 0, block.data.length);
+            uncompressedLength += block.data.length;
+            outputStream.write(block.compressed, 0, block.compressedLength);
+        } else
+            outputStream.write(block.data);
+    }
+
+    /**
+     * Write all pending blocks and the gzip trailer. The underlying stream is flushed, but not closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            while (!pending.isEmpty())
+                writeBlock(pending.removeFirst());
+            if (gzip)
+                writeGzipEnd();
+            outputStream.flush();
+        } finally {
+            for (final Future<Block> future : pending)
+                future.cancel(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private void writeGzipEnd() throws IOException {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.finish();
+            final byte[] buffer = new byte[64];
+            int length = 0;
+            while (!deflater.finished())
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            outputStream.write(buffer, 0, length);
+        } finally {
+            deflater.end();
+        }
+        writeIntLE((int) crc.getValue());
+        writeIntLE((int) uncompressedLength);
+    }
+
+    private void writeIntLE(final int value) throws IOException {
+        outputStream.write(value & 0xff);
+        outputStream.write((value >> 8) & 0xff);
+        outputStream.write((value >> 16) & 0xff);
+        outputStream.write((value >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,83 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreId;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and shared types of the columnar graph table format. See "doc/columnar-format.md" for the layout.
+ */
+public final class ColumnarFormat {
+    public static final int MAGIC = 0x42445743;
+    public static final int VERSION = 1;
+
+    public enum TableKind {
+        NODES,
+        EDGES
+    }
+
+    public enum ColumnType {
+        LONG,
+        INT,
+        DOUBLE,
+        BOOLEAN,
+        STRING;
+
+        static ColumnType fromClass(final Class<?> type) {
+            if (type == null)
+                return STRING;
+            if (type == Long.class || type == long.class || type == MVStoreId.class)
+                return LONG;
+            if (type == Integer.class || type == int.class || type == Short.class || type == short.class ||
+                type == Byte.class || type == byte.class)
+                return INT;
+            if (type == Double.class || type == double.class || type == Float.class || type == float.class)
+                return DOUBLE;
+            if (type == Boolean.class || type == boolean.class)
+                return BOOLEAN;
+            return STRING;
+        }
+    }
+
+    public static final class Column {
+        private final String name;
+        private final ColumnType type;
+        private final boolean list;
+
+        Column(final String name, final ColumnType type, final boolean list) {
+            this.name = name;
+            this.type = type;
+            this.list = list;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ColumnType getType() {
+            return type;
+        }
+
+        public boolean isList() {
+            return list;
+        }
+    }
+
+    private ColumnarFormat() {
+    }
+
+    static void writeString(final DataOutputStream output, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(final DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
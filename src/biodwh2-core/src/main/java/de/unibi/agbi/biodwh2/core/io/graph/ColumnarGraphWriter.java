@@ -0,0 +1,284 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.DataSource;
+import de.unibi.agbi.biodwh2.core.Workspace;
+import de.unibi.agbi.biodwh2.core.io.graph.ColumnarFormat.Column;
+import de.unibi.agbi.biodwh2.core.io.graph.ColumnarFormat.ColumnType;
+import de.unibi.agbi.biodwh2.core.io.graph.ColumnarFormat.TableKind;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreId;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.lang.Type;
+import de.unibi.agbi.biodwh2.core.model.DataSourceFileType;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphFileFormat;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphReadSession;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphView;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Writes every node label and edge label of a graph to its own table file in the columnar format described in
+ * "doc/columnar-format.md". Rows are buffered in row groups of a fixed size, so a table is written in a single pass
+ * with memory bounded by the row group size.
+ */
+public final class ColumnarGraphWriter extends GraphWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarGraphWriter.class);
+    public static final int DEFAULT_ROW_GROUP_SIZE = 16384;
+
+    private final int rowGroupSize;
+
+    public ColumnarGraphWriter() {
+        this(DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    public ColumnarGraphWriter(final int rowGroupSize) {
+        super();
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+    }
+
+    @Override
+    public boolean write(final Workspace workspace, final DataSource dataSource, final Graph graph) {
+        try (GraphReadSession session = graph.openReadSession()) {
+            return write(dataSource.getFilePath(workspace, DataSourceFileType.INTERMEDIATE_COLUMNAR), session);
+        }
+    }
+
+    /**
+     * @param outputPath directory the table files are written to
+     */
+    @Override
+    public boolean write(final Path outputPath, final GraphView graph) {
+        final ProfilingEvents.ExportFile event = ProfilingEvents.beginExportFile();
+        final String extension = GraphFileFormat.COLUMNAR.extension;
+        try (ProgressTracker tracker = ProgressTracker.start("Writing columnar " + outputPath.getFileName(),
+                                                             graph.getNumberOfNodes() + graph.getNumberOfEdges())) {
+            Files.createDirectories(outputPath);
+            final Map<String, String> nodeFileNames = createFileNames("nodes_", graph.getNodeLabels(), extension);
+            for (final Map.Entry<String, String> entry : nodeFileNames.entrySet()) {
+                final List<Column> columns = createColumns(graph.getPropertyKeyTypesForNodeLabel(entry.getKey()),
+                                                           Node.IGNORED_FIELDS, Node.ID_FIELD);
+                writeTable(outputPath.resolve(entry.getValue()), TableKind.NODES, entry.getKey(), columns,
+                           graph.findNodes(entry.getKey()), tracker);
+            }
+            final Map<String, String> edgeFileNames = createFileNames("edges_", graph.getEdgeLabels(), extension);
+            for (final Map.Entry<String, String> entry : edgeFileNames.entrySet()) {
+                final List<Column> columns = createColumns(graph.getPropertyKeyTypesForEdgeLabel(entry.getKey()),
+                                                           Edge.IGNORED_FIELDS, Edge.ID_FIELD, Edge.FROM_ID_FIELD,
+                                                           Edge.TO_ID_FIELD);
+                writeTable(outputPath.resolve(entry.getValue()), TableKind.EDGES, entry.getKey(), columns,
+                           graph.findEdges(entry.getKey()), tracker);
+            }
+        } catch (IOException e) {
+            if (LOGGER.isErrorEnabled())
+                LOGGER.error("Failed to write columnar graph tables", e);
+            event.end(outputPath.toString(), GraphFileFormat.COLUMNAR.name(), false);
+            return false;
+        }
+        event.end(outputPath.toString(), GraphFileFormat.COLUMNAR.name(), true);
+        return true;
+    }
+
+    /**
+     * The id columns come first, followed by all property columns sorted by name.
+     */
+    private static List<Column> createColumns(final Map<String, Type> propertyKeyTypes, final Set<String> ignoredKeys,
+                                              final String... idKeys) {
+        final List<Column> columns = new ArrayList<>();
+        for (final String idKey : idKeys)
+            columns.add(new Column(idKey, ColumnType.LONG, false));
+        final List<String> keys = new ArrayList<>();
+        for (final String key : propertyKeyTypes.keySet())
+            if (!ignoredKeys.contains(key))
+                keys.add(key);
+        Collections.sort(keys);
+        for (final String key : keys) {
+            final Type type = propertyKeyTypes.get(key);
+            if (type == null)
+                columns.add(new Column(key, ColumnType.STRING, false));
+            else if (type.isList())
+                columns.add(new Column(key, ColumnType.fromClass(type.getComponentType()), true));
+            else
+                columns.add(new Column(key, ColumnType.fromClass(type.getType()), false));
+        }
+        return columns;
+    }
+
+    private <T extends MVStoreModel> void writeTable(final Path filePath, final TableKind kind, final String label,
+                                                     final List<Column> columns, final Iterable<T> models,
+                                                     final ProgressTracker tracker) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(filePath), 256 * 1024))) {
+            writeHeader(output, kind, label, columns);
+            final List<T> rows = new ArrayList<>(rowGroupSize);
+            for (final T model : models) {
+                rows.add(model);
+                if (rows.size() == rowGroupSize) {
+                    writeRowGroup(output, columns, rows);
+                    tracker.step(rows.size());
+                    rows.clear();
+                }
+            }
+            if (!rows.isEmpty()) {
+                writeRowGroup(output, columns, rows);
+                tracker.step(rows.size());
+            }
+            output.writeInt(0);
+        }
+    }
+
+    private static void writeHeader(final DataOutputStream output, final TableKind kind, final String label,
+                                    final List<Column> columns) throws IOException {
+        output.writeInt(ColumnarFormat.MAGIC);
+        output.writeInt(ColumnarFormat.VERSION);
+        output.writeByte(kind.ordinal());
+        ColumnarFormat.writeString(output, label);
+        output.writeInt(columns.size());
+        for (final Column column : columns) {
+            ColumnarFormat.writeString(output, column.getName());
+            output.writeByte(column.getType().ordinal());
+            output.writeBoolean(column.isList());
+        }
+    }
+
+    private static void writeRowGroup(final DataOutputStream output, final List<Column> columns,
+                                      final List<? extends MVStoreModel> rows) throws IOException {
+        output.writeInt(rows.size());
+        final Object[] values = new Object[rows.size()];
+        for (final Column column : columns) {
+            for (int i = 0; i < values.length; i++)
+                values[i] = rows.get(i).get(column.getName());
+            if (column.isList())
+                writeListValues(output, column.getType(), values);
+            else
+                writeValues(output, column.getType(), values);
+        }
+    }
+
+    private static void writeListValues(final DataOutputStream output, final ColumnType type,
+                                        final Object[] values) throws IOException {
+        final Object[][] lists = new Object[values.length][];
+        int totalLength = 0;
+        for (int i = 0; i < values.length; i++) {
+            lists[i] = toArray(values[i]);
+            if (lists[i] != null)
+                totalLength += lists[i].length;
+        }
+        writePresence(output, lists);
+        final Object[] elements = new Object[totalLength];
+        int offset = 0;
+        for (final Object[] list : lists) {
+            output.writeInt(list != null ? list.length : 0);
+            if (list != null) {
+                System.arraycopy(list, 0, elements, offset, list.length);
+                offset += list.length;
+            }
+        }
+        writeValues(output, type, elements);
+    }
+
+    private static Object[] toArray(final Object value) {
+        if (value == null)
+            return null;
+        if (value instanceof Collection)
+            return ((Collection<?>) value).toArray();
+        if (!value.getClass().isArray())
+            return new Object[]{value};
+        final Object[] result = new Object[Array.getLength(value)];
+        for (int i = 0; i < result.length; i++)
+            result[i] = Array.get(value, i);
+        return result;
+    }
+
+    private static void writePresence(final DataOutputStream output, final Object[] values) throws IOException {
+        final byte[] bitmap = new byte[(values.length + 7) / 8];
+        for (int i = 0; i < values.length; i++)
+            if (values[i] != null)
+                bitmap[i >> 3] |= 1 << (i & 7);
+        output.write(bitmap);
+    }
+
+    private static void writeValues(final DataOutputStream output, final ColumnType type,
+                                    final Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++)
+            values[i] = convert(type, values[i]);
+        writePresence(output, values);
+        switch (type) {
+            case LONG:
+                for (final Object value : values)
+                    output.writeLong(value != null ? (Long) value : 0);
+                break;
+            case INT:
+                for (final Object value : values)
+                    output.writeInt(value != null ? (Integer) value : 0);
+                break;
+            case DOUBLE:
+                for (final Object value : values)
+                    output.writeDouble(value != null ? (Double) value : 0);
+                break;
+            case BOOLEAN:
+                for (final Object value : values)
+                    output.writeBoolean(Boolean.TRUE.equals(value));
+                break;
+            case STRING:
+                writeDictionaryEncodedStrings(output, values);
+                break;
+        }
+    }
+
+    /**
+     * Values which cannot be represented in the column type are treated as missing.
+     */
+    private static Object convert(final ColumnType type, final Object value) {
+        if (value == null)
+            return null;
+        switch (type) {
+            case LONG:
+                if (value instanceof MVStoreId)
+                    return ((MVStoreId) value).getIdValue();
+                return value instanceof Number ? ((Number) value).longValue() : null;
+            case INT:
+                return value instanceof Number ? ((Number) value).intValue() : null;
+            case DOUBLE:
+                return value instanceof Number ? ((Number) value).doubleValue() : null;
+            case BOOLEAN:
+                return value instanceof Boolean ? value : null;
+            default:
+                return value.toString();
+        }
+    }
+
+    /**
+     * Strings are dictionary encoded per row group, so repeated values such as sources or types are only stored once
+     * per row group.
+     */
+    private static void writeDictionaryEncodedStrings(final DataOutputStream output,
+                                                      final Object[] values) throws IOException {
+        final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        final int[] indices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null)
+                indices[i] = -1;
+            else {
+                final Integer index = dictionary.putIfAbsent((String) values[i], dictionary.size());
+                indices[i] = index != null ? index : dictionary.size() - 1;
+            }
+        }
+        output.writeInt(dictionary.size());
+        for (final String value : dictionary.keySet())
+            ColumnarFormat.writeString(output, value);
+        for (final int index : indices)
+            output.writeInt(index);
+    }
+}
@@ -0,0 +1,196 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.io.graph.ColumnarFormat.Column;
+import de.unibi.agbi.biodwh2.core.io.graph.ColumnarFormat.ColumnType;
+import de.unibi.agbi.biodwh2.core.io.graph.ColumnarFormat.TableKind;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a table file written by the {@link ColumnarGraphWriter} one row group at a time.
+ */
+public final class ColumnarTableReader implements AutoCloseable {
+    private final DataInputStream input;
+    private final TableKind kind;
+    private final String label;
+    private final List<Column> columns;
+    private boolean finished;
+
+    public ColumnarTableReader(final Path filePath) throws IOException {
+        this(Files.newInputStream(filePath));
+    }
+
+    public ColumnarTableReader(final InputStream stream) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(stream, 256 * 1024));
+        try {
+            if (input.readInt() != ColumnarFormat.MAGIC)
+                throw new IOException("Not a columnar graph table");
+            final int version = input.readInt();
+            if (version != ColumnarFormat.VERSION)
+                throw new IOException("Unsupported columnar graph table version " + version);
+            kind = TableKind.values()[input.readByte()];
+            label = ColumnarFormat.readString(input);
+            final int columnCount = input.readInt();
+            final List<Column> columns = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                final String name = ColumnarFormat.readString(input);
+                final ColumnType type = ColumnType.values()[input.readByte()];
+                columns.add(new Column(name, type, input.readBoolean()));
+            }
+            this.columns = Collections.unmodifiableList(columns);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    public TableKind getKind() {
+        return kind;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the next row group or null if the end of the table was reached
+     */
+    public RowGroup readRowGroup() throws IOException {
+        if (finished)
+            return null;
+        final int rowCount = input.readInt();
+        if (rowCount == 0) {
+            finished = true;
+            return null;
+        }
+        final Object[][] values = new Object[columns.size()][];
+        for (int i = 0; i < values.length; i++) {
+            final Column column = columns.get(i);
+            values[i] = column.isList() ? readListValues(column.getType(), rowCount) : readValues(column.getType(),
+                                                                                                  rowCount);
+        }
+        return new RowGroup(rowCount, values);
+    }
+
+    private Object[] readListValues(final ColumnType type, final int count) throws IOException {
+        final boolean[] present = readPresence(count);
+        final int[] lengths = new int[count];
+        int totalLength = 0;
+        for (int i = 0; i < count; i++) {
+            lengths[i] = input.readInt();
+            totalLength += lengths[i];
+        }
+        final Object[] elements = readValues(type, totalLength);
+        final Object[] result = new Object[count];
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            if (present[i]) {
+                final Object[] list = new Object[lengths[i]];
+                System.arraycopy(elements, offset, list, 0, list.length);
+                result[i] = list;
+            }
+            offset += lengths[i];
+        }
+        return result;
+    }
+
+    private boolean[] readPresence(final int count) throws IOException {
+        final byte[] bitmap = new byte[(count + 7) / 8];
+        input.readFully(bitmap);
+        final boolean[] present = new boolean[count];
+        for (int i = 0; i < count; i++)
+            present[i] = (bitmap[i >> 3] & (1 << (i & 7))) != 0;
+        return present;
+    }
+
+    private Object[] readValues(final ColumnType type, final int count) throws IOException {
+        final boolean[] present = readPresence(count);
+        final Object[] result = new Object[count];
+        switch (type) {
+            case LONG:
+                for (int i = 0; i < count; i++) {
+                    final long value = input.readLong();
+                    if (present[i])
+                        result[i] = value;
+                }
+                break;
+            case INT:
+                for (int i = 0; i < count; i++) {
+                    final int value = input.readInt();
+                    if (present[i])
+                        result[i] = value;
+                }
+                break;
+            case DOUBLE:
+                for (int i = 0; i < count; i++) {
+                    final double value = input.readDouble();
+                    if (present[i])
+                        result[i] = value;
+                }
+                break;
+            case BOOLEAN:
+                for (int i = 0; i < count; i++) {
+                    final boolean value = input.readBoolean();
+                    if (present[i])
+                        result[i] = value;
+                }
+                break;
+            case STRING:
+                final String[] dictionary = new String[input.readInt()];
+                for (int i = 0; i < dictionary.length; i++)
+                    dictionary[i] = ColumnarFormat.readString(input);
+                for (int i = 0; i < count; i++) {
+                    final int index = input.readInt();
+                    if (index >= 0)
+                        result[i] = dictionary[index];
+                }
+                break;
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    public final class RowGroup {
+        private final int rowCount;
+        private final Object[][] values;
+
+        private RowGroup(final int rowCount, final Object[][] values) {
+            this.rowCount = rowCount;
+            this.values = values;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return the boxed value, an Object array for list columns or null if the value is missing
+         */
+        public Object getValue(final String columnName, final int row) {
+            for (int i = 0; i < columns.size(); i++)
+                if (columns.get(i).getName().equals(columnName))
+                    return values[i][row];
+            throw new IllegalArgumentException("Unknown column '" + columnName + "'");
+        }
+
+        public Object getValue(final int column, final int row) {
+            return values[column][row];
+        }
+    }
+}
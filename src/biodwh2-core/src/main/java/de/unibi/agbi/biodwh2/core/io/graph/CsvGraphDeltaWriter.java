@@ -0,0 +1,77 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.StableId;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes node and edge upserts as CSV change files with the label, the stable identities and all properties as a JSON
+ * object.
+ */
+final class CsvGraphDeltaWriter extends GraphDeltaWriter {
+    static final String NODE_UPSERTS_FILE_NAME = "node-upserts.csv";
+    static final String EDGE_UPSERTS_FILE_NAME = "edge-upserts.csv";
+
+    private final ObjectMapper mapper;
+    private final Writer nodeUpsertsWriter;
+    private final Writer edgeUpsertsWriter;
+
+    CsvGraphDeltaWriter(final Path outputPath) throws IOException {
+        super(outputPath);
+        mapper = new ObjectMapper();
+        nodeUpsertsWriter = openCsvWriter(outputPath.resolve(NODE_UPSERTS_FILE_NAME), "stable_id,label,properties");
+        edgeUpsertsWriter = openCsvWriter(outputPath.resolve(EDGE_UPSERTS_FILE_NAME),
+                                          "stable_id,label,from_stable_id,to_stable_id,properties");
+    }
+
+    @Override
+    public void writeNodeUpsert(final Node node, final StableId identity) throws IOException {
+        nodeUpsertsWriter.write(identity.toString());
+        nodeUpsertsWriter.write(',');
+        writeQuoted(nodeUpsertsWriter, node.getLabel());
+        nodeUpsertsWriter.write(',');
+        writeQuoted(nodeUpsertsWriter, toJson(node, Node.IGNORED_FIELDS));
+        nodeUpsertsWriter.write('\n');
+    }
+
+    @Override
+    public void writeEdgeUpsert(final Edge edge, final StableId identity, final StableId fromIdentity,
+                                final StableId toIdentity) throws IOException {
+        edgeUpsertsWriter.write(identity.toString());
+        edgeUpsertsWriter.write(',');
+        writeQuoted(edgeUpsertsWriter, edge.getLabel());
+        edgeUpsertsWriter.write(',');
+        edgeUpsertsWriter.write(fromIdentity.toString());
+        edgeUpsertsWriter.write(',');
+        edgeUpsertsWriter.write(toIdentity.toString());
+        edgeUpsertsWriter.write(',');
+        writeQuoted(edgeUpsertsWriter, toJson(edge, Edge.IGNORED_FIELDS));
+        edgeUpsertsWriter.write('\n');
+    }
+
+    private String toJson(final MVStoreModel model, final Set<String> ignoredKeys) throws IOException {
+        final TreeMap<String, Object> properties = new TreeMap<>();
+        for (final String key : model.keySet())
+            if (!ignoredKeys.contains(key))
+                properties.put(key, model.get(key));
+        return mapper.writeValueAsString(properties);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            nodeUpsertsWriter.close();
+            edgeUpsertsWriter.close();
+        } finally {
+            super.close();
+        }
+    }
+}
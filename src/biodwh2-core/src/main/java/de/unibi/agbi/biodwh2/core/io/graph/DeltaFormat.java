@@ -0,0 +1,12 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+public enum DeltaFormat {
+    /**
+     * Upserts are written as a GraphML fragment.
+     */
+    GRAPH_ML,
+    /**
+     * Upserts are written as CSV change files with the properties as JSON objects.
+     */
+    CSV
+}
@@ -0,0 +1,192 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.*;
+import org.apache.commons.lang3.ArrayUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports only the changes of a graph relative to a previous export. The previous export is described by an element
+ * manifest, which stores the identity and content hash of every element in sorted order. The records of the current
+ * graph are sorted externally and merged with the manifest in a single streaming pass, which at the same time writes
+ * the manifest for the next export.
+ * <p>
+ * If no previous manifest exists, all elements are exported as upserts. Elements sharing a stable identity are
+ * exported with the unique identities of {@link StableIdentityHasher#getUniqueIdentities(List)}. Edges referencing
+ * nodes missing from the graph are skipped.
+ */
+public final class GraphDeltaExporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GraphDeltaExporter.class);
+    public static final String MANIFEST_FILE_NAME = "graph-manifest.bin.gz";
+
+    private final DeltaFormat format;
+    private final IdentityMode mode;
+    private final Path tempDirectory;
+    private final int runSize;
+
+    public GraphDeltaExporter(final DeltaFormat format, final IdentityMode mode) {
+        this(format, mode, null, ElementRecordSorter.DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * @param tempDirectory directory for the sort run files or null for the default temporary directory
+     * @param runSize       number of records sorted in memory per run
+     */
+    public GraphDeltaExporter(final DeltaFormat format, final IdentityMode mode, final Path tempDirectory,
+                              final int runSize) {
+        this.format = format;
+        this.mode = mode;
+        this.tempDirectory = tempDirectory;
+        this.runSize = runSize;
+    }
+
+    /**
+     * @param previousManifestPath manifest of the previous export or null to use the manifest in the output directory
+     * @return summary of the exported changes
+     */
+    public GraphDiffSummary export(final Graph graph, final Path outputPath,
+                                   final Path previousManifestPath) throws IOException {
+        Files.createDirectories(outputPath);
+        final Path manifestPath = previousManifestPath != null ? previousManifestPath : outputPath.resolve(
+                MANIFEST_FILE_NAME);
+        final Path nextManifestPath = Files.createTempFile(outputPath, "graph-manifest", ".tmp");
+        final GraphDiffSummary summary;
+        try {
+            summary = export(graph, outputPath, manifestPath, nextManifestPath);
+            Files.move(nextManifestPath, outputPath.resolve(MANIFEST_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(nextManifestPath);
+        }
+        return summary;
+    }
+
+    private GraphDiffSummary export(final Graph graph, final Path outputPath, final Path manifestPath,
+                                    final Path nextManifestPath) throws IOException {
+        final GraphDiffSummary summary = new GraphDiffSummary();
+        final String[] labels = ArrayUtils.addAll(graph.getNodeLabels(), graph.getEdgeLabels());
+        try (ElementRecordCollector collector = ElementRecordCollector.collect(graph, mode, tempDirectory, runSize);
+             ElementManifestReader previous = openPreviousManifest(manifestPath);
+             ElementManifestWriter next = new ElementManifestWriter(nextManifestPath, mode, labels,
+                                                                    collector.getNumberOfNodeRecords(),
+                                                                    collector.getNumberOfEdgeRecords());
+             GraphDeltaWriter writer = GraphDeltaWriter.forFormat(format, outputPath, graph)) {
+            final long[] danglingEdges = new long[1];
+            final ChangeListener nodeListener = (change, type, oldRecord, newRecord) -> {
+                summary.onChange(change, type, oldRecord, newRecord);
+                if (change == ChangeType.REMOVED)
+                    writer.writeNodeDelete(oldRecord.getLabel(), oldRecord.getIdentity());
+                else
+                    writer.writeNodeUpsert(graph.getNode(newRecord.getElementId()), newRecord.getIdentity());
+            };
+            try (ElementRecordSource oldNodes = previous != null ? previous.nodes() : ElementRecordSource.EMPTY;
+                 ElementRecordSource newNodes = collector.sortedNodes()) {
+                ElementRecordMerger.mergeGroups(oldNodes, teeSource(newNodes, next), (oldGroup, newGroup) ->
+                        writeGroupChanges(oldGroup, newGroup, ElementType.NODE, summary, nodeListener));
+            }
+            final ChangeListener edgeListener = (change, type, oldRecord, newRecord) -> {
+                if (change == ChangeType.REMOVED) {
+                    summary.onChange(change, type, oldRecord, newRecord);
+                    writer.writeEdgeDelete(oldRecord.getLabel(), oldRecord.getIdentity());
+                    return;
+                }
+                final Edge edge = graph.getEdge(newRecord.getLabel(), newRecord.getElementId());
+                final StableId fromIdentity = collector.getNodeIdentity(edge.getFromId());
+                final StableId toIdentity = collector.getNodeIdentity(edge.getToId());
+                if (fromIdentity == null || toIdentity == null)
+                    danglingEdges[0]++;
+                else {
+                    summary.onChange(change, type, oldRecord, newRecord);
+                    writer.writeEdgeUpsert(edge, newRecord.getIdentity(), fromIdentity, toIdentity);
+                }
+            };
+            try (ElementRecordSource oldEdges = previous != null ? previous.edges() : ElementRecordSource.EMPTY;
+                 ElementRecordSource newEdges = collector.sortedEdges()) {
+                ElementRecordMerger.mergeGroups(oldEdges, teeSource(newEdges, next), (oldGroup, newGroup) ->
+                        writeGroupChanges(oldGroup, newGroup, ElementType.EDGE, summary, edgeListener));
+            }
+            if (danglingEdges[0] > 0 && LOGGER.isWarnEnabled())
+                LOGGER.warn("Skipped " + danglingEdges[0] + " edges referencing missing nodes");
+        }
+        return summary;
+    }
+
+    /**
+     * Reports the changes of a group of records with the same identity using their unique identities, so elements
+     * sharing an identity are written and deleted individually. Elements are written if their unique identity is new
+     * or their content changed and deleted if their unique identity no longer exists. The reported records carry the
+     * unique identities.
+     */
+    private static void writeGroupChanges(final List<ElementRecord> oldGroup, final List<ElementRecord> newGroup,
+                                          final ElementType type, final GraphDiffSummary summary,
+                                          final ChangeListener listener) throws IOException {
+        if (oldGroup.size() > 1 || newGroup.size() > 1)
+            summary.onDuplicateIdentity(type);
+        final StableId[] oldIdentities = StableIdentityHasher.getUniqueIdentities(oldGroup);
+        final StableId[] newIdentities = StableIdentityHasher.getUniqueIdentities(newGroup);
+        final Map<StableId, ElementRecord> oldRecords = new LinkedHashMap<>();
+        for (int i = 0; i < oldIdentities.length; i++)
+            oldRecords.put(oldIdentities[i], withIdentity(oldGroup.get(i), oldIdentities[i]));
+        for (int i = 0; i < newIdentities.length; i++) {
+            final ElementRecord newRecord = withIdentity(newGroup.get(i), newIdentities[i]);
+            final ElementRecord oldRecord = oldRecords.remove(newIdentities[i]);
+            if (oldRecord == null)
+                listener.onChange(ChangeType.ADDED, type, null, newRecord);
+            else if (!oldRecord.getContent().equals(newRecord.getContent()))
+                listener.onChange(ChangeType.CHANGED, type, oldRecord, newRecord);
+        }
+        for (final ElementRecord oldRecord : oldRecords.values())
+            listener.onChange(ChangeType.REMOVED, type, oldRecord, null);
+    }
+
+    private static ElementRecord withIdentity(final ElementRecord record, final StableId identity) {
+        return record.getIdentity() == identity ? record : new ElementRecord(identity, record.getContent(),
+                                                                             record.getLabel(),
+                                                                             record.getElementId());
+    }
+
+    private ElementManifestReader openPreviousManifest(final Path manifestPath) throws IOException {
+        if (!Files.exists(manifestPath)) {
+            if (LOGGER.isInfoEnabled())
+                LOGGER.info("No previous manifest found at '" + manifestPath + "', exporting all elements");
+            return null;
+        }
+        final ElementManifestReader reader = new ElementManifestReader(manifestPath);
+        if (reader.getMode() != mode) {
+            reader.close();
+            throw new IOException("The previous manifest was written with identity mode " + reader.getMode() +
+                                  " instead of " + mode);
+        }
+        return reader;
+    }
+
+    /**
+     * Writes every record read from the source to the next manifest.
+     */
+    private static ElementRecordSource teeSource(final ElementRecordSource source, final ElementManifestWriter next) {
+        return new ElementRecordSource() {
+            @Override
+            public ElementRecord next() throws IOException {
+                final ElementRecord record = source.next();
+                if (record != null)
+                    next.write(record);
+                return record;
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+}
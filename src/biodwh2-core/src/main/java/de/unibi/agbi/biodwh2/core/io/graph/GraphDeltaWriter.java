@@ -0,0 +1,96 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphView;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.StableId;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the changes of a graph relative to a previous export. Elements are identified by their stable identities, so
+ * the changes can be applied to a database loaded from a previous export. Deletes only need the identities and are
+ * written to the CSV files {@link #NODE_DELETES_FILE_NAME} and {@link #EDGE_DELETES_FILE_NAME} for all formats.
+ */
+public abstract class GraphDeltaWriter implements AutoCloseable {
+    public static final String NODE_DELETES_FILE_NAME = "node-deletes.csv";
+    public static final String EDGE_DELETES_FILE_NAME = "edge-deletes.csv";
+
+    private final Writer nodeDeletesWriter;
+    private final Writer edgeDeletesWriter;
+
+    protected GraphDeltaWriter(final Path outputPath) throws IOException {
+        Files.createDirectories(outputPath);
+        nodeDeletesWriter = openCsvWriter(outputPath.resolve(NODE_DELETES_FILE_NAME), "stable_id,label");
+        edgeDeletesWriter = openCsvWriter(outputPath.resolve(EDGE_DELETES_FILE_NAME), "stable_id,label");
+    }
+
+    public static GraphDeltaWriter forFormat(final DeltaFormat format, final Path outputPath,
+                                             final GraphView graph) throws IOException {
+        switch (format) {
+            case GRAPH_ML:
+                return new GraphMLGraphDeltaWriter(outputPath, graph);
+            case CSV:
+                return new CsvGraphDeltaWriter(outputPath);
+            default:
+                throw new IllegalArgumentException("Unsupported delta format " + format);
+        }
+    }
+
+    static Writer openCsvWriter(final Path filePath, final String header) throws IOException {
+        final Writer writer = new BufferedWriter(Files.newBufferedWriter(filePath, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(header);
+        writer.write('\n');
+        return writer;
+    }
+
+    static void writeQuoted(final Writer writer, final String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"')
+                writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    public abstract void writeNodeUpsert(final Node node, final StableId identity) throws IOException;
+
+    /**
+     * @param fromIdentity unique identity of the start node, which is never null
+     * @param toIdentity   unique identity of the end node, which is never null
+     */
+    public abstract void writeEdgeUpsert(final Edge edge, final StableId identity, final StableId fromIdentity,
+                                         final StableId toIdentity) throws IOException;
+
+    public void writeNodeDelete(final String label, final StableId identity) throws IOException {
+        writeDelete(nodeDeletesWriter, label, identity);
+    }
+
+    public void writeEdgeDelete(final String label, final StableId identity) throws IOException {
+        writeDelete(edgeDeletesWriter, label, identity);
+    }
+
+    private static void writeDelete(final Writer writer, final String label,
+                                    final StableId identity) throws IOException {
+        writer.write(identity.toString());
+        writer.write(',');
+        writeQuoted(writer, label);
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            nodeDeletesWriter.close();
+        } finally {
+            edgeDeletesWriter.close();
+        }
+    }
+}
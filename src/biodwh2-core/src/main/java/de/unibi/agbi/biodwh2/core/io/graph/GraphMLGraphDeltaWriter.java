@@ -0,0 +1,56 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphView;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.StableId;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes node and edge upserts as a GraphML fragment using the stable identities as ids. Edges may reference nodes
+ * which are not part of the fragment, as only changed nodes are written.
+ */
+final class GraphMLGraphDeltaWriter extends GraphDeltaWriter {
+    static final String UPSERTS_FILE_NAME = "upserts.graphml";
+
+    private final GraphMLGraphWriter graphWriter;
+    private final Writer outputWriter;
+    private final GraphMLStreamWriter writer;
+
+    GraphMLGraphDeltaWriter(final Path outputPath, final GraphView graph) throws IOException {
+        super(outputPath);
+        graphWriter = new GraphMLGraphWriter();
+        graphWriter.discoverProperties(graph);
+        outputWriter = new OutputStreamWriter(Files.newOutputStream(outputPath.resolve(UPSERTS_FILE_NAME)),
+                                              StandardCharsets.UTF_8);
+        writer = new GraphMLStreamWriter(outputWriter);
+        graphWriter.writeDocumentStart(writer);
+    }
+
+    @Override
+    public void writeNodeUpsert(final Node node, final StableId identity) throws IOException {
+        graphWriter.writeNode(writer, node, identity.toString());
+    }
+
+    @Override
+    public void writeEdgeUpsert(final Edge edge, final StableId identity, final StableId fromIdentity,
+                                final StableId toIdentity) throws IOException {
+        graphWriter.writeEdge(writer, edge, identity.toString(), fromIdentity.toString(), toIdentity.toString());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            graphWriter.writeDocumentEnd(writer);
+            outputWriter.close();
+        } finally {
+            super.close();
+        }
+    }
+}
@@ -3,26 +3,29 @@ package de.unibi.agbi.biodwh2.core.io.graph;
 import de.unibi.agbi.biodwh2.core.DataSource;
 import de.unibi.agbi.biodwh2.core.Workspace;
 import de.unibi.agbi.biodwh2.core.io.FileUtils;
-import de.unibi.agbi.biodwh2.core.io.IndentingXMLStreamWriter;
+import de.unibi.agbi.biodwh2.core.io.ParallelBlockWriter;
 import de.unibi.agbi.biodwh2.core.lang.Type;
+import de.unibi.agbi.biodwh2.core.model.Configuration;
 import de.unibi.agbi.biodwh2.core.model.DataSourceFileType;
 import de.unibi.agbi.biodwh2.core.model.graph.Edge;
 import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphFileFormat;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphReadSession;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphView;
 import de.unibi.agbi.biodwh2.core.model.graph.Node;
-import org.apache.commons.lang3.StringUtils;
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.xml.stream.XMLOutputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamWriter;
-import java.io.BufferedOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
 public final class GraphMLGraphWriter extends GraphWriter {
     private static class Property {
@@ -34,211 +37,384 @@ public final class GraphMLGraphWriter extends GraphWriter {
     }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GraphMLGraphWriter.class);
-    private long labelKeyIdCounter;
-    private final Map<String, String> labelKeyIdMap;
+    private static final String NODE_LABELS_KEY = "labels";
+    private static final String EDGE_LABEL_KEY = "label";
+
+    /**
+     * Number of nodes or edges serialized into one block when writing with multiple threads.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    private final boolean compressed;
+    private final int threads;
+    private final AtomicLong labelKeyIdCounter;
+    /**
+     * Key ids per node or edge label and property key. Built once in the key discovery pass, so the writing of each
+     * property is a single hash lookup.
+     */
+    private final Map<String, Map<String, String>> nodeLabelKeyIds;
+    private final Map<String, Map<String, String>> edgeLabelKeyIds;
     private final List<Property> properties;
 
     public GraphMLGraphWriter() {
+        this(false, 1);
+    }
+
+    /**
+     * @param compressed whether the output is gzip compressed
+     * @param threads    number of threads serializing and compressing blocks of nodes and edges
+     */
+    public GraphMLGraphWriter(final boolean compressed, final int threads) {
         super();
-        labelKeyIdMap = new HashMap<>();
+        this.compressed = compressed;
+        this.threads = threads;
+        labelKeyIdCounter = new AtomicLong();
+        nodeLabelKeyIds = new ConcurrentHashMap<>();
+        edgeLabelKeyIds = new ConcurrentHashMap<>();
         properties = new ArrayList<>();
     }
 
-    public boolean write(final Path outputFilePath, final Graph graph) {
-        labelKeyIdCounter = 0;
-        labelKeyIdMap.clear();
-        properties.clear();
-        generateProperties(graph);
-        try (OutputStream outputStream = Files.newOutputStream(outputFilePath)) {
-            writeGraphFile(outputStream, graph);
-        } catch (XMLStreamException | IOException e) {
+    public static GraphMLGraphWriter forConfiguration(final Configuration configuration) {
+        return new GraphMLGraphWriter(configuration.shouldCompressGraphML(), configuration.getGraphMLWriterThreads());
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    @Override
+    public boolean write(final Path outputFilePath, final GraphView graph) {
+        final ProfilingEvents.ExportFile event = ProfilingEvents.beginExportFile();
+        discoverProperties(graph);
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(outputFilePath));
+             ProgressTracker tracker = ProgressTracker.start("Writing " + outputFilePath.getFileName(),
+                                                             graph.getNumberOfNodes() + graph.getNumberOfEdges())) {
+            if (threads > 1)
+                writeGraphFileParallel(outputStream, graph, tracker);
+            else if (compressed) {
+                final GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                writeGraphFile(gzipStream, graph, tracker);
+                gzipStream.finish();
+            } else
+                writeGraphFile(outputStream, graph, tracker);
+        } catch (IOException e) {
             if (LOGGER.isErrorEnabled())
                 LOGGER.error("Failed to write graphml file", e);
+            event.end(outputFilePath.toString(), GraphFileFormat.GRAPH_ML.name(), false);
             return false;
         }
+        event.end(outputFilePath.toString(), GraphFileFormat.GRAPH_ML.name(), true);
         return true;
     }
 
     @Override
     public boolean write(final Workspace workspace, final DataSource dataSource, final Graph graph) {
-        labelKeyIdCounter = 0;
-        labelKeyIdMap.clear();
-        properties.clear();
         removeOldExport(workspace, dataSource);
-        generateProperties(graph);
-        try (OutputStream stream = Files.newOutputStream(
-                dataSource.getFilePath(workspace, DataSourceFileType.INTERMEDIATE_GRAPHML))) {
-            writeGraphFile(stream, graph);
-        } catch (XMLStreamException | IOException e) {
-            if (LOGGER.isErrorEnabled())
-                LOGGER.error("Failed to write graphml file", e);
-            return false;
+        try (GraphReadSession session = graph.openReadSession()) {
+            return write(dataSource.getFilePath(workspace, getIntermediateFileType(compressed)), session);
         }
-        return true;
+    }
+
+    public static DataSourceFileType getIntermediateFileType(final boolean compressed) {
+        return compressed ? DataSourceFileType.INTERMEDIATE_GRAPHML_GZIP : DataSourceFileType.INTERMEDIATE_GRAPHML;
     }
 
     public void removeOldExport(final Workspace workspace, final DataSource dataSource) {
-        final Path path = dataSource.getFilePath(workspace, DataSourceFileType.INTERMEDIATE_GRAPHML);
-        if (!FileUtils.safeDelete(path) && LOGGER.isWarnEnabled())
-            LOGGER.warn("Failed to remove old GraphML export for data source '" + dataSource.getId() + "'");
+        for (final DataSourceFileType fileType : new DataSourceFileType[]{
+                DataSourceFileType.INTERMEDIATE_GRAPHML, DataSourceFileType.INTERMEDIATE_GRAPHML_GZIP
+        }) {
+            final Path path = dataSource.getFilePath(workspace, fileType);
+            if (!FileUtils.safeDelete(path) && LOGGER.isWarnEnabled())
+                LOGGER.warn("Failed to remove old GraphML export for data source '" + dataSource.getId() + "'");
+        }
     }
 
-    private void generateProperties(final Graph graph) {
-        final Map<String, Type> nodePropertyKeyTypes = collectAllNodePropertyKeyTypes(graph);
-        for (final String key : nodePropertyKeyTypes.keySet())
-            properties.add(generateProperty(key, nodePropertyKeyTypes.get(key), "node"));
-        final Map<String, Type> edgePropertyKeyTypes = collectAllEdgePropertyKeyTypes(graph);
-        for (final String key : edgePropertyKeyTypes.keySet())
-            properties.add(generateProperty(key, edgePropertyKeyTypes.get(key), "edge"));
+    void discoverProperties(final GraphView graph) {
+        labelKeyIdCounter.set(0);
+        nodeLabelKeyIds.clear();
+        edgeLabelKeyIds.clear();
+        properties.clear();
+        generateProperties(graph);
     }
 
-    private Map<String, Type> collectAllNodePropertyKeyTypes(final Graph graph) {
-        final Map<String, Type> propertyKeyTypes = new HashMap<>();
-        propertyKeyTypes.put("labels", new Type(String.class));
+    private void generateProperties(final GraphView graph) {
+        properties.add(generateProperty(NODE_LABELS_KEY, NODE_LABELS_KEY, null, "node"));
         for (final String label : graph.getNodeLabels()) {
-            final Map<String, Type> nodePropertyKeyTypes = graph.getPropertyKeyTypesForNodeLabel(label);
-            for (final String key : nodePropertyKeyTypes.keySet())
-                if (!Node.IGNORED_FIELDS.contains(key))
-                    propertyKeyTypes.put(getNodeLabelKeyId(label, key), nodePropertyKeyTypes.get(key));
+            final Map<String, String> keyIds = new ConcurrentHashMap<>();
+            nodeLabelKeyIds.put(label, keyIds);
+            final Map<String, Type> propertyKeyTypes = graph.getPropertyKeyTypesForNodeLabel(label);
+            for (final Map.Entry<String, Type> entry : propertyKeyTypes.entrySet()) {
+                if (Node.IGNORED_FIELDS.contains(entry.getKey()))
+                    continue;
+                final String id = nextKeyId("nt");
+                keyIds.put(entry.getKey(), id);
+                properties.add(generateProperty(id, entry.getKey(), entry.getValue(), "node"));
+            }
+        }
+        properties.add(generateProperty(EDGE_LABEL_KEY, EDGE_LABEL_KEY, null, "edge"));
+        for (final String label : graph.getEdgeLabels()) {
+            final Map<String, String> keyIds = new ConcurrentHashMap<>();
+            edgeLabelKeyIds.put(label, keyIds);
+            final Map<String, Type> propertyKeyTypes = graph.getPropertyKeyTypesForEdgeLabel(label);
+            for (final Map.Entry<String, Type> entry : propertyKeyTypes.entrySet()) {
+                if (Edge.IGNORED_FIELDS.contains(entry.getKey()))
+                    continue;
+                final String id = nextKeyId("et");
+                keyIds.put(entry.getKey(), id);
+                properties.add(generateProperty(id, entry.getKey(), entry.getValue(), "edge"));
+            }
         }
-        for (final String key : propertyKeyTypes.keySet())
-            propertyKeyTypes.putIfAbsent(key, new Type(String.class));
-        return propertyKeyTypes;
     }
 
-    private String getNodeLabelKeyId(final String label, final String key) {
-        final String labelKey = "node|" + label + "|" + key;
-        if (!labelKeyIdMap.containsKey(labelKey)) {
-            labelKeyIdMap.put(labelKey, "nt" + labelKeyIdCounter);
-            labelKeyIdCounter++;
-        }
-        return labelKeyIdMap.get(labelKey);
+    private String nextKeyId(final String prefix) {
+        return prefix + labelKeyIdCounter.getAndIncrement();
     }
 
-    private Property generateProperty(final String key, final Type type, final String forType) {
-        final GraphMLPropertyFormatter.PropertyType propertyType = GraphMLPropertyFormatter.getPropertyType(type);
+    private static Property generateProperty(final String id, final String name, final Type type,
+                                             final String forType) {
+        final GraphMLPropertyFormatter.PropertyType propertyType = GraphMLPropertyFormatter.getPropertyType(
+                type != null ? type : new Type(String.class));
         final Property p = new Property();
-        p.id = key;
+        p.id = id;
         p.forType = forType;
+        p.name = name;
         p.list = propertyType.listTypeName;
         p.type = propertyType.typeName;
-        if (labelKeyIdMap.containsValue(key)) {
-            final Optional<Map.Entry<String, String>> entry = labelKeyIdMap.entrySet().stream().filter(
-                    e -> e.getValue().equals(key)).findFirst();
-            if (entry.isPresent()) {
-                final String[] parts = StringUtils.split(entry.get().getKey(), "|");
-                p.name = parts[parts.length - 1];
-            } else
-                p.name = key;
-        } else
-            p.name = key;
         return p;
     }
 
-    private Map<String, Type> collectAllEdgePropertyKeyTypes(final Graph graph) {
-        final Map<String, Type> propertyKeyTypes = new HashMap<>();
-        propertyKeyTypes.put("label", new Type(String.class));
-        for (final String label : graph.getEdgeLabels()) {
-            final Map<String, Type> edgePropertyKeyTypes = graph.getPropertyKeyTypesForEdgeLabel(label);
-            for (final String key : edgePropertyKeyTypes.keySet())
-                if (!Edge.IGNORED_FIELDS.contains(key))
-                    propertyKeyTypes.put(getEdgeLabelKeyId(label, key), edgePropertyKeyTypes.get(key));
-        }
-        for (final String key : propertyKeyTypes.keySet())
-            propertyKeyTypes.putIfAbsent(key, new Type(String.class));
-        return propertyKeyTypes;
+    private Map<String, String> getKeyIds(final Map<String, Map<String, String>> labelKeyIds, final String label) {
+        final Map<String, String> keyIds = labelKeyIds.get(label);
+        return keyIds != null ? keyIds : labelKeyIds.computeIfAbsent(label, k -> new ConcurrentHashMap<>());
     }
 
-    private String getEdgeLabelKeyId(final String label, final String key) {
-        final String labelKey = "edge|" + label + "|" + key;
-        if (!labelKeyIdMap.containsKey(labelKey)) {
-            labelKeyIdMap.put(labelKey, "et" + labelKeyIdCounter);
-            labelKeyIdCounter++;
-        }
-        return labelKeyIdMap.get(labelKey);
+    /**
+     * Properties which were not known in the key discovery pass still get a stable key id, even though no key
+     * element can be written for them anymore.
+     */
+    private String getKeyId(final Map<String, String> keyIds, final String key, final String prefix) {
+        final String id = keyIds.get(key);
+        return id != null ? id : keyIds.computeIfAbsent(key, k -> nextKeyId(prefix));
+    }
+
+    /**
+     * Write the document start including the key definitions of the last property discovery.
+     */
+    void writeDocumentStart(final GraphMLStreamWriter writer) throws IOException {
+        writer.writeDeclaration();
+        writeRootStart(writer);
+        writeGraphStart(writer);
+    }
+
+    void writeDocumentEnd(final GraphMLStreamWriter writer) throws IOException {
+        writer.endElement(1, "graph");
+        writer.endElement(0, "graphml");
+        writer.flush();
     }
 
-    private void writeGraphFile(final OutputStream outputStream, final Graph graph) throws XMLStreamException {
-        final XMLStreamWriter writer = createXMLStreamWriter(outputStream);
-        writer.writeStartDocument();
+    private void writeGraphFile(final OutputStream outputStream, final GraphView graph,
+                                final ProgressTracker tracker) throws IOException {
+        final GraphMLStreamWriter writer = new GraphMLStreamWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.writeDeclaration();
         writeRootStart(writer);
-        writeGraph(writer, graph);
-        writer.writeEndElement();
-        writer.writeEndDocument();
+        writeGraph(writer, graph, tracker);
+        writer.endElement(0, "graphml");
+        writer.flush();
+    }
+
+    /**
+     * Nodes and edges are read label by label on the calling thread and handed to the workers in blocks, which
+     * serialize and compress them. The blocks are stitched together in the original order.
+     */
+    private void writeGraphFileParallel(final OutputStream outputStream, final GraphView graph,
+                                        final ProgressTracker tracker) throws IOException {
+        try (ParallelBlockWriter blockWriter = new ParallelBlockWriter(outputStream, compressed, threads)) {
+            blockWriter.submit(() -> serializeBlock(this::writeDocumentStart));
+            for (final String label : graph.getNodeLabels()) {
+                final Map<String, String> keyIds = getKeyIds(nodeLabelKeyIds, label);
+                final List<Node> block = new ArrayList<>(BLOCK_SIZE);
+                for (final Node node : graph.findNodes(label)) {
+                    block.add(node);
+                    if (block.size() == BLOCK_SIZE)
+                        submitNodeBlock(blockWriter, keyIds, block, tracker);
+                }
+                submitNodeBlock(blockWriter, keyIds, block, tracker);
+            }
+            for (final String label : graph.getEdgeLabels()) {
+                final Map<String, String> keyIds = getKeyIds(edgeLabelKeyIds, label);
+                final List<Edge> block = new ArrayList<>(BLOCK_SIZE);
+                for (final Edge edge : graph.findEdges(label)) {
+                    block.add(edge);
+                    if (block.size() == BLOCK_SIZE)
+                        submitEdgeBlock(blockWriter, keyIds, block, tracker);
+                }
+                submitEdgeBlock(blockWriter, keyIds, block, tracker);
+            }
+            blockWriter.submit(() -> serializeBlock(writer -> {
+                writer.endElement(1, "graph");
+                writer.endElement(0, "graphml");
+            }));
+        }
+    }
+
+    private void submitNodeBlock(final ParallelBlockWriter blockWriter, final Map<String, String> keyIds,
+                                 final List<Node> block, final ProgressTracker tracker) throws IOException {
+        if (block.isEmpty())
+            return;
+        final Node[] nodes = block.toArray(new Node[0]);
+        block.clear();
+        blockWriter.submit(() -> serializeBlock(writer -> {
+            for (final Node node : nodes)
+                writeNode(writer, node, keyIds);
+        }));
+        tracker.step(nodes.length);
+    }
+
+    private void submitEdgeBlock(final ParallelBlockWriter blockWriter, final Map<String, String> keyIds,
+                                 final List<Edge> block, final ProgressTracker tracker) throws IOException {
+        if (block.isEmpty())
+            return;
+        final Edge[] edges = block.toArray(new Edge[0]);
+        block.clear();
+        blockWriter.submit(() -> serializeBlock(writer -> {
+            for (final Edge edge : edges)
+                writeEdge(writer, edge, keyIds);
+        }));
+        tracker.step(edges.length);
     }
 
-    private static XMLStreamWriter createXMLStreamWriter(final OutputStream outputStream) throws XMLStreamException {
-        final XMLOutputFactory factory = XMLOutputFactory.newInstance();
-        final XMLStreamWriter writer = factory.createXMLStreamWriter(new BufferedOutputStream(outputStream),
-                                                                     StandardCharsets.UTF_8.name());
-        return new IndentingXMLStreamWriter(writer);
+    @FunctionalInterface
+    private interface BlockSerializer {
+        void serialize(final GraphMLStreamWriter writer) throws IOException;
     }
 
-    private void writeRootStart(final XMLStreamWriter writer) throws XMLStreamException {
-        writer.writeStartElement("graphml");
-        writer.writeAttribute("xmlns", "http://graphml.graphdrawing.org/xmlns");
-        writer.writeAttribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
-        writer.writeAttribute("xsi:schemaLocation", "http://graphml.graphdrawing.org/xmlns " +
-                                                    "http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd");
+    private static byte[] serializeBlock(final BlockSerializer serializer) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256 * 1024);
+        final GraphMLStreamWriter writer = new GraphMLStreamWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        serializer.serialize(writer);
+        writer.flush();
+        return outputStream.toByteArray();
     }
 
-    private void writeGraph(final XMLStreamWriter writer, final Graph graph) throws XMLStreamException {
+    private void writeRootStart(final GraphMLStreamWriter writer) throws IOException {
+        writer.startElement(0, "graphml");
+        writer.attribute("xmlns", "http://graphml.graphdrawing.org/xmlns");
+        writer.attribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
+        writer.attribute("xsi:schemaLocation", "http://graphml.graphdrawing.org/xmlns " +
+                                               "http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd");
+        writer.closeStartTag();
+    }
+
+    private void writeGraph(final GraphMLStreamWriter writer, final GraphView graph,
+                            final ProgressTracker tracker) throws IOException {
+        writeGraphStart(writer);
+        for (final Node node : graph.getNodes()) {
+            writeNode(writer, node, getKeyIds(nodeLabelKeyIds, node.getLabel()));
+            tracker.step();
+        }
+        for (final Edge edge : graph.getEdges()) {
+            writeEdge(writer, edge, getKeyIds(edgeLabelKeyIds, edge.getLabel()));
+            tracker.step();
+        }
+        writer.endElement(1, "graph");
+    }
+
+    private void writeGraphStart(final GraphMLStreamWriter writer) throws IOException {
         writeProperties(writer);
-        writer.writeStartElement("graph");
-        writer.writeAttribute("id", "G");
-        writer.writeAttribute("edgedefault", "directed");
-        for (final Node node : graph.getNodes())
-            writeNode(writer, node);
-        for (final Edge edge : graph.getEdges())
-            writeEdge(writer, edge);
-        writer.writeEndElement();
+        writer.startElement(1, "graph");
+        writer.attribute("id", "G");
+        writer.attribute("edgedefault", "directed");
+        writer.closeStartTag();
     }
 
-    private void writeProperties(final XMLStreamWriter writer) throws XMLStreamException {
+    private void writeProperties(final GraphMLStreamWriter writer) throws IOException {
         for (final Property p : properties) {
-            writer.writeStartElement("key");
-            writer.writeAttribute("id", p.id);
-            writer.writeAttribute("for", p.forType);
-            writer.writeAttribute("attr.name", p.name);
+            writer.startElement(1, "key");
+            writer.attribute("id", p.id);
+            writer.attribute("for", p.forType);
+            writer.attribute("attr.name", p.name);
             if (p.list != null)
-                writer.writeAttribute("attr.list", p.list);
-            writer.writeAttribute("attr.type", p.type);
-            writer.writeEndElement();
+                writer.attribute("attr.list", p.list);
+            writer.attribute("attr.type", p.type);
+            writer.closeEmptyElement();
         }
     }
 
-    private void writeNode(final XMLStreamWriter writer, final Node node) throws XMLStreamException {
-        final String label = ':' + node.getLabel();
-        writer.writeStartElement("node");
-        writer.writeAttribute("id", "n" + node.getId());
-        writer.writeAttribute("labels", label);
-        writePropertyIfNotNull(writer, "labels", label);
+    private void writeNode(final GraphMLStreamWriter writer, final Node node,
+                           final Map<String, String> keyIds) throws IOException {
+        writer.startElement(2, "node");
+        writer.attribute("id", 'n', node.getId());
+        writeNodeContent(writer, node, keyIds);
+    }
+
+    /**
+     * Write a node with the given id instead of the node id.
+     */
+    void writeNode(final GraphMLStreamWriter writer, final Node node, final String id) throws IOException {
+        writer.startElement(2, "node");
+        writer.attribute("id", 'n', id);
+        writeNodeContent(writer, node, getKeyIds(nodeLabelKeyIds, node.getLabel()));
+    }
+
+    private void writeNodeContent(final GraphMLStreamWriter writer, final Node node,
+                                  final Map<String, String> keyIds) throws IOException {
+        final String label = node.getLabel();
+        writer.attribute("labels", ':', label);
+        writer.closeStartTag();
+        writer.startElement(3, "data");
+        writer.attribute("key", NODE_LABELS_KEY);
+        writer.closeStartTag();
+        writer.text(':', label);
+        writer.endElement("data");
         for (final String key : node.keySet())
             if (!Node.IGNORED_FIELDS.contains(key))
-                writePropertyIfNotNull(writer, getNodeLabelKeyId(node.getLabel(), key), node.getProperty(key));
-        writer.writeEndElement();
+                writePropertyIfNotNull(writer, getKeyId(keyIds, key, "nt"), node.getProperty(key));
+        writer.endElement(2, "node");
     }
 
-    private void writePropertyIfNotNull(final XMLStreamWriter writer, final String key,
-                                        final Object value) throws XMLStreamException {
+    private void writePropertyIfNotNull(final GraphMLStreamWriter writer, final String keyId,
+                                        final Object value) throws IOException {
         if (value != null) {
-            writer.writeStartElement("data");
-            writer.writeAttribute("key", key);
-            writer.writeCharacters(GraphMLPropertyFormatter.format(value));
-            writer.writeEndElement();
+            writer.startElement(3, "data");
+            writer.attribute("key", keyId);
+            writer.closeStartTag();
+            writer.text(GraphMLPropertyFormatter.format(value));
+            writer.endElement("data");
         }
     }
 
-    private void writeEdge(final XMLStreamWriter writer, final Edge edge) throws XMLStreamException {
-        writer.writeStartElement("edge");
-        writer.writeAttribute("id", "e" + edge.getId());
-        writer.writeAttribute("source", "n" + edge.getFromId());
-        writer.writeAttribute("target", "n" + edge.getToId());
-        writer.writeAttribute("label", edge.getLabel());
-        writePropertyIfNotNull(writer, "label", edge.getLabel());
+    private void writeEdge(final GraphMLStreamWriter writer, final Edge edge,
+                           final Map<String, String> keyIds) throws IOException {
+        writer.startElement(2, "edge");
+        writer.attribute("id", 'e', edge.getId());
+        writer.attribute("source", 'n', edge.getFromId());
+        writer.attribute("target", 'n', edge.getToId());
+        writeEdgeContent(writer, edge, keyIds);
+    }
+
+    /**
+     * Write an edge with the given ids instead of the edge and node ids.
+     */
+    void writeEdge(final GraphMLStreamWriter writer, final Edge edge, final String id, final String sourceId,
+                   final String targetId) throws IOException {
+        writer.startElement(2, "edge");
+        writer.attribute("id", 'e', id);
+        writer.attribute("source", 'n', sourceId);
+        writer.attribute("target", 'n', targetId);
+        writeEdgeContent(writer, edge, getKeyIds(edgeLabelKeyIds, edge.getLabel()));
+    }
+
+    private void writeEdgeContent(final GraphMLStreamWriter writer, final Edge edge,
+                                  final Map<String, String> keyIds) throws IOException {
+        final String label = edge.getLabel();
+        writer.attribute("label", label);
+        writer.closeStartTag();
+        writePropertyIfNotNull(writer, EDGE_LABEL_KEY, label);
         for (final String key : edge.keySet())
             if (!Edge.IGNORED_FIELDS.contains(key))
-                writePropertyIfNotNull(writer, getEdgeLabelKeyId(edge.getLabel(), key), edge.getProperty(key));
-        writer.writeEndElement();
+                writePropertyIfNotNull(writer, getKeyId(keyIds, key, "et"), edge.getProperty(key));
+        writer.endElement(2, "edge");
     }
 }
@@ -5,6 +5,7 @@ import de.unibi.agbi.biodwh2.core.lang.Type;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Collection;
+import java.util.Formattable;
 import java.util.Locale;
 
 public final class GraphMLPropertyFormatter {
@@ -64,7 +65,7 @@ public final class GraphMLPropertyFormatter {
         }
         if (value instanceof Collection)
             return format(((Collection<?>) value).toArray());
-        return replaceInvalidXmlCharacters(String.format(Locale.US, FORMAT, value), false);
+        return replaceInvalidXmlCharacters(formatString(value), false);
     }
 
     private static String replaceInvalidXmlCharacters(final CharSequence s, final boolean escapeQuotes) {
@@ -192,8 +193,14 @@ public final class GraphMLPropertyFormatter {
         return charArray;
     }
 
+    /**
+     * The "%s" format only differs from toString for {@link Formattable} values, so the costly format call is
+     * skipped for all other values.
+     */
     private static String formatString(final Object value) {
-        return String.format(Locale.US, FORMAT, value);
+        if (value == null || value instanceof Formattable)
+            return String.format(Locale.US, FORMAT, value);
+        return value.toString();
     }
 
     public static class PropertyType {
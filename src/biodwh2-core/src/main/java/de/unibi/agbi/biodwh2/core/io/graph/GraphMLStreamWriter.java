@@ -0,0 +1,185 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal streaming XML writer for GraphML output. In contrast to a StAX writer wrapped in an
+ * {@link de.unibi.agbi.biodwh2.core.io.IndentingXMLStreamWriter}, it keeps no element stack and no namespace context.
+ * The indentation depth is given by the caller and text is escaped directly into a reused char buffer instead of
+ * allocating intermediate strings.
+ */
+final class GraphMLStreamWriter implements Flushable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] INDENTS = {"\n", "\n  ", "\n    ", "\n      "};
+
+    private final Writer writer;
+    private final char[] buffer;
+    private final char[] digits;
+    private int position;
+
+    GraphMLStreamWriter(final Writer writer) {
+        this.writer = writer;
+        buffer = new char[BUFFER_SIZE];
+        digits = new char[20];
+    }
+
+    void writeDeclaration() throws IOException {
+        write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+    }
+
+    void startElement(final int depth, final String name) throws IOException {
+        write(INDENTS[depth]);
+        write('<');
+        write(name);
+    }
+
+    void attribute(final String name, final String value) throws IOException {
+        write(' ');
+        write(name);
+        write("=\"");
+        writeEscaped(value, true);
+        write('"');
+    }
+
+    void attribute(final String name, final char prefix, final String value) throws IOException {
+        write(' ');
+        write(name);
+        write("=\"");
+        write(prefix);
+        writeEscaped(value, true);
+        write('"');
+    }
+
+    void attribute(final String name, final char prefix, final long value) throws IOException {
+        write(' ');
+        write(name);
+        write("=\"");
+        write(prefix);
+        writeNumber(value);
+        write('"');
+    }
+
+    void closeStartTag() throws IOException {
+        write('>');
+    }
+
+    void closeEmptyElement() throws IOException {
+        write("/>");
+    }
+
+    void text(final String value) throws IOException {
+        writeEscaped(value, false);
+    }
+
+    void text(final char prefix, final String value) throws IOException {
+        write(prefix);
+        writeEscaped(value, false);
+    }
+
+    /**
+     * End an element whose content was written on the same line.
+     */
+    void endElement(final String name) throws IOException {
+        write("</");
+        write(name);
+        write('>');
+    }
+
+    void endElement(final int depth, final String name) throws IOException {
+        write(INDENTS[depth]);
+        endElement(name);
+    }
+
+    private void write(final char c) throws IOException {
+        if (position == buffer.length)
+            flushBuffer();
+        buffer[position++] = c;
+    }
+
+    private void write(final String value) throws IOException {
+        write(value, 0, value.length());
+    }
+
+    private void write(final String value, int start, final int end) throws IOException {
+        while (start < end) {
+            if (position == buffer.length)
+                flushBuffer();
+            final int length = Math.min(end - start, buffer.length - position);
+            value.getChars(start, start + length, buffer, position);
+            position += length;
+            start += length;
+        }
+    }
+
+    private void writeNumber(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            write(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        int index = digits.length;
+        do {
+            digits[--index] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        final int length = digits.length - index;
+        if (buffer.length - position < length)
+            flushBuffer();
+        System.arraycopy(digits, index, buffer, position, length);
+        position += length;
+    }
+
+    /**
+     * Copies runs of characters which need no escaping in bulk and only handles the escaped characters one by one.
+     */
+    private void writeEscaped(final String value, final boolean inAttribute) throws IOException {
+        final int length = value.length();
+        int runStart = 0;
+        for (int i = 0; i < length; i++) {
+            final String replacement = getReplacement(value.charAt(i), inAttribute);
+            if (replacement != null) {
+                write(value, runStart, i);
+                write(replacement);
+                runStart = i + 1;
+            }
+        }
+        write(value, runStart, length);
+    }
+
+    private static String getReplacement(final char c, final boolean inAttribute) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return inAttribute ? "&quot;" : null;
+            case '\n':
+                return inAttribute ? "&#10;" : null;
+            case '\r':
+                return "&#13;";
+            case '\t':
+                return inAttribute ? "&#9;" : null;
+            default:
+                return null;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        writer.write(buffer, 0, position);
+        position = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+}
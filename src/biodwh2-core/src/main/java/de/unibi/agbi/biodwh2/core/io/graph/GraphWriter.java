@@ -2,8 +2,50 @@ package de.unibi.agbi.biodwh2.core.io.graph;
 
 import de.unibi.agbi.biodwh2.core.DataSource;
 import de.unibi.agbi.biodwh2.core.Workspace;
+import de.unibi.agbi.biodwh2.core.model.Configuration;
 import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphFileFormat;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphView;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public abstract class GraphWriter {
     public abstract boolean write(final Workspace workspace, final DataSource dataSource, final Graph graph);
+
+    public abstract boolean write(final Path outputPath, final GraphView graph);
+
+    public static GraphWriter forFormat(final GraphFileFormat format, final Configuration configuration) {
+        switch (format) {
+            case GRAPH_ML:
+                return GraphMLGraphWriter.forConfiguration(configuration);
+            case NEO4J_CSV:
+                return Neo4jCsvGraphWriter.forConfiguration(configuration);
+            case COLUMNAR:
+                return new ColumnarGraphWriter();
+            default:
+                throw new IllegalArgumentException("Unsupported graph file format " + format);
+        }
+    }
+
+    /**
+     * Create a unique file name per label for formats writing one file per label. All characters which might not be
+     * valid in file names are replaced.
+     */
+    protected static Map<String, String> createFileNames(final String prefix, final String[] labels,
+                                                         final String extension) {
+        final Map<String, String> fileNames = new TreeMap<>();
+        final Set<String> usedFileNames = new HashSet<>();
+        for (final String label : labels) {
+            final String baseName = prefix + label.replaceAll("[^A-Za-z0-9_-]", "_");
+            String fileName = baseName + "." + extension;
+            for (int i = 2; !usedFileNames.add(fileName); i++)
+                fileName = baseName + "_" + i + "." + extension;
+            fileNames.put(label, fileName);
+        }
+        return fileNames;
+    }
 }
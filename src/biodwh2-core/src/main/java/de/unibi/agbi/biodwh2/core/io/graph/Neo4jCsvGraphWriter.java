@@ -0,0 +1,283 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.DataSource;
+import de.unibi.agbi.biodwh2.core.Workspace;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreId;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.lang.Type;
+import de.unibi.agbi.biodwh2.core.model.Configuration;
+import de.unibi.agbi.biodwh2.core.model.DataSourceFileType;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphFileFormat;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphReadSession;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphView;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Writes a graph as CSV files for the Neo4j bulk importer (neo4j-admin import). Every node label and edge label is
+ * written to its own file with a typed header derived from the property key types of the collection. The arguments
+ * for the importer are written to the {@link #ARGUMENTS_FILE_NAME} file, which can be passed to neo4j-admin using
+ * "@" followed by the file path.
+ * <p>
+ * Array values are joined using the default array delimiter ";", so string array elements must not contain it.
+ */
+public final class Neo4jCsvGraphWriter extends GraphWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Neo4jCsvGraphWriter.class);
+    public static final String ARGUMENTS_FILE_NAME = "neo4j-admin-import.args";
+    private static final char ARRAY_DELIMITER = ';';
+
+    private final int threads;
+
+    public Neo4jCsvGraphWriter() {
+        this(1);
+    }
+
+    /**
+     * @param threads number of labels written in parallel, each reading the graph concurrently
+     */
+    public Neo4jCsvGraphWriter(final int threads) {
+        super();
+        this.threads = Math.max(1, threads);
+    }
+
+    public static Neo4jCsvGraphWriter forConfiguration(final Configuration configuration) {
+        return new Neo4jCsvGraphWriter(configuration.getNeo4jCsvWriterThreads());
+    }
+
+    @Override
+    public boolean write(final Workspace workspace, final DataSource dataSource, final Graph graph) {
+        try (GraphReadSession session = graph.openReadSession()) {
+            return write(dataSource.getFilePath(workspace, DataSourceFileType.INTERMEDIATE_NEO4J_CSV), session);
+        }
+    }
+
+    /**
+     * @param outputPath directory the CSV files are written to
+     */
+    @Override
+    public boolean write(final Path outputPath, final GraphView graph) {
+        final ProfilingEvents.ExportFile event = ProfilingEvents.beginExportFile();
+        final boolean success = writeFiles(outputPath, graph);
+        event.end(outputPath.toString(), GraphFileFormat.NEO4J_CSV.name(), success);
+        return success;
+    }
+
+    private boolean writeFiles(final Path outputPath, final GraphView graph) {
+        final String[] nodeLabels = graph.getNodeLabels();
+        final String[] edgeLabels = graph.getEdgeLabels();
+        final Map<String, String> nodeFileNames = createFileNames("nodes_", nodeLabels,
+                                                                  GraphFileFormat.NEO4J_CSV.extension);
+        final Map<String, String> edgeFileNames = createFileNames("relationships_", edgeLabels,
+                                                                  GraphFileFormat.NEO4J_CSV.extension);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (ProgressTracker tracker = ProgressTracker.start("Writing Neo4j CSV " + outputPath.getFileName(),
+                                                             graph.getNumberOfNodes() + graph.getNumberOfEdges())) {
+            Files.createDirectories(outputPath);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final String label : nodeLabels) {
+                final Path filePath = outputPath.resolve(nodeFileNames.get(label));
+                futures.add(executor.submit(() -> writeNodes(filePath, graph, label, tracker)));
+            }
+            for (final String label : edgeLabels) {
+                final Path filePath = outputPath.resolve(edgeFileNames.get(label));
+                futures.add(executor.submit(() -> writeEdges(filePath, graph, label, tracker)));
+            }
+            for (final Future<?> future : futures)
+                future.get();
+            writeArguments(outputPath, nodeFileNames.values(), edgeFileNames.values());
+            return true;
+        } catch (IOException | ExecutionException e) {
+            if (LOGGER.isErrorEnabled())
+                LOGGER.error("Failed to write Neo4j CSV files", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return false;
+    }
+
+    private static Void writeNodes(final Path filePath, final GraphView graph, final String label,
+                                   final ProgressTracker tracker) throws IOException {
+        final Map<String, Type> types = graph.getPropertyKeyTypesForNodeLabel(label);
+        final List<String> keys = getPropertyKeys(types, Node.IGNORED_FIELDS);
+        try (Writer writer = openWriter(filePath)) {
+            final StringBuilder builder = new StringBuilder();
+            builder.append(":ID,:LABEL");
+            appendHeader(builder, keys, types);
+            writeLine(writer, builder);
+            for (final Node node : graph.findNodes(label)) {
+                builder.append(node.getId()).append(',');
+                appendQuoted(builder, label);
+                appendProperties(builder, node, keys);
+                writeLine(writer, builder);
+                tracker.step();
+            }
+        }
+        return null;
+    }
+
+    private static Void writeEdges(final Path filePath, final GraphView graph, final String label,
+                                   final ProgressTracker tracker) throws IOException {
+        final Map<String, Type> types = graph.getPropertyKeyTypesForEdgeLabel(label);
+        final List<String> keys = getPropertyKeys(types, Edge.IGNORED_FIELDS);
+        try (Writer writer = openWriter(filePath)) {
+            final StringBuilder builder = new StringBuilder();
+            builder.append(":START_ID,:END_ID,:TYPE");
+            appendHeader(builder, keys, types);
+            writeLine(writer, builder);
+            for (final Edge edge : graph.findEdges(label)) {
+                builder.append(edge.getFromId()).append(',').append(edge.getToId()).append(',');
+                appendQuoted(builder, label);
+                appendProperties(builder, edge, keys);
+                writeLine(writer, builder);
+                tracker.step();
+            }
+        }
+        return null;
+    }
+
+    private static List<String> getPropertyKeys(final Map<String, Type> types, final Set<String> ignoredKeys) {
+        final List<String> keys = new ArrayList<>();
+        for (final String key : types.keySet())
+            if (!ignoredKeys.contains(key))
+                keys.add(key);
+        Collections.sort(keys);
+        return keys;
+    }
+
+    private static Writer openWriter(final Path filePath) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(filePath), StandardCharsets.UTF_8),
+                                  256 * 1024);
+    }
+
+    private static void writeLine(final Writer writer, final StringBuilder builder) throws IOException {
+        builder.append('\n');
+        writer.append(builder);
+        builder.setLength(0);
+    }
+
+    private static void appendHeader(final StringBuilder builder, final List<String> keys,
+                                     final Map<String, Type> types) {
+        for (final String key : keys) {
+            builder.append(',');
+            final String column = key + ':' + getTypeName(types.get(key));
+            if (column.indexOf(',') != -1 || column.indexOf('"') != -1)
+                appendQuoted(builder, column);
+            else
+                builder.append(column);
+        }
+    }
+
+    static String getTypeName(final Type type) {
+        if (type == null)
+            return "string";
+        if (type.isList())
+            return getTypeName(type.getComponentType()) + "[]";
+        return getTypeName(type.getType());
+    }
+
+    private static String getTypeName(final Class<?> type) {
+        if (type == null)
+            return "string";
+        if (type == Integer.class || type == int.class)
+            return "int";
+        if (type == Long.class || type == long.class || type == MVStoreId.class)
+            return "long";
+        if (type == Short.class || type == short.class)
+            return "short";
+        if (type == Byte.class || type == byte.class)
+            return "byte";
+        if (type == Float.class || type == float.class)
+            return "float";
+        if (type == Double.class || type == double.class)
+            return "double";
+        if (type == Boolean.class || type == boolean.class)
+            return "boolean";
+        if (type == Character.class || type == char.class)
+            return "char";
+        return "string";
+    }
+
+    private static void appendProperties(final StringBuilder builder, final MVStoreModel model,
+                                         final List<String> keys) {
+        for (final String key : keys) {
+            builder.append(',');
+            final Object value = model.get(key);
+            if (value != null)
+                appendValue(builder, value);
+        }
+    }
+
+    static void appendValue(final StringBuilder builder, final Object value) {
+        if (value.getClass().isArray())
+            appendArray(builder, value);
+        else if (value instanceof Collection)
+            appendArray(builder, ((Collection<?>) value).toArray());
+        else if (value instanceof MVStoreId)
+            builder.append(((MVStoreId) value).getIdValue());
+        else if (value instanceof Number || value instanceof Boolean)
+            builder.append(value);
+        else
+            appendQuoted(builder, value.toString());
+    }
+
+    private static void appendArray(final StringBuilder builder, final Object array) {
+        final int length = Array.getLength(array);
+        builder.append('"');
+        for (int i = 0; i < length; i++) {
+            if (i > 0)
+                builder.append(ARRAY_DELIMITER);
+            final Object element = Array.get(array, i);
+            if (element instanceof MVStoreId)
+                builder.append(((MVStoreId) element).getIdValue());
+            else if (element != null)
+                appendEscaped(builder, element.toString());
+        }
+        builder.append('"');
+    }
+
+    private static void appendQuoted(final StringBuilder builder, final String value) {
+        builder.append('"');
+        appendEscaped(builder, value);
+        builder.append('"');
+    }
+
+    private static void appendEscaped(final StringBuilder builder, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"')
+                builder.append('"');
+            builder.append(c);
+        }
+    }
+
+    private static void writeArguments(final Path outputPath, final Collection<String> nodeFileNames,
+                                       final Collection<String> edgeFileNames) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add("--id-type=INTEGER");
+        lines.add("--multiline-fields=true");
+        lines.add("--array-delimiter=" + ARRAY_DELIMITER);
+        for (final String fileName : nodeFileNames)
+            lines.add("--nodes=" + outputPath.resolve(fileName).toAbsolutePath());
+        for (final String fileName : edgeFileNames)
+            lines.add("--relationships=" + outputPath.resolve(fileName).toAbsolutePath());
+        Files.write(outputPath.resolve(ARGUMENTS_FILE_NAME), lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,248 @@
+package de.unibi.agbi.biodwh2.core.io.memory;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.*;
+import de.unibi.agbi.biodwh2.core.io.storage.BloomFilterStatistics;
+import de.unibi.agbi.biodwh2.core.io.storage.PropertyMatcher;
+import de.unibi.agbi.biodwh2.core.io.storage.PropertySchema;
+import de.unibi.agbi.biodwh2.core.io.storage.SchemaCatalog;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageCollection;
+import de.unibi.agbi.biodwh2.core.lang.Type;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Collection of models held on the heap. Writes are serialized per collection, while any number of threads may read
+ * concurrently without locking. Indices are only updated for properties whose value changed.
+ */
+public final class InMemoryCollection<T extends MVStoreModel> implements StorageCollection<T> {
+    private final String name;
+    private final boolean snapshot;
+    private final Map<Long, T> models;
+    private final Map<String, InMemoryIndex> indices;
+    private final SchemaCatalog schemaCatalog;
+    private MVStoreFindListener findListener;
+
+    InMemoryCollection(final InMemoryStorageBackend backend, final String name) {
+        this.name = name;
+        snapshot = false;
+        models = new ConcurrentHashMap<>();
+        indices = new ConcurrentHashMap<>();
+        schemaCatalog = SchemaCatalog.open(backend.openMap(name + "!meta"), false, Collections.emptyList());
+    }
+
+    private InMemoryCollection(final InMemoryCollection<T> source) {
+        name = source.name;
+        snapshot = true;
+        // Stored models are never modified, so the snapshot can share them
+        models = new HashMap<>(source.models);
+        indices = new HashMap<>();
+        for (final InMemoryIndex index : source.indices.values())
+            indices.put(index.getKey(), index.copy());
+        schemaCatalog = source.schemaCatalog;
+        findListener = source.findListener;
+    }
+
+    /**
+     * @return read-only copy of the collection, consistent as writes are blocked while copying
+     */
+    synchronized InMemoryCollection<T> snapshot() {
+        return new InMemoryCollection<>(this);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Bloom filters are ignored, as finds of missing values are single hash lookups already.
+     */
+    @Override
+    public void addIndex(final String key, final boolean arrayIndex, final MVStoreIndexType type,
+                         final double bloomFilterFalsePositiveRate) {
+        if (!indices.containsKey(key))
+            createIndex(key, arrayIndex, type);
+    }
+
+    private synchronized void createIndex(final String key, final boolean arrayIndex, final MVStoreIndexType type) {
+        if (indices.containsKey(key))
+            return;
+        if (snapshot)
+            throw new MVStoreIndexException("Failed to create index " + key + " on snapshot of " + name);
+        final InMemoryIndex index = new InMemoryIndex(name + "$" + key, key, arrayIndex, type);
+        for (final T obj : models.values()) {
+            final Object property = obj.get(key);
+            if (property != null)
+                index.put(property, obj.getId());
+        }
+        // Only published when populated, so concurrent finds don't use an incomplete index
+        indices.put(key, index);
+    }
+
+    @Override
+    public void forEachIndexEntry(final String key, final ObjLongConsumer<Comparable<?>> consumer) {
+        final InMemoryIndex index = indices.get(key);
+        if (index != null)
+            index.forEachEntry(consumer);
+    }
+
+    @Override
+    public boolean containsIndexEntry(final String key, final Comparable<?> value, final long id) {
+        final InMemoryIndex index = indices.get(key);
+        return index != null && index.containsEntry(value, id);
+    }
+
+    @Override
+    public synchronized void rebuildIndex(final String key) {
+        final InMemoryIndex index = indices.get(key);
+        if (index == null)
+            return;
+        checkWritable();
+        index.clear();
+        for (final T obj : models.values()) {
+            final Object property = obj.get(key);
+            if (property != null)
+                index.put(property, obj.getId());
+        }
+    }
+
+    @Override
+    public MVIndexDescription[] getIndexDescriptions() {
+        return indices.values().stream().filter(
+                i -> !i.getKey().equals(Edge.FROM_ID_FIELD) && !i.getKey().equals(Edge.TO_ID_FIELD)).map(
+                InMemoryIndex::getIndexDescription).toArray(MVIndexDescription[]::new);
+    }
+
+    @Override
+    public void setFindListener(final MVStoreFindListener findListener) {
+        this.findListener = findListener;
+    }
+
+    @Override
+    public Map<String, Type> getPropertyKeyTypes() {
+        return new HashMap<>(schemaCatalog.getTypes());
+    }
+
+    @Override
+    public Map<String, PropertySchema> getPropertySchemas() {
+        return schemaCatalog.getSchemas(size());
+    }
+
+    @Override
+    public Map<String, BloomFilterStatistics> getBloomFilterStatistics() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public synchronized T put(final T obj) {
+        checkWritable();
+        //noinspection unchecked
+        final T copy = (T) obj.deepCopy();
+        final T oldModel = models.put(copy.getId(), copy);
+        if (oldModel != null)
+            schemaCatalog.remove(oldModel);
+        schemaCatalog.add(copy);
+        for (final InMemoryIndex index : indices.values()) {
+            final Object property = copy.get(index.getKey());
+            final Object oldProperty = oldModel != null ? oldModel.get(index.getKey()) : null;
+            if (Objects.deepEquals(property, oldProperty))
+                continue;
+            if (oldProperty != null)
+                index.remove(oldProperty, oldModel.getId());
+            if (property != null)
+                index.put(property, copy.getId());
+        }
+        return oldModel;
+    }
+
+    private void checkWritable() {
+        if (snapshot)
+            throw new UnsupportedOperationException("Failed to modify snapshot of " + name);
+    }
+
+    @Override
+    public T get(final long id) {
+        final T obj = models.get(id);
+        //noinspection unchecked
+        return obj != null ? (T) obj.deepCopy() : null;
+    }
+
+    @Override
+    public synchronized void remove(final T obj) {
+        checkWritable();
+        final T oldModel = models.remove(obj.getId());
+        if (oldModel != null) {
+            for (final InMemoryIndex index : indices.values()) {
+                final Object property = oldModel.get(index.getKey());
+                if (property != null)
+                    index.remove(property, oldModel.getId());
+            }
+            schemaCatalog.remove(oldModel);
+        }
+    }
+
+    @Override
+    public long size() {
+        return models.size();
+    }
+
+    @Override
+    public Iterable<T> find(final String[] propertyKeys, final Comparable<?>[] propertyValues) {
+        final long start = System.nanoTime();
+        final Map<String, Type> propertyKeyTypes = schemaCatalog.getTypes();
+        for (final String propertyKey : propertyKeys)
+            if (!propertyKeyTypes.containsKey(propertyKey))
+                return new ArrayList<>();
+        final boolean[] hasIndexFlags = new boolean[propertyKeys.length];
+        Set<Long> ids = null;
+        for (int i = 0; i < propertyKeys.length; i++) {
+            final InMemoryIndex index = indices.get(propertyKeys[i]);
+            if (index != null) {
+                hasIndexFlags[i] = true;
+                final Set<Long> foundIds = index.find(propertyValues[i]);
+                if (ids == null)
+                    ids = foundIds;
+                else
+                    ids.retainAll(foundIds);
+            }
+        }
+        final Set<Long> finalIds = retainUnindexedIds(propertyKeys, propertyValues, hasIndexFlags, ids);
+        if (findListener != null)
+            findListener.onFind(propertyKeys, hasIndexFlags, finalIds.size(), System.nanoTime() - start);
+        // Models removed by a concurrent writer since the ids were collected are skipped
+        return () -> finalIds.stream().map(this::get).filter(Objects::nonNull).iterator();
+    }
+
+    private Set<Long> retainUnindexedIds(final String[] propertyKeys, final Comparable<?>[] propertyValues,
+                                         final boolean[] hasIndexFlags, final Set<Long> ids) {
+        boolean scan = false;
+        for (final boolean hasIndexFlag : hasIndexFlags)
+            scan |= !hasIndexFlag;
+        if (!scan)
+            return ids;
+        final Set<Long> result = new HashSet<>();
+        final Collection<Long> candidates = ids != null ? ids : models.keySet();
+        for (final Long id : candidates) {
+            final T obj = models.get(id);
+            if (obj != null && modelMatchesCriteria(obj, propertyKeys, propertyValues, hasIndexFlags))
+                result.add(id);
+        }
+        return result;
+    }
+
+    private static boolean modelMatchesCriteria(final MVStoreModel obj, final String[] propertyKeys,
+                                                final Comparable<?>[] propertyValues, final boolean[] hasIndexFlags) {
+        for (int i = 0; i < propertyKeys.length; i++)
+            if (!hasIndexFlags[i] && !PropertyMatcher.matches(obj.get(propertyKeys[i]), propertyValues[i]))
+                return false;
+        return true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return models.keySet().stream().map(this::get).filter(Objects::nonNull).iterator();
+    }
+}
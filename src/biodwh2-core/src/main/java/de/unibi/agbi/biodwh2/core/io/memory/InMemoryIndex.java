@@ -0,0 +1,112 @@
+package de.unibi.agbi.biodwh2.core.io.memory;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVIndexDescription;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreIndexException;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreIndexType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Index of a property of an {@link InMemoryCollection} mapping each value to the {@link InMemoryPostings} of the
+ * models having it. Elements of array values are indexed individually for array indices.
+ */
+final class InMemoryIndex {
+    private final String name;
+    private final String key;
+    private final boolean arrayIndex;
+    private final MVStoreIndexType type;
+    private final Map<Comparable<?>, InMemoryPostings> postings;
+
+    InMemoryIndex(final String name, final String key, final boolean arrayIndex, final MVStoreIndexType type) {
+        this.name = name;
+        this.key = key;
+        // Unique array indices are not supported, same as for the MVStore
+        this.arrayIndex = arrayIndex && type != MVStoreIndexType.UNIQUE;
+        this.type = type;
+        postings = new ConcurrentHashMap<>();
+    }
+
+    private InMemoryIndex(final InMemoryIndex source) {
+        name = source.name;
+        key = source.key;
+        arrayIndex = source.arrayIndex;
+        type = source.type;
+        postings = new HashMap<>();
+        for (final Map.Entry<Comparable<?>, InMemoryPostings> entry : source.postings.entrySet())
+            postings.put(entry.getKey(), entry.getValue().copy());
+    }
+
+    InMemoryIndex copy() {
+        return new InMemoryIndex(this);
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    MVIndexDescription getIndexDescription() {
+        return new MVIndexDescription(key, arrayIndex, type);
+    }
+
+    void put(final Object propertyValue, final long id) {
+        for (final Comparable<?> indexKey : getIndexKeys(propertyValue)) {
+            final InMemoryPostings ids = postings.computeIfAbsent(indexKey, k -> new InMemoryPostings());
+            if (type == MVStoreIndexType.UNIQUE && !ids.isEmpty())
+                throw new MVStoreIndexException(
+                        "Unique index " + name + " already has a value for key '" + indexKey + "'");
+            ids.add(id);
+        }
+    }
+
+    void remove(final Object propertyValue, final long id) {
+        for (final Comparable<?> indexKey : getIndexKeys(propertyValue)) {
+            final InMemoryPostings ids = postings.get(indexKey);
+            if (ids != null && ids.remove(id) && ids.isEmpty())
+                postings.remove(indexKey);
+        }
+    }
+
+    private Collection<Comparable<?>> getIndexKeys(final Object propertyValue) {
+        if (propertyValue instanceof Comparable<?>[]) {
+            if (type == MVStoreIndexType.UNIQUE)
+                throw new MVStoreIndexException("Unique array indices are not yet supported!");
+            if (!arrayIndex)
+                throw new MVStoreIndexException("Failed to index array value of " + key + " in non-array index " +
+                                                name);
+            // Duplicate elements are only indexed once
+            final Set<Comparable<?>> keys = new HashSet<>();
+            for (final Comparable<?> element : (Comparable<?>[]) propertyValue)
+                if (element != null)
+                    keys.add(element);
+            return keys;
+        }
+        if (propertyValue instanceof Comparable<?>)
+            return Collections.singletonList((Comparable<?>) propertyValue);
+        throw new MVStoreIndexException("Failed to index value of type " + propertyValue.getClass().getName() +
+                                        " in index " + name);
+    }
+
+    boolean containsEntry(final Comparable<?> propertyValue, final long id) {
+        final InMemoryPostings ids = propertyValue != null ? postings.get(propertyValue) : null;
+        return ids != null && ids.contains(id);
+    }
+
+    void forEachEntry(final ObjLongConsumer<Comparable<?>> consumer) {
+        for (final Map.Entry<Comparable<?>, InMemoryPostings> entry : postings.entrySet())
+            entry.getValue().forEach(id -> consumer.accept(entry.getKey(), id));
+    }
+
+    void clear() {
+        postings.clear();
+    }
+
+    Set<Long> find(final Comparable<?> propertyValue) {
+        final Set<Long> result = new HashSet<>();
+        final InMemoryPostings ids = propertyValue != null ? postings.get(propertyValue) : null;
+        if (ids != null)
+            ids.addTo(result);
+        return result;
+    }
+}
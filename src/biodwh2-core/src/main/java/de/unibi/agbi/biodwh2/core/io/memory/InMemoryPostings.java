@@ -0,0 +1,79 @@
+package de.unibi.agbi.biodwh2.core.io.memory;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Sorted ids of all models with one index value in a primitive array. Ids are mostly added in ascending order, which
+ * appends them without searching.
+ */
+final class InMemoryPostings {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] ids;
+    private int size;
+
+    InMemoryPostings() {
+        ids = new long[INITIAL_CAPACITY];
+    }
+
+    private InMemoryPostings(final InMemoryPostings source) {
+        ids = Arrays.copyOf(source.ids, Math.max(source.size, INITIAL_CAPACITY));
+        size = source.size;
+    }
+
+    synchronized InMemoryPostings copy() {
+        return new InMemoryPostings(this);
+    }
+
+    synchronized boolean add(final long id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            final int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0)
+                return false;
+            insert(-index - 1, id);
+        } else
+            insert(size, id);
+        return true;
+    }
+
+    private void insert(final int index, final long id) {
+        if (size == ids.length)
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        size++;
+    }
+
+    synchronized boolean remove(final long id) {
+        final int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0)
+            return false;
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    synchronized boolean contains(final long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    void forEach(final LongConsumer consumer) {
+        final long[] snapshot;
+        synchronized (this) {
+            snapshot = Arrays.copyOf(ids, size);
+        }
+        for (final long id : snapshot)
+            consumer.accept(id);
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    synchronized void addTo(final Set<Long> result) {
+        for (int i = 0; i < size; i++)
+            result.add(ids[i]);
+    }
+}
@@ -0,0 +1,54 @@
+package de.unibi.agbi.biodwh2.core.io.memory;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageCollection;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageSnapshot;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Copies of all maps and collections of a {@link InMemoryStorageBackend} taken when the snapshot was opened. Each
+ * collection is copied while its writes are blocked, so the models and indices of a collection are consistent.
+ */
+public final class InMemorySnapshot implements StorageSnapshot {
+    private final long version;
+    private final Map<Map<?, ?>, Map<?, ?>> maps;
+    private final Map<StorageCollection<?>, StorageCollection<?>> collections;
+
+    InMemorySnapshot(final long version, final Iterable<? extends Map<?, ?>> maps,
+                     final Iterable<? extends InMemoryCollection<?>> collections) {
+        this.version = version;
+        this.maps = new IdentityHashMap<>();
+        for (final Map<?, ?> map : maps)
+            this.maps.put(map, Collections.unmodifiableMap(new HashMap<>(map)));
+        this.collections = new IdentityHashMap<>();
+        for (final InMemoryCollection<?> collection : collections)
+            this.collections.put(collection, collection.snapshot());
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public <K, V> Map<K, V> openMap(final Map<K, V> map) {
+        //noinspection unchecked
+        return (Map<K, V>) maps.get(map);
+    }
+
+    @Override
+    public <T extends MVStoreModel> StorageCollection<T> openCollection(final StorageCollection<T> collection) {
+        //noinspection unchecked
+        return (StorageCollection<T>) collections.get(collection);
+    }
+
+    @Override
+    public void close() {
+        maps.clear();
+        collections.clear();
+    }
+}
@@ -0,0 +1,81 @@
+package de.unibi.agbi.biodwh2.core.io.memory;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageBackend;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage backend keeping all maps and collections on the heap without serialization. Suited for temporary graphs
+ * fitting into memory, which are discarded when closed. Snapshots copy all data when opened.
+ */
+public final class InMemoryStorageBackend implements StorageBackend {
+    private final Map<String, ConcurrentMap<?, ?>> maps;
+    private final Map<String, InMemoryCollection<?>> collections;
+    private final List<String> collectionNames;
+    private final AtomicLong snapshotVersion = new AtomicLong();
+
+    public InMemoryStorageBackend() {
+        maps = new ConcurrentHashMap<>();
+        collections = new ConcurrentHashMap<>();
+        collectionNames = new CopyOnWriteArrayList<>();
+    }
+
+    @Override
+    public boolean hasMap(final String name) {
+        return maps.containsKey(name);
+    }
+
+    @Override
+    public <K, V> ConcurrentMap<K, V> openMap(final String name) {
+        //noinspection unchecked
+        return (ConcurrentMap<K, V>) maps.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public <T extends MVStoreModel> InMemoryCollection<T> getCollection(final String name) {
+        final InMemoryCollection<?> collection = collections.get(name);
+        //noinspection unchecked
+        return collection != null ? (InMemoryCollection<T>) collection : createCollection(name);
+    }
+
+    private synchronized <T extends MVStoreModel> InMemoryCollection<T> createCollection(final String name) {
+        InMemoryCollection<?> collection = collections.get(name);
+        if (collection == null) {
+            collection = new InMemoryCollection<>(this, name);
+            collections.put(name, collection);
+            collectionNames.add(name);
+        }
+        //noinspection unchecked
+        return (InMemoryCollection<T>) collection;
+    }
+
+    @Override
+    public String[] getCollectionNames() {
+        return collectionNames.toArray(new String[0]);
+    }
+
+    @Override
+    public InMemorySnapshot openSnapshot() {
+        return new InMemorySnapshot(snapshotVersion.incrementAndGet(), maps.values(), collections.values());
+    }
+
+    /**
+     * Nothing to persist, as all changes are applied to the heap directly.
+     */
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void close() {
+        maps.clear();
+        collections.clear();
+        collectionNames.clear();
+    }
+}
@@ -0,0 +1,205 @@
+package de.unibi.agbi.biodwh2.core.io.mvstore;
+
+import de.unibi.agbi.biodwh2.core.collections.BloomFilter;
+import de.unibi.agbi.biodwh2.core.io.storage.BloomFilterStatistics;
+import de.unibi.agbi.biodwh2.core.monitoring.Counter;
+import de.unibi.agbi.biodwh2.core.monitoring.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filters of the indices of a collection, answering finds of values which were never indexed without reading
+ * the index. Like the schema catalog, the filters are only written to the metadata of the collection when the store
+ * is committed or closed and removed from it before the first modification afterwards. Missing, saturated or
+ * differently configured filters are rebuilt from the index values when the collection is opened, as are all filters
+ * if the number of models changed since they were stored, as by versions writing the collection without filters.
+ * Saturated filters are rebuilt with twice the capacity while writing.
+ */
+final class IndexBloomFilters {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexBloomFilters.class);
+    private static final String BLOOM_FILTERS = "bloom_filters";
+    private static final String BLOOM_FILTERS_MODEL_COUNT = "bloom_filters_model_count";
+    private static final long MIN_EXPECTED_INSERTIONS = 1024;
+    private static final Counter NEGATIVES_COUNTER = MetricsRegistry.getInstance().counter(
+            "biodwh2_bloom_filter_negatives_total", "Index finds answered by bloom filters without reading the index");
+    private static final Counter FALSE_POSITIVES_COUNTER = MetricsRegistry.getInstance().counter(
+            "biodwh2_bloom_filter_false_positives_total", "Index finds passing bloom filters without finding entries");
+
+    private final Map<String, Object> metaMap;
+    private final boolean readOnly;
+    private final Map<String, IndexBloomFilter> filters;
+    private Map<String, BloomFilter> storedFilters;
+    private volatile boolean modified;
+
+    IndexBloomFilters(final Map<String, Object> metaMap, final boolean readOnly) {
+        this.metaMap = metaMap;
+        this.readOnly = readOnly;
+        filters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Use the stored filter of the index if it is up-to-date or build it from the index values otherwise.
+     *
+     * @param modelCount number of models of the collection, used to size new filters
+     */
+    synchronized void open(final MVStoreIndex index, final double falsePositiveRate, final long modelCount) {
+        if (storedFilters == null) {
+            final Object stored = metaMap.get(BLOOM_FILTERS);
+            final boolean upToDate = stored instanceof Map && Objects.equals(metaMap.get(BLOOM_FILTERS_MODEL_COUNT),
+                                                                             modelCount);
+            //noinspection unchecked
+            storedFilters = upToDate ? (Map<String, BloomFilter>) stored : new HashMap<>();
+        }
+        // Stored filters are copied, as they are modified in place
+        BloomFilter filter = storedFilters.get(index.getKey());
+        if (filter != null && filter.getFalsePositiveRate() == falsePositiveRate && !filter.isSaturated())
+            filter = filter.copy();
+        else {
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Building bloom filter of index " + index.getName());
+            filter = build(index, falsePositiveRate, modelCount);
+            markModified();
+        }
+        filters.put(index.getKey(), new IndexBloomFilter(filter));
+    }
+
+    private static BloomFilter build(final MVStoreIndex index, final double falsePositiveRate,
+                                     final long expectedValues) {
+        long expectedInsertions = Math.max(MIN_EXPECTED_INSERTIONS, expectedValues);
+        BloomFilter filter;
+        do {
+            filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+            index.forEachValue(filter::add);
+            expectedInsertions *= 2;
+        } while (filter.isSaturated());
+        return filter;
+    }
+
+    boolean hasFilter(final String key, final double falsePositiveRate) {
+        final IndexBloomFilter filter = filters.get(key);
+        return filter != null && filter.filter.getFalsePositiveRate() == falsePositiveRate;
+    }
+
+    /**
+     * @return the configured false positive rate of the filter of the index or 0 if it has no filter
+     */
+    double getFalsePositiveRate(final String key) {
+        final IndexBloomFilter filter = filters.get(key);
+        return filter != null ? filter.filter.getFalsePositiveRate() : 0;
+    }
+
+    /**
+     * Add the property value of a model written to the index. Must be called after the index was updated, so a
+     * rebuilt filter contains the value as well, and after {@link #markModified()}.
+     */
+    synchronized void add(final MVStoreIndex index, final Object propertyValue) {
+        final IndexBloomFilter filter = filters.get(index.getKey());
+        if (filter == null)
+            return;
+        if (index.isArrayIndex()) {
+            for (final Object value : (Object[]) propertyValue)
+                filter.filter.add(value);
+        } else
+            filter.filter.add(propertyValue);
+        if (filter.filter.isSaturated())
+            filter.filter = build(index, filter.filter.getFalsePositiveRate(), filter.filter.getInsertions() * 2);
+    }
+
+    /**
+     * Build the filter of the index again from its values, so values of removed models are dropped.
+     */
+    synchronized void rebuild(final MVStoreIndex index, final long modelCount) {
+        final IndexBloomFilter filter = filters.get(index.getKey());
+        if (filter != null) {
+            markModified();
+            filter.filter = build(index, filter.filter.getFalsePositiveRate(), modelCount);
+        }
+    }
+
+    /**
+     * Remove the stored filters from the metadata with the first modification of the collection after they were
+     * stored. Must be called before the collection is modified, so filters missing values are never reused, even if
+     * modified pages are persisted without storing the filters again.
+     */
+    void markModified() {
+        if (!modified && !readOnly)
+            synchronized (this) {
+                if (!modified) {
+                    modified = true;
+                    metaMap.remove(BLOOM_FILTERS);
+                    metaMap.remove(BLOOM_FILTERS_MODEL_COUNT);
+                }
+            }
+    }
+
+    /**
+     * @return false if the index has a filter and the value was never added to it
+     */
+    boolean mightContain(final String key, final Comparable<?> value) {
+        final IndexBloomFilter filter = filters.get(key);
+        if (filter == null || filter.filter.mightContain(value))
+            return true;
+        filter.negatives.increment();
+        NEGATIVES_COUNTER.increment();
+        return false;
+    }
+
+    /**
+     * Count a lookup passing the filter of the index for which the index had no entries.
+     */
+    void recordFalsePositive(final String key) {
+        final IndexBloomFilter filter = filters.get(key);
+        if (filter != null) {
+            filter.falsePositives.increment();
+            FALSE_POSITIVES_COUNTER.increment();
+        }
+    }
+
+    /**
+     * Write the filters to the metadata if they were modified.
+     */
+    synchronized void store(final long modelCount) {
+        if (!modified || readOnly)
+            return;
+        final HashMap<String, BloomFilter> copy = new HashMap<>();
+        for (final Map.Entry<String, IndexBloomFilter> entry : filters.entrySet())
+            copy.put(entry.getKey(), entry.getValue().filter.copy());
+        metaMap.put(BLOOM_FILTERS, copy);
+        metaMap.put(BLOOM_FILTERS_MODEL_COUNT, modelCount);
+        storedFilters = null;
+        modified = false;
+    }
+
+    Map<String, BloomFilterStatistics> getStatistics() {
+        final Map<String, BloomFilterStatistics> result = new HashMap<>();
+        for (final Map.Entry<String, IndexBloomFilter> entry : filters.entrySet()) {
+            final IndexBloomFilter filter = entry.getValue();
+            final BloomFilter bloomFilter = filter.filter;
+            result.put(entry.getKey(), new BloomFilterStatistics(entry.getKey(), bloomFilter.getFalsePositiveRate(),
+                                                                 bloomFilter.estimateFalsePositiveRate(),
+                                                                 bloomFilter.getInsertions(),
+                                                                 bloomFilter.getSizeInBytes(), filter.negatives.sum(),
+                                                                 filter.falsePositives.sum()));
+        }
+        return result;
+    }
+
+    private static final class IndexBloomFilter {
+        /**
+         * Replaced when the filter is rebuilt, so readers never see a partially built filter.
+         */
+        volatile BloomFilter filter;
+        final LongAdder negatives = new LongAdder();
+        final LongAdder falsePositives = new LongAdder();
+
+        IndexBloomFilter(final BloomFilter filter) {
+            this.filter = filter;
+        }
+    }
+}
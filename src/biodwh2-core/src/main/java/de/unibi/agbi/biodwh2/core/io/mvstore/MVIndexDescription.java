@@ -4,11 +4,18 @@ public final class MVIndexDescription {
     private final String property;
     private final boolean isArrayProperty;
     private final MVStoreIndexType type;
+    private final double bloomFilterFalsePositiveRate;
 
-    MVIndexDescription(final String property, final boolean isArrayProperty, final MVStoreIndexType type) {
+    public MVIndexDescription(final String property, final boolean isArrayProperty, final MVStoreIndexType type) {
+        this(property, isArrayProperty, type, 0);
+    }
+
+    public MVIndexDescription(final String property, final boolean isArrayProperty, final MVStoreIndexType type,
+                              final double bloomFilterFalsePositiveRate) {
         this.property = property;
         this.isArrayProperty = isArrayProperty;
         this.type = type;
+        this.bloomFilterFalsePositiveRate = bloomFilterFalsePositiveRate;
     }
 
     public String getProperty() {
@@ -22,4 +29,11 @@ public final class MVIndexDescription {
     public MVStoreIndexType getType() {
         return type;
     }
+
+    /**
+     * @return the false positive rate of the bloom filter of the index or 0 if it has none
+     */
+    public double getBloomFilterFalsePositiveRate() {
+        return bloomFilterFalsePositiveRate;
+    }
 }
@@ -3,7 +3,6 @@ package de.unibi.agbi.biodwh2.core.io.mvstore;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 
-import java.io.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
@@ -18,11 +17,30 @@ import java.util.stream.Collectors;
 public final class MVMapWrapper<K, V> implements ConcurrentMap<K, V> {
     private final MVMap<K, V> mvMap;
     private final MVStore mvStore;
-    private MVStore.TxCounter lock;
+    /**
+     * Whether the map is a read-only snapshot of a version pinned by a {@link MVStoreSnapshot}, so operations don't
+     * need to register their own version usage.
+     */
+    private final boolean snapshot;
 
     MVMapWrapper(final MVStore mvStore, final MVMap<K, V> mvMap) {
+        this(mvStore, mvMap, false);
+    }
+
+    private MVMapWrapper(final MVStore mvStore, final MVMap<K, V> mvMap, final boolean snapshot) {
         this.mvStore = mvStore;
         this.mvMap = mvMap;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * @return read-only map of the version or null if the map was created after the version
+     */
+    MVMapWrapper<K, V> openSnapshot(final long version) {
+        if (snapshot)
+            return this;
+        return mvMap.getCreateVersion() <= version ? new MVMapWrapper<>(mvStore, mvMap.openVersion(version), true) :
+               null;
     }
 
     @Override
@@ -49,15 +67,18 @@ public final class MVMapWrapper<K, V> implements ConcurrentMap<K, V> {
         return mvMap.containsValue(value);
     }
 
-    void lock() {
-        if (lock == null)
-            lock = mvStore.registerVersionUsage();
+    /**
+     * Register a usage of the current store version, so it isn't released while reading or writing. Each call
+     * returns its own counter, so concurrent threads don't release each other's usage. Snapshots are already pinned
+     * and return null.
+     */
+    MVStore.TxCounter lock() {
+        return snapshot ? null : mvStore.registerVersionUsage();
     }
 
-    void unlock() {
+    void unlock(final MVStore.TxCounter lock) {
         if (lock != null)
             mvStore.deregisterVersionUsage(lock);
-        lock = null;
     }
 
     V unsafeGet(final Object key) {
@@ -66,24 +87,22 @@ public final class MVMapWrapper<K, V> implements ConcurrentMap<K, V> {
 
     @Override
     public V get(final Object key) {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             return clone(mvMap.get(key));
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     private V clone(final V value) {
-        try {
-            final ByteArrayOutputStream output = new ByteArrayOutputStream();
-            new ObjectOutputStream(output).writeObject(value);
-            final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()));
+        if (value == null || MVStoreModel.isImmutable(value))
+            return value;
+        if (value instanceof MVStoreModel)
             //noinspection unchecked
-            return (V) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            return null;
-        }
+            return (V) ((MVStoreModel) value).deepCopy();
+        //noinspection unchecked
+        return (V) MVStoreModel.serializationCopy(value);
     }
 
     void unsafePut(final K key, final V value) {
@@ -92,12 +111,12 @@ public final class MVMapWrapper<K, V> implements ConcurrentMap<K, V> {
 
     @Override
     public V put(final K key, final V value) {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             mvMap.put(key, value);
             return value;
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
@@ -107,41 +126,41 @@ public final class MVMapWrapper<K, V> implements ConcurrentMap<K, V> {
 
     @Override
     public V remove(final Object key) {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             return mvMap.remove(key);
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     @Override
     public void putAll(final Map<? extends K, ? extends V> m) {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             mvMap.putAll(m);
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     @Override
     public void clear() {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             mvMap.clear();
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     @Override
     public Set<K> keySet() {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             return new HashSet<>(mvMap.keySet());
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
@@ -151,64 +170,64 @@ public final class MVMapWrapper<K, V> implements ConcurrentMap<K, V> {
 
     @Override
     public Collection<V> values() {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             return mvMap.values().stream().map(this::clone).collect(Collectors.toList());
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             return mvMap.entrySet().stream().map(
                     e -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), clone(e.getValue()))).collect(
                     Collectors.toSet());
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     @Override
     public V putIfAbsent(final K key, final V value) {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             return mvMap.putIfAbsent(key, value);
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     @Override
     public boolean remove(final Object key, final Object value) {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             return mvMap.remove(key, value);
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     @Override
     public boolean replace(final K key, final V oldValue, final V newValue) {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             // TODO: cloned object?
             return mvMap.replace(key, oldValue, newValue);
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 
     @Override
     public V replace(final K key, final V value) {
-        lock();
+        final MVStore.TxCounter lock = lock();
         try {
             return mvMap.replace(key, value);
         } finally {
-            unlock();
+            unlock(lock);
         }
     }
 }
@@ -1,74 +1,127 @@
 package de.unibi.agbi.biodwh2.core.io.mvstore;
 
+import de.unibi.agbi.biodwh2.core.io.storage.BloomFilterStatistics;
+import de.unibi.agbi.biodwh2.core.io.storage.PropertyMatcher;
+import de.unibi.agbi.biodwh2.core.io.storage.PropertySchema;
+import de.unibi.agbi.biodwh2.core.io.storage.SchemaCatalog;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageCollection;
 import de.unibi.agbi.biodwh2.core.lang.Type;
 import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.monitoring.MetricsRegistry;
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import de.unibi.agbi.biodwh2.core.monitoring.Timer;
 
 import java.util.*;
-
-public final class MVStoreCollection<T extends MVStoreModel> implements Iterable<T> {
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Collection of models with property indices. Writes and index creation are serialized per collection, while any
+ * number of threads may read concurrently without locking. Stored models are copies, so they can't be changed by the
+ * writer while they are read.
+ */
+public final class MVStoreCollection<T extends MVStoreModel> implements StorageCollection<T> {
     private static final String INDEX_KEYS = "index_keys";
     private static final String INDEX_ARRAY_FLAGS = "index_array_flags";
     private static final String INDEX_TYPES = "index_types";
-    private static final String ALL_PROPERTY_KEYS = "all_property_keys";
-    private static final String ALL_PROPERTY_TYPES = "all_property_types";
+    private static final String INDEX_BLOOM_FILTER_RATES = "index_bloom_filter_rates";
+    private static final Timer INDEX_PUT_TIMER = MetricsRegistry.getInstance().timer("biodwh2_index_put_seconds",
+                                                                                     "Latency of index put operations");
+    private static final Timer INDEX_FIND_TIMER = MetricsRegistry.getInstance().timer("biodwh2_index_find_seconds",
+                                                                                      "Latency of index find operations");
+    private static final int PUT_BATCH_SIZE = 10000;
 
     private final boolean readOnly;
+    /**
+     * Whether this is a read-only view of a version pinned by a {@link MVStoreSnapshot}.
+     */
+    private final boolean snapshot;
     private final MVStoreDB db;
     private final String name;
     private final MVMapWrapper<Long, T> map;
     private final MVMapWrapper<String, Object> metaMap;
     private final Map<String, MVStoreIndex> indices;
-    private final Map<String, Type> propertyKeyTypes;
-    private boolean isDirty;
+    private final SchemaCatalog schemaCatalog;
+    private final IndexBloomFilters bloomFilters;
+    private volatile boolean isDirty;
+    private ProfilingEvents.CollectionPutBatch putBatchEvent;
+    private int putBatchCount;
+    private MVStoreFindListener findListener;
 
     MVStoreCollection(final MVStoreDB db, final String name, final boolean readOnly) {
         this.readOnly = readOnly;
+        snapshot = false;
         this.db = db;
         this.name = name;
         map = db.openMap(name);
         metaMap = db.openMap(name + "!meta");
-        indices = new HashMap<>();
-        propertyKeyTypes = new HashMap<>();
-        initPropertyKeyTypes();
+        indices = new ConcurrentHashMap<>();
+        schemaCatalog = SchemaCatalog.open(metaMap, readOnly, map.values());
+        bloomFilters = new IndexBloomFilters(metaMap, readOnly);
         isDirty = false;
         initIndices();
     }
 
+    private MVStoreCollection(final MVStoreCollection<T> source, final MVMapWrapper<Long, T> map,
+                              final MVStoreSnapshot snapshot) {
+        readOnly = true;
+        this.snapshot = true;
+        db = source.db;
+        name = source.name;
+        this.map = map;
+        metaMap = source.metaMap;
+        indices = new ConcurrentHashMap<>();
+        // Indices not supporting snapshots are left out, so finds on their keys scan the pinned version instead
+        for (final MVStoreIndex index : source.indices.values()) {
+            final MVStoreIndex snapshotIndex = index.snapshot(snapshot);
+            if (snapshotIndex != null)
+                indices.put(snapshotIndex.getKey(), snapshotIndex);
+        }
+        schemaCatalog = source.schemaCatalog;
+        // Filters are rebuilt without values removed after the pinned version, so snapshots don't use them
+        bloomFilters = new IndexBloomFilters(metaMap, true);
+        findListener = source.findListener;
+    }
+
+    /**
+     * @return read-only view of this collection at the version pinned by the snapshot or null if the collection was
+     * created after the version
+     */
+    MVStoreCollection<T> snapshot(final MVStoreSnapshot snapshot) {
+        final MVMapWrapper<Long, T> snapshotMap = snapshot.openMap(map);
+        return snapshotMap != null ? new MVStoreCollection<>(this, snapshotMap, snapshot) : null;
+    }
+
     private void initIndices() {
         final String[] indexKeys = (String[]) metaMap.get(INDEX_KEYS);
         final boolean[] indexArrayFlags = (boolean[]) metaMap.get(INDEX_ARRAY_FLAGS);
         MVStoreIndexType[] indexTypes = (MVStoreIndexType[]) metaMap.get(INDEX_TYPES);
+        final double[] bloomFilterRates = (double[]) metaMap.get(INDEX_BLOOM_FILTER_RATES);
         if (indexKeys != null) {
             // legacy fill index types with non-unique as previously only those existed
             if (indexTypes == null) {
                 indexTypes = new MVStoreIndexType[indexKeys.length];
                 Arrays.fill(indexTypes, MVStoreIndexType.NON_UNIQUE);
             }
-            for (int i = 0; i < indexKeys.length; i++)
-                getIndex(indexKeys[i], indexArrayFlags[i], indexTypes[i], true);
+            for (int i = 0; i < indexKeys.length; i++) {
+                final MVStoreIndex index = getIndex(indexKeys[i], indexArrayFlags[i], indexTypes[i], true);
+                if (bloomFilterRates != null && bloomFilterRates[i] > 0)
+                    bloomFilters.open(index, bloomFilterRates[i], map.sizeAsLong());
+            }
         } else
-            storeIndicesMetadata(new String[0], new boolean[0], new MVStoreIndexType[0]);
+            storeIndicesMetadata(new String[0], new boolean[0], new MVStoreIndexType[0], new double[0]);
     }
 
-    private void storeIndicesMetadata(final String[] keys, final boolean[] arrayFlags, final MVStoreIndexType[] types) {
+    private void storeIndicesMetadata(final String[] keys, final boolean[] arrayFlags, final MVStoreIndexType[] types,
+                                      final double[] bloomFilterRates) {
         if (!readOnly) {
             metaMap.put(INDEX_KEYS, keys);
             metaMap.put(INDEX_ARRAY_FLAGS, arrayFlags);
             metaMap.put(INDEX_TYPES, types);
+            metaMap.put(INDEX_BLOOM_FILTER_RATES, bloomFilterRates);
         }
     }
 
-    private void initPropertyKeyTypes() {
-        final String[] keys = (String[]) metaMap.get(ALL_PROPERTY_KEYS);
-        final Type[] types = (Type[]) metaMap.get(ALL_PROPERTY_TYPES);
-        if (keys == null || types == null)
-            for (final T obj : map.values())
-                updateAllPropertyKeys(obj);
-        else
-            for (int i = 0; i < keys.length; i++)
-                propertyKeyTypes.put(keys[i], types[i]);
-    }
-
     public MVStoreIndex getIndex(final String key) {
         return getIndex(key, false, MVStoreIndexType.NON_UNIQUE, false);
     }
@@ -77,10 +130,55 @@ public final class MVStoreCollection<T extends MVStoreModel> implements Iterable
         return getIndex(key, arrayIndex, type, false);
     }
 
+    @Override
+    public void addIndex(final String key, final boolean arrayIndex, final MVStoreIndexType type,
+                         final double bloomFilterFalsePositiveRate) {
+        final MVStoreIndex index = getIndex(key, arrayIndex, type, false);
+        if (bloomFilterFalsePositiveRate > 0 && !bloomFilters.hasFilter(key, bloomFilterFalsePositiveRate))
+            addBloomFilter(index, bloomFilterFalsePositiveRate);
+    }
+
+    /**
+     * Filters are built while writes are blocked, so no value written meanwhile is missing.
+     */
+    private synchronized void addBloomFilter(final MVStoreIndex index, final double falsePositiveRate) {
+        if (snapshot)
+            throw new MVStoreIndexException(
+                    "Failed to add bloom filter to index " + index.getKey() + " on snapshot of " + name);
+        if (bloomFilters.hasFilter(index.getKey(), falsePositiveRate))
+            return;
+        bloomFilters.open(index, falsePositiveRate, map.sizeAsLong());
+        if (readOnly)
+            return;
+        final String[] keys = (String[]) metaMap.get(INDEX_KEYS);
+        final double[] rates = getBloomFilterRates(keys.length);
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i].equals(index.getKey()))
+                rates[i] = falsePositiveRate;
+        metaMap.put(INDEX_BLOOM_FILTER_RATES, rates);
+    }
+
+    /**
+     * @return copy of the bloom filter rates of all indices, filled with zeros for indices created before bloom filters
+     * existed
+     */
+    private double[] getBloomFilterRates(final int length) {
+        final double[] rates = (double[]) metaMap.get(INDEX_BLOOM_FILTER_RATES);
+        return rates == null ? new double[length] : Arrays.copyOf(rates, length);
+    }
+
     private MVStoreIndex getIndex(final String key, final boolean arrayIndex, final MVStoreIndexType type,
                                   final boolean reopen) {
+        final MVStoreIndex index = indices.get(key);
+        return index != null ? index : createIndex(key, arrayIndex, type, reopen);
+    }
+
+    private synchronized MVStoreIndex createIndex(final String key, final boolean arrayIndex,
+                                                  final MVStoreIndexType type, final boolean reopen) {
         MVStoreIndex index = indices.get(key);
         if (index == null) {
+            if (snapshot)
+                throw new MVStoreIndexException("Failed to create index " + key + " on snapshot of " + name);
             final String indexName = name + "$" + key;
             switch (type) {
                 case UNIQUE:
@@ -91,11 +189,12 @@ public final class MVStoreCollection<T extends MVStoreModel> implements Iterable
                     index = new MVStoreNonUniqueTrieIndex(db, indexName, key, arrayIndex, readOnly);
                     break;
             }
-            indices.put(key, index);
             if (!reopen && !readOnly) {
                 addIndexMetadata(index);
                 populateNewIndexIfDirty(index);
             }
+            // Only published when populated, so concurrent finds don't use an incomplete index
+            indices.put(key, index);
         }
         return index;
     }
@@ -110,35 +209,151 @@ public final class MVStoreCollection<T extends MVStoreModel> implements Iterable
         MVStoreIndexType[] types = (MVStoreIndexType[]) metaMap.get(INDEX_TYPES);
         types = types == null ? new MVStoreIndexType[1] : Arrays.copyOf(types, types.length + 1);
         types[types.length - 1] = index.getType();
-        storeIndicesMetadata(keys, arrayFlags, types);
+        storeIndicesMetadata(keys, arrayFlags, types, getBloomFilterRates(keys.length));
     }
 
     private void populateNewIndexIfDirty(final MVStoreIndex index) {
-        if (isDirty)
+        if (isDirty) {
+            final ProfilingEvents.IndexRebuild event = ProfilingEvents.beginIndexRebuild();
             for (final T obj : map.values())
                 index.put(obj.get(index.getKey()), obj.getId());
+            event.end(name, index.getKey(), map.sizeAsLong());
+        }
+    }
+
+    @Override
+    public void forEachIndexEntry(final String key, final ObjLongConsumer<Comparable<?>> consumer) {
+        final MVStoreIndex index = indices.get(key);
+        if (index != null)
+            index.forEachEntry(consumer);
     }
 
+    @Override
+    public boolean containsIndexEntry(final String key, final Comparable<?> value, final long id) {
+        final MVStoreIndex index = indices.get(key);
+        return index != null && index.containsEntry(value, id);
+    }
+
+    @Override
+    public void rebuildIndex(final String key) {
+        db.beginWrite();
+        try {
+            rebuildIndexLocked(key);
+        } finally {
+            db.endWrite();
+        }
+    }
+
+    private synchronized void rebuildIndexLocked(final String key) {
+        final MVStoreIndex index = indices.get(key);
+        if (index == null)
+            return;
+        if (readOnly)
+            throw new MVStoreIndexException("Failed to rebuild index " + key + " of read-only collection " + name);
+        final ProfilingEvents.IndexRebuild event = ProfilingEvents.beginIndexRebuild();
+        index.clear();
+        for (final T obj : map.values()) {
+            final Object property = obj.get(key);
+            if (property != null)
+                index.put(property, obj.getId());
+        }
+        bloomFilters.rebuild(index, map.sizeAsLong());
+        event.end(name, key, map.sizeAsLong());
+    }
+
+    @Override
     public MVIndexDescription[] getIndexDescriptions() {
         return indices.values().stream().filter(
                 i -> !i.getKey().equals(Edge.FROM_ID_FIELD) && !i.getKey().equals(Edge.TO_ID_FIELD)).map(
-                MVStoreIndex::getIndexDescription).toArray(MVIndexDescription[]::new);
+                i -> new MVIndexDescription(i.getKey(), i.isArrayIndex(), i.getType(),
+                                            bloomFilters.getFalsePositiveRate(i.getKey()))).toArray(
+                MVIndexDescription[]::new);
     }
 
+    @Override
+    public void setFindListener(final MVStoreFindListener findListener) {
+        this.findListener = findListener;
+    }
+
+    @Override
     public Map<String, Type> getPropertyKeyTypes() {
-        return new HashMap<>(propertyKeyTypes);
+        return new HashMap<>(schemaCatalog.getTypes());
+    }
+
+    /**
+     * @return the schema of all property keys observed in the collection. Snapshots share the statistics of the
+     * collection, so these may include models written after the snapshot was opened.
+     */
+    @Override
+    public Map<String, PropertySchema> getPropertySchemas() {
+        return schemaCatalog.getSchemas(size());
+    }
+
+    @Override
+    public Map<String, BloomFilterStatistics> getBloomFilterStatistics() {
+        return bloomFilters.getStatistics();
     }
 
-    public void put(final T obj) {
+    /**
+     * Write the schema catalog and bloom filters to the metadata. The pending put batch event is ended as well, so the
+     * last partial batch before a commit or close is recorded. Synchronized with puts and removes, as it is called by
+     * commits under memory pressure from other threads, and the metadata must not be stored between writing a model
+     * and adding its values to the catalog and filters.
+     */
+    synchronized void storeMetadata() {
+        if (!readOnly) {
+            endPutBatch();
+            schemaCatalog.store();
+            bloomFilters.store(map.sizeAsLong());
+        }
+    }
+
+    private synchronized void endPutBatch() {
+        if (putBatchCount > 0) {
+            putBatchEvent.end(name, putBatchCount);
+            putBatchEvent = null;
+            putBatchCount = 0;
+        }
+    }
+
+    /**
+     * Writes are shared with other writers of the store, so snapshots are only opened between complete writes, in
+     * which the model and its index entries are consistent.
+     */
+    @Override
+    public T put(final T obj) {
+        db.beginWrite();
+        try {
+            return putLocked(obj);
+        } finally {
+            db.endWrite();
+        }
+    }
+
+    private synchronized T putLocked(final T obj) {
+        if (putBatchCount == 0)
+            putBatchEvent = ProfilingEvents.beginCollectionPutBatch();
         isDirty = true;
-        removeOldVersionFromIndices(map.get(obj.getId()));
-        map.put(obj.getId(), obj);
-        updateAllPropertyKeys(obj);
+        bloomFilters.markModified();
+        final T oldModel = map.get(obj.getId());
+        removeOldVersionFromIndices(oldModel);
+        if (oldModel != null)
+            schemaCatalog.remove(oldModel);
+        //noinspection unchecked
+        map.put(obj.getId(), (T) obj.deepCopy());
+        schemaCatalog.add(obj);
         for (final MVStoreIndex index : indices.values()) {
             final Object property = obj.get(index.getKey());
-            if (property != null)
+            if (property != null) {
+                final long start = System.nanoTime();
                 index.put(property, obj.getId());
+                INDEX_PUT_TIMER.recordSince(start);
+                bloomFilters.add(index, property);
+            }
         }
+        if (++putBatchCount == PUT_BATCH_SIZE)
+            endPutBatch();
+        return oldModel;
     }
 
     private void removeOldVersionFromIndices(final T oldModel) {
@@ -153,86 +368,41 @@ public final class MVStoreCollection<T extends MVStoreModel> implements Iterable
             }
     }
 
-    private void updateAllPropertyKeys(final T obj) {
-        final int previousSize = propertyKeyTypes.size();
-        boolean changed = false;
-        for (final String key : obj.keySet()) {
-            final Object value = obj.getProperty(key);
-            if (value == null)
-                continue;
-            if (!propertyKeyTypes.containsKey(key)) {
-                propertyKeyTypes.put(key, Type.fromObject(value));
-                changed = true;
-            } else if (propertyKeyTypes.get(key) != null) {
-                final Type oldType = propertyKeyTypes.get(key);
-                final Type newType = Type.fromObject(value);
-                if (oldType.isList() && newType.getComponentType() != null) {
-                    if (oldType.getComponentType() == null || newType.getComponentType().isAssignableFrom(
-                            oldType.getComponentType())) {
-                        propertyKeyTypes.put(key, newType);
-                        changed = true;
-                    }
-                }
-            }
-        }
-        if (changed || previousSize != propertyKeyTypes.size()) {
-            final String[] keys = propertyKeyTypes.keySet().toArray(new String[0]);
-            final Type[] types = new Type[keys.length];
-            for (int i = 0; i < types.length; i++)
-                types[i] = propertyKeyTypes.get(keys[i]);
-            if (!readOnly) {
-                metaMap.put(ALL_PROPERTY_KEYS, keys);
-                metaMap.put(ALL_PROPERTY_TYPES, types);
-            }
-        }
-    }
-
     public T get(final MVStoreId id) {
         return map.getOrDefault(id.getIdValue(), null);
     }
 
+    @Override
     public T get(final long id) {
         return map.getOrDefault(id, null);
     }
 
+    @Override
     public String getName() {
         return name;
     }
 
-    public Iterable<T> find(final String propertyKey, final Comparable<?> propertyValue) {
-        return find(new String[]{propertyKey}, new Comparable<?>[]{propertyValue});
-    }
-
-    public Iterable<T> find(final String propertyKey1, final Comparable<?> propertyValue1, final String propertyKey2,
-                            final Comparable<?> propertyValue2) {
-        return find(new String[]{propertyKey1, propertyKey2}, new Comparable<?>[]{propertyValue1, propertyValue2});
-    }
-
-    public Iterable<T> find(final String propertyKey1, final Comparable<?> propertyValue1, final String propertyKey2,
-                            final Comparable<?> propertyValue2, final String propertyKey3,
-                            final Comparable<?> propertyValue3) {
-        return find(new String[]{propertyKey1, propertyKey2, propertyKey3},
-                    new Comparable<?>[]{propertyValue1, propertyValue2, propertyValue3});
-    }
-
-    public Iterable<T> find(final String propertyKey1, final Comparable<?> propertyValue1, final String propertyKey2,
-                            final Comparable<?> propertyValue2, final String propertyKey3,
-                            final Comparable<?> propertyValue3, final String propertyKey4,
-                            final Comparable<?> propertyValue4) {
-        return find(new String[]{propertyKey1, propertyKey2, propertyKey3, propertyKey4},
-                    new Comparable<?>[]{propertyValue1, propertyValue2, propertyValue3, propertyValue4});
-    }
-
-    public synchronized Iterable<T> find(final String[] propertyKeys, final Comparable<?>[] propertyValues) {
+    @Override
+    public Iterable<T> find(final String[] propertyKeys, final Comparable<?>[] propertyValues) {
+        final ProfilingEvents.GraphFind event = ProfilingEvents.beginGraphFind();
+        final long start = System.nanoTime();
+        final Map<String, Type> propertyKeyTypes = schemaCatalog.getTypes();
         for (final String propertyKey : propertyKeys)
-            if (!propertyKeyTypes.containsKey(propertyKey))
+            if (!propertyKeyTypes.containsKey(propertyKey)) {
+                event.end(name, propertyKeys, false, 0);
                 return new ArrayList<>();
+            }
         final boolean[] hasIndexFlags = new boolean[propertyKeys.length];
         Set<Long> ids = retainIndexedIds(propertyKeys, propertyValues, hasIndexFlags);
-        if (isFindOnNonIndexedProperties(hasIndexFlags))
+        final boolean scanned = isFindOnNonIndexedProperties(hasIndexFlags);
+        if (scanned)
             ids = retainUnindexedIds(propertyKeys, propertyValues, hasIndexFlags, ids);
         final Set<Long> finalIds = ids != null ? ids : new HashSet<>();
-        return () -> finalIds.stream().map(this::get).iterator();
+        event.end(name, propertyKeys, scanned, finalIds.size());
+        if (findListener != null)
+            findListener.onFind(propertyKeys, hasIndexFlags, finalIds.size(), System.nanoTime() - start);
+        // Models removed by a concurrent writer since the ids were collected are skipped
+        return () -> finalIds.stream().map(this::get).filter(Objects::nonNull).iterator();
     }
 
     private Set<Long> retainIndexedIds(final String[] propertyKeys, final Comparable<?>[] propertyValues,
@@ -242,15 +412,28 @@ public final class MVStoreCollection<T extends MVStoreModel> implements Iterable
             final MVStoreIndex index = indices.get(propertyKeys[i]);
             if (index != null) {
                 hasIndexFlags[i] = true;
+                final Set<Long> foundIds = findIndexedIds(index, propertyValues[i]);
                 if (ids == null)
-                    ids = index.find(propertyValues[i]);
+                    ids = foundIds;
                 else
-                    ids.retainAll(index.find(propertyValues[i]));
+                    ids.retainAll(foundIds);
             }
         }
         return ids;
     }
 
+    private Set<Long> findIndexedIds(final MVStoreIndex index, final Comparable<?> propertyValue) {
+        // Values never indexed are answered by the bloom filter without reading the index
+        if (!bloomFilters.mightContain(index.getKey(), propertyValue))
+            return new HashSet<>();
+        final long start = System.nanoTime();
+        final Set<Long> ids = index.find(propertyValue);
+        INDEX_FIND_TIMER.recordSince(start);
+        if (ids.isEmpty())
+            bloomFilters.recordFalsePositive(index.getKey());
+        return ids;
+    }
+
     private boolean isFindOnNonIndexedProperties(final boolean[] hasIndexFlags) {
         for (final boolean hasIndexFlag : hasIndexFlags)
             if (!hasIndexFlag)
@@ -278,60 +461,25 @@ public final class MVStoreCollection<T extends MVStoreModel> implements Iterable
     private boolean modelMatchesCriteria(final Long id, final String[] propertyKeys,
                                          final Comparable<?>[] propertyValues, final boolean[] hasIndexFlags) {
         final T obj = map.get(id);
+        if (obj == null)
+            return false;
         boolean matched = false;
         for (int i = 0; i < propertyKeys.length; i++) {
             if (hasIndexFlags[i])
                 continue;
-            final Comparable<?> searchValue = propertyValues[i];
-            final Object value = obj.get(propertyKeys[i]);
-            if (value instanceof Comparable<?>) {
-                if (!propertyMatchesCriteria((Comparable<?>) value, searchValue))
-                    return false;
-            } else if (value instanceof Comparable<?>[]) {
-                final Comparable<?>[] valueArray = (Comparable<?>[]) value;
-                boolean matchedAnyInArray = false;
-                for (final Comparable<?> comparable : valueArray) {
-                    if (propertyMatchesCriteria(comparable, searchValue)) {
-                        matchedAnyInArray = true;
-                        break;
-                    }
-                }
-                if (!matchedAnyInArray)
-                    return false;
-            } else
+            if (!PropertyMatcher.matches(obj.get(propertyKeys[i]), propertyValues[i]))
                 return false;
             matched = true;
         }
         return matched;
     }
 
-    private boolean propertyMatchesCriteria(final Comparable<?> a, final Comparable<?> b) {
-        if (a == null || b == null)
-            return false;
-        if (a instanceof Long || a instanceof Integer || a instanceof Short || a instanceof Byte)
-            if (b instanceof Long || b instanceof Integer || b instanceof Short || b instanceof Byte)
-                return ((Number) a).longValue() == ((Number) b).longValue();
-        return a.equals(b);
-    }
-
     @Override
     public Iterator<T> iterator() {
-        final Set<Long> keys = map.keySet();
-        return new Iterator<T>() {
-            final Iterator<Long> entries = keys.iterator();
-
-            @Override
-            public boolean hasNext() {
-                return entries.hasNext();
-            }
-
-            @Override
-            public T next() {
-                return get(entries.next());
-            }
-        };
+        return map.keySet().stream().map(this::get).filter(Objects::nonNull).iterator();
     }
 
+    @Override
     public long size() {
         return map.sizeAsLong();
     }
@@ -340,9 +488,22 @@ public final class MVStoreCollection<T extends MVStoreModel> implements Iterable
         return indices.values().toArray(new MVStoreIndex[0]);
     }
 
+    @Override
     public void remove(final T obj) {
-        if (map.containsKey(obj.getId())) {
-            removeOldVersionFromIndices(map.get(obj.getId()));
+        db.beginWrite();
+        try {
+            removeLocked(obj);
+        } finally {
+            db.endWrite();
+        }
+    }
+
+    private synchronized void removeLocked(final T obj) {
+        final T oldModel = map.get(obj.getId());
+        if (oldModel != null) {
+            bloomFilters.markModified();
+            removeOldVersionFromIndices(oldModel);
+            schemaCatalog.remove(oldModel);
             map.remove(obj.getId());
             isDirty = true;
         }
@@ -1,39 +1,91 @@
 package de.unibi.agbi.biodwh2.core.io.mvstore;
 
+import de.unibi.agbi.biodwh2.core.io.storage.StorageBackend;
+import de.unibi.agbi.biodwh2.core.memory.MemoryBudget;
+import de.unibi.agbi.biodwh2.core.memory.MemoryConsumer;
+import de.unibi.agbi.biodwh2.core.monitoring.Gauge;
+import de.unibi.agbi.biodwh2.core.monitoring.MetricsRegistry;
 import org.h2.mvstore.MVStore;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public final class MVStoreDB implements AutoCloseable {
+public final class MVStoreDB implements StorageBackend, MemoryConsumer {
+    private final String filePath;
     private final boolean readOnly;
     private final MVStore store;
     private final MVMapWrapper<String, Object> metaMap;
     private final Map<String, MVStoreCollection<?>> collections;
     private final List<String> collectionNames;
+    private final Gauge[] gauges;
+    private final AtomicInteger openSnapshots = new AtomicInteger();
+    /**
+     * Incremented whenever a snapshot is opened, so values modified in place can be copied once per snapshot.
+     */
+    private final AtomicLong snapshotEpoch = new AtomicLong();
+    /**
+     * Shared by all writes of collections and held exclusively while a snapshot is opened, so the pinned version never
+     * contains a model without its index entries or the reverse.
+     */
+    private final ReadWriteLock writeLock = new ReentrantReadWriteLock();
 
     public MVStoreDB(final String filePath) {
         this(filePath, false);
     }
 
     public MVStoreDB(final String filePath, final boolean readOnly) {
+        this.filePath = filePath;
         this.readOnly = readOnly;
         MVStore.Builder builder = new MVStore.Builder().compress().fileName(filePath);
         if (readOnly)
             builder = builder.readOnly();
         store = builder.open();
         metaMap = openMap("!meta");
-        collections = new HashMap<>();
-        collectionNames = new ArrayList<>();
+        collections = new ConcurrentHashMap<>();
+        collectionNames = new CopyOnWriteArrayList<>();
         final String[] collectionNamesArray = (String[]) metaMap.get("collection_names");
         if (collectionNamesArray != null)
             Collections.addAll(collectionNames, collectionNamesArray);
+        gauges = registerGauges(filePath);
+        if (!readOnly)
+            MemoryBudget.getInstance().register(this);
     }
 
+    private Gauge[] registerGauges(final String filePath) {
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        return new Gauge[]{
+                registry.gauge("biodwh2_mvstore_cache_hit_ratio", "Page cache hit ratio of open stores in percent",
+                               store::getCacheHitRatio, "store", filePath),
+                registry.gauge("biodwh2_mvstore_cache_used_bytes", "Used page cache memory of open stores",
+                               () -> store.getCacheSizeUsed() * 1024L * 1024L, "store", filePath),
+                registry.gauge("biodwh2_mvstore_unsaved_bytes", "Estimated unsaved memory of open stores",
+                               store::getUnsavedMemory, "store", filePath)
+        };
+    }
+
+    @Override
+    public boolean hasMap(final String name) {
+        return store.hasMap(name);
+    }
+
+    @Override
     public <K, V> MVMapWrapper<K, V> openMap(final String name) {
         return new MVMapWrapper<>(store, store.openMap(name));
     }
 
+    @Override
     public <T extends MVStoreModel> MVStoreCollection<T> getCollection(final String name) {
+        final MVStoreCollection<?> collection = collections.get(name);
+        //noinspection unchecked
+        return collection != null ? (MVStoreCollection<T>) collection : createCollection(name);
+    }
+
+    private synchronized <T extends MVStoreModel> MVStoreCollection<T> createCollection(final String name) {
         MVStoreCollection<?> collection = collections.get(name);
         if (collection == null) {
             collection = new MVStoreCollection<>(this, name, readOnly);
@@ -47,12 +99,57 @@ public final class MVStoreDB implements AutoCloseable {
         return (MVStoreCollection<T>) collection;
     }
 
+    @Override
+    public String getName() {
+        return filePath;
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        return store.isClosed() ? 0 : store.getUnsavedMemory();
+    }
+
+    /**
+     * Commit early under memory pressure so the unsaved pages can be written and evicted from the heap.
+     */
+    @Override
+    public void requestRelease() {
+        if (store.isClosed())
+            return;
+        storeCollectionMetadata();
+        if (store.hasUnsavedChanges())
+            store.commit();
+    }
+
+    /**
+     * Commit all unsaved changes including the schema catalogs and bloom filters, so they are persisted if the store
+     * isn't closed.
+     */
+    @Override
+    public void commit() {
+        if (readOnly || store.isClosed())
+            return;
+        storeCollectionMetadata();
+        store.commit();
+    }
+
+    private void storeCollectionMetadata() {
+        for (final MVStoreCollection<?> collection : collections.values())
+            collection.storeMetadata();
+    }
+
     @Override
     public void close() {
-        if (store != null && !store.isClosed())
+        MemoryBudget.getInstance().unregister(this);
+        for (final Gauge gauge : gauges)
+            MetricsRegistry.getInstance().remove(gauge);
+        if (store != null && !store.isClosed()) {
+            storeCollectionMetadata();
             store.close();
+        }
     }
 
+    @Override
     public String[] getCollectionNames() {
         return collectionNames.toArray(new String[0]);
     }
@@ -64,4 +161,48 @@ public final class MVStoreDB implements AutoCloseable {
     public void releaseLock(final MVStore.TxCounter lock) {
         store.deregisterVersionUsage(lock);
     }
+
+    /**
+     * Pin the current version until the snapshot is closed. Unsaved changes, schema catalogs and bloom filters are
+     * committed first, so the pinned version is identical for all maps. Writes of collections are blocked meanwhile,
+     * so the version only contains complete writes.
+     */
+    @Override
+    public MVStoreSnapshot openSnapshot() {
+        writeLock.writeLock().lock();
+        try {
+            final MVStore.TxCounter versionUsage = store.registerVersionUsage();
+            openSnapshots.incrementAndGet();
+            snapshotEpoch.incrementAndGet();
+            if (!readOnly) {
+                storeCollectionMetadata();
+                store.commit();
+            }
+            return new MVStoreSnapshot(this, versionUsage);
+        } finally {
+            writeLock.writeLock().unlock();
+        }
+    }
+
+    void beginWrite() {
+        writeLock.readLock().lock();
+    }
+
+    void endWrite() {
+        writeLock.readLock().unlock();
+    }
+
+    void releaseSnapshot(final MVStore.TxCounter versionUsage) {
+        openSnapshots.decrementAndGet();
+        if (!store.isClosed())
+            store.deregisterVersionUsage(versionUsage);
+    }
+
+    boolean hasOpenSnapshots() {
+        return openSnapshots.get() > 0;
+    }
+
+    long getSnapshotEpoch() {
+        return snapshotEpoch.get();
+    }
 }
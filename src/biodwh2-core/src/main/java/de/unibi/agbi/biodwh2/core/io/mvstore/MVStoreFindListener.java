@@ -0,0 +1,14 @@
+package de.unibi.agbi.biodwh2.core.io.mvstore;
+
+public interface MVStoreFindListener {
+    /**
+     * Called after each find on a collection.
+     *
+     * @param propertyKeys  searched property keys
+     * @param indexedFlags  for each property key whether it was resolved using an index instead of scanning
+     * @param resultCount   number of matched models
+     * @param durationNanos duration of the find in nanoseconds
+     */
+    void onFind(final String[] propertyKeys, final boolean[] indexedFlags, final long resultCount,
+                final long durationNanos);
+}
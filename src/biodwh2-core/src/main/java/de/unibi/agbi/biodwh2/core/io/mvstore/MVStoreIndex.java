@@ -3,7 +3,10 @@ package de.unibi.agbi.biodwh2.core.io.mvstore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 public abstract class MVStoreIndex {
     protected static final Logger LOGGER = LoggerFactory.getLogger(MVStoreIndex.class);
@@ -44,7 +47,43 @@ public abstract class MVStoreIndex {
 
     public abstract boolean contains(final Comparable<?> propertyValue);
 
+    /**
+     * @return whether the index has an entry of the id for the value
+     */
+    public boolean containsEntry(final Comparable<?> propertyValue, final long id) {
+        return find(propertyValue).contains(id);
+    }
+
+    /**
+     * Pass each value and id of the index to the consumer. Used to verify the index against the collection.
+     */
+    public abstract void forEachEntry(final ObjLongConsumer<Comparable<?>> consumer);
+
+    /**
+     * Pass each distinct value of the index to the consumer. Used to build the bloom filter of the index.
+     */
+    public void forEachValue(final Consumer<Comparable<?>> consumer) {
+        final Set<Comparable<?>> values = new HashSet<>();
+        forEachEntry((value, id) -> {
+            if (values.add(value))
+                consumer.accept(value);
+        });
+    }
+
+    /**
+     * Remove all entries, so the index can be populated again.
+     */
+    public abstract void clear();
+
     public final MVIndexDescription getIndexDescription() {
         return indexDescription;
     }
+
+    /**
+     * @return read-only view of the index at the version pinned by the snapshot or null if the index doesn't support
+     * snapshots or was created after the version
+     */
+    MVStoreIndex snapshot(final MVStoreSnapshot snapshot) {
+        return null;
+    }
 }
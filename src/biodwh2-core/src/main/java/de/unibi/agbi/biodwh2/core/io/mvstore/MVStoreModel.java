@@ -1,14 +1,12 @@
 package de.unibi.agbi.biodwh2.core.io.mvstore;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
+import java.io.*;
+import java.lang.reflect.Array;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-public abstract class MVStoreModel implements Serializable {
+public abstract class MVStoreModel implements Serializable, Cloneable {
     private static final long serialVersionUID = 3622312710000754490L;
     public static final String ID_FIELD = "__id";
     private Map<String, Object> properties;
@@ -44,6 +42,60 @@ public abstract class MVStoreModel implements Serializable {
         properties = (HashMap<String, Object>) s.readObject();
     }
 
+    /**
+     * Create a deep copy equivalent to a serialization round trip, but without the stream overhead. Immutable property
+     * values are shared, arrays are copied element-wise and all other values fall back to serialization. Subclasses
+     * are expected to keep all their state in the properties.
+     */
+    public final MVStoreModel deepCopy() {
+        final MVStoreModel copy;
+        try {
+            copy = (MVStoreModel) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.properties = new HashMap<>(properties.size() * 4 / 3 + 1);
+        for (final Map.Entry<String, Object> entry : properties.entrySet())
+            copy.properties.put(entry.getKey(), copyValue(entry.getValue()));
+        return copy;
+    }
+
+    private static Object copyValue(final Object value) {
+        if (value == null || isImmutable(value))
+            return value;
+        final Class<?> type = value.getClass();
+        if (type.isArray()) {
+            final int length = Array.getLength(value);
+            final Object copy = Array.newInstance(type.getComponentType(), length);
+            if (type.getComponentType().isPrimitive())
+                //noinspection SuspiciousSystemArraycopy
+                System.arraycopy(value, 0, copy, 0, length);
+            else
+                for (int i = 0; i < length; i++)
+                    Array.set(copy, i, copyValue(Array.get(value, i)));
+            return copy;
+        }
+        return serializationCopy(value);
+    }
+
+    static boolean isImmutable(final Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Long ||
+               value instanceof Boolean || value instanceof Double || value instanceof Float ||
+               value instanceof Short || value instanceof Byte || value instanceof Character ||
+               value instanceof Enum || value instanceof MVStoreId;
+    }
+
+    static Object serializationCopy(final Object value) {
+        try {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new ObjectOutputStream(output).writeObject(value);
+            final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()));
+            return ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            return null;
+        }
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + super.toString();
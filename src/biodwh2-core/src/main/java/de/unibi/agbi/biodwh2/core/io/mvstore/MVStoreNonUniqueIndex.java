@@ -2,11 +2,13 @@ package de.unibi.agbi.biodwh2.core.io.mvstore;
 
 import de.unibi.agbi.biodwh2.core.collections.ConcurrentDoublyLinkedList;
 import de.unibi.agbi.biodwh2.core.collections.Tuple2;
+import org.h2.mvstore.MVStore;
 
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjLongConsumer;
 
 public class MVStoreNonUniqueIndex extends MVStoreIndex {
     public static final int DEFAULT_PAGE_SIZE = 1000;
@@ -71,11 +73,11 @@ public class MVStoreNonUniqueIndex extends MVStoreIndex {
 
     private void put(final Comparable<?> indexKey, final long id) {
         if (indexKey != null) {
-            map.lock();
+            final MVStore.TxCounter lock = map.lock();
             try {
                 unsafeInsertToPage(indexKey, id);
             } finally {
-                map.unlock();
+                map.unlock(lock);
             }
         }
     }
@@ -127,19 +129,19 @@ public class MVStoreNonUniqueIndex extends MVStoreIndex {
     }
 
     private void put(final Comparable<?>[] indexKeys, final long id) {
-        map.lock();
+        final MVStore.TxCounter lock = map.lock();
         try {
             for (final Comparable<?> indexKey : indexKeys)
                 if (indexKey != null)
                     unsafeInsertToPage(indexKey, id);
         } finally {
-            map.unlock();
+            map.unlock(lock);
         }
     }
 
     @Override
     public Set<Long> find(final Comparable<?> indexKey) {
-        map.lock();
+        final MVStore.TxCounter lock = map.lock();
         try {
             final ConcurrentDoublyLinkedList<Long> pages = map.unsafeGet(indexKey);
             if (pages == null)
@@ -149,10 +151,25 @@ public class MVStoreNonUniqueIndex extends MVStoreIndex {
                 idSet.addAll(pagesMap.unsafeGet(pageIndex));
             return idSet;
         } finally {
-            map.unlock();
+            map.unlock(lock);
         }
     }
 
+    @Override
+    public void forEachEntry(final ObjLongConsumer<Comparable<?>> consumer) {
+        for (final Comparable<?> indexKey : map.keySet())
+            for (final Long id : find(indexKey))
+                consumer.accept(indexKey, id);
+    }
+
+    @Override
+    public synchronized void clear() {
+        map.clear();
+        pagesMap.clear();
+        pagesMetadataMap.clear();
+        nextPageIndex = 0;
+    }
+
     @Override
     public void remove(final Object propertyValue, final long id) {
         if (arrayIndex)
@@ -163,11 +180,11 @@ public class MVStoreNonUniqueIndex extends MVStoreIndex {
 
     private void remove(final Comparable<?> indexKey, final long id) {
         if (indexKey != null) {
-            map.lock();
+            final MVStore.TxCounter lock = map.lock();
             try {
                 unsafeRemoveFromPage(indexKey, id);
             } finally {
-                map.unlock();
+                map.unlock(lock);
             }
         }
     }
@@ -209,23 +226,23 @@ public class MVStoreNonUniqueIndex extends MVStoreIndex {
     }
 
     private void remove(final Comparable<?>[] indexKeys, final long id) {
-        map.lock();
+        final MVStore.TxCounter lock = map.lock();
         try {
             for (final Comparable<?> indexKey : indexKeys)
                 if (indexKey != null)
                     unsafeRemoveFromPage(indexKey, id);
         } finally {
-            map.unlock();
+            map.unlock(lock);
         }
     }
 
     private void sortAllPages() {
-        map.lock();
+        final MVStore.TxCounter lock = map.lock();
         try {
             for (final Comparable<?> key : map.unsafeKeySet())
                 sortKeyPages(key);
         } finally {
-            map.unlock();
+            map.unlock(lock);
         }
     }
 
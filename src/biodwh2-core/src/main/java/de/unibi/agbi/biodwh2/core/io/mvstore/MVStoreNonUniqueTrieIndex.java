@@ -1,12 +1,23 @@
 package de.unibi.agbi.biodwh2.core.io.mvstore;
 
 import de.unibi.agbi.biodwh2.core.collections.LongTrie;
+import org.h2.mvstore.MVStore;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 public class MVStoreNonUniqueTrieIndex extends MVStoreIndex {
+    private final MVStoreDB db;
     private final MVMapWrapper<Comparable<?>, LongTrie> map;
+    /**
+     * Keys whose tries were copied since the last snapshot was opened. Tries are modified in place, so while snapshots
+     * are open, each trie is copied before its first modification to keep the version seen by snapshots unchanged.
+     */
+    private final Set<Comparable<?>> copiedKeys = new HashSet<>();
+    private long copiedKeysEpoch;
 
     public MVStoreNonUniqueTrieIndex(final MVStoreDB db, final String name, final String key,
                                      final boolean arrayIndex) {
@@ -16,11 +27,25 @@ public class MVStoreNonUniqueTrieIndex extends MVStoreIndex {
     MVStoreNonUniqueTrieIndex(final MVStoreDB db, final String name, final String key, final boolean arrayIndex,
                               final boolean readOnly) {
         super(name, key, arrayIndex, readOnly);
+        this.db = db;
         map = db.openMap(name);
         if (LOGGER.isDebugEnabled())
             LOGGER.debug("Open MVStore non-unique trie index " + name + "[isArray=" + arrayIndex + "]");
     }
 
+    private MVStoreNonUniqueTrieIndex(final MVStoreNonUniqueTrieIndex source,
+                                      final MVMapWrapper<Comparable<?>, LongTrie> map) {
+        super(source.name, source.key, source.arrayIndex, true);
+        db = source.db;
+        this.map = map;
+    }
+
+    @Override
+    MVStoreIndex snapshot(final MVStoreSnapshot snapshot) {
+        final MVMapWrapper<Comparable<?>, LongTrie> snapshotMap = snapshot.openMap(map);
+        return snapshotMap != null ? new MVStoreNonUniqueTrieIndex(this, snapshotMap) : null;
+    }
+
     @Override
     public MVStoreIndexType getType() {
         return MVStoreIndexType.NON_UNIQUE;
@@ -41,46 +66,126 @@ public class MVStoreNonUniqueTrieIndex extends MVStoreIndex {
 
     private void put(final Comparable<?> indexKey, final long id) {
         if (indexKey != null) {
-            map.lock();
+            final MVStore.TxCounter lock = map.lock();
             try {
-                LongTrie trie = map.unsafeGet(indexKey);
+                LongTrie trie = getTrieForUpdate(indexKey);
                 if (trie == null)
                     trie = new LongTrie();
-                trie.add(id);
+                addId(trie, id);
                 map.unsafePut(indexKey, trie);
             } finally {
-                map.unlock();
+                map.unlock(lock);
             }
         }
     }
 
+    private LongTrie getTrieForUpdate(final Comparable<?> indexKey) {
+        final LongTrie trie = map.unsafeGet(indexKey);
+        if (!db.hasOpenSnapshots()) {
+            if (!copiedKeys.isEmpty())
+                copiedKeys.clear();
+            return trie;
+        }
+        final long epoch = db.getSnapshotEpoch();
+        if (epoch != copiedKeysEpoch) {
+            copiedKeys.clear();
+            copiedKeysEpoch = epoch;
+        }
+        if (trie == null || !copiedKeys.add(indexKey))
+            return trie;
+        final LongTrie copy = new LongTrie();
+        synchronized (trie) {
+            copy.addAll(trie);
+        }
+        return copy;
+    }
+
+    /**
+     * Tries are modified in place, so they are locked while modified or copied by concurrent readers.
+     */
+    private static void addId(final LongTrie trie, final long id) {
+        synchronized (trie) {
+            trie.add(id);
+        }
+    }
+
+    private static void removeId(final LongTrie trie, final long id) {
+        synchronized (trie) {
+            trie.remove(id);
+        }
+    }
+
     private void put(final Comparable<?>[] indexKeys, final long id) {
-        map.lock();
+        final MVStore.TxCounter lock = map.lock();
         try {
             for (final Comparable<?> indexKey : indexKeys)
                 if (indexKey != null) {
-                    LongTrie trie = map.unsafeGet(indexKey);
+                    LongTrie trie = getTrieForUpdate(indexKey);
                     if (trie == null)
                         trie = new LongTrie();
-                    trie.add(id);
+                    addId(trie, id);
                     map.unsafePut(indexKey, trie);
                 }
         } finally {
-            map.unlock();
+            map.unlock(lock);
         }
     }
 
     @Override
     public Set<Long> find(final Comparable<?> indexKey) {
-        map.lock();
+        final MVStore.TxCounter lock = map.lock();
         try {
             final LongTrie trie = map.unsafeGet(indexKey);
-            return trie == null ? new HashSet<>() : new HashSet<>(trie);
+            if (trie == null)
+                return new HashSet<>();
+            synchronized (trie) {
+                return new HashSet<>(trie);
+            }
         } finally {
-            map.unlock();
+            map.unlock(lock);
         }
     }
 
+    @Override
+    public boolean containsEntry(final Comparable<?> propertyValue, final long id) {
+        final MVStore.TxCounter lock = map.lock();
+        try {
+            final LongTrie trie = map.unsafeGet(propertyValue);
+            if (trie == null)
+                return false;
+            synchronized (trie) {
+                return trie.contains(id);
+            }
+        } finally {
+            map.unlock(lock);
+        }
+    }
+
+    @Override
+    public void forEachEntry(final ObjLongConsumer<Comparable<?>> consumer) {
+        for (final Map.Entry<Comparable<?>, LongTrie> entry : map.entrySet()) {
+            final LongTrie trie = entry.getValue();
+            final Long[] ids;
+            synchronized (trie) {
+                ids = trie.toArray(new Long[0]);
+            }
+            for (final Long id : ids)
+                consumer.accept(entry.getKey(), id);
+        }
+    }
+
+    @Override
+    public void forEachValue(final Consumer<Comparable<?>> consumer) {
+        for (final Comparable<?> value : map.keySet())
+            consumer.accept(value);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        copiedKeys.clear();
+    }
+
     @Override
     public void remove(final Object propertyValue, final long id) {
         if (arrayIndex)
@@ -91,32 +196,32 @@ public class MVStoreNonUniqueTrieIndex extends MVStoreIndex {
 
     private void remove(final Comparable<?> indexKey, final long id) {
         if (indexKey != null) {
-            map.lock();
+            final MVStore.TxCounter lock = map.lock();
             try {
-                final LongTrie trie = map.unsafeGet(indexKey);
+                final LongTrie trie = getTrieForUpdate(indexKey);
                 if (trie != null) {
-                    trie.remove(id);
+                    removeId(trie, id);
                     map.unsafePut(indexKey, trie);
                 }
             } finally {
-                map.unlock();
+                map.unlock(lock);
             }
         }
     }
 
     private void remove(final Comparable<?>[] indexKeys, final long id) {
-        map.lock();
+        final MVStore.TxCounter lock = map.lock();
         try {
             for (final Comparable<?> indexKey : indexKeys)
                 if (indexKey != null) {
-                    final LongTrie trie = map.unsafeGet(indexKey);
+                    final LongTrie trie = getTrieForUpdate(indexKey);
                     if (trie != null) {
-                        trie.remove(id);
+                        removeId(trie, id);
                         map.unsafePut(indexKey, trie);
                     }
                 }
         } finally {
-            map.unlock();
+            map.unlock(lock);
         }
     }
 }
@@ -0,0 +1,59 @@
+package de.unibi.agbi.biodwh2.core.io.mvstore;
+
+import de.unibi.agbi.biodwh2.core.io.storage.StorageCollection;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageSnapshot;
+import org.h2.mvstore.MVStore;
+
+import java.util.Map;
+
+/**
+ * Pins one version of a {@link MVStoreDB} until closed. Maps and collections opened on the snapshot are read-only
+ * views of this version and don't register a version usage for each operation.
+ */
+public final class MVStoreSnapshot implements StorageSnapshot {
+    private final MVStoreDB db;
+    private final MVStore.TxCounter versionUsage;
+    private boolean closed;
+
+    MVStoreSnapshot(final MVStoreDB db, final MVStore.TxCounter versionUsage) {
+        this.db = db;
+        this.versionUsage = versionUsage;
+    }
+
+    @Override
+    public long getVersion() {
+        return versionUsage.version;
+    }
+
+    /**
+     * @return read-only view of the map at the pinned version or null if the map was created after it
+     */
+    public <K, V> MVMapWrapper<K, V> openMap(final MVMapWrapper<K, V> map) {
+        return map.openSnapshot(getVersion());
+    }
+
+    @Override
+    public <K, V> Map<K, V> openMap(final Map<K, V> map) {
+        return openMap((MVMapWrapper<K, V>) map);
+    }
+
+    /**
+     * @return read-only view of the collection at the pinned version or null if it was created after it
+     */
+    public <T extends MVStoreModel> MVStoreCollection<T> openCollection(final MVStoreCollection<T> collection) {
+        return collection.snapshot(this);
+    }
+
+    @Override
+    public <T extends MVStoreModel> StorageCollection<T> openCollection(final StorageCollection<T> collection) {
+        return openCollection((MVStoreCollection<T>) collection);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            db.releaseSnapshot(versionUsage);
+        }
+    }
+}
@@ -4,7 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 public final class MVStoreUniqueIndex extends MVStoreIndex {
     private static final Logger LOGGER = LoggerFactory.getLogger(MVStoreUniqueIndex.class);
@@ -23,6 +27,17 @@ public final class MVStoreUniqueIndex extends MVStoreIndex {
             LOGGER.debug("Open MVStore unique index " + name + "[isArray=" + arrayIndex + "]");
     }
 
+    private MVStoreUniqueIndex(final MVStoreUniqueIndex source, final MVMapWrapper<Comparable<?>, Long> map) {
+        super(source.name, source.key, false, true);
+        this.map = map;
+    }
+
+    @Override
+    MVStoreIndex snapshot(final MVStoreSnapshot snapshot) {
+        final MVMapWrapper<Comparable<?>, Long> snapshotMap = snapshot.openMap(map);
+        return snapshotMap != null ? new MVStoreUniqueIndex(this, snapshotMap) : null;
+    }
+
     @Override
     public MVStoreIndexType getType() {
         return MVStoreIndexType.UNIQUE;
@@ -64,6 +79,28 @@ public final class MVStoreUniqueIndex extends MVStoreIndex {
         return ids;
     }
 
+    @Override
+    public boolean containsEntry(final Comparable<?> propertyValue, final long id) {
+        return Objects.equals(map.get(propertyValue), id);
+    }
+
+    @Override
+    public void forEachEntry(final ObjLongConsumer<Comparable<?>> consumer) {
+        for (final Map.Entry<Comparable<?>, Long> entry : map.entrySet())
+            consumer.accept(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public void forEachValue(final Consumer<Comparable<?>> consumer) {
+        for (final Comparable<?> value : map.keySet())
+            consumer.accept(value);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
     @Override
     public void remove(final Object propertyValue, final long id) {
         if (arrayIndex)
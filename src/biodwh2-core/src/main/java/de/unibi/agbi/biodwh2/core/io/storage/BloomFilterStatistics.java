@@ -0,0 +1,84 @@
+package de.unibi.agbi.biodwh2.core.io.storage;
+
+/**
+ * Configuration and usage of the bloom filter of an index. Lookups are counted since the collection was opened.
+ */
+public final class BloomFilterStatistics {
+    private final String key;
+    private final double falsePositiveRate;
+    private final double estimatedFalsePositiveRate;
+    private final long insertions;
+    private final long sizeInBytes;
+    private final long negatives;
+    private final long falsePositives;
+
+    public BloomFilterStatistics(final String key, final double falsePositiveRate,
+                                 final double estimatedFalsePositiveRate, final long insertions,
+                                 final long sizeInBytes, final long negatives, final long falsePositives) {
+        this.key = key;
+        this.falsePositiveRate = falsePositiveRate;
+        this.estimatedFalsePositiveRate = estimatedFalsePositiveRate;
+        this.insertions = insertions;
+        this.sizeInBytes = sizeInBytes;
+        this.negatives = negatives;
+        this.falsePositives = falsePositives;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the configured false positive rate
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * @return the false positive rate estimated from the fraction of set bits of the filter
+     */
+    public double getEstimatedFalsePositiveRate() {
+        return estimatedFalsePositiveRate;
+    }
+
+    /**
+     * @return the number of values added to the filter, including values of removed models
+     */
+    public long getInsertions() {
+        return insertions;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * @return the number of lookups answered by the filter without reading the index
+     */
+    public long getNegatives() {
+        return negatives;
+    }
+
+    /**
+     * @return the number of lookups passing the filter for which the index had no entries
+     */
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     * @return the observed fraction of lookups of missing values passing the filter or 0 if there were none
+     */
+    public double getObservedFalsePositiveRate() {
+        final long misses = negatives + falsePositives;
+        return misses > 0 ? (double) falsePositives / misses : 0;
+    }
+
+    @Override
+    public String toString() {
+        return key + ": " + insertions + " values, " + sizeInBytes + " bytes, false positive rate " +
+               falsePositiveRate + " (estimated " + estimatedFalsePositiveRate + ", observed " +
+               getObservedFalsePositiveRate() + ")";
+    }
+}
@@ -0,0 +1,32 @@
+package de.unibi.agbi.biodwh2.core.io.storage;
+
+/**
+ * Comparison of stored property values with searched values for finds on properties without an index.
+ */
+public final class PropertyMatcher {
+    private PropertyMatcher() {
+    }
+
+    /**
+     * @return whether the value or any element of an array value matches the searched value
+     */
+    public static boolean matches(final Object value, final Comparable<?> searchValue) {
+        if (value instanceof Comparable<?>)
+            return propertyMatchesCriteria((Comparable<?>) value, searchValue);
+        if (value instanceof Comparable<?>[]) {
+            for (final Comparable<?> comparable : (Comparable<?>[]) value)
+                if (propertyMatchesCriteria(comparable, searchValue))
+                    return true;
+        }
+        return false;
+    }
+
+    private static boolean propertyMatchesCriteria(final Comparable<?> a, final Comparable<?> b) {
+        if (a == null || b == null)
+            return false;
+        if (a instanceof Long || a instanceof Integer || a instanceof Short || a instanceof Byte)
+            if (b instanceof Long || b instanceof Integer || b instanceof Short || b instanceof Byte)
+                return ((Number) a).longValue() == ((Number) b).longValue();
+        return a.equals(b);
+    }
+}
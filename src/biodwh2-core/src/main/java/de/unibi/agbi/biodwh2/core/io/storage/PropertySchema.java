@@ -0,0 +1,63 @@
+package de.unibi.agbi.biodwh2.core.io.storage;
+
+import de.unibi.agbi.biodwh2.core.lang.Type;
+
+/**
+ * Observed type and statistics of a property key in a collection. The statistics are -1 if they aren't available, as
+ * for collections written before the schema catalog existed and opened read-only.
+ */
+public final class PropertySchema {
+    private final String key;
+    private final Type type;
+    private final long count;
+    private final long estimatedDistinctValues;
+    private final boolean nullable;
+
+    PropertySchema(final String key, final Type type, final long count, final long estimatedDistinctValues,
+                   final boolean nullable) {
+        this.key = key;
+        this.type = type;
+        this.count = count;
+        this.estimatedDistinctValues = estimatedDistinctValues;
+        this.nullable = nullable;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isArray() {
+        return type != null && type.isList();
+    }
+
+    /**
+     * @return the number of models with a value for the key
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the approximate number of distinct values, counting the elements of array values individually. Values
+     * of removed or updated models are still counted.
+     */
+    public long getEstimatedDistinctValues() {
+        return estimatedDistinctValues;
+    }
+
+    /**
+     * @return whether any model of the collection has no value for the key
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    @Override
+    public String toString() {
+        return key + ": " + (type != null ? type.getType().getSimpleName() : "null") + (nullable ? "?" : "");
+    }
+}
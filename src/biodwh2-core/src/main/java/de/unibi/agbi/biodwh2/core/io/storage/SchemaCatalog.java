@@ -0,0 +1,212 @@
+package de.unibi.agbi.biodwh2.core.io.storage;
+
+import de.unibi.agbi.biodwh2.core.collections.HyperLogLog;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.lang.Type;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Property keys, types and statistics of a collection maintained in memory. The catalog is only written to the
+ * metadata of the collection when the store is committed or closed and removed from it with the first modification
+ * afterwards, so a catalog is never outdated. Missing catalogs are rebuilt from the stored models.
+ */
+public final class SchemaCatalog {
+    private static final String SCHEMA_CATALOG = "schema_catalog";
+    private static final String ALL_PROPERTY_KEYS = "all_property_keys";
+    private static final String ALL_PROPERTY_TYPES = "all_property_types";
+
+    private final Map<String, Object> metaMap;
+    private final boolean readOnly;
+    private final Map<String, PropertyStatistics> properties;
+    private final boolean hasStatistics;
+    /**
+     * Replaced instead of modified whenever property keys or types change, so readers never see partial updates.
+     * Values may be null, which rules out a ConcurrentHashMap.
+     */
+    private volatile Map<String, Type> types;
+    private boolean modified;
+
+    private SchemaCatalog(final Map<String, Object> metaMap, final boolean readOnly,
+                          final Map<String, PropertyStatistics> properties, final Map<String, Type> types,
+                          final boolean hasStatistics) {
+        this.metaMap = metaMap;
+        this.readOnly = readOnly;
+        this.properties = properties;
+        this.types = types;
+        this.hasStatistics = hasStatistics;
+    }
+
+    public static SchemaCatalog open(final Map<String, Object> metaMap, final boolean readOnly,
+                                     final Iterable<? extends MVStoreModel> models) {
+        final Object stored = metaMap.get(SCHEMA_CATALOG);
+        if (stored instanceof Map) {
+            //noinspection unchecked
+            final Map<String, PropertyStatistics> properties = new HashMap<>((Map<String, PropertyStatistics>) stored);
+            final Map<String, Type> types = new HashMap<>();
+            for (final Map.Entry<String, PropertyStatistics> entry : properties.entrySet())
+                types.put(entry.getKey(), entry.getValue().type);
+            return new SchemaCatalog(metaMap, readOnly, properties, types, true);
+        }
+        final String[] keys = (String[]) metaMap.get(ALL_PROPERTY_KEYS);
+        final Type[] types = (Type[]) metaMap.get(ALL_PROPERTY_TYPES);
+        // Without a catalog, read-only collections use the stored types to avoid scanning all models on every open
+        if (readOnly && keys != null && types != null) {
+            final Map<String, Type> loadedTypes = new HashMap<>();
+            for (int i = 0; i < keys.length; i++)
+                loadedTypes.put(keys[i], types[i]);
+            return new SchemaCatalog(metaMap, true, new HashMap<>(), loadedTypes, false);
+        }
+        final SchemaCatalog catalog = new SchemaCatalog(metaMap, readOnly, new HashMap<>(), new HashMap<>(), true);
+        for (final MVStoreModel model : models)
+            catalog.add(model);
+        return catalog;
+    }
+
+    public Map<String, Type> getTypes() {
+        return types;
+    }
+
+    public synchronized void add(final MVStoreModel model) {
+        markModified();
+        Map<String, Type> changed = null;
+        for (final String key : model.keySet()) {
+            final Object value = model.get(key);
+            if (value == null)
+                continue;
+            final PropertyStatistics statistics = properties.computeIfAbsent(key, k -> new PropertyStatistics());
+            final Type type = statistics.add(value);
+            if (type != null) {
+                changed = changed != null ? changed : new HashMap<>(types);
+                changed.put(key, type);
+            }
+        }
+        if (changed != null)
+            types = changed;
+    }
+
+    /**
+     * Property keys and types are kept, as they were observed in the collection before.
+     */
+    public synchronized void remove(final MVStoreModel model) {
+        markModified();
+        for (final String key : model.keySet()) {
+            final PropertyStatistics statistics = properties.get(key);
+            if (statistics != null && model.get(key) != null)
+                statistics.count--;
+        }
+    }
+
+    private void markModified() {
+        if (!modified && !readOnly) {
+            modified = true;
+            metaMap.remove(SCHEMA_CATALOG);
+            metaMap.remove(ALL_PROPERTY_KEYS);
+            metaMap.remove(ALL_PROPERTY_TYPES);
+        }
+    }
+
+    /**
+     * Write the catalog to the metadata if it was modified. The property keys and types are written separately as
+     * well for older versions reading the collection.
+     */
+    public synchronized void store() {
+        if (!modified)
+            return;
+        final HashMap<String, PropertyStatistics> copy = new HashMap<>();
+        for (final Map.Entry<String, PropertyStatistics> entry : properties.entrySet())
+            copy.put(entry.getKey(), entry.getValue().copy());
+        metaMap.put(SCHEMA_CATALOG, copy);
+        final Map<String, Type> types = this.types;
+        final String[] keys = types.keySet().toArray(new String[0]);
+        final Type[] keyTypes = new Type[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            keyTypes[i] = types.get(keys[i]);
+        metaMap.put(ALL_PROPERTY_KEYS, keys);
+        metaMap.put(ALL_PROPERTY_TYPES, keyTypes);
+        modified = false;
+    }
+
+    public synchronized Map<String, PropertySchema> getSchemas(final long size) {
+        final Map<String, PropertySchema> result = new HashMap<>();
+        for (final Map.Entry<String, Type> entry : types.entrySet()) {
+            final String key = entry.getKey();
+            final Type type = entry.getValue();
+            final PropertyStatistics statistics = hasStatistics ? properties.get(key) : null;
+            if (statistics == null) {
+                result.put(key, new PropertySchema(key, type, -1, -1, true));
+                continue;
+            }
+            long distinctValues = statistics.distinctValues.estimate();
+            if (type == null || !type.isList())
+                distinctValues = Math.min(distinctValues, statistics.count);
+            result.put(key, new PropertySchema(key, type, statistics.count, distinctValues, statistics.count < size));
+        }
+        return result;
+    }
+
+    private static final class PropertyStatistics implements Serializable {
+        private static final long serialVersionUID = -2915208475306915431L;
+
+        private Type type;
+        private long count;
+        private HyperLogLog distinctValues = new HyperLogLog();
+        /**
+         * Class of the last value not being a collection, whose type therefore only depends on its class.
+         */
+        private transient Class<?> lastValueClass;
+
+        PropertyStatistics copy() {
+            final PropertyStatistics result = new PropertyStatistics();
+            result.type = type;
+            result.count = count;
+            result.distinctValues = distinctValues.copy();
+            return result;
+        }
+
+        /**
+         * @return the new type of the property if it changed or null otherwise
+         */
+        Type add(final Object value) {
+            count++;
+            addDistinctValues(value);
+            final Class<?> valueClass = value.getClass();
+            if (valueClass == lastValueClass)
+                return null;
+            final Type newType = Type.fromObject(value);
+            if (!(value instanceof Collection))
+                lastValueClass = valueClass;
+            if (type == null || isWidenedListType(newType)) {
+                type = newType;
+                return type;
+            }
+            return null;
+        }
+
+        private boolean isWidenedListType(final Type newType) {
+            if (!type.isList() || newType.getComponentType() == null)
+                return false;
+            final Class<?> componentType = type.getComponentType();
+            return componentType == null || (newType.getComponentType() != componentType &&
+                                             newType.getComponentType().isAssignableFrom(componentType));
+        }
+
+        private void addDistinctValues(final Object value) {
+            if (value instanceof Object[]) {
+                for (final Object element : (Object[]) value)
+                    distinctValues.add(element);
+            } else if (value instanceof Collection) {
+                for (final Object element : (Collection<?>) value)
+                    distinctValues.add(element);
+            } else if (value.getClass().isArray()) {
+                for (int i = 0; i < Array.getLength(value); i++)
+                    distinctValues.add(Array.get(value, i));
+            } else
+                distinctValues.add(value);
+        }
+    }
+}
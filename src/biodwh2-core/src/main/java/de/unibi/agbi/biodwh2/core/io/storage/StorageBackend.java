@@ -0,0 +1,32 @@
+package de.unibi.agbi.biodwh2.core.io.storage;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Storage of the model collections and metadata maps of a graph. Implementations must allow any number of concurrent
+ * readers while collections are written.
+ */
+public interface StorageBackend extends AutoCloseable {
+    boolean hasMap(final String name);
+
+    <K, V> ConcurrentMap<K, V> openMap(final String name);
+
+    <T extends MVStoreModel> StorageCollection<T> getCollection(final String name);
+
+    String[] getCollectionNames();
+
+    /**
+     * Pin the current state of all maps and collections until the snapshot is closed.
+     */
+    StorageSnapshot openSnapshot();
+
+    /**
+     * Persist all changes, if the backend is persistent.
+     */
+    void commit();
+
+    @Override
+    void close();
+}
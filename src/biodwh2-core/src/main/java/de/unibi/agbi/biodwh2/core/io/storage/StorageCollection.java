@@ -0,0 +1,107 @@
+package de.unibi.agbi.biodwh2.core.io.storage;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVIndexDescription;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreFindListener;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreIndexType;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.lang.Type;
+
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Collection of models by id with property indices. Models are copied when they are written and read, so changes of
+ * returned models are only stored when they are put again.
+ */
+public interface StorageCollection<T extends MVStoreModel> extends Iterable<T> {
+    String getName();
+
+    /**
+     * @return the previous version of the model or null if it is new
+     */
+    T put(final T obj);
+
+    T get(final long id);
+
+    void remove(final T obj);
+
+    long size();
+
+    /**
+     * Find models by property values. Properties without an index are compared by scanning the collection, matching
+     * integral numbers of any type and any element of array values.
+     */
+    Iterable<T> find(final String[] propertyKeys, final Comparable<?>[] propertyValues);
+
+    default Iterable<T> find(final String propertyKey, final Comparable<?> propertyValue) {
+        return find(new String[]{propertyKey}, new Comparable<?>[]{propertyValue});
+    }
+
+    default Iterable<T> find(final String propertyKey1, final Comparable<?> propertyValue1, final String propertyKey2,
+                             final Comparable<?> propertyValue2) {
+        return find(new String[]{propertyKey1, propertyKey2}, new Comparable<?>[]{propertyValue1, propertyValue2});
+    }
+
+    default Iterable<T> find(final String propertyKey1, final Comparable<?> propertyValue1, final String propertyKey2,
+                             final Comparable<?> propertyValue2, final String propertyKey3,
+                             final Comparable<?> propertyValue3) {
+        return find(new String[]{propertyKey1, propertyKey2, propertyKey3},
+                    new Comparable<?>[]{propertyValue1, propertyValue2, propertyValue3});
+    }
+
+    default Iterable<T> find(final String propertyKey1, final Comparable<?> propertyValue1, final String propertyKey2,
+                             final Comparable<?> propertyValue2, final String propertyKey3,
+                             final Comparable<?> propertyValue3, final String propertyKey4,
+                             final Comparable<?> propertyValue4) {
+        return find(new String[]{propertyKey1, propertyKey2, propertyKey3, propertyKey4},
+                    new Comparable<?>[]{propertyValue1, propertyValue2, propertyValue3, propertyValue4});
+    }
+
+    /**
+     * Create the index of the property key if it doesn't exist yet. Models already in the collection are indexed.
+     */
+    default void addIndex(final String key, final boolean arrayIndex, final MVStoreIndexType type) {
+        addIndex(key, arrayIndex, type, 0);
+    }
+
+    /**
+     * Create the index of the property key if it doesn't exist yet and add a bloom filter to it, answering finds of
+     * values which were never indexed without reading the index. Backends may ignore the filter if their lookups are
+     * as cheap as the filter itself.
+     *
+     * @param bloomFilterFalsePositiveRate false positive rate of the bloom filter or 0 for none
+     */
+    void addIndex(final String key, final boolean arrayIndex, final MVStoreIndexType type,
+                  final double bloomFilterFalsePositiveRate);
+
+    /**
+     * Pass each value and id of the index of the property key to the consumer. Does nothing if no such index exists.
+     */
+    void forEachIndexEntry(final String key, final ObjLongConsumer<Comparable<?>> consumer);
+
+    /**
+     * @return whether the index of the property key has an entry of the id for the value
+     */
+    boolean containsIndexEntry(final String key, final Comparable<?> value, final long id);
+
+    /**
+     * Remove all entries of the index of the property key and index all models again.
+     */
+    void rebuildIndex(final String key);
+
+    /**
+     * @return descriptions of all indices except the internal edge endpoint indices
+     */
+    MVIndexDescription[] getIndexDescriptions();
+
+    Map<String, Type> getPropertyKeyTypes();
+
+    Map<String, PropertySchema> getPropertySchemas();
+
+    /**
+     * @return the statistics of the bloom filters by property key of the indices having one
+     */
+    Map<String, BloomFilterStatistics> getBloomFilterStatistics();
+
+    void setFindListener(final MVStoreFindListener findListener);
+}
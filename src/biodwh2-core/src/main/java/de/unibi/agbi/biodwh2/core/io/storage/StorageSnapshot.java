@@ -0,0 +1,24 @@
+package de.unibi.agbi.biodwh2.core.io.storage;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+
+import java.util.Map;
+
+public interface StorageSnapshot extends AutoCloseable {
+    long getVersion();
+
+    /**
+     * @return read-only view of the map of the same backend at the pinned state or null if the map was created after
+     * it
+     */
+    <K, V> Map<K, V> openMap(final Map<K, V> map);
+
+    /**
+     * @return read-only view of the collection of the same backend at the pinned state or null if it was created
+     * after it
+     */
+    <T extends MVStoreModel> StorageCollection<T> openCollection(final StorageCollection<T> collection);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,142 @@
+package de.unibi.agbi.biodwh2.core.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the approximate heap usage of caches and stages, which register as {@link MemoryConsumer}s. Each
+ * stage has a budget and consumers are expected to evict or spill entries once their stage exceeds it. Independent of
+ * the budgets, the heap pools are monitored using {@link MemoryPoolMXBean} thresholds and all consumers are asked to
+ * release memory when the heap is about to be exhausted.
+ */
+public final class MemoryBudget {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryBudget.class);
+    public static final int DEFAULT_PRESSURE_THRESHOLD_PERCENT = 80;
+    public static final int DEFAULT_STAGE_BUDGET_PERCENT = 25;
+    private static final MemoryBudget INSTANCE = new MemoryBudget();
+
+    private final List<MemoryConsumer> consumers;
+    private final Map<String, AtomicLong> stageUsedBytes;
+    private final Map<String, Long> stageLimitBytes;
+    private final List<MemoryPoolMXBean> heapPools;
+    private final long maxHeapBytes;
+    private long defaultStageLimitBytes;
+
+    private MemoryBudget() {
+        consumers = new CopyOnWriteArrayList<>();
+        stageUsedBytes = new ConcurrentHashMap<>();
+        stageLimitBytes = new ConcurrentHashMap<>();
+        heapPools = new ArrayList<>();
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported() && pool.getUsage().getMax() > 0)
+                heapPools.add(pool);
+        maxHeapBytes = Runtime.getRuntime().maxMemory();
+        configure(DEFAULT_PRESSURE_THRESHOLD_PERCENT, DEFAULT_STAGE_BUDGET_PERCENT, null);
+        final Object memoryBean = ManagementFactory.getMemoryMXBean();
+        if (memoryBean instanceof NotificationEmitter)
+            ((NotificationEmitter) memoryBean).addNotificationListener(new PressureListener(), null, null);
+    }
+
+    public static MemoryBudget getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param pressureThresholdPercent  heap pool usage in percent above which all consumers are asked to release
+     * @param defaultStageBudgetPercent budget of stages without explicit budget in percent of the maximum heap
+     * @param stageBudgetsMegabytes     explicit budgets in MB by stage name, may be null
+     */
+    public synchronized void configure(final int pressureThresholdPercent, final int defaultStageBudgetPercent,
+                                       final Map<String, Integer> stageBudgetsMegabytes) {
+        for (final MemoryPoolMXBean pool : heapPools) {
+            final long threshold = pool.getUsage().getMax() / 100 * Math.max(1, Math.min(99, pressureThresholdPercent));
+            pool.setUsageThreshold(threshold);
+            if (pool.isCollectionUsageThresholdSupported())
+                pool.setCollectionUsageThreshold(threshold);
+        }
+        defaultStageLimitBytes = maxHeapBytes / 100 * Math.max(1, Math.min(100, defaultStageBudgetPercent));
+        stageLimitBytes.clear();
+        if (stageBudgetsMegabytes != null)
+            for (final Map.Entry<String, Integer> entry : stageBudgetsMegabytes.entrySet())
+                stageLimitBytes.put(entry.getKey(), entry.getValue() * 1024L * 1024L);
+    }
+
+    public void register(final MemoryConsumer consumer) {
+        consumers.add(consumer);
+    }
+
+    public void unregister(final MemoryConsumer consumer) {
+        consumers.remove(consumer);
+    }
+
+    public long getStageLimitBytes(final String stage) {
+        return stageLimitBytes.getOrDefault(stage, defaultStageLimitBytes);
+    }
+
+    public long getStageUsedBytes(final String stage) {
+        final AtomicLong used = stageUsedBytes.get(stage);
+        return used == null ? 0 : used.get();
+    }
+
+    /**
+     * Account a change of the approximate memory used by a stage.
+     */
+    public void account(final String stage, final long deltaBytes) {
+        stageUsedBytes.computeIfAbsent(stage, k -> new AtomicLong()).addAndGet(deltaBytes);
+    }
+
+    public boolean isOverBudget(final String stage) {
+        return getStageUsedBytes(stage) > getStageLimitBytes(stage);
+    }
+
+    /**
+     * @return whether the usage of any heap pool after the last garbage collection exceeds the pressure threshold
+     */
+    public boolean isUnderPressure() {
+        for (final MemoryPoolMXBean pool : heapPools)
+            if (pool.isCollectionUsageThresholdSupported() ? pool.isCollectionUsageThresholdExceeded() :
+                pool.isUsageThresholdExceeded())
+                return true;
+        return false;
+    }
+
+    /**
+     * Ask all consumers to release memory, starting with the largest.
+     */
+    public void relievePressure() {
+        final List<MemoryConsumer> sortedConsumers = new ArrayList<>(consumers);
+        sortedConsumers.sort(Comparator.comparingLong(MemoryConsumer::getEstimatedBytes).reversed());
+        for (final MemoryConsumer consumer : sortedConsumers) {
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Requesting '" + consumer.getName() + "' to release ~" +
+                             consumer.getEstimatedBytes() / 1024 / 1024 + " MB");
+            consumer.requestRelease();
+        }
+    }
+
+    private final class PressureListener implements NotificationListener {
+        @Override
+        public void handleNotification(final Notification notification, final Object handback) {
+            final String type = notification.getType();
+            if (!MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type) &&
+                !MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type))
+                return;
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Heap usage exceeded the pressure threshold, releasing memory of " + consumers.size() +
+                            " consumers");
+            relievePressure();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package de.unibi.agbi.biodwh2.core.memory;
+
+/**
+ * A cache or stage which holds a significant amount of heap memory and is able to give it up when asked to by the
+ * {@link MemoryBudget}.
+ */
+public interface MemoryConsumer {
+    String getName();
+
+    long getEstimatedBytes();
+
+    /**
+     * Called when the heap is under pressure. Implementations may be called from a different thread than the one
+     * owning them and should therefore only release memory themselves if that is thread-safe, or otherwise release
+     * it on their next access.
+     */
+    void requestRelease();
+}
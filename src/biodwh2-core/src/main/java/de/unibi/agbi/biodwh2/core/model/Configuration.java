@@ -4,6 +4,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import de.unibi.agbi.biodwh2.core.Workspace;
+import de.unibi.agbi.biodwh2.core.memory.MemoryBudget;
+import de.unibi.agbi.biodwh2.core.model.graph.SlowQueryLog;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressReporter;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -26,6 +29,30 @@ public final class Configuration {
     private Boolean skipGraphMLExport;
     @JsonProperty("skipMetaGraphGeneration")
     private Boolean skipMetaGraphGeneration;
+    @JsonProperty("compressGraphML")
+    private Boolean compressGraphML;
+    @JsonProperty("graphMLWriterThreads")
+    private Integer graphMLWriterThreads;
+    @JsonProperty("neo4jCsvWriterThreads")
+    private Integer neo4jCsvWriterThreads;
+    @JsonProperty("mergeThreads")
+    private Integer mergeThreads;
+    @JsonProperty("metricsFilePath")
+    private String metricsFilePath;
+    @JsonProperty("metricsDumpIntervalSeconds")
+    private Integer metricsDumpIntervalSeconds;
+    @JsonProperty("slowQueryLogThresholdMilliseconds")
+    private Long slowQueryLogThresholdMilliseconds;
+    @JsonProperty("progressReportIntervalSeconds")
+    private Integer progressReportIntervalSeconds;
+    @JsonProperty("backgroundArtifactThreads")
+    private Integer backgroundArtifactThreads;
+    @JsonProperty("memoryPressureThresholdPercent")
+    private Integer memoryPressureThresholdPercent;
+    @JsonProperty("defaultMemoryBudgetPercent")
+    private Integer defaultMemoryBudgetPercent;
+    @JsonProperty("memoryBudgetsMegabytes")
+    private Map<String, Integer> memoryBudgetsMegabytes;
 
     public Configuration() {
         version = Workspace.VERSION;
@@ -73,4 +100,63 @@ public final class Configuration {
     public boolean shouldSkipMetaGraphGeneration() {
         return Boolean.TRUE.equals(skipMetaGraphGeneration);
     }
+
+    public boolean shouldCompressGraphML() {
+        return Boolean.TRUE.equals(compressGraphML);
+    }
+
+    /**
+     * @return the number of threads writing GraphML blocks in parallel, one by default as the threads run in addition
+     * to the background artifact threads
+     */
+    public int getGraphMLWriterThreads() {
+        return graphMLWriterThreads == null ? 1 : graphMLWriterThreads;
+    }
+
+    /**
+     * @return the number of threads writing the Neo4j CSV files of different labels in parallel, one by default
+     */
+    public int getNeo4jCsvWriterThreads() {
+        return neo4jCsvWriterThreads == null ? 1 : neo4jCsvWriterThreads;
+    }
+
+    public int getMergeThreads() {
+        return mergeThreads == null ? Runtime.getRuntime().availableProcessors() : mergeThreads;
+    }
+
+    public String getMetricsFilePath() {
+        return metricsFilePath;
+    }
+
+    public int getMetricsDumpIntervalSeconds() {
+        return metricsDumpIntervalSeconds == null ? 60 : metricsDumpIntervalSeconds;
+    }
+
+    public int getProgressReportIntervalSeconds() {
+        return progressReportIntervalSeconds == null ? ProgressReporter.DEFAULT_INTERVAL_SECONDS :
+               progressReportIntervalSeconds;
+    }
+
+    public int getBackgroundArtifactThreads() {
+        return backgroundArtifactThreads == null ? 1 : backgroundArtifactThreads;
+    }
+
+    public int getMemoryPressureThresholdPercent() {
+        return memoryPressureThresholdPercent == null ? MemoryBudget.DEFAULT_PRESSURE_THRESHOLD_PERCENT :
+               memoryPressureThresholdPercent;
+    }
+
+    public int getDefaultMemoryBudgetPercent() {
+        return defaultMemoryBudgetPercent == null ? MemoryBudget.DEFAULT_STAGE_BUDGET_PERCENT :
+               defaultMemoryBudgetPercent;
+    }
+
+    public Map<String, Integer> getMemoryBudgetsMegabytes() {
+        return memoryBudgetsMegabytes == null ? new HashMap<>() : memoryBudgetsMegabytes;
+    }
+
+    public long getSlowQueryLogThresholdMilliseconds() {
+        return slowQueryLogThresholdMilliseconds == null ? SlowQueryLog.DEFAULT_THRESHOLD_MILLIS :
+               slowQueryLogThresholdMilliseconds;
+    }
 }
@@ -7,6 +7,9 @@ public enum DataSourceFileType {
     METADATA("metadata.json"),
     PERSISTENT_GRAPH("intermediate." + Graph.EXTENSION),
     INTERMEDIATE_GRAPHML("intermediate." + GraphFileFormat.GRAPH_ML.extension),
+    INTERMEDIATE_GRAPHML_GZIP("intermediate." + GraphFileFormat.GRAPH_ML.extension + ".gz"),
+    INTERMEDIATE_NEO4J_CSV("intermediate-neo4j-" + GraphFileFormat.NEO4J_CSV.extension),
+    INTERMEDIATE_COLUMNAR("intermediate-columnar"),
     META_GRAPH_IMAGE("meta-graph.png"),
     META_GRAPH_STATISTICS("meta-graph-statistics.txt"),
     META_GRAPH_DYNAMIC_VIS("meta-graph.html");
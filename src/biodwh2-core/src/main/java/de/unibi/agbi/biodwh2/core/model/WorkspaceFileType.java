@@ -6,14 +6,20 @@ import de.unibi.agbi.biodwh2.core.model.graph.GraphFileFormat;
 public enum WorkspaceFileType {
     MERGED_PERSISTENT_GRAPH("merged." + Graph.EXTENSION),
     MERGED_GRAPHML("merged." + GraphFileFormat.GRAPH_ML.extension),
+    MERGED_GRAPHML_GZIP("merged." + GraphFileFormat.GRAPH_ML.extension + ".gz"),
     MERGED_META_GRAPH_IMAGE("merged-meta-graph.png"),
     MERGED_META_GRAPH_STATISTICS("merged-meta-graph-statistics.txt"),
     MERGED_META_GRAPH_DYNAMIC_VIS("merged-meta-graph.html"),
     MAPPED_PERSISTENT_GRAPH("mapped." + Graph.EXTENSION),
     MAPPED_GRAPHML("mapped." + GraphFileFormat.GRAPH_ML.extension),
+    MAPPED_GRAPHML_GZIP("mapped." + GraphFileFormat.GRAPH_ML.extension + ".gz"),
+    MAPPED_NEO4J_CSV("mapped-neo4j-" + GraphFileFormat.NEO4J_CSV.extension),
+    MAPPED_COLUMNAR("mapped-columnar"),
+    MAPPED_DELTA("mapped-delta"),
     MAPPED_META_GRAPH_IMAGE("mapped-meta-graph.png"),
     MAPPED_META_GRAPH_STATISTICS("mapped-meta-graph-statistics.txt"),
-    MAPPED_META_GRAPH_DYNAMIC_VIS("mapped-meta-graph.html");
+    MAPPED_META_GRAPH_DYNAMIC_VIS("mapped-meta-graph.html"),
+    PROGRESS_STATUS("progress-status.json");
 
     private final String name;
 
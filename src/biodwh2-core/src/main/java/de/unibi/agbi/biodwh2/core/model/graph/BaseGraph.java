@@ -2,48 +2,113 @@ package de.unibi.agbi.biodwh2.core.model.graph;
 
 import de.unibi.agbi.biodwh2.core.exceptions.GraphCacheException;
 import de.unibi.agbi.biodwh2.core.io.mvstore.*;
+import de.unibi.agbi.biodwh2.core.io.storage.BloomFilterStatistics;
+import de.unibi.agbi.biodwh2.core.io.storage.PropertySchema;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageBackend;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageCollection;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageSnapshot;
 import de.unibi.agbi.biodwh2.core.lang.Type;
+import de.unibi.agbi.biodwh2.core.monitoring.Counter;
+import de.unibi.agbi.biodwh2.core.monitoring.MetricsRegistry;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-
-abstract class BaseGraph implements AutoCloseable {
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Base of the graph storage. Any number of threads may read concurrently with writers. Writes are locked per label
+ * repository, so threads writing nodes or edges of different labels proceed in parallel. Repositories and indices are
+ * created lazily in a thread-safe way, so readers may also query labels which do not exist yet. The repositories are
+ * stored in a {@link StorageBackend}, which is a {@link MVStoreDB} file for persisted graphs.
+ */
+abstract class BaseGraph implements AutoCloseable, GraphView {
     public static final int VERSION = 3;
     public static final String LABEL_PREFIX_SEPARATOR = "_";
     private static final char NODE_REPOSITORY_PREFIX = '$';
     private static final char EDGE_REPOSITORY_PREFIX = '!';
     private static final String VERSION_KEY = "version";
+    private static final String EDGE_LABEL_TRIPLE_COUNTS_KEY = "edge_label_triple_counts";
+    private static final String NODE_LABELS_MAP_NAME = "node_labels";
+    private static final String CLOSURE_INDICES_KEY = "closure_indices";
+    private static final String CLOSURE_INDEX_MAP_PREFIX = "closure_index:";
     public static final String EXTENSION = "db";
+    private static final String NODES_WRITTEN_METRIC = "biodwh2_graph_nodes_written_total";
+    private static final String EDGES_WRITTEN_METRIC = "biodwh2_graph_edges_written_total";
 
     private final Path filePath;
-    private MVStoreDB database;
-    private final MVMapWrapper<String, Object> metaMap;
-    private final Map<String, MVStoreCollection<Node>> nodeRepositories;
-    private final Map<String, MVStoreCollection<Edge>> edgeRepositories;
+    private StorageBackend database;
+    private final Map<String, Object> metaMap;
+    private final Map<String, StorageCollection<Node>> nodeRepositories;
+    private final Map<String, StorageCollection<Edge>> edgeRepositories;
+    private final Map<String, Counter> nodesWrittenCounters;
+    private final Map<String, Counter> edgesWrittenCounters;
+    /**
+     * Label of each node by id to resolve edge endpoint labels without probing all node repositories. Null for
+     * graphs created before it was introduced, as it would be incomplete.
+     */
+    private final Map<Long, String> nodeLabels;
+    /**
+     * Incrementally maintained edge counts. Null if they are not available, because the graph was created before they
+     * were introduced or was not closed properly after modification.
+     */
+    private final Map<EdgeLabelTriple, Long> edgeLabelTripleCounts;
+    private volatile boolean edgeLabelTripleCountsModified;
+    private final Map<String, ClosureIndex> closureIndices;
+    /**
+     * Map names of closure indices whose nodes or edges were modified by merging nodes.
+     */
+    private final Set<String> staleClosureIndices;
 
     protected BaseGraph(final Path filePath, final boolean reopen, final boolean readOnly) {
+        this(filePath, openDatabase(filePath, reopen, readOnly), reopen, readOnly);
+    }
+
+    /**
+     * Create a new graph without file in the storage backend.
+     */
+    protected BaseGraph(final StorageBackend database) {
+        this(null, database, false, false);
+    }
+
+    private BaseGraph(final Path filePath, final StorageBackend database, final boolean reopen,
+                      final boolean readOnly) {
         this.filePath = filePath;
-        if (!reopen)
-            deleteOldDatabaseFile(filePath);
-        nodeRepositories = new HashMap<>();
-        edgeRepositories = new HashMap<>();
-        database = openDatabase(filePath, readOnly);
+        this.database = database;
+        nodeRepositories = new ConcurrentHashMap<>();
+        edgeRepositories = new ConcurrentHashMap<>();
+        nodesWrittenCounters = new ConcurrentHashMap<>();
+        edgesWrittenCounters = new ConcurrentHashMap<>();
+        closureIndices = new ConcurrentHashMap<>();
+        staleClosureIndices = ConcurrentHashMap.newKeySet();
         metaMap = database.openMap("metadata");
         if (!reopen)
             metaMap.put(VERSION_KEY, VERSION);
+        nodeLabels = !reopen || database.hasMap(NODE_LABELS_MAP_NAME) ? database.openMap(NODE_LABELS_MAP_NAME) :
+                     null;
+        edgeLabelTripleCounts = loadEdgeLabelTripleCounts(reopen);
         for (final String repositoryKey : database.getCollectionNames()) {
             if (repositoryKey.charAt(0) == EDGE_REPOSITORY_PREFIX)
-                edgeRepositories.put(repositoryKey.substring(1), database.getCollection(repositoryKey));
+                edgeRepositories.put(repositoryKey.substring(1),
+                                     openRepository(IndexDescription.Target.EDGE, repositoryKey));
             else if (repositoryKey.charAt(0) == NODE_REPOSITORY_PREFIX)
-                nodeRepositories.put(repositoryKey.substring(1), database.getCollection(repositoryKey));
+                nodeRepositories.put(repositoryKey.substring(1),
+                                     openRepository(IndexDescription.Target.NODE, repositoryKey));
         }
         if (!readOnly)
             createInternalIndicesIfNotExist();
     }
 
-    private void deleteOldDatabaseFile(final Path filePath) {
+    private static StorageBackend openDatabase(final Path filePath, final boolean reopen, final boolean readOnly) {
+        if (!reopen)
+            deleteOldDatabaseFile(filePath);
+        return new MVStoreDB(filePath.toString(), readOnly);
+    }
+
+    private static void deleteOldDatabaseFile(final Path filePath) {
         try {
             Files.deleteIfExists(filePath);
         } catch (IOException e) {
@@ -51,24 +116,61 @@ abstract class BaseGraph implements AutoCloseable {
         }
     }
 
-    private static MVStoreDB openDatabase(final Path filePath, final boolean readOnly) {
-        return new MVStoreDB(filePath.toString(), readOnly);
+    private Map<EdgeLabelTriple, Long> loadEdgeLabelTripleCounts(final boolean reopen) {
+        if (!reopen)
+            return new ConcurrentHashMap<>();
+        final Object counts = metaMap.get(EDGE_LABEL_TRIPLE_COUNTS_KEY);
+        //noinspection unchecked
+        return counts instanceof Map ? new ConcurrentHashMap<>((Map<EdgeLabelTriple, Long>) counts) : null;
+    }
+
+    private <T extends MVStoreModel> StorageCollection<T> openRepository(final IndexDescription.Target target,
+                                                                         final String repositoryKey) {
+        final StorageCollection<T> repository = database.getCollection(repositoryKey);
+        repository.setFindListener(
+                SlowQueryLog.getInstance().createListener(target, repositoryKey.substring(1), repository));
+        return repository;
     }
 
     private void createInternalIndicesIfNotExist() {
-        for (final MVStoreCollection<Edge> edges : edgeRepositories.values())
+        for (final StorageCollection<Edge> edges : edgeRepositories.values())
             createEdgeRepositoryIndicesIfNotExist(edges);
     }
 
-    private void createEdgeRepositoryIndicesIfNotExist(final MVStoreCollection<Edge> edges) {
-        edges.getIndex(Edge.FROM_ID_FIELD, false, MVStoreIndexType.NON_UNIQUE);
-        edges.getIndex(Edge.TO_ID_FIELD, false, MVStoreIndexType.NON_UNIQUE);
+    private void createEdgeRepositoryIndicesIfNotExist(final StorageCollection<Edge> edges) {
+        edges.addIndex(Edge.FROM_ID_FIELD, false, MVStoreIndexType.NON_UNIQUE);
+        edges.addIndex(Edge.TO_ID_FIELD, false, MVStoreIndexType.NON_UNIQUE);
+    }
+
+    /**
+     * Open a read session on the current version of the graph. Unsaved changes are committed first. The session must
+     * be closed before the graph.
+     */
+    public final GraphReadSession openReadSession() {
+        final StorageSnapshot snapshot = database.openSnapshot();
+        return new GraphReadSession(snapshot, openRepositorySnapshots(snapshot, nodeRepositories),
+                                    openRepositorySnapshots(snapshot, edgeRepositories),
+                                    nodeLabels != null ? snapshot.openMap(nodeLabels) : null);
+    }
+
+    private static <T extends MVStoreModel> Map<String, StorageCollection<T>> openRepositorySnapshots(
+            final StorageSnapshot snapshot, final Map<String, StorageCollection<T>> repositories) {
+        final Map<String, StorageCollection<T>> result = new HashMap<>();
+        for (final Map.Entry<String, StorageCollection<T>> entry : repositories.entrySet()) {
+            final StorageCollection<T> repository = snapshot.openCollection(entry.getValue());
+            if (repository != null)
+                result.put(entry.getKey(), repository);
+        }
+        return result;
     }
 
     public final Integer getVersion() {
         return metaMap.containsKey(VERSION_KEY) ? (Integer) metaMap.get(VERSION_KEY) : null;
     }
 
+    /**
+     * @return path of the graph file or null if the graph is not persisted
+     */
     public Path getFilePath() {
         return filePath;
     }
@@ -79,20 +181,41 @@ abstract class BaseGraph implements AutoCloseable {
         final MVStoreIndexType type = description.getType() == IndexDescription.Type.UNIQUE ? MVStoreIndexType.UNIQUE :
                                       MVStoreIndexType.NON_UNIQUE;
         if (description.getTarget() == IndexDescription.Target.NODE) {
-            getOrCreateNodeRepository(description.getLabel()).getIndex(description.getProperty(),
-                                                                       description.isArrayProperty(), type);
+            getOrCreateNodeRepository(description.getLabel()).addIndex(description.getProperty(),
+                                                                       description.isArrayProperty(), type,
+                                                                       description.getBloomFilterFalsePositiveRate());
         } else if (description.getTarget() == IndexDescription.Target.EDGE) {
-            getOrCreateEdgeRepository(description.getLabel()).getIndex(description.getProperty(),
-                                                                       description.isArrayProperty(), type);
+            getOrCreateEdgeRepository(description.getLabel()).addIndex(description.getProperty(),
+                                                                       description.isArrayProperty(), type,
+                                                                       description.getBloomFilterFalsePositiveRate());
+        }
+    }
+
+    /**
+     * Persist all changes, so they survive if the graph isn't closed properly afterwards. Must not be called while
+     * other threads write to the graph, as the edge counts would be persisted without their concurrent changes.
+     */
+    public final synchronized void commit() {
+        storeEdgeLabelTripleCounts();
+        database.commit();
+    }
+
+    private void storeEdgeLabelTripleCounts() {
+        if (edgeLabelTripleCountsModified && edgeLabelTripleCounts != null) {
+            edgeLabelTripleCountsModified = false;
+            metaMap.put(EDGE_LABEL_TRIPLE_COUNTS_KEY, new HashMap<>(edgeLabelTripleCounts));
         }
     }
 
     @Override
     public void close() {
-        if (database != null)
+        if (database != null) {
+            storeEdgeLabelTripleCounts();
             database.close();
+        }
         nodeRepositories.clear();
         edgeRepositories.clear();
+        closureIndices.clear();
         database = null;
     }
 
@@ -102,37 +225,160 @@ abstract class BaseGraph implements AutoCloseable {
         final String label = node.getLabel();
         if (label == null || label.length() == 0)
             throw new GraphCacheException("Failed to add or update node because the label is null or empty");
-        getOrCreateNodeRepository(label).put(node);
+        final Node previous = getOrCreateNodeRepository(label).put(node);
+        if (previous == null || !label.equals(previous.getLabel()))
+            putNodeLabel(node.getId(), label);
+        getNodesWrittenCounter(label).increment();
     }
 
-    private MVStoreCollection<Node> getOrCreateNodeRepository(final String label) {
-        MVStoreCollection<Node> nodes = nodeRepositories.get(label);
-        if (nodes == null) {
-            nodes = database.getCollection(NODE_REPOSITORY_PREFIX + label);
-            nodeRepositories.put(label, nodes);
-        }
-        return nodes;
+    private void putNodeLabel(final Long nodeId, final String label) {
+        if (nodeLabels != null)
+            nodeLabels.put(nodeId, label);
+    }
+
+    public final String getNodeLabel(final Long nodeId) {
+        if (nodeId == null)
+            return null;
+        if (nodeLabels != null)
+            return nodeLabels.get(nodeId);
+        final Node node = getNode(nodeId);
+        return node != null ? node.getLabel() : null;
+    }
+
+    private Counter getNodesWrittenCounter(final String label) {
+        return nodesWrittenCounters.computeIfAbsent(label, l -> MetricsRegistry.getInstance().counter(
+                NODES_WRITTEN_METRIC, "Number of nodes written to graphs", "label", l));
+    }
+
+    private StorageCollection<Node> getOrCreateNodeRepository(final String label) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        return nodes != null ? nodes : nodeRepositories.computeIfAbsent(label, l -> openRepository(
+                IndexDescription.Target.NODE, NODE_REPOSITORY_PREFIX + l));
     }
 
     public final void update(final Edge edge) {
+        final Edge previous = putEdge(edge);
+        // The previous version may be the same instance if it wasn't serialized yet, so changed endpoints can only be
+        // detected for distinct instances
+        if (previous == null)
+            countEdge(edge, 1);
+        else if (previous != edge && (!Objects.equals(previous.getFromId(), edge.getFromId()) ||
+                                      !Objects.equals(previous.getToId(), edge.getToId()))) {
+            countEdge(previous, -1);
+            countEdge(edge, 1);
+        }
+    }
+
+    private Edge putEdge(final Edge edge) {
         if (edge == null)
             throw new GraphCacheException("Failed to update edge because it is null");
         final String label = edge.getLabel();
         if (label == null || label.length() == 0)
             throw new GraphCacheException("Failed to add or update edge because the label is null or empty");
-        getOrCreateEdgeRepository(label).put(edge);
+        final Edge previous = getOrCreateEdgeRepository(label).put(edge);
+        getEdgesWrittenCounter(label).increment();
+        return previous;
+    }
+
+    private void countEdge(final Edge edge, final long delta) {
+        if (edgeLabelTripleCounts == null)
+            return;
+        final String fromLabel = getNodeLabel(edge.getFromId());
+        final String toLabel = getNodeLabel(edge.getToId());
+        if (fromLabel == null || toLabel == null)
+            return;
+        if (!edgeLabelTripleCountsModified) {
+            edgeLabelTripleCountsModified = true;
+            // Counts are only persisted again on commit or close, so they are considered invalid if the graph isn't
+            // closed
+            metaMap.remove(EDGE_LABEL_TRIPLE_COUNTS_KEY);
+        }
+        final EdgeLabelTriple triple = new EdgeLabelTriple(fromLabel, edge.getLabel(), toLabel);
+        edgeLabelTripleCounts.compute(triple, (key, count) -> {
+            final long updated = (count != null ? count : 0L) + delta;
+            return updated > 0 ? updated : null;
+        });
     }
 
-    private MVStoreCollection<Edge> getOrCreateEdgeRepository(final String label) {
-        MVStoreCollection<Edge> edges = edgeRepositories.get(label);
-        if (edges == null) {
-            edges = database.getCollection(EDGE_REPOSITORY_PREFIX + label);
-            edgeRepositories.put(label, edges);
-            createEdgeRepositoryIndicesIfNotExist(edges);
-        }
+    /**
+     * @return the number of edges per edge label and start and end node labels or null if the counts are not
+     * available for this graph and need to be computed by iterating all edges. Edges written before their start or
+     * end node and endpoints changed on the stored edge instance are not reflected in the counts.
+     */
+    public final Map<EdgeLabelTriple, Long> getEdgeLabelTripleCounts() {
+        return edgeLabelTripleCounts != null ? new HashMap<>(edgeLabelTripleCounts) : null;
+    }
+
+    private Counter getEdgesWrittenCounter(final String label) {
+        return edgesWrittenCounters.computeIfAbsent(label, l -> MetricsRegistry.getInstance().counter(
+                EDGES_WRITTEN_METRIC, "Number of edges written to graphs", "label", l));
+    }
+
+    private StorageCollection<Edge> getOrCreateEdgeRepository(final String label) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        return edges != null ? edges : edgeRepositories.computeIfAbsent(label, this::openEdgeRepository);
+    }
+
+    private StorageCollection<Edge> openEdgeRepository(final String label) {
+        final StorageCollection<Edge> edges = openRepository(IndexDescription.Target.EDGE,
+                                                             EDGE_REPOSITORY_PREFIX + label);
+        // Created before the repository is published, so concurrent readers always find edges by their endpoints
+        createEdgeRepositoryIndicesIfNotExist(edges);
         return edges;
     }
 
+    /**
+     * Build and persist the transitive closure index of the edges with the edge label between nodes with the node
+     * label. The index is not maintained, so it needs to be rebuilt if such nodes or edges are modified. Indices
+     * modified by {@link #mergeNodes(Node, Node)} are rebuilt by {@link #rebuildStaleClosureIndices()}.
+     */
+    public final ClosureIndex buildClosureIndex(final String nodeLabel, final String edgeLabel) {
+        final ClosureIndex index = ClosureIndex.build(this, nodeLabel, edgeLabel);
+        putClosureIndex(index);
+        return index;
+    }
+
+    private synchronized void putClosureIndex(final ClosureIndex index) {
+        final String mapName = getClosureIndexMapName(index.getNodeLabel(), index.getEdgeLabel());
+        final Map<Long, long[]> labels = database.openMap(mapName);
+        labels.clear();
+        labels.putAll(index.getLabels());
+        final List<String[]> keys = getClosureIndexKeys();
+        if (keys.stream().noneMatch(k -> k[0].equals(index.getNodeLabel()) && k[1].equals(index.getEdgeLabel()))) {
+            keys.add(new String[]{index.getNodeLabel(), index.getEdgeLabel()});
+            metaMap.put(CLOSURE_INDICES_KEY, keys.toArray(new String[0][]));
+        }
+        closureIndices.put(mapName, index);
+    }
+
+    private static String getClosureIndexMapName(final String nodeLabel, final String edgeLabel) {
+        return CLOSURE_INDEX_MAP_PREFIX + nodeLabel + ":" + edgeLabel;
+    }
+
+    /**
+     * @return pairs of node and edge labels of all closure indices
+     */
+    public final List<String[]> getClosureIndexKeys() {
+        final String[][] keys = (String[][]) metaMap.get(CLOSURE_INDICES_KEY);
+        return keys != null ? new ArrayList<>(Arrays.asList(keys)) : new ArrayList<>();
+    }
+
+    /**
+     * @return the closure index of the edge label between nodes with the node label or null if it was not built
+     */
+    public final ClosureIndex getClosureIndex(final String nodeLabel, final String edgeLabel) {
+        final String mapName = getClosureIndexMapName(nodeLabel, edgeLabel);
+        ClosureIndex index = closureIndices.get(mapName);
+        if (index == null && database.hasMap(mapName)) {
+            final Map<Long, long[]> labels = new HashMap<>();
+            for (final Map.Entry<Long, long[]> entry : database.<Long, long[]>openMap(mapName).entrySet())
+                labels.put(entry.getKey(), entry.getValue());
+            index = new ClosureIndex(nodeLabel, edgeLabel, labels);
+            closureIndices.put(mapName, index);
+        }
+        return index;
+    }
+
     public final IndexDescription[] indexDescriptions() {
         final List<IndexDescription> result = new ArrayList<>();
         for (final String label : nodeRepositories.keySet())
@@ -148,23 +394,58 @@ abstract class BaseGraph implements AutoCloseable {
                                                      final MVIndexDescription indexDescription) {
         return new IndexDescription(target, label, indexDescription.getProperty(), indexDescription.isArrayProperty(),
                                     indexDescription.getType() == MVStoreIndexType.UNIQUE ?
-                                    IndexDescription.Type.UNIQUE : IndexDescription.Type.NON_UNIQUE);
+                                    IndexDescription.Type.UNIQUE : IndexDescription.Type.NON_UNIQUE,
+                                    indexDescription.getBloomFilterFalsePositiveRate());
     }
 
     public final Map<String, Type> getPropertyKeyTypesForNodeLabel(final String label) {
-        final MVStoreCollection<Node> nodes = nodeRepositories.get(label);
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
         if (nodes != null)
             return nodes.getPropertyKeyTypes();
         return new HashMap<>();
     }
 
     public final Map<String, Type> getPropertyKeyTypesForEdgeLabel(final String label) {
-        final MVStoreCollection<Edge> edges = edgeRepositories.get(label);
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
         if (edges != null)
             return edges.getPropertyKeyTypes();
         return new HashMap<>();
     }
 
+    public final Map<String, PropertySchema> getPropertySchemasForNodeLabel(final String label) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        if (nodes != null)
+            return nodes.getPropertySchemas();
+        return new HashMap<>();
+    }
+
+    public final Map<String, PropertySchema> getPropertySchemasForEdgeLabel(final String label) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        if (edges != null)
+            return edges.getPropertySchemas();
+        return new HashMap<>();
+    }
+
+    /**
+     * @return the statistics of the bloom filters by property key of the node indices having one
+     */
+    public final Map<String, BloomFilterStatistics> getBloomFilterStatisticsForNodeLabel(final String label) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        if (nodes != null)
+            return nodes.getBloomFilterStatistics();
+        return new HashMap<>();
+    }
+
+    /**
+     * @return the statistics of the bloom filters by property key of the edge indices having one
+     */
+    public final Map<String, BloomFilterStatistics> getBloomFilterStatisticsForEdgeLabel(final String label) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        if (edges != null)
+            return edges.getBloomFilterStatistics();
+        return new HashMap<>();
+    }
+
     public final Iterable<Node> getNodes() {
         return () -> new RepositoriesIterator<>(nodeRepositories.values());
     }
@@ -175,25 +456,25 @@ abstract class BaseGraph implements AutoCloseable {
 
     public final long getNumberOfNodes() {
         long result = 0;
-        for (final MVStoreCollection<Node> nodes : nodeRepositories.values())
+        for (final StorageCollection<Node> nodes : nodeRepositories.values())
             result += nodes.size();
         return result;
     }
 
     public final long getNumberOfNodes(final String label) {
-        final MVStoreCollection<Node> nodes = nodeRepositories.get(label);
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
         return nodes != null ? nodes.size() : 0;
     }
 
     public final long getNumberOfEdges() {
         long result = 0;
-        for (final MVStoreCollection<Edge> edges : edgeRepositories.values())
+        for (final StorageCollection<Edge> edges : edgeRepositories.values())
             result += edges.size();
         return result;
     }
 
     public final long getNumberOfEdges(final String label) {
-        final MVStoreCollection<Edge> edges = edgeRepositories.get(label);
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
         return edges != null ? edges.size() : 0;
     }
 
@@ -205,8 +486,27 @@ abstract class BaseGraph implements AutoCloseable {
         return edgeRepositories.keySet().toArray(new String[0]);
     }
 
+    /**
+     * @return the repository of the node label or null if it doesn't exist
+     */
+    final StorageCollection<Node> getNodeRepository(final String label) {
+        return nodeRepositories.get(label);
+    }
+
+    /**
+     * @return the repository of the edge label or null if it doesn't exist
+     */
+    final StorageCollection<Edge> getEdgeRepository(final String label) {
+        return edgeRepositories.get(label);
+    }
+
     public final Node getNode(final long nodeId) {
-        for (final MVStoreCollection<Node> nodes : nodeRepositories.values()) {
+        if (nodeLabels != null) {
+            final String label = nodeLabels.get(nodeId);
+            final StorageCollection<Node> nodes = label != null ? nodeRepositories.get(label) : null;
+            return nodes != null ? nodes.get(nodeId) : null;
+        }
+        for (final StorageCollection<Node> nodes : nodeRepositories.values()) {
             final Node node = nodes.get(nodeId);
             if (node != null)
                 return node;
@@ -215,7 +515,7 @@ abstract class BaseGraph implements AutoCloseable {
     }
 
     public final Edge getEdge(final long edgeId) {
-        for (final MVStoreCollection<Edge> edges : edgeRepositories.values()) {
+        for (final StorageCollection<Edge> edges : edgeRepositories.values()) {
             final Edge edge = edges.get(edgeId);
             if (edge != null)
                 return edge;
@@ -223,6 +523,11 @@ abstract class BaseGraph implements AutoCloseable {
         return null;
     }
 
+    public final Edge getEdge(final String label, final long edgeId) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        return edges != null ? edges.get(edgeId) : null;
+    }
+
     public Iterable<Node> findNodes(final String label) {
         return () -> getOrCreateNodeRepository(label).iterator();
     }
@@ -258,7 +563,7 @@ abstract class BaseGraph implements AutoCloseable {
     public Iterable<Node> findNodes(final String propertyKey, final Comparable<?> value) {
         return () -> new RepositoriesIterator<Node>(nodeRepositories.values()) {
             @Override
-            protected Iterator<Node> filterNextRepository(MVStoreCollection<Node> next) {
+            protected Iterator<Node> filterNextRepository(StorageCollection<Node> next) {
                 return next.find(propertyKey, value).iterator();
             }
         };
@@ -268,7 +573,7 @@ abstract class BaseGraph implements AutoCloseable {
                                     final Comparable<?> value2) {
         return () -> new RepositoriesIterator<Node>(nodeRepositories.values()) {
             @Override
-            protected Iterator<Node> filterNextRepository(MVStoreCollection<Node> next) {
+            protected Iterator<Node> filterNextRepository(StorageCollection<Node> next) {
                 return next.find(propertyKey1, value1, propertyKey2, value2).iterator();
             }
         };
@@ -278,7 +583,7 @@ abstract class BaseGraph implements AutoCloseable {
                                     final Comparable<?> value2, final String propertyKey3, final Comparable<?> value3) {
         return () -> new RepositoriesIterator<Node>(nodeRepositories.values()) {
             @Override
-            protected Iterator<Node> filterNextRepository(MVStoreCollection<Node> next) {
+            protected Iterator<Node> filterNextRepository(StorageCollection<Node> next) {
                 return next.find(propertyKey1, value1, propertyKey2, value2, propertyKey3, value3).iterator();
             }
         };
@@ -289,7 +594,7 @@ abstract class BaseGraph implements AutoCloseable {
                                     final String propertyKey4, final Comparable<?> value4) {
         return () -> new RepositoriesIterator<Node>(nodeRepositories.values()) {
             @Override
-            protected Iterator<Node> filterNextRepository(MVStoreCollection<Node> next) {
+            protected Iterator<Node> filterNextRepository(StorageCollection<Node> next) {
                 return next.find(propertyKey1, value1, propertyKey2, value2, propertyKey3, value3, propertyKey4, value4)
                            .iterator();
             }
@@ -308,7 +613,7 @@ abstract class BaseGraph implements AutoCloseable {
         }
         return () -> new RepositoriesIterator<Node>(nodeRepositories.values()) {
             @Override
-            protected Iterator<Node> filterNextRepository(MVStoreCollection<Node> next) {
+            protected Iterator<Node> filterNextRepository(StorageCollection<Node> next) {
                 return next.find(keys, values).iterator();
             }
         };
@@ -349,7 +654,7 @@ abstract class BaseGraph implements AutoCloseable {
     public Iterable<Edge> findEdges(final String propertyKey, final Comparable<?> value) {
         return () -> new RepositoriesIterator<Edge>(edgeRepositories.values()) {
             @Override
-            protected Iterator<Edge> filterNextRepository(MVStoreCollection<Edge> next) {
+            protected Iterator<Edge> filterNextRepository(StorageCollection<Edge> next) {
                 return next.find(propertyKey, value).iterator();
             }
         };
@@ -359,7 +664,7 @@ abstract class BaseGraph implements AutoCloseable {
                                     final Comparable<?> value2) {
         return () -> new RepositoriesIterator<Edge>(edgeRepositories.values()) {
             @Override
-            protected Iterator<Edge> filterNextRepository(MVStoreCollection<Edge> next) {
+            protected Iterator<Edge> filterNextRepository(StorageCollection<Edge> next) {
                 return next.find(propertyKey1, value1, propertyKey2, value2).iterator();
             }
         };
@@ -369,7 +674,7 @@ abstract class BaseGraph implements AutoCloseable {
                                     final Comparable<?> value2, final String propertyKey3, final Comparable<?> value3) {
         return () -> new RepositoriesIterator<Edge>(edgeRepositories.values()) {
             @Override
-            protected Iterator<Edge> filterNextRepository(MVStoreCollection<Edge> next) {
+            protected Iterator<Edge> filterNextRepository(StorageCollection<Edge> next) {
                 return next.find(propertyKey1, value1, propertyKey2, value2, propertyKey3, value3).iterator();
             }
         };
@@ -380,7 +685,7 @@ abstract class BaseGraph implements AutoCloseable {
                                     final String propertyKey4, final Comparable<?> value4) {
         return () -> new RepositoriesIterator<Edge>(edgeRepositories.values()) {
             @Override
-            protected Iterator<Edge> filterNextRepository(MVStoreCollection<Edge> next) {
+            protected Iterator<Edge> filterNextRepository(StorageCollection<Edge> next) {
                 return next.find(propertyKey1, value1, propertyKey2, value2, propertyKey3, value3, propertyKey4, value4)
                            .iterator();
             }
@@ -399,67 +704,161 @@ abstract class BaseGraph implements AutoCloseable {
         }
         return () -> new RepositoriesIterator<Edge>(edgeRepositories.values()) {
             @Override
-            protected Iterator<Edge> filterNextRepository(MVStoreCollection<Edge> next) {
+            protected Iterator<Edge> filterNextRepository(StorageCollection<Edge> next) {
                 return next.find(keys, values).iterator();
             }
         };
     }
 
+    /**
+     * Rewire all edges of the second node to the first node and remove the second node. Closure indices of the label
+     * of the second node or of rewired edges are marked as stale until {@link #rebuildStaleClosureIndices()} is
+     * called.
+     */
     public void mergeNodes(final Node first, final Node second) {
-        for (final MVStoreCollection<Edge> edges : edgeRepositories.values()) {
+        final Set<String> rewiredEdgeLabels = new HashSet<>();
+        for (final Map.Entry<String, StorageCollection<Edge>> entry : edgeRepositories.entrySet()) {
+            final StorageCollection<Edge> edges = entry.getValue();
             for (final Edge edge : edges.find(Edge.FROM_ID_FIELD, second.getId())) {
+                countEdge(edge, -1);
                 edge.setFromId(first.getId());
-                update(edge);
+                countEdge(edge, 1);
+                putEdge(edge);
+                rewiredEdgeLabels.add(entry.getKey());
             }
             for (final Edge edge : edges.find(Edge.TO_ID_FIELD, second.getId())) {
+                countEdge(edge, -1);
                 edge.setToId(first.getId());
-                update(edge);
+                countEdge(edge, 1);
+                putEdge(edge);
+                rewiredEdgeLabels.add(entry.getKey());
             }
         }
         // TODO: properties
         getOrCreateNodeRepository(second.getLabel()).remove(second);
+        if (nodeLabels != null)
+            nodeLabels.remove(second.getId());
+        for (final String[] key : getClosureIndexKeys())
+            if (key[0].equals(second.getLabel()) || rewiredEdgeLabels.contains(key[1]))
+                staleClosureIndices.add(getClosureIndexMapName(key[0], key[1]));
+    }
+
+    /**
+     * Rebuild all closure indices, whose nodes or edges were modified by merging nodes.
+     */
+    public final void rebuildStaleClosureIndices() {
+        for (final String[] key : getClosureIndexKeys())
+            if (staleClosureIndices.remove(getClosureIndexMapName(key[0], key[1])))
+                buildClosureIndex(key[0], key[1]);
     }
 
     public void mergeDatabase(final String dataSourceId, final BaseGraph databaseToMerge) {
+        mergeDatabase(dataSourceId, databaseToMerge, 1);
+    }
+
+    /**
+     * Merge all nodes and edges with prefixed labels. Each label is written by one of the threads, so labels are
+     * merged in parallel. All nodes are merged before the edges, as the edge endpoints need the new node ids.
+     */
+    public void mergeDatabase(final String dataSourceId, final BaseGraph databaseToMerge, final int threads) {
         final String dataSourcePrefix = dataSourceId + LABEL_PREFIX_SEPARATOR;
         for (final String sourceLabel : databaseToMerge.nodeRepositories.keySet()) {
-            final String targetLabel = dataSourcePrefix + sourceLabel;
-            for (final MVStoreIndex index : databaseToMerge.nodeRepositories.get(sourceLabel).getIndices())
-                getOrCreateNodeRepository(targetLabel).getIndex(index.getKey(), index.isArrayIndex(), index.getType());
+            final StorageCollection<Node> nodes = getOrCreateNodeRepository(dataSourcePrefix + sourceLabel);
+            for (final MVIndexDescription index : databaseToMerge.nodeRepositories.get(sourceLabel)
+                                                                 .getIndexDescriptions())
+                nodes.addIndex(index.getProperty(), index.isArrayProperty(), index.getType(),
+                               index.getBloomFilterFalsePositiveRate());
         }
         for (final String sourceLabel : databaseToMerge.edgeRepositories.keySet()) {
-            final String targetLabel = dataSourcePrefix + sourceLabel;
-            for (final MVStoreIndex index : databaseToMerge.edgeRepositories.get(sourceLabel).getIndices())
-                getOrCreateEdgeRepository(targetLabel).getIndex(index.getKey(), index.isArrayIndex(), index.getType());
+            final StorageCollection<Edge> edges = getOrCreateEdgeRepository(dataSourcePrefix + sourceLabel);
+            for (final MVIndexDescription index : databaseToMerge.edgeRepositories.get(sourceLabel)
+                                                                 .getIndexDescriptions())
+                edges.addIndex(index.getProperty(), index.isArrayProperty(), index.getType(),
+                               index.getBloomFilterFalsePositiveRate());
         }
-        final Map<Long, Long> mapping = new HashMap<>();
-        for (final String sourceLabel : databaseToMerge.nodeRepositories.keySet()) {
-            final String targetLabel = dataSourcePrefix + sourceLabel;
-            for (final Node n : databaseToMerge.nodeRepositories.get(sourceLabel)) {
-                final Long oldId = n.getId();
-                n.resetId();
-                n.setProperty(Node.LABEL_FIELD, targetLabel);
-                getOrCreateNodeRepository(targetLabel).put(n);
-                mapping.put(oldId, n.getId());
-            }
+        final Map<Long, Long> mapping = new ConcurrentHashMap<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try (ProgressTracker tracker = ProgressTracker.start("Merging " + dataSourceId,
+                                                             databaseToMerge.getNumberOfNodes() +
+                                                             databaseToMerge.getNumberOfEdges())) {
+            runForEachLabel(executor, databaseToMerge.nodeRepositories.keySet(),
+                            label -> mergeDatabaseNodes(dataSourcePrefix, databaseToMerge, label, mapping, tracker));
+            runForEachLabel(executor, databaseToMerge.edgeRepositories.keySet(),
+                            label -> mergeDatabaseEdges(dataSourcePrefix, databaseToMerge, label, mapping, tracker));
+        } finally {
+            executor.shutdownNow();
         }
-        for (final String sourceLabel : databaseToMerge.edgeRepositories.keySet()) {
-            final String targetLabel = dataSourcePrefix + sourceLabel;
-            for (final Edge e : databaseToMerge.edgeRepositories.get(sourceLabel)) {
-                e.resetId();
-                e.setProperty(Edge.LABEL_FIELD, targetLabel);
-                e.setFromId(mapping.get(e.getFromId()));
-                e.setToId(mapping.get(e.getToId()));
-                getOrCreateEdgeRepository(targetLabel).put(e);
-            }
+        mergeDatabaseClosureIndices(dataSourcePrefix, databaseToMerge, mapping);
+    }
+
+    private static void runForEachLabel(final ExecutorService executor, final Set<String> labels,
+                                        final Consumer<String> task) {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (final String label : labels)
+            futures.add(executor.submit(() -> task.accept(label)));
+        try {
+            for (final Future<?> future : futures)
+                future.get();
+        } catch (ExecutionException e) {
+            throw new GraphCacheException("Failed to merge database", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GraphCacheException("Interrupted while merging database", e);
+        }
+    }
+
+    private void mergeDatabaseNodes(final String dataSourcePrefix, final BaseGraph databaseToMerge,
+                                    final String sourceLabel, final Map<Long, Long> mapping,
+                                    final ProgressTracker tracker) {
+        final String targetLabel = dataSourcePrefix + sourceLabel;
+        final StorageCollection<Node> nodes = getOrCreateNodeRepository(targetLabel);
+        final Counter nodesWrittenCounter = getNodesWrittenCounter(targetLabel);
+        for (final Node n : databaseToMerge.nodeRepositories.get(sourceLabel)) {
+            final Long oldId = n.getId();
+            n.resetId();
+            n.setProperty(Node.LABEL_FIELD, targetLabel);
+            nodes.put(n);
+            putNodeLabel(n.getId(), targetLabel);
+            nodesWrittenCounter.increment();
+            mapping.put(oldId, n.getId());
+            tracker.step();
+        }
+    }
+
+    private void mergeDatabaseEdges(final String dataSourcePrefix, final BaseGraph databaseToMerge,
+                                    final String sourceLabel, final Map<Long, Long> mapping,
+                                    final ProgressTracker tracker) {
+        final String targetLabel = dataSourcePrefix + sourceLabel;
+        final StorageCollection<Edge> edges = getOrCreateEdgeRepository(targetLabel);
+        final Counter edgesWrittenCounter = getEdgesWrittenCounter(targetLabel);
+        for (final Edge e : databaseToMerge.edgeRepositories.get(sourceLabel)) {
+            e.resetId();
+            e.setProperty(Edge.LABEL_FIELD, targetLabel);
+            e.setFromId(mapping.get(e.getFromId()));
+            e.setToId(mapping.get(e.getToId()));
+            edges.put(e);
+            countEdge(e, 1);
+            edgesWrittenCounter.increment();
+            tracker.step();
+        }
+    }
+
+    private void mergeDatabaseClosureIndices(final String dataSourcePrefix, final BaseGraph databaseToMerge,
+                                             final Map<Long, Long> mapping) {
+        for (final String[] key : databaseToMerge.getClosureIndexKeys()) {
+            final ClosureIndex index = databaseToMerge.getClosureIndex(key[0], key[1]);
+            final Map<Long, long[]> labels = new HashMap<>();
+            for (final Map.Entry<Long, long[]> entry : index.getLabels().entrySet())
+                labels.put(mapping.get(entry.getKey()), entry.getValue());
+            putClosureIndex(new ClosureIndex(dataSourcePrefix + key[0], dataSourcePrefix + key[1], labels));
         }
     }
 
-    private static class RepositoriesIterator<T extends MVStoreModel> implements Iterator<T> {
+    static class RepositoriesIterator<T extends MVStoreModel> implements Iterator<T> {
         private Iterator<T> current;
-        private final Iterator<MVStoreCollection<T>> repositories;
+        private final Iterator<StorageCollection<T>> repositories;
 
-        RepositoriesIterator(final Collection<MVStoreCollection<T>> repositories) {
+        RepositoriesIterator(final Collection<StorageCollection<T>> repositories) {
             this.repositories = repositories.iterator();
         }
 
@@ -474,7 +873,7 @@ abstract class BaseGraph implements AutoCloseable {
                 current = filterNextRepository(repositories.next());
         }
 
-        protected Iterator<T> filterNextRepository(final MVStoreCollection<T> next) {
+        protected Iterator<T> filterNextRepository(final StorageCollection<T> next) {
             return next.iterator();
         }
 
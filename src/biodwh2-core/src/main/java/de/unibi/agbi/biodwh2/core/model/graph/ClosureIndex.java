@@ -0,0 +1,196 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+/**
+ * Transitive closure of a hierarchical relation such as the IS_A edges of an ontology, encoded as interval labels.
+ * <p>
+ * The nodes are numbered in post-order of a depth-first spanning tree, so the descendants of a node in the spanning
+ * tree form the interval from the lowest number in its subtree to its own number. Descendants reachable through
+ * non-tree edges are covered by the additional intervals of their ancestors, which are merged and usually few. The
+ * relation is followed from the end node to the start node of an edge, so for "A IS_A B" the node A is a descendant of
+ * B. Edges closing a cycle are ignored.
+ */
+public final class ClosureIndex {
+    /**
+     * Label layout: post-order number, lowest number in the spanning subtree, followed by the merged intervals as pairs
+     * of inclusive bounds sorted by the lower bound.
+     */
+    private static final int POST_OFFSET = 0;
+    private static final int TREE_LOW_OFFSET = 1;
+    private static final int INTERVALS_OFFSET = 2;
+
+    private final String nodeLabel;
+    private final String edgeLabel;
+    private final Map<Long, long[]> labels;
+    private final long[] nodeIdsByPost;
+
+    ClosureIndex(final String nodeLabel, final String edgeLabel, final Map<Long, long[]> labels) {
+        this.nodeLabel = nodeLabel;
+        this.edgeLabel = edgeLabel;
+        this.labels = labels;
+        nodeIdsByPost = new long[labels.size()];
+        for (final Map.Entry<Long, long[]> entry : labels.entrySet())
+            nodeIdsByPost[(int) entry.getValue()[POST_OFFSET]] = entry.getKey();
+    }
+
+    static ClosureIndex build(final BaseGraph graph, final String nodeLabel, final String edgeLabel) {
+        final Map<Long, List<Long>> children = new HashMap<>();
+        for (final Node node : graph.findNodes(nodeLabel))
+            children.put(node.getId(), new ArrayList<>());
+        final Set<Long> childIds = new HashSet<>();
+        for (final Edge edge : graph.findEdges(edgeLabel)) {
+            final List<Long> parentChildren = children.get(edge.getToId());
+            if (parentChildren != null && children.containsKey(edge.getFromId())) {
+                parentChildren.add(edge.getFromId());
+                childIds.add(edge.getFromId());
+            }
+        }
+        final List<Long> nodeIds = new ArrayList<>(children.keySet());
+        Collections.sort(nodeIds);
+        final Map<Long, long[]> labels = new HashMap<>();
+        final List<Long> finishOrder = new ArrayList<>(nodeIds.size());
+        // Roots first, so the spanning trees follow the hierarchy. Remaining nodes are only part of cycles.
+        for (final Long nodeId : nodeIds)
+            if (!childIds.contains(nodeId))
+                visit(nodeId, children, labels, finishOrder);
+        for (final Long nodeId : nodeIds)
+            if (!labels.containsKey(nodeId))
+                visit(nodeId, children, labels, finishOrder);
+        for (final Long nodeId : finishOrder)
+            labels.put(nodeId, mergeIntervals(labels.get(nodeId), children.get(nodeId), labels));
+        return new ClosureIndex(nodeLabel, edgeLabel, labels);
+    }
+
+    /**
+     * Iterative depth-first traversal assigning the post-order numbers and spanning subtree bounds.
+     */
+    private static void visit(final Long rootId, final Map<Long, List<Long>> children, final Map<Long, long[]> labels,
+                              final List<Long> finishOrder) {
+        final Deque<Long> nodeStack = new ArrayDeque<>();
+        final Deque<Integer> childIndexStack = new ArrayDeque<>();
+        final Deque<Long> treeLowStack = new ArrayDeque<>();
+        labels.put(rootId, null);
+        nodeStack.push(rootId);
+        childIndexStack.push(0);
+        treeLowStack.push((long) finishOrder.size());
+        while (!nodeStack.isEmpty()) {
+            final Long nodeId = nodeStack.peek();
+            final List<Long> nodeChildren = children.get(nodeId);
+            int childIndex = childIndexStack.pop();
+            while (childIndex < nodeChildren.size() && labels.containsKey(nodeChildren.get(childIndex)))
+                childIndex++;
+            if (childIndex < nodeChildren.size()) {
+                final Long childId = nodeChildren.get(childIndex);
+                childIndexStack.push(childIndex + 1);
+                labels.put(childId, null);
+                nodeStack.push(childId);
+                childIndexStack.push(0);
+                treeLowStack.push((long) finishOrder.size());
+            } else {
+                nodeStack.pop();
+                labels.put(nodeId, new long[]{finishOrder.size(), treeLowStack.pop()});
+                finishOrder.add(nodeId);
+            }
+        }
+    }
+
+    /**
+     * Merges the spanning subtree interval with the intervals of all children finished before the node. Children
+     * finished later are only reachable through a cycle.
+     */
+    private static long[] mergeIntervals(final long[] label, final List<Long> children,
+                                         final Map<Long, long[]> labels) {
+        final long post = label[POST_OFFSET];
+        final long treeLow = label[TREE_LOW_OFFSET];
+        final List<long[]> intervals = new ArrayList<>();
+        intervals.add(new long[]{treeLow, post});
+        for (final Long childId : children) {
+            final long[] childLabel = labels.get(childId);
+            if (childLabel[POST_OFFSET] < post)
+                for (int i = INTERVALS_OFFSET; i < childLabel.length; i += 2)
+                    if (childLabel[i] < treeLow || childLabel[i + 1] > post)
+                        intervals.add(new long[]{childLabel[i], childLabel[i + 1]});
+        }
+        intervals.sort(Comparator.comparingLong(interval -> interval[0]));
+        final long[] result = new long[INTERVALS_OFFSET + intervals.size() * 2];
+        result[POST_OFFSET] = post;
+        result[TREE_LOW_OFFSET] = treeLow;
+        int length = INTERVALS_OFFSET;
+        for (final long[] interval : intervals) {
+            if (length > INTERVALS_OFFSET && interval[0] <= result[length - 1] + 1)
+                result[length - 1] = Math.max(result[length - 1], interval[1]);
+            else {
+                result[length++] = interval[0];
+                result[length++] = interval[1];
+            }
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    public String getNodeLabel() {
+        return nodeLabel;
+    }
+
+    public String getEdgeLabel() {
+        return edgeLabel;
+    }
+
+    Map<Long, long[]> getLabels() {
+        return labels;
+    }
+
+    public int size() {
+        return nodeIdsByPost.length;
+    }
+
+    public boolean contains(final long nodeId) {
+        return labels.containsKey(nodeId);
+    }
+
+    /**
+     * @return true if the node is a direct or transitive descendant of the ancestor node, false otherwise or if the
+     * node is the ancestor node itself
+     */
+    public boolean isDescendant(final long nodeId, final long ancestorId) {
+        final long[] label = labels.get(nodeId);
+        final long[] ancestorLabel = labels.get(ancestorId);
+        if (label == null || ancestorLabel == null || nodeId == ancestorId)
+            return false;
+        final long post = label[POST_OFFSET];
+        if (post >= ancestorLabel[TREE_LOW_OFFSET] && post < ancestorLabel[POST_OFFSET])
+            return true;
+        int low = 0;
+        int high = (ancestorLabel.length - INTERVALS_OFFSET) / 2 - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int offset = INTERVALS_OFFSET + middle * 2;
+            if (post < ancestorLabel[offset])
+                high = middle - 1;
+            else if (post > ancestorLabel[offset + 1])
+                low = middle + 1;
+            else
+                return true;
+        }
+        return false;
+    }
+
+    public boolean isAncestor(final long nodeId, final long descendantId) {
+        return isDescendant(descendantId, nodeId);
+    }
+
+    /**
+     * @return the ids of all direct and transitive descendants of the node, excluding the node itself
+     */
+    public LongStream descendants(final long nodeId) {
+        final long[] label = labels.get(nodeId);
+        if (label == null)
+            return LongStream.empty();
+        final long post = label[POST_OFFSET];
+        return LongStream.range(0, (label.length - INTERVALS_OFFSET) / 2).flatMap(
+                i -> LongStream.rangeClosed(label[INTERVALS_OFFSET + (int) i * 2],
+                                            label[INTERVALS_OFFSET + (int) i * 2 + 1])).filter(p -> p != post).map(
+                p -> nodeIdsByPost[(int) p]);
+    }
+}
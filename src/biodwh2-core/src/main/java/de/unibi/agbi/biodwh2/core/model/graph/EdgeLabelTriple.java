@@ -0,0 +1,53 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Combination of an edge label and the labels of its start and end nodes.
+ */
+public final class EdgeLabelTriple implements Serializable {
+    private static final long serialVersionUID = -4113702540633045402L;
+
+    private final String fromLabel;
+    private final String label;
+    private final String toLabel;
+
+    public EdgeLabelTriple(final String fromLabel, final String label, final String toLabel) {
+        this.fromLabel = fromLabel;
+        this.label = label;
+        this.toLabel = toLabel;
+    }
+
+    public String getFromLabel() {
+        return fromLabel;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getToLabel() {
+        return toLabel;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        final EdgeLabelTriple that = (EdgeLabelTriple) o;
+        return fromLabel.equals(that.fromLabel) && label.equals(that.label) && toLabel.equals(that.toLabel);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fromLabel, label, toLabel);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + fromLabel + ")-[" + label + "]->(" + toLabel + ")";
+    }
+}
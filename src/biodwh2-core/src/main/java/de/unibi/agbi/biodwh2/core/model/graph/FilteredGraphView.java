@@ -0,0 +1,214 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import de.unibi.agbi.biodwh2.core.lang.Type;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Subgraph of a graph selected by a {@link SubgraphFilter}. Nodes and edges are streamed from the underlying graph and
+ * filtered on the fly, so no copy of the subgraph is created. Only the ids of the nodes reached from the seed nodes are
+ * kept in memory if the filter defines seed labels.
+ * <p>
+ * An edge is part of the subgraph if its label is selected and both its start and end node are part of the subgraph.
+ */
+public final class FilteredGraphView implements GraphView {
+    private final Graph graph;
+    private final SubgraphFilter filter;
+    private final String[] nodeLabels;
+    private final String[] edgeLabels;
+    private final Set<String> nodeLabelSet;
+    /**
+     * Ids of the nodes reachable from the seed nodes or null if the filter defines no seed labels.
+     */
+    private final Set<Long> reachedNodeIds;
+    /**
+     * Whether edges are only filtered by their label, as all node labels are selected and there are no seeds.
+     */
+    private final boolean allNodesSelected;
+    private volatile Long numberOfEdges;
+
+    public FilteredGraphView(final Graph graph, final SubgraphFilter filter) {
+        this.graph = graph;
+        this.filter = filter;
+        nodeLabels = Arrays.stream(graph.getNodeLabels()).filter(filter::isNodeLabelSelected).toArray(String[]::new);
+        edgeLabels = Arrays.stream(graph.getEdgeLabels()).filter(filter::isEdgeLabelSelected).toArray(String[]::new);
+        nodeLabelSet = new HashSet<>(Arrays.asList(nodeLabels));
+        reachedNodeIds = filter.hasSeeds() ? collectReachedNodeIds() : null;
+        allNodesSelected = reachedNodeIds == null && nodeLabels.length == graph.getNodeLabels().length;
+    }
+
+    /**
+     * Breadth-first expansion from the seed nodes, which passes over all selected edges once per hop. This avoids an
+     * index lookup per reached node and keeps the memory usage limited to the reached node ids.
+     */
+    private Set<Long> collectReachedNodeIds() {
+        final Set<Long> reached = new HashSet<>();
+        Set<Long> frontier = new HashSet<>();
+        for (final String label : nodeLabels)
+            if (filter.isSeedNodeLabel(label))
+                for (final Node node : graph.findNodes(label))
+                    frontier.add(node.getId());
+        reached.addAll(frontier);
+        try (ProgressTracker tracker = ProgressTracker.start("Expanding subgraph seeds", filter.getHops())) {
+            for (int hop = 0; hop < filter.getHops() && !frontier.isEmpty(); hop++) {
+                final Set<Long> next = new HashSet<>();
+                for (final String label : edgeLabels) {
+                    for (final Edge edge : graph.findEdges(label)) {
+                        final Long fromId = edge.getFromId();
+                        final Long toId = edge.getToId();
+                        if (frontier.contains(fromId) && !reached.contains(toId) && isNodeSelected(toId))
+                            next.add(toId);
+                        if (frontier.contains(toId) && !reached.contains(fromId) && isNodeSelected(fromId))
+                            next.add(fromId);
+                    }
+                }
+                reached.addAll(next);
+                frontier = next;
+                tracker.step();
+            }
+        }
+        return reached;
+    }
+
+    private boolean isNodeSelected(final Long nodeId) {
+        if (reachedNodeIds != null)
+            return reachedNodeIds.contains(nodeId);
+        return nodeLabelSet.contains(graph.getNodeLabel(nodeId));
+    }
+
+    @Override
+    public String[] getNodeLabels() {
+        return nodeLabels.clone();
+    }
+
+    @Override
+    public String[] getEdgeLabels() {
+        return edgeLabels.clone();
+    }
+
+    @Override
+    public Map<String, Type> getPropertyKeyTypesForNodeLabel(final String label) {
+        return nodeLabelSet.contains(label) ? graph.getPropertyKeyTypesForNodeLabel(label) : new HashMap<>();
+    }
+
+    @Override
+    public Map<String, Type> getPropertyKeyTypesForEdgeLabel(final String label) {
+        return filter.isEdgeLabelSelected(label) ? graph.getPropertyKeyTypesForEdgeLabel(label) : new HashMap<>();
+    }
+
+    @Override
+    public Iterable<Node> getNodes() {
+        return () -> new FlatMapIterator<>(nodeLabels, this::findNodes);
+    }
+
+    @Override
+    public Iterable<Edge> getEdges() {
+        return () -> new FlatMapIterator<>(edgeLabels, this::findEdges);
+    }
+
+    @Override
+    public Iterable<Node> findNodes(final String label) {
+        if (!nodeLabelSet.contains(label))
+            return Collections.emptyList();
+        if (reachedNodeIds == null)
+            return graph.findNodes(label);
+        return () -> new FilterIterator<>(graph.findNodes(label).iterator(), n -> reachedNodeIds.contains(n.getId()));
+    }
+
+    @Override
+    public Iterable<Edge> findEdges(final String label) {
+        if (!filter.isEdgeLabelSelected(label))
+            return Collections.emptyList();
+        return () -> new FilterIterator<>(graph.findEdges(label).iterator(),
+                                          e -> isNodeSelected(e.getFromId()) && isNodeSelected(e.getToId()));
+    }
+
+    @Override
+    public long getNumberOfNodes() {
+        if (reachedNodeIds != null)
+            return reachedNodeIds.size();
+        long result = 0;
+        for (final String label : nodeLabels)
+            result += graph.getNumberOfNodes(label);
+        return result;
+    }
+
+    /**
+     * Unless edges are only filtered by their label, the edges of the subgraph are counted by iterating them once. The
+     * count is kept afterwards, so it doesn't include edges written to the graph later.
+     */
+    @Override
+    public long getNumberOfEdges() {
+        if (numberOfEdges == null) {
+            long result = 0;
+            if (allNodesSelected) {
+                for (final String label : edgeLabels)
+                    result += graph.getNumberOfEdges(label);
+            } else {
+                for (final Edge ignored : getEdges())
+                    result++;
+            }
+            numberOfEdges = result;
+        }
+        return numberOfEdges;
+    }
+
+    private static final class FilterIterator<T> implements Iterator<T> {
+        private final Iterator<T> source;
+        private final Predicate<T> predicate;
+        private T next;
+
+        FilterIterator(final Iterator<T> source, final Predicate<T> predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && source.hasNext()) {
+                final T candidate = source.next();
+                if (predicate.test(candidate))
+                    next = candidate;
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            final T result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    private static final class FlatMapIterator<T> implements Iterator<T> {
+        private final String[] labels;
+        private final Function<String, Iterable<T>> mapper;
+        private int labelIndex;
+        private Iterator<T> current;
+
+        FlatMapIterator(final String[] labels, final Function<String, Iterable<T>> mapper) {
+            this.labels = labels;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((current == null || !current.hasNext()) && labelIndex < labels.length)
+                current = mapper.apply(labels[labelIndex++]).iterator();
+            return current != null && current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return current.next();
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package de.unibi.agbi.biodwh2.core.model.graph;
 
 import de.unibi.agbi.biodwh2.core.exceptions.GraphCacheException;
+import de.unibi.agbi.biodwh2.core.io.memory.InMemoryStorageBackend;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageBackend;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressWarnings("unused")
 public final class Graph extends BaseGraph {
-    private final Map<Class<?>, ClassMapping> classMappingsCache = new HashMap<>();
+    private final Map<Class<?>, ClassMapping> classMappingsCache = new ConcurrentHashMap<>();
 
     public Graph(final String filePath) {
         this(Paths.get(filePath), false, false);
@@ -28,6 +31,10 @@ public final class Graph extends BaseGraph {
         super(filePath, reopen, readOnly);
     }
 
+    private Graph(final StorageBackend database) {
+        super(database);
+    }
+
     public Node addNode(final String label) {
         final Node n = Node.newNode(label);
         update(n);
@@ -94,9 +101,7 @@ public final class Graph extends BaseGraph {
     }
 
     private ClassMapping getClassMappingFromCache(final Class<?> type) {
-        if (!classMappingsCache.containsKey(type))
-            classMappingsCache.put(type, new ClassMapping(type));
-        return classMappingsCache.get(type);
+        return classMappingsCache.computeIfAbsent(type, ClassMapping::new);
     }
 
     public <T> Node addNodeFromModel(final T obj, final String propertyKey, final Object propertyValue) {
@@ -483,4 +488,12 @@ public final class Graph extends BaseGraph {
         final Path tempFilePath = Files.createTempFile("graphdb_test", ".db");
         return new Graph(tempFilePath.toString());
     }
+
+    /**
+     * Create a graph kept in memory only, which is discarded when closed. Faster than a file graph for temporary
+     * graphs fitting into the heap.
+     */
+    public static Graph createInMemoryGraph() {
+        return new Graph(new InMemoryStorageBackend());
+    }
 }
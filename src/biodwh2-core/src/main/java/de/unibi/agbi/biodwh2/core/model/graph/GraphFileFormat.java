@@ -1,7 +1,9 @@
 package de.unibi.agbi.biodwh2.core.model.graph;
 
 public enum GraphFileFormat {
-    GRAPH_ML("graphml");
+    GRAPH_ML("graphml"),
+    NEO4J_CSV("csv"),
+    COLUMNAR("bcol");
 
     public final String extension;
 
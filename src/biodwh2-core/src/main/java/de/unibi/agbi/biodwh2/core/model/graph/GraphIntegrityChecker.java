@@ -0,0 +1,230 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import de.unibi.agbi.biodwh2.core.collections.LongBitSet;
+import de.unibi.agbi.biodwh2.core.exceptions.GraphCacheException;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVIndexDescription;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreIndexType;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageCollection;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphIntegrityReport.ProblemType;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Verifies that all edges reference existing nodes and that the indices of all labels match the stored nodes and
+ * edges. Labels are checked in parallel, first all node labels to collect the node ids in a bitset and then all edge
+ * labels. Indices with missing or stale entries can be rebuilt, while duplicate unique keys need to be resolved in the
+ * data.
+ */
+public final class GraphIntegrityChecker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GraphIntegrityChecker.class);
+
+    private final int threads;
+
+    public GraphIntegrityChecker() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GraphIntegrityChecker(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param repair whether to rebuild indices with missing or stale entries, which requires a writable graph
+     */
+    public GraphIntegrityReport check(final Graph graph, final boolean repair) {
+        final GraphIntegrityReport report = new GraphIntegrityReport();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (ProgressTracker tracker = ProgressTracker.start("Checking graph integrity",
+                                                             graph.getNumberOfNodes() + graph.getNumberOfEdges())) {
+            final LongBitSet nodeIds = new LongBitSet();
+            for (final LongBitSet ids : runForEachLabel(executor, graph.getNodeLabels(),
+                                                        label -> checkRepository(IndexDescription.Target.NODE, label,
+                                                                                 graph.getNodeRepository(label), null,
+                                                                                 repair, report, tracker)))
+                nodeIds.or(ids);
+            runForEachLabel(executor, graph.getEdgeLabels(),
+                            label -> checkRepository(IndexDescription.Target.EDGE, label,
+                                                     graph.getEdgeRepository(label), nodeIds, repair, report, tracker));
+        } finally {
+            executor.shutdownNow();
+        }
+        return report;
+    }
+
+    private static <R> List<R> runForEachLabel(final ExecutorService executor, final String[] labels,
+                                               final Function<String, R> task) {
+        final List<Future<R>> futures = new ArrayList<>();
+        for (final String label : labels)
+            futures.add(executor.submit(() -> task.apply(label)));
+        final List<R> result = new ArrayList<>();
+        try {
+            for (final Future<R> future : futures)
+                result.add(future.get());
+        } catch (ExecutionException e) {
+            throw new GraphCacheException("Failed to check graph integrity", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GraphCacheException("Interrupted while checking graph integrity", e);
+        }
+        return result;
+    }
+
+    /**
+     * @param nodeIds ids of all nodes for edge repositories or null for node repositories
+     * @return ids of all nodes or edges of the repository
+     */
+    private static <T extends MVStoreModel> LongBitSet checkRepository(final IndexDescription.Target target,
+                                                                       final String label,
+                                                                       final StorageCollection<T> repository,
+                                                                       final LongBitSet nodeIds, final boolean repair,
+                                                                       final GraphIntegrityReport report,
+                                                                       final ProgressTracker tracker) {
+        final List<IndexDescription> indices = getIndexDescriptions(target, label, repository);
+        final Set<String> inconsistentKeys = new HashSet<>();
+        final Set<String> duplicateKeys = new HashSet<>();
+        final LongBitSet ids = new LongBitSet();
+        for (final T model : repository) {
+            ids.set(model.getId());
+            if (nodeIds != null)
+                checkEdgeEndpoints((Edge) model, nodeIds, report);
+            for (final IndexDescription index : indices)
+                checkRecordIndexEntries(repository, index, model, inconsistentKeys, duplicateKeys, report);
+            tracker.step();
+        }
+        for (final IndexDescription index : indices)
+            checkIndexEntryRecords(repository, index, ids, inconsistentKeys, report);
+        if (repair)
+            repairIndices(repository, indices, inconsistentKeys, duplicateKeys, report);
+        return ids;
+    }
+
+    private static List<IndexDescription> getIndexDescriptions(final IndexDescription.Target target,
+                                                               final String label,
+                                                               final StorageCollection<?> repository) {
+        final List<IndexDescription> result = new ArrayList<>();
+        for (final MVIndexDescription description : repository.getIndexDescriptions())
+            result.add(new IndexDescription(target, label, description.getProperty(), description.isArrayProperty(),
+                                            description.getType() == MVStoreIndexType.UNIQUE ?
+                                            IndexDescription.Type.UNIQUE : IndexDescription.Type.NON_UNIQUE));
+        if (target == IndexDescription.Target.EDGE) {
+            result.add(IndexDescription.forEdge(label, Edge.FROM_ID_FIELD));
+            result.add(IndexDescription.forEdge(label, Edge.TO_ID_FIELD));
+        }
+        return result;
+    }
+
+    private static void checkEdgeEndpoints(final Edge edge, final LongBitSet nodeIds,
+                                           final GraphIntegrityReport report) {
+        final Long fromId = edge.getFromId();
+        final Long toId = edge.getToId();
+        if (fromId == null || !nodeIds.get(fromId))
+            report.add(ProblemType.DANGLING_EDGE, IndexDescription.Target.EDGE, edge.getLabel(), null,
+                       "Edge " + edge.getId() + " from missing node " + fromId);
+        if (toId == null || !nodeIds.get(toId))
+            report.add(ProblemType.DANGLING_EDGE, IndexDescription.Target.EDGE, edge.getLabel(), null,
+                       "Edge " + edge.getId() + " to missing node " + toId);
+    }
+
+    private static <T extends MVStoreModel> void checkRecordIndexEntries(final StorageCollection<T> repository,
+                                                                         final IndexDescription index, final T model,
+                                                                         final Set<String> inconsistentKeys,
+                                                                         final Set<String> duplicateKeys,
+                                                                         final GraphIntegrityReport report) {
+        final String key = index.getProperty();
+        for (final Comparable<?> value : getIndexedValues(model.get(key), index.isArrayProperty())) {
+            if (repository.containsIndexEntry(key, value, model.getId()))
+                continue;
+            final Long duplicateId = index.getType() == IndexDescription.Type.UNIQUE ?
+                                     findDuplicateId(repository, key, value, model.getId()) : null;
+            if (duplicateId != null) {
+                duplicateKeys.add(key);
+                report.add(ProblemType.DUPLICATE_UNIQUE_KEY, index.getTarget(), index.getLabel(), key,
+                           "'" + value + "' of " + model.getId() + " and " + duplicateId);
+            } else {
+                inconsistentKeys.add(key);
+                report.add(ProblemType.MISSING_INDEX_ENTRY, index.getTarget(), index.getLabel(), key,
+                           "'" + value + "' of " + model.getId());
+            }
+        }
+    }
+
+    private static Collection<Comparable<?>> getIndexedValues(final Object value, final boolean arrayIndex) {
+        if (arrayIndex && value instanceof Comparable<?>[]) {
+            final Set<Comparable<?>> result = new HashSet<>();
+            for (final Comparable<?> element : (Comparable<?>[]) value)
+                if (element != null)
+                    result.add(element);
+            return result;
+        }
+        return value instanceof Comparable<?> ? Collections.singletonList((Comparable<?>) value) :
+               Collections.emptyList();
+    }
+
+    /**
+     * @return the id of another model with the same value the unique index maps the value to or null
+     */
+    private static <T extends MVStoreModel> Long findDuplicateId(final StorageCollection<T> repository,
+                                                                 final String key, final Comparable<?> value,
+                                                                 final long id) {
+        for (final T other : repository.find(key, value))
+            if (other.getId() != id && hasValue(other.get(key), value))
+                return other.getId();
+        return null;
+    }
+
+    private static boolean hasValue(final Object property, final Comparable<?> value) {
+        if (property instanceof Object[]) {
+            for (final Object element : (Object[]) property)
+                if (Objects.equals(element, value))
+                    return true;
+            return false;
+        }
+        return Objects.equals(property, value);
+    }
+
+    private static <T extends MVStoreModel> void checkIndexEntryRecords(final StorageCollection<T> repository,
+                                                                        final IndexDescription index,
+                                                                        final LongBitSet ids,
+                                                                        final Set<String> inconsistentKeys,
+                                                                        final GraphIntegrityReport report) {
+        final String key = index.getProperty();
+        repository.forEachIndexEntry(key, (value, id) -> {
+            final T model = ids.get(id) ? repository.get(id) : null;
+            if (model == null) {
+                inconsistentKeys.add(key);
+                report.add(ProblemType.INDEX_ENTRY_WITHOUT_RECORD, index.getTarget(), index.getLabel(), key,
+                           "'" + value + "' of missing " + id);
+            } else if (!hasValue(model.get(key), value)) {
+                inconsistentKeys.add(key);
+                report.add(ProblemType.STALE_INDEX_ENTRY, index.getTarget(), index.getLabel(), key,
+                           "'" + value + "' of " + id);
+            }
+        });
+    }
+
+    private static void repairIndices(final StorageCollection<?> repository, final List<IndexDescription> indices,
+                                      final Set<String> inconsistentKeys, final Set<String> duplicateKeys,
+                                      final GraphIntegrityReport report) {
+        for (final IndexDescription index : indices) {
+            if (!inconsistentKeys.contains(index.getProperty()))
+                continue;
+            if (duplicateKeys.contains(index.getProperty())) {
+                if (LOGGER.isWarnEnabled())
+                    LOGGER.warn("Failed to repair index " + index.getProperty() + " of " + index.getLabel() +
+                                " with duplicate unique keys");
+                continue;
+            }
+            repository.rebuildIndex(index.getProperty());
+            report.addRepairedIndex(index);
+        }
+    }
+}
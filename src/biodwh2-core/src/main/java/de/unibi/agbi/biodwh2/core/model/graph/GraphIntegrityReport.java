@@ -0,0 +1,122 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import java.util.*;
+
+/**
+ * Problems found by the {@link GraphIntegrityChecker} counted per type and label with a few examples each.
+ */
+public final class GraphIntegrityReport {
+    public static final int MAX_EXAMPLES = 3;
+
+    public enum ProblemType {
+        /**
+         * Edge whose start or end node doesn't exist
+         */
+        DANGLING_EDGE,
+        /**
+         * Index entry of an id without node or edge
+         */
+        INDEX_ENTRY_WITHOUT_RECORD,
+        /**
+         * Index entry of a value the node or edge doesn't have
+         */
+        STALE_INDEX_ENTRY,
+        /**
+         * Indexed value of a node or edge without index entry
+         */
+        MISSING_INDEX_ENTRY,
+        /**
+         * Value of a unique index shared by multiple nodes or edges
+         */
+        DUPLICATE_UNIQUE_KEY
+    }
+
+    public static final class Problem {
+        private final ProblemType type;
+        private final IndexDescription.Target target;
+        private final String label;
+        private final String property;
+        private long count;
+        private final List<String> examples;
+
+        private Problem(final ProblemType type, final IndexDescription.Target target, final String label,
+                        final String property) {
+            this.type = type;
+            this.target = target;
+            this.label = label;
+            this.property = property;
+            examples = new ArrayList<>();
+        }
+
+        public ProblemType getType() {
+            return type;
+        }
+
+        public IndexDescription.Target getTarget() {
+            return target;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @return the indexed property key or null for dangling edges
+         */
+        public String getProperty() {
+            return property;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public List<String> getExamples() {
+            return examples;
+        }
+    }
+
+    private final Map<List<Object>, Problem> problems;
+    private final List<IndexDescription> repairedIndices;
+
+    GraphIntegrityReport() {
+        problems = new LinkedHashMap<>();
+        repairedIndices = new ArrayList<>();
+    }
+
+    synchronized void add(final ProblemType type, final IndexDescription.Target target, final String label,
+                          final String property, final String example) {
+        final Problem problem = problems.computeIfAbsent(Arrays.asList(type, target, label, property),
+                                                         k -> new Problem(type, target, label, property));
+        problem.count++;
+        if (problem.examples.size() < MAX_EXAMPLES)
+            problem.examples.add(example);
+    }
+
+    synchronized void addRepairedIndex(final IndexDescription description) {
+        repairedIndices.add(description);
+    }
+
+    public synchronized boolean isEmpty() {
+        return problems.isEmpty();
+    }
+
+    public synchronized List<Problem> getProblems() {
+        return new ArrayList<>(problems.values());
+    }
+
+    public synchronized long getCount(final ProblemType type) {
+        long result = 0;
+        for (final Problem problem : problems.values())
+            if (problem.type == type)
+                result += problem.count;
+        return result;
+    }
+
+    /**
+     * @return the indices rebuilt because of inconsistent entries
+     */
+    public synchronized List<IndexDescription> getRepairedIndices() {
+        return new ArrayList<>(repairedIndices);
+    }
+}
@@ -0,0 +1,177 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import de.unibi.agbi.biodwh2.core.io.storage.PropertySchema;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageCollection;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageSnapshot;
+import de.unibi.agbi.biodwh2.core.lang.Type;
+
+import java.util.*;
+
+/**
+ * Read-only view of a graph at the version pinned when the session was opened. All reads of the session see this
+ * version without registering a version usage per call, while writers continue to modify the graph. Opening a
+ * session waits for writes in progress, so index lookups and scans of the session always agree.
+ */
+public final class GraphReadSession implements AutoCloseable, GraphView {
+    private final StorageSnapshot snapshot;
+    private final Map<String, StorageCollection<Node>> nodeRepositories;
+    private final Map<String, StorageCollection<Edge>> edgeRepositories;
+    private final Map<Long, String> nodeLabels;
+
+    GraphReadSession(final StorageSnapshot snapshot, final Map<String, StorageCollection<Node>> nodeRepositories,
+                     final Map<String, StorageCollection<Edge>> edgeRepositories,
+                     final Map<Long, String> nodeLabels) {
+        this.snapshot = snapshot;
+        this.nodeRepositories = nodeRepositories;
+        this.edgeRepositories = edgeRepositories;
+        this.nodeLabels = nodeLabels;
+    }
+
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    @Override
+    public String[] getNodeLabels() {
+        return nodeRepositories.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getEdgeLabels() {
+        return edgeRepositories.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public Map<String, Type> getPropertyKeyTypesForNodeLabel(final String label) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        return nodes != null ? nodes.getPropertyKeyTypes() : new HashMap<>();
+    }
+
+    @Override
+    public Map<String, Type> getPropertyKeyTypesForEdgeLabel(final String label) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        return edges != null ? edges.getPropertyKeyTypes() : new HashMap<>();
+    }
+
+    /**
+     * The statistics of the schemas are not pinned by the session and may include nodes written after it was opened.
+     */
+    public Map<String, PropertySchema> getPropertySchemasForNodeLabel(final String label) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        return nodes != null ? nodes.getPropertySchemas() : new HashMap<>();
+    }
+
+    /**
+     * The statistics of the schemas are not pinned by the session and may include edges written after it was opened.
+     */
+    public Map<String, PropertySchema> getPropertySchemasForEdgeLabel(final String label) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        return edges != null ? edges.getPropertySchemas() : new HashMap<>();
+    }
+
+    @Override
+    public Iterable<Node> getNodes() {
+        return () -> new BaseGraph.RepositoriesIterator<>(nodeRepositories.values());
+    }
+
+    @Override
+    public Iterable<Edge> getEdges() {
+        return () -> new BaseGraph.RepositoriesIterator<>(edgeRepositories.values());
+    }
+
+    @Override
+    public Iterable<Node> findNodes(final String label) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        return nodes != null ? nodes : Collections.emptyList();
+    }
+
+    public Iterable<Node> findNodes(final String label, final String propertyKey, final Comparable<?> value) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        return nodes != null ? nodes.find(propertyKey, value) : Collections.emptyList();
+    }
+
+    public Iterable<Node> findNodes(final String label, final Map<String, Comparable<?>> properties) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        if (nodes == null)
+            return Collections.emptyList();
+        if (properties == null || properties.size() == 0)
+            return nodes;
+        return nodes.find(properties.keySet().toArray(new String[0]),
+                          properties.values().toArray(new Comparable<?>[0]));
+    }
+
+    @Override
+    public Iterable<Edge> findEdges(final String label) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        return edges != null ? edges : Collections.emptyList();
+    }
+
+    public Iterable<Edge> findEdges(final String label, final String propertyKey, final Comparable<?> value) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        return edges != null ? edges.find(propertyKey, value) : Collections.emptyList();
+    }
+
+    public Iterable<Edge> findEdges(final String label, final Map<String, Comparable<?>> properties) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        if (edges == null)
+            return Collections.emptyList();
+        if (properties == null || properties.size() == 0)
+            return edges;
+        return edges.find(properties.keySet().toArray(new String[0]),
+                          properties.values().toArray(new Comparable<?>[0]));
+    }
+
+    public Node getNode(final long nodeId) {
+        if (nodeLabels != null) {
+            final String label = nodeLabels.get(nodeId);
+            final StorageCollection<Node> nodes = label != null ? nodeRepositories.get(label) : null;
+            return nodes != null ? nodes.get(nodeId) : null;
+        }
+        for (final StorageCollection<Node> nodes : nodeRepositories.values()) {
+            final Node node = nodes.get(nodeId);
+            if (node != null)
+                return node;
+        }
+        return null;
+    }
+
+    public Edge getEdge(final long edgeId) {
+        for (final StorageCollection<Edge> edges : edgeRepositories.values()) {
+            final Edge edge = edges.get(edgeId);
+            if (edge != null)
+                return edge;
+        }
+        return null;
+    }
+
+    @Override
+    public long getNumberOfNodes() {
+        long result = 0;
+        for (final StorageCollection<Node> nodes : nodeRepositories.values())
+            result += nodes.size();
+        return result;
+    }
+
+    public long getNumberOfNodes(final String label) {
+        final StorageCollection<Node> nodes = nodeRepositories.get(label);
+        return nodes != null ? nodes.size() : 0;
+    }
+
+    @Override
+    public long getNumberOfEdges() {
+        long result = 0;
+        for (final StorageCollection<Edge> edges : edgeRepositories.values())
+            result += edges.size();
+        return result;
+    }
+
+    public long getNumberOfEdges(final String label) {
+        final StorageCollection<Edge> edges = edgeRepositories.get(label);
+        return edges != null ? edges.size() : 0;
+    }
+
+    @Override
+    public void close() {
+        snapshot.close();
+    }
+}
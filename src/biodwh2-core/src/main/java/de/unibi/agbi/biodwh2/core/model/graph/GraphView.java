@@ -0,0 +1,36 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import de.unibi.agbi.biodwh2.core.lang.Type;
+
+import java.util.Map;
+
+/**
+ * Read-only access to the nodes and edges of a graph, as required by the graph writers.
+ */
+public interface GraphView {
+    String[] getNodeLabels();
+
+    String[] getEdgeLabels();
+
+    Map<String, Type> getPropertyKeyTypesForNodeLabel(final String label);
+
+    Map<String, Type> getPropertyKeyTypesForEdgeLabel(final String label);
+
+    Iterable<Node> getNodes();
+
+    Iterable<Edge> getEdges();
+
+    Iterable<Node> findNodes(final String label);
+
+    Iterable<Edge> findEdges(final String label);
+
+    /**
+     * @return the number of nodes, which may be an upper bound for filtered views
+     */
+    long getNumberOfNodes();
+
+    /**
+     * @return the number of edges, which may be an upper bound for filtered views
+     */
+    long getNumberOfEdges();
+}
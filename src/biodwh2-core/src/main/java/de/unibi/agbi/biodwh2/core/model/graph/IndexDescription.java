@@ -1,11 +1,14 @@
 package de.unibi.agbi.biodwh2.core.model.graph;
 
+import de.unibi.agbi.biodwh2.core.collections.BloomFilter;
+
 public final class IndexDescription {
     private final Target target;
     private final String label;
     private final String property;
     private final boolean isArrayProperty;
     private final Type type;
+    private final double bloomFilterFalsePositiveRate;
 
     public IndexDescription(final Target target, final String label, final String property) {
         this(target, label, property, false, Type.NON_UNIQUE);
@@ -22,11 +25,23 @@ public final class IndexDescription {
 
     public IndexDescription(final Target target, final String label, final String property,
                             final boolean isArrayProperty, final Type type) {
+        this(target, label, property, isArrayProperty, type, 0);
+    }
+
+    /**
+     * @param bloomFilterFalsePositiveRate false positive rate of the bloom filter of the index or 0 for none
+     */
+    public IndexDescription(final Target target, final String label, final String property,
+                            final boolean isArrayProperty, final Type type, final double bloomFilterFalsePositiveRate) {
+        if (bloomFilterFalsePositiveRate < 0 || bloomFilterFalsePositiveRate >= 1)
+            throw new IllegalArgumentException(
+                    "Bloom filter false positive rate must be between 0 and 1 but was " + bloomFilterFalsePositiveRate);
         this.target = target;
         this.label = label;
         this.property = property;
         this.isArrayProperty = isArrayProperty;
         this.type = type;
+        this.bloomFilterFalsePositiveRate = bloomFilterFalsePositiveRate;
     }
 
     public Target getTarget() {
@@ -49,6 +64,34 @@ public final class IndexDescription {
         return type;
     }
 
+    public boolean hasBloomFilter() {
+        return bloomFilterFalsePositiveRate > 0;
+    }
+
+    /**
+     * @return the false positive rate of the bloom filter of the index or 0 if it has none
+     */
+    public double getBloomFilterFalsePositiveRate() {
+        return bloomFilterFalsePositiveRate;
+    }
+
+    /**
+     * @return copy of the description with a bloom filter of the default false positive rate
+     */
+    public IndexDescription withBloomFilter() {
+        return withBloomFilter(BloomFilter.DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Bloom filters answer finds of values which were never indexed without reading the index. They are worth their
+     * memory for indices mostly queried for missing values, as when looking up nodes before creating them.
+     *
+     * @return copy of the description with a bloom filter of the false positive rate
+     */
+    public IndexDescription withBloomFilter(final double falsePositiveRate) {
+        return new IndexDescription(target, label, property, isArrayProperty, type, falsePositiveRate);
+    }
+
     public static IndexDescription forNode(final String label, final String property) {
         return new IndexDescription(Target.NODE, label, property, false, Type.NON_UNIQUE);
     }
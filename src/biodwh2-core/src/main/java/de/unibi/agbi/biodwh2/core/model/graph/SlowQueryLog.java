@@ -0,0 +1,243 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreFindListener;
+import de.unibi.agbi.biodwh2.core.io.storage.StorageCollection;
+import de.unibi.agbi.biodwh2.core.lang.Type;
+import de.unibi.agbi.biodwh2.core.text.TableFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects statistics of all graph finds per label and property key set. Finds slower than the configured threshold
+ * or finds which need to scan a whole label because of missing indices are logged once per label and key set. A
+ * summary of the worst offenders including suggested {@link IndexDescription}s can be logged at the end of a run.
+ */
+public final class SlowQueryLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryLog.class);
+    public static final long DEFAULT_THRESHOLD_MILLIS = 100;
+    private static final int SUMMARY_SIZE = 10;
+    private static final SlowQueryLog INSTANCE = new SlowQueryLog();
+
+    private final Map<QueryKey, QueryStatistics> statistics;
+    private volatile long thresholdNanos;
+    private volatile boolean enabled;
+
+    SlowQueryLog() {
+        statistics = new ConcurrentHashMap<>();
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD_MILLIS);
+        enabled = true;
+    }
+
+    public static SlowQueryLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param thresholdMillis duration above which finds are reported as slow. Negative values disable the log.
+     */
+    public void configure(final long thresholdMillis) {
+        enabled = thresholdMillis >= 0;
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, thresholdMillis));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    MVStoreFindListener createListener(final IndexDescription.Target target, final String label,
+                                       final StorageCollection<?> collection) {
+        return (propertyKeys, indexedFlags, resultCount, durationNanos) -> {
+            if (enabled)
+                record(target, label, collection, propertyKeys, indexedFlags, resultCount, durationNanos);
+        };
+    }
+
+    void record(final IndexDescription.Target target, final String label, final StorageCollection<?> collection,
+                final String[] propertyKeys, final boolean[] indexedFlags, final long resultCount,
+                final long durationNanos) {
+        final QueryKey key = new QueryKey(target, label, propertyKeys);
+        final QueryStatistics queryStatistics = statistics.computeIfAbsent(key, QueryStatistics::new);
+        final boolean scanned = isScan(indexedFlags);
+        queryStatistics.record(scanned, resultCount, durationNanos);
+        if ((scanned || durationNanos > thresholdNanos) && queryStatistics.flagged.compareAndSet(false, true)) {
+            queryStatistics.suggestedIndices = suggestIndices(key, collection, indexedFlags);
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn((scanned ? "Unindexed find scanned " : "Slow find on ") + key + " took " +
+                            formatMillis(durationNanos) + " ms with " + resultCount + " results" +
+                            (queryStatistics.suggestedIndices.isEmpty() ? "" :
+                             ". Consider adding " + String.join(", ", queryStatistics.suggestedIndices)));
+        }
+    }
+
+    private static boolean isScan(final boolean[] indexedFlags) {
+        for (final boolean indexed : indexedFlags)
+            if (!indexed)
+                return true;
+        return false;
+    }
+
+    private static List<String> suggestIndices(final QueryKey key, final StorageCollection<?> collection,
+                                               final boolean[] indexedFlags) {
+        final List<String> result = new ArrayList<>();
+        Map<String, Type> propertyKeyTypes = null;
+        for (int i = 0; i < indexedFlags.length; i++) {
+            if (indexedFlags[i])
+                continue;
+            if (propertyKeyTypes == null)
+                propertyKeyTypes = collection.getPropertyKeyTypes();
+            final Type type = propertyKeyTypes.get(key.propertyKeys[i]);
+            final boolean isArray = type != null && type.isList();
+            result.add("IndexDescription." + (key.target == IndexDescription.Target.NODE ? "forNode" : "forEdge") +
+                       "(\"" + key.label + "\", \"" + key.propertyKeys[i] + "\"" + (isArray ? ", true" : "") + ")");
+        }
+        return result;
+    }
+
+    private static String formatMillis(final long nanos) {
+        return String.format(Locale.US, "%.2f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * @return statistics of all slow or scanning finds ranked by their cumulative duration
+     */
+    public List<QueryStatistics> getWorstOffenders() {
+        final List<QueryStatistics> result = new ArrayList<>();
+        for (final QueryStatistics queryStatistics : statistics.values())
+            if (queryStatistics.flagged.get())
+                result.add(queryStatistics);
+        result.sort(Comparator.comparingLong(QueryStatistics::getTotalNanos).reversed());
+        return result;
+    }
+
+    public void logSummary() {
+        final List<QueryStatistics> worstOffenders = getWorstOffenders();
+        if (worstOffenders.isEmpty() || !LOGGER.isWarnEnabled())
+            return;
+        final List<String> headers = Arrays.asList("Target", "Label", "Keys", "Finds", "Scans", "Total [ms]",
+                                                   "Max [ms]", "Suggested indices");
+        final List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < Math.min(SUMMARY_SIZE, worstOffenders.size()); i++) {
+            final QueryStatistics s = worstOffenders.get(i);
+            rows.add(Arrays.asList(s.key.target.name(), s.key.label, String.join(", ", s.key.propertyKeys),
+                                   String.valueOf(s.getCount()), String.valueOf(s.getScanCount()),
+                                   formatMillis(s.getTotalNanos()), formatMillis(s.getMaxNanos()),
+                                   s.suggestedIndices.isEmpty() ? "-" : String.join(", ", s.suggestedIndices)));
+        }
+        LOGGER.warn("Slowest graph finds of " + worstOffenders.size() + " slow or unindexed label and key sets:" +
+                    new TableFormatter(false).format(headers, rows));
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    private static final class QueryKey {
+        private final IndexDescription.Target target;
+        private final String label;
+        private final String[] propertyKeys;
+        private final int hash;
+
+        QueryKey(final IndexDescription.Target target, final String label, final String[] propertyKeys) {
+            this.target = target;
+            this.label = label;
+            this.propertyKeys = propertyKeys.clone();
+            hash = Objects.hash(target, label, Arrays.hashCode(propertyKeys));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            final QueryKey queryKey = (QueryKey) o;
+            return target == queryKey.target && label.equals(queryKey.label) && Arrays.equals(propertyKeys,
+                                                                                              queryKey.propertyKeys);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return target.name().toLowerCase(Locale.US) + " label '" + label + "' with keys [" +
+                   String.join(", ", propertyKeys) + "]";
+        }
+    }
+
+    public static final class QueryStatistics {
+        private final QueryKey key;
+        private final LongAdder count;
+        private final LongAdder scanCount;
+        private final LongAdder resultCount;
+        private final LongAdder totalNanos;
+        private final AtomicLong maxNanos;
+        private final AtomicBoolean flagged;
+        private volatile List<String> suggestedIndices;
+
+        private QueryStatistics(final QueryKey key) {
+            this.key = key;
+            count = new LongAdder();
+            scanCount = new LongAdder();
+            resultCount = new LongAdder();
+            totalNanos = new LongAdder();
+            maxNanos = new AtomicLong();
+            flagged = new AtomicBoolean();
+            suggestedIndices = Collections.emptyList();
+        }
+
+        private void record(final boolean scanned, final long results, final long durationNanos) {
+            count.increment();
+            if (scanned)
+                scanCount.increment();
+            resultCount.add(results);
+            totalNanos.add(durationNanos);
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+        }
+
+        public IndexDescription.Target getTarget() {
+            return key.target;
+        }
+
+        public String getLabel() {
+            return key.label;
+        }
+
+        public String[] getPropertyKeys() {
+            return Arrays.copyOf(key.propertyKeys, key.propertyKeys.length);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getScanCount() {
+            return scanCount.sum();
+        }
+
+        public long getResultCount() {
+            return resultCount.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public List<String> getSuggestedIndices() {
+            return suggestedIndices;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Describes which part of a graph is selected by a {@link FilteredGraphView}.
+ * <p>
+ * Label patterns may contain the wildcards "*" and "?". Data source filters match all labels prefixed with the data
+ * source id. Labels without a known data source prefix belong to the mapping layer, which can be selected using
+ * {@link #MAPPING_LAYER_SOURCE}. A label is selected if it is not excluded and either no includes are defined or it is
+ * matched by any label or data source include.
+ * <p>
+ * If seed labels are defined, only the nodes reachable from nodes with a seed label within the given number of hops
+ * are selected. Edges are followed in both directions, but only through selected edge labels and node labels.
+ */
+public final class SubgraphFilter {
+    public static final String MAPPING_LAYER_SOURCE = "mapping";
+
+    private final List<Pattern> includedNodeLabels = new ArrayList<>();
+    private final List<Pattern> excludedNodeLabels = new ArrayList<>();
+    private final List<Pattern> includedEdgeLabels = new ArrayList<>();
+    private final List<Pattern> excludedEdgeLabels = new ArrayList<>();
+    private final Set<String> includedSources = new HashSet<>();
+    private final Set<String> excludedSources = new HashSet<>();
+    private final List<Pattern> seedNodeLabels = new ArrayList<>();
+    private final Set<String> dataSourceIds = new HashSet<>();
+    private int hops;
+
+    public SubgraphFilter includeNodeLabels(final String... patterns) {
+        addPatterns(includedNodeLabels, patterns);
+        return this;
+    }
+
+    public SubgraphFilter excludeNodeLabels(final String... patterns) {
+        addPatterns(excludedNodeLabels, patterns);
+        return this;
+    }
+
+    public SubgraphFilter includeEdgeLabels(final String... patterns) {
+        addPatterns(includedEdgeLabels, patterns);
+        return this;
+    }
+
+    public SubgraphFilter excludeEdgeLabels(final String... patterns) {
+        addPatterns(excludedEdgeLabels, patterns);
+        return this;
+    }
+
+    public SubgraphFilter includeSources(final String... sources) {
+        Collections.addAll(includedSources, sources);
+        return this;
+    }
+
+    public SubgraphFilter excludeSources(final String... sources) {
+        Collections.addAll(excludedSources, sources);
+        return this;
+    }
+
+    public SubgraphFilter seedNodeLabels(final String... patterns) {
+        addPatterns(seedNodeLabels, patterns);
+        return this;
+    }
+
+    public SubgraphFilter hops(final int hops) {
+        this.hops = Math.max(0, hops);
+        return this;
+    }
+
+    /**
+     * Set the ids of all data sources in the graph, which are used to tell data source labels from mapping layer
+     * labels. If no ids are set, the label part before the first prefix separator is used as data source id.
+     */
+    public SubgraphFilter dataSourceIds(final String... dataSourceIds) {
+        Collections.addAll(this.dataSourceIds, dataSourceIds);
+        return this;
+    }
+
+    private static void addPatterns(final List<Pattern> target, final String... patterns) {
+        for (final String pattern : patterns)
+            target.add(compileGlob(pattern));
+    }
+
+    static Pattern compileGlob(final String glob) {
+        final StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            final char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart)
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length())
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        return Pattern.compile(regex.toString());
+    }
+
+    public boolean hasSeeds() {
+        return !seedNodeLabels.isEmpty();
+    }
+
+    public int getHops() {
+        return hops;
+    }
+
+    public boolean isNodeLabelSelected(final String label) {
+        return isLabelSelected(label, includedNodeLabels, excludedNodeLabels);
+    }
+
+    public boolean isEdgeLabelSelected(final String label) {
+        return isLabelSelected(label, includedEdgeLabels, excludedEdgeLabels);
+    }
+
+    public boolean isSeedNodeLabel(final String label) {
+        return matchesAny(label, seedNodeLabels);
+    }
+
+    private boolean isLabelSelected(final String label, final List<Pattern> includes, final List<Pattern> excludes) {
+        final String source = getSource(label);
+        if (excludedSources.contains(source) || matchesAny(label, excludes))
+            return false;
+        if (includes.isEmpty() && includedSources.isEmpty())
+            return true;
+        return includedSources.contains(source) || matchesAny(label, includes);
+    }
+
+    private static boolean matchesAny(final String label, final List<Pattern> patterns) {
+        for (final Pattern pattern : patterns)
+            if (pattern.matcher(label).matches())
+                return true;
+        return false;
+    }
+
+    String getSource(final String label) {
+        if (dataSourceIds.isEmpty()) {
+            final int separatorIndex = label.indexOf(BaseGraph.LABEL_PREFIX_SEPARATOR);
+            return separatorIndex > 0 ? label.substring(0, separatorIndex) : MAPPING_LAYER_SOURCE;
+        }
+        for (final String dataSourceId : dataSourceIds)
+            if (label.startsWith(dataSourceId + BaseGraph.LABEL_PREFIX_SEPARATOR))
+                return dataSourceId;
+        return MAPPING_LAYER_SOURCE;
+    }
+}
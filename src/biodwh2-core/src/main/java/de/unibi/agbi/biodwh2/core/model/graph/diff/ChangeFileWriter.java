@@ -0,0 +1,39 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes every change as a tab separated line with the change type, element type, label and stable identity.
+ */
+public final class ChangeFileWriter implements ChangeListener, AutoCloseable {
+    private final Writer writer;
+
+    public ChangeFileWriter(final Path filePath) throws IOException {
+        writer = new BufferedWriter(Files.newBufferedWriter(filePath, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write("change\ttype\tlabel\tidentity\n");
+    }
+
+    @Override
+    public void onChange(final ChangeType change, final ElementType type, final ElementRecord oldRecord,
+                         final ElementRecord newRecord) throws IOException {
+        final ElementRecord record = newRecord != null ? newRecord : oldRecord;
+        writer.write(change.name());
+        writer.write('\t');
+        writer.write(type.name());
+        writer.write('\t');
+        writer.write(record.getLabel());
+        writer.write('\t');
+        writer.write(record.getIdentity().toString());
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,13 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface ChangeListener {
+    /**
+     * @param oldRecord record of the old graph or null if the element was added
+     * @param newRecord record of the new graph or null if the element was removed
+     */
+    void onChange(final ChangeType change, final ElementType type, final ElementRecord oldRecord,
+                  final ElementRecord newRecord) throws IOException;
+}
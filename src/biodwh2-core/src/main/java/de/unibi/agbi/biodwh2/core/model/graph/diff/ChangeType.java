@@ -0,0 +1,7 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+public enum ChangeType {
+    ADDED,
+    REMOVED,
+    CHANGED
+}
@@ -0,0 +1,97 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a manifest written by the {@link ElementManifestWriter}. The node records need to be read before the edge
+ * records. Records read from a manifest have no element id.
+ */
+public final class ElementManifestReader implements AutoCloseable {
+    public static final long NO_ELEMENT_ID = -1;
+
+    private final DataInputStream input;
+    private final IdentityMode mode;
+    private final String[] labels;
+    private long remainingNodeRecords;
+    private long remainingEdgeRecords;
+
+    public ElementManifestReader(final Path filePath) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(filePath), 64 * 1024), 64 * 1024));
+        try {
+            if (input.readInt() != ElementManifestWriter.MAGIC)
+                throw new IOException("'" + filePath + "' is not an element manifest");
+            final int version = input.readInt();
+            if (version != ElementManifestWriter.VERSION)
+                throw new IOException("Unsupported element manifest version " + version);
+            mode = IdentityMode.values()[input.readByte()];
+            labels = new String[input.readInt()];
+            for (int i = 0; i < labels.length; i++)
+                labels[i] = input.readUTF();
+            remainingNodeRecords = input.readLong();
+            remainingEdgeRecords = input.readLong();
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    public IdentityMode getMode() {
+        return mode;
+    }
+
+    public ElementRecordSource nodes() {
+        return new ElementRecordSource() {
+            @Override
+            public ElementRecord next() throws IOException {
+                if (remainingNodeRecords == 0)
+                    return null;
+                remainingNodeRecords--;
+                return readRecord();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Skips all node records, which were not read yet.
+     */
+    public ElementRecordSource edges() throws IOException {
+        while (remainingNodeRecords > 0) {
+            remainingNodeRecords--;
+            readRecord();
+        }
+        return new ElementRecordSource() {
+            @Override
+            public ElementRecord next() throws IOException {
+                if (remainingEdgeRecords == 0)
+                    return null;
+                remainingEdgeRecords--;
+                return readRecord();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private ElementRecord readRecord() throws IOException {
+        final StableId identity = new StableId(input.readLong(), input.readLong());
+        final StableId content = new StableId(input.readLong(), input.readLong());
+        return new ElementRecord(identity, content, labels[input.readInt()], NO_ELEMENT_ID);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,59 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the sorted element records of a graph as a gzip compressed manifest. The header contains the identity mode,
+ * a label dictionary and the number of node and edge records. The node records follow in sorted order, then the edge
+ * records. Each record consists of the identity, the content hash and the label index.
+ */
+public final class ElementManifestWriter implements AutoCloseable {
+    static final int MAGIC = 0x42444d46;
+    static final int VERSION = 1;
+
+    private final DataOutputStream output;
+    private final Map<String, Integer> labelIndices;
+
+    public ElementManifestWriter(final Path filePath, final IdentityMode mode, final String[] labels,
+                                 final long numberOfNodeRecords, final long numberOfEdgeRecords) throws IOException {
+        output = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(filePath), 64 * 1024), 64 * 1024));
+        labelIndices = new LinkedHashMap<>();
+        for (final String label : labels)
+            labelIndices.putIfAbsent(label, labelIndices.size());
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeByte(mode.ordinal());
+        output.writeInt(labelIndices.size());
+        for (final String label : labelIndices.keySet())
+            output.writeUTF(label);
+        output.writeLong(numberOfNodeRecords);
+        output.writeLong(numberOfEdgeRecords);
+    }
+
+    /**
+     * Write the next record. All node records need to be written before the edge records.
+     */
+    public void write(final ElementRecord record) throws IOException {
+        final Integer labelIndex = labelIndices.get(record.getLabel());
+        if (labelIndex == null)
+            throw new IOException("Label '" + record.getLabel() + "' is missing in the manifest label dictionary");
+        output.writeLong(record.getIdentity().getHigh());
+        output.writeLong(record.getIdentity().getLow());
+        output.writeLong(record.getContent().getHigh());
+        output.writeLong(record.getContent().getLow());
+        output.writeInt(labelIndex);
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
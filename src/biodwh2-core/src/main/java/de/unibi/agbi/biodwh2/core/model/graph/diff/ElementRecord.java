@@ -0,0 +1,65 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Stable identity and content hash of a node or edge together with its label and id in the graph it was read from.
+ * Records are ordered by identity first, so records of the same element in different graphs meet when merging sorted
+ * record streams.
+ */
+public final class ElementRecord implements Comparable<ElementRecord> {
+    private final StableId identity;
+    private final StableId content;
+    private final String label;
+    private final long elementId;
+
+    public ElementRecord(final StableId identity, final StableId content, final String label, final long elementId) {
+        this.identity = identity;
+        this.content = content;
+        this.label = label;
+        this.elementId = elementId;
+    }
+
+    public StableId getIdentity() {
+        return identity;
+    }
+
+    public StableId getContent() {
+        return content;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getElementId() {
+        return elementId;
+    }
+
+    public void write(final DataOutput output) throws IOException {
+        output.writeLong(identity.getHigh());
+        output.writeLong(identity.getLow());
+        output.writeLong(content.getHigh());
+        output.writeLong(content.getLow());
+        output.writeUTF(label);
+        output.writeLong(elementId);
+    }
+
+    public static ElementRecord read(final DataInput input) throws IOException {
+        final StableId identity = new StableId(input.readLong(), input.readLong());
+        final StableId content = new StableId(input.readLong(), input.readLong());
+        return new ElementRecord(identity, content, input.readUTF(), input.readLong());
+    }
+
+    @Override
+    public int compareTo(final ElementRecord other) {
+        int result = identity.compareTo(other.identity);
+        if (result == 0)
+            result = content.compareTo(other.content);
+        if (result == 0)
+            result = label.compareTo(other.label);
+        return result != 0 ? result : Long.compare(elementId, other.elementId);
+    }
+}
@@ -0,0 +1,114 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import de.unibi.agbi.biodwh2.core.collections.SpillableMap;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Computes the element records of all nodes and edges of a graph into external sorters. The node identities needed
+ * for the edge identities are kept in a {@link SpillableMap} until the collector is closed, so graphs larger than the
+ * heap can be processed.
+ */
+public final class ElementRecordCollector implements AutoCloseable {
+    private static final long ESTIMATED_IDENTITY_ENTRY_BYTES = 96;
+
+    private final ElementRecordSorter nodes;
+    private final ElementRecordSorter edges;
+    private final SpillableMap<Long, StableId> nodeIdentities;
+
+    private ElementRecordCollector(final String name, final Path tempDirectory, final int runSize) {
+        nodes = new ElementRecordSorter(tempDirectory, runSize);
+        edges = new ElementRecordSorter(tempDirectory, runSize);
+        nodeIdentities = new SpillableMap<>("diff." + name + ".node-identities", "diff",
+                                            ESTIMATED_IDENTITY_ENTRY_BYTES);
+    }
+
+    public static ElementRecordCollector collect(final Graph graph, final IdentityMode mode,
+                                                 final Path tempDirectory, final int runSize) throws IOException {
+        final ElementRecordCollector collector = new ElementRecordCollector(
+                graph.getFilePath().getFileName().toString(), tempDirectory, runSize);
+        try {
+            collector.collect(graph, new StableIdentityHasher(graph, mode));
+        } catch (IOException | RuntimeException e) {
+            collector.close();
+            throw e;
+        }
+        return collector;
+    }
+
+    private void collect(final Graph graph, final StableIdentityHasher hasher) throws IOException {
+        try (ProgressTracker tracker = ProgressTracker.start("Hashing " + graph.getFilePath().getFileName(),
+                                                             graph.getNumberOfNodes() + graph.getNumberOfEdges())) {
+            for (final Node node : graph.getNodes()) {
+                final StableId identity = hasher.getNodeIdentity(node);
+                nodeIdentities.put(node.getId(), identity);
+                nodes.add(new ElementRecord(identity, hasher.getContentHash(node, Node.IGNORED_FIELDS),
+                                            node.getLabel(), node.getId()));
+                tracker.step();
+            }
+            disambiguateNodeIdentities();
+            for (final Edge edge : graph.getEdges()) {
+                final StableId identity = hasher.getEdgeIdentity(edge, nodeIdentities.get(edge.getFromId()),
+                                                                 nodeIdentities.get(edge.getToId()));
+                edges.add(new ElementRecord(identity, hasher.getContentHash(edge, Edge.IGNORED_FIELDS),
+                                            edge.getLabel(), edge.getId()));
+                tracker.step();
+            }
+        }
+    }
+
+    /**
+     * Replaces the identities of nodes sharing an identity with unique identities, so edges between different
+     * duplicate nodes get different identities.
+     */
+    private void disambiguateNodeIdentities() throws IOException {
+        try (ElementRecordSource sortedNodes = nodes.sorted()) {
+            ElementRecordMerger.mergeGroups(ElementRecordSource.EMPTY, sortedNodes, (oldGroup, group) -> {
+                if (group.size() > 1) {
+                    final StableId[] identities = StableIdentityHasher.getUniqueIdentities(group);
+                    for (int i = 0; i < identities.length; i++)
+                        nodeIdentities.put(group.get(i).getElementId(), identities[i]);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the unique stable identity of the node with the given id or null if the graph contains no such node
+     * @see StableIdentityHasher#getUniqueIdentities(java.util.List)
+     */
+    public StableId getNodeIdentity(final long nodeId) {
+        return nodeIdentities.get(nodeId);
+    }
+
+    public long getNumberOfNodeRecords() {
+        return nodes.size();
+    }
+
+    public long getNumberOfEdgeRecords() {
+        return edges.size();
+    }
+
+    public ElementRecordSource sortedNodes() throws IOException {
+        return nodes.sorted();
+    }
+
+    public ElementRecordSource sortedEdges() throws IOException {
+        return edges.sorted();
+    }
+
+    @Override
+    public void close() throws IOException {
+        nodeIdentities.close();
+        try {
+            nodes.close();
+        } finally {
+            edges.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares two sorted element record streams in a single pass. Records are grouped by identity, which usually yields
+ * one record per side. Within a group, records with equal content hashes are unchanged, remaining records are paired
+ * as changed and all others are reported as added or removed. As records are sorted by content within a group, the
+ * matching is linear in the group size.
+ */
+public final class ElementRecordMerger {
+    private ElementRecordMerger() {
+    }
+
+    public static void merge(final ElementRecordSource oldRecords, final ElementRecordSource newRecords,
+                             final ElementType type, final ChangeListener listener) throws IOException {
+        mergeGroups(oldRecords, newRecords, (oldGroup, newGroup) -> compareGroups(oldGroup, newGroup, type, listener));
+    }
+
+    /**
+     * Passes the records of both streams grouped by identity to the listener without comparing them.
+     */
+    public static void mergeGroups(final ElementRecordSource oldRecords, final ElementRecordSource newRecords,
+                                   final GroupListener listener) throws IOException {
+        final List<ElementRecord> oldGroup = new ArrayList<>();
+        final List<ElementRecord> newGroup = new ArrayList<>();
+        ElementRecord oldNext = oldRecords.next();
+        ElementRecord newNext = newRecords.next();
+        while (oldNext != null || newNext != null) {
+            final StableId identity;
+            if (oldNext == null)
+                identity = newNext.getIdentity();
+            else if (newNext == null)
+                identity = oldNext.getIdentity();
+            else
+                identity = oldNext.getIdentity().compareTo(newNext.getIdentity()) <= 0 ? oldNext.getIdentity() :
+                           newNext.getIdentity();
+            while (oldNext != null && oldNext.getIdentity().equals(identity)) {
+                oldGroup.add(oldNext);
+                oldNext = oldRecords.next();
+            }
+            while (newNext != null && newNext.getIdentity().equals(identity)) {
+                newGroup.add(newNext);
+                newNext = newRecords.next();
+            }
+            listener.onGroup(oldGroup, newGroup);
+            oldGroup.clear();
+            newGroup.clear();
+        }
+    }
+
+    /**
+     * Reports the changes between two groups of records with the same identity, both sorted by content.
+     */
+    public static void compareGroups(final List<ElementRecord> oldGroup, final List<ElementRecord> newGroup,
+                                     final ElementType type, final ChangeListener listener) throws IOException {
+        if (oldGroup.size() == 1 && newGroup.size() == 1) {
+            final ElementRecord oldRecord = oldGroup.get(0);
+            final ElementRecord newRecord = newGroup.get(0);
+            if (!oldRecord.getContent().equals(newRecord.getContent()))
+                listener.onChange(ChangeType.CHANGED, type, oldRecord, newRecord);
+            return;
+        }
+        final List<ElementRecord> unmatchedOld = new ArrayList<>();
+        final List<ElementRecord> unmatchedNew = new ArrayList<>();
+        int oldIndex = 0;
+        int newIndex = 0;
+        while (oldIndex < oldGroup.size() && newIndex < newGroup.size()) {
+            final int comparison = oldGroup.get(oldIndex).getContent().compareTo(newGroup.get(newIndex).getContent());
+            if (comparison == 0) {
+                oldIndex++;
+                newIndex++;
+            } else if (comparison < 0)
+                unmatchedOld.add(oldGroup.get(oldIndex++));
+            else
+                unmatchedNew.add(newGroup.get(newIndex++));
+        }
+        while (oldIndex < oldGroup.size())
+            unmatchedOld.add(oldGroup.get(oldIndex++));
+        while (newIndex < newGroup.size())
+            unmatchedNew.add(newGroup.get(newIndex++));
+        final int changed = Math.min(unmatchedOld.size(), unmatchedNew.size());
+        for (int i = 0; i < changed; i++)
+            listener.onChange(ChangeType.CHANGED, type, unmatchedOld.get(i), unmatchedNew.get(i));
+        for (int i = changed; i < unmatchedOld.size(); i++)
+            listener.onChange(ChangeType.REMOVED, type, unmatchedOld.get(i), null);
+        for (int i = changed; i < unmatchedNew.size(); i++)
+            listener.onChange(ChangeType.ADDED, type, null, unmatchedNew.get(i));
+    }
+}
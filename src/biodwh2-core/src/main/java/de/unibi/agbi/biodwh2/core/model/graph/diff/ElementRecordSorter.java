@@ -0,0 +1,148 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * External merge sort for element records. Records are buffered and sorted in memory until the run size is reached,
+ * then written to a temporary run file. The sorted output merges all runs, so the memory usage only depends on the run
+ * size and the number of runs.
+ */
+public final class ElementRecordSorter implements AutoCloseable {
+    public static final int DEFAULT_RUN_SIZE = 1000000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path tempDirectory;
+    private final int runSize;
+    private final List<ElementRecord> buffer;
+    private final List<Path> runFilePaths;
+    private final List<Long> runSizes;
+    private long size;
+
+    public ElementRecordSorter(final Path tempDirectory, final int runSize) {
+        this.tempDirectory = tempDirectory;
+        this.runSize = Math.max(1, runSize);
+        buffer = new ArrayList<>();
+        runFilePaths = new ArrayList<>();
+        runSizes = new ArrayList<>();
+    }
+
+    public void add(final ElementRecord record) throws IOException {
+        buffer.add(record);
+        size++;
+        if (buffer.size() >= runSize)
+            writeRun();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private void writeRun() throws IOException {
+        Collections.sort(buffer);
+        final Path runFilePath = tempDirectory != null ? Files.createTempFile(tempDirectory, "biodwh2-sort", ".run") :
+                                 Files.createTempFile("biodwh2-sort", ".run");
+        runFilePaths.add(runFilePath);
+        runSizes.add((long) buffer.size());
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(runFilePath), BUFFER_SIZE))) {
+            for (final ElementRecord record : buffer)
+                record.write(output);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns all added records in sorted order. No more records may be added afterwards, but the records may be
+     * read again.
+     */
+    public ElementRecordSource sorted() throws IOException {
+        if (runFilePaths.isEmpty()) {
+            Collections.sort(buffer);
+            final Iterator<ElementRecord> iterator = buffer.iterator();
+            return new ElementRecordSource() {
+                @Override
+                public ElementRecord next() {
+                    return iterator.hasNext() ? iterator.next() : null;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+        if (!buffer.isEmpty())
+            writeRun();
+        return new MergingSource(runFilePaths, runSizes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.clear();
+        for (final Path runFilePath : runFilePaths)
+            Files.deleteIfExists(runFilePath);
+        runFilePaths.clear();
+        runSizes.clear();
+    }
+
+    private static final class RunReader {
+        final DataInputStream input;
+        long remaining;
+        ElementRecord head;
+
+        RunReader(final Path filePath, final long count) throws IOException {
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(filePath), BUFFER_SIZE));
+            remaining = count;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            head = ElementRecord.read(input);
+            remaining--;
+            return true;
+        }
+    }
+
+    private static final class MergingSource implements ElementRecordSource {
+        private final List<RunReader> readers;
+        private final PriorityQueue<RunReader> queue;
+
+        MergingSource(final List<Path> runFilePaths, final List<Long> runSizes) throws IOException {
+            readers = new ArrayList<>();
+            queue = new PriorityQueue<>(Math.max(1, runFilePaths.size()), Comparator.comparing((RunReader r) -> r.head));
+            try {
+                for (int i = 0; i < runFilePaths.size(); i++) {
+                    final RunReader reader = new RunReader(runFilePaths.get(i), runSizes.get(i));
+                    readers.add(reader);
+                    if (reader.advance())
+                        queue.add(reader);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public ElementRecord next() throws IOException {
+            final RunReader reader = queue.poll();
+            if (reader == null)
+                return null;
+            final ElementRecord result = reader.head;
+            if (reader.advance())
+                queue.add(reader);
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (final RunReader reader : readers)
+                reader.input.close();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.IOException;
+
+/**
+ * Stream of element records in sorted order.
+ */
+public interface ElementRecordSource extends AutoCloseable {
+    ElementRecordSource EMPTY = new ElementRecordSource() {
+        @Override
+        public ElementRecord next() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * @return the next record or null if the end of the stream was reached
+     */
+    ElementRecord next() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,6 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+public enum ElementType {
+    NODE,
+    EDGE
+}
@@ -0,0 +1,66 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Compares two graphs using stable element identities. Both graphs are hashed into externally sorted record streams,
+ * which are merged in a single pass, so the comparison scales to graphs larger than the heap.
+ */
+public final class GraphDiff {
+    private final IdentityMode mode;
+    private final Path tempDirectory;
+    private final int runSize;
+
+    public GraphDiff(final IdentityMode mode) {
+        this(mode, null, ElementRecordSorter.DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * @param tempDirectory directory for the sort run files or null for the default temporary directory
+     * @param runSize       number of records sorted in memory per run
+     */
+    public GraphDiff(final IdentityMode mode, final Path tempDirectory, final int runSize) {
+        this.mode = mode;
+        this.tempDirectory = tempDirectory;
+        this.runSize = runSize;
+    }
+
+    /**
+     * @param listener additional listener for every change or null
+     */
+    public GraphDiffSummary compare(final Graph oldGraph, final Graph newGraph,
+                                    final ChangeListener listener) throws IOException {
+        final GraphDiffSummary summary = new GraphDiffSummary();
+        final ChangeListener combined = listener == null ? summary : (change, type, oldRecord, newRecord) -> {
+            summary.onChange(change, type, oldRecord, newRecord);
+            listener.onChange(change, type, oldRecord, newRecord);
+        };
+        try (ElementRecordCollector oldCollector = ElementRecordCollector.collect(oldGraph, mode, tempDirectory,
+                                                                                  runSize);
+             ElementRecordCollector newCollector = ElementRecordCollector.collect(newGraph, mode, tempDirectory,
+                                                                                  runSize)) {
+            try (ElementRecordSource oldNodes = oldCollector.sortedNodes();
+                 ElementRecordSource newNodes = newCollector.sortedNodes()) {
+                merge(oldNodes, newNodes, ElementType.NODE, summary, combined);
+            }
+            try (ElementRecordSource oldEdges = oldCollector.sortedEdges();
+                 ElementRecordSource newEdges = newCollector.sortedEdges()) {
+                merge(oldEdges, newEdges, ElementType.EDGE, summary, combined);
+            }
+        }
+        return summary;
+    }
+
+    private static void merge(final ElementRecordSource oldRecords, final ElementRecordSource newRecords,
+                              final ElementType type, final GraphDiffSummary summary,
+                              final ChangeListener listener) throws IOException {
+        ElementRecordMerger.mergeGroups(oldRecords, newRecords, (oldGroup, newGroup) -> {
+            if (oldGroup.size() > 1 || newGroup.size() > 1)
+                summary.onDuplicateIdentity(type);
+            ElementRecordMerger.compareGroups(oldGroup, newGroup, type, listener);
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.util.*;
+
+/**
+ * Number of added, removed and changed nodes and edges per label.
+ */
+public final class GraphDiffSummary implements ChangeListener {
+    private final Map<ElementType, Map<String, long[]>> counts;
+    private final Map<ElementType, long[]> duplicateIdentities;
+
+    public GraphDiffSummary() {
+        counts = new EnumMap<>(ElementType.class);
+        duplicateIdentities = new EnumMap<>(ElementType.class);
+        for (final ElementType type : ElementType.values())
+            duplicateIdentities.put(type, new long[1]);
+        for (final ElementType type : ElementType.values())
+            counts.put(type, new TreeMap<>());
+    }
+
+    @Override
+    public void onChange(final ChangeType change, final ElementType type, final ElementRecord oldRecord,
+                         final ElementRecord newRecord) {
+        final String label = newRecord != null ? newRecord.getLabel() : oldRecord.getLabel();
+        counts.get(type).computeIfAbsent(label, k -> new long[ChangeType.values().length])[change.ordinal()]++;
+    }
+
+    public long getCount(final ChangeType change, final ElementType type, final String label) {
+        final long[] labelCounts = counts.get(type).get(label);
+        return labelCounts != null ? labelCounts[change.ordinal()] : 0;
+    }
+
+    public long getTotalCount(final ChangeType change, final ElementType type) {
+        long result = 0;
+        for (final long[] labelCounts : counts.get(type).values())
+            result += labelCounts[change.ordinal()];
+        return result;
+    }
+
+    public void onDuplicateIdentity(final ElementType type) {
+        duplicateIdentities.get(type)[0]++;
+    }
+
+    /**
+     * @return the number of identities shared by multiple elements in the old or new graph, whose changes are matched
+     * by content hash
+     */
+    public long getDuplicateIdentityCount(final ElementType type) {
+        return duplicateIdentities.get(type)[0];
+    }
+
+    /**
+     * @return labels with at least one change, sorted by name
+     */
+    public Set<String> getChangedLabels(final ElementType type) {
+        return Collections.unmodifiableSet(counts.get(type).keySet());
+    }
+
+    public boolean isEmpty() {
+        for (final Map<String, long[]> typeCounts : counts.values())
+            if (!typeCounts.isEmpty())
+                return false;
+        return true;
+    }
+}
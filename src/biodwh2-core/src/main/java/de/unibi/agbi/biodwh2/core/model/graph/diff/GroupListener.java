@@ -0,0 +1,13 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.IOException;
+import java.util.List;
+
+@FunctionalInterface
+public interface GroupListener {
+    /**
+     * @param oldGroup records of the old graph with the same identity sorted by content, which may be empty
+     * @param newGroup records of the new graph with the same identity sorted by content, which may be empty
+     */
+    void onGroup(final List<ElementRecord> oldGroup, final List<ElementRecord> newGroup) throws IOException;
+}
@@ -0,0 +1,15 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+public enum IdentityMode {
+    /**
+     * Nodes are identified by their label and the properties of the unique indices of the label. Nodes of labels
+     * without unique index fall back to all properties. Edges are identified by their label and the identities of
+     * their start and end nodes.
+     */
+    KEYS,
+    /**
+     * Nodes and edges are identified by their label and all properties, so changed elements are reported as removed
+     * and added.
+     */
+    PROPERTIES
+}
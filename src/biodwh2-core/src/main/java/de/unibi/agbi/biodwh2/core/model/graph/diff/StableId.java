@@ -0,0 +1,67 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import java.io.Serializable;
+
+/**
+ * 128-bit content hash, which identifies a node or edge independently of its generated id.
+ */
+public final class StableId implements Comparable<StableId>, Serializable {
+    private static final long serialVersionUID = -3263049434592447001L;
+
+    private final long high;
+    private final long low;
+
+    public StableId(final long high, final long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public static StableId parse(final String value) {
+        if (value.length() != 32)
+            throw new IllegalArgumentException("Invalid stable id '" + value + "'");
+        return new StableId(Long.parseUnsignedLong(value.substring(0, 16), 16),
+                            Long.parseUnsignedLong(value.substring(16), 16));
+    }
+
+    @Override
+    public int compareTo(final StableId other) {
+        final int result = Long.compareUnsigned(high, other.high);
+        return result != 0 ? result : Long.compareUnsigned(low, other.low);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        final StableId other = (StableId) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high) * 31 + Long.hashCode(low);
+    }
+
+    @Override
+    public String toString() {
+        final String highHex = Long.toHexString(high);
+        final String lowHex = Long.toHexString(low);
+        final StringBuilder builder = new StringBuilder(32);
+        for (int i = highHex.length(); i < 16; i++)
+            builder.append('0');
+        builder.append(highHex);
+        for (int i = lowHex.length(); i < 16; i++)
+            builder.append('0');
+        return builder.append(lowHex).toString();
+    }
+}
@@ -0,0 +1,234 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Computes stable identities and content hashes of nodes and edges. Both are MD5 hashes of a canonical encoding of
+ * the label and the property values sorted by key, so they only depend on the data and not on the generated ids.
+ * Instances are not thread-safe.
+ * <p>
+ * Identities are not unique: nodes with equal key properties or equal content and parallel edges with the same label
+ * share an identity. Records sharing an identity are matched by content hash, so only changed elements of such a group
+ * are paired in content hash order, which is deterministic but may pair unrelated elements.
+ * {@link #getUniqueIdentities(List)} derives unique identities for such groups.
+ */
+public final class StableIdentityHasher {
+    private static final byte NULL_TAG = 0;
+    private static final byte STRING_TAG = 1;
+    private static final byte INTEGER_TAG = 2;
+    private static final byte LONG_TAG = 3;
+    private static final byte DOUBLE_TAG = 4;
+    private static final byte FLOAT_TAG = 5;
+    private static final byte BOOLEAN_TAG = 6;
+    private static final byte CHARACTER_TAG = 7;
+    private static final byte ARRAY_TAG = 8;
+    private static final byte OTHER_TAG = 9;
+    private static final byte NODE_TAG = 10;
+    private static final byte EDGE_TAG = 11;
+    private static final byte OCCURRENCE_TAG = 12;
+
+    private final IdentityMode mode;
+    private final Map<String, List<String>> nodeKeyProperties;
+    private final MessageDigest digest;
+    private final byte[] buffer;
+
+    public StableIdentityHasher(final Graph graph, final IdentityMode mode) {
+        this.mode = mode;
+        nodeKeyProperties = new HashMap<>();
+        if (mode == IdentityMode.KEYS)
+            for (final IndexDescription description : graph.indexDescriptions())
+                if (description.getTarget() == IndexDescription.Target.NODE &&
+                    description.getType() == IndexDescription.Type.UNIQUE)
+                    nodeKeyProperties.computeIfAbsent(description.getLabel(), k -> new ArrayList<>()).add(
+                            description.getProperty());
+        for (final List<String> keys : nodeKeyProperties.values())
+            Collections.sort(keys);
+        digest = createDigest();
+        buffer = new byte[8];
+    }
+
+    private StableIdentityHasher() {
+        mode = null;
+        nodeKeyProperties = null;
+        digest = createDigest();
+        buffer = new byte[8];
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public IdentityMode getMode() {
+        return mode;
+    }
+
+    public StableId getNodeIdentity(final Node node) {
+        final List<String> keys = nodeKeyProperties.get(node.getLabel());
+        if (keys == null)
+            return getContentHash(node, Node.IGNORED_FIELDS);
+        digest.reset();
+        updateByte(NODE_TAG);
+        updateString(node.getLabel());
+        for (final String key : keys) {
+            updateString(key);
+            updateValue(node.get(key));
+        }
+        return finish();
+    }
+
+    public StableId getEdgeIdentity(final Edge edge, final StableId fromIdentity, final StableId toIdentity) {
+        digest.reset();
+        updateByte(EDGE_TAG);
+        updateString(edge.getLabel());
+        updateStableId(fromIdentity);
+        updateStableId(toIdentity);
+        if (mode == IdentityMode.PROPERTIES)
+            updateProperties(edge, Edge.IGNORED_FIELDS);
+        return finish();
+    }
+
+    /**
+     * Identities of elements sharing the same identity, which are unique as long as the elements differ in content.
+     * A single element keeps its identity. Otherwise, each identity is combined with the content hash of the element
+     * and the number of preceding elements with equal content, so identical elements are numbered in record order.
+     *
+     * @param group records with the same identity sorted by content
+     */
+    public static StableId[] getUniqueIdentities(final List<ElementRecord> group) {
+        final StableId[] result = new StableId[group.size()];
+        if (result.length == 1) {
+            result[0] = group.get(0).getIdentity();
+            return result;
+        }
+        final StableIdentityHasher hasher = new StableIdentityHasher();
+        int occurrence = 0;
+        for (int i = 0; i < result.length; i++) {
+            final ElementRecord record = group.get(i);
+            occurrence = i > 0 && record.getContent().equals(group.get(i - 1).getContent()) ? occurrence + 1 : 0;
+            hasher.digest.reset();
+            hasher.updateByte(OCCURRENCE_TAG);
+            hasher.updateStableId(record.getIdentity());
+            hasher.updateStableId(record.getContent());
+            hasher.updateLong(occurrence);
+            result[i] = hasher.finish();
+        }
+        return result;
+    }
+
+    /**
+     * Hash of the label and all properties, which are not ignored.
+     */
+    public StableId getContentHash(final MVStoreModel model, final Set<String> ignoredKeys) {
+        digest.reset();
+        updateByte(model instanceof Edge ? EDGE_TAG : NODE_TAG);
+        updateString(model.getProperty(Node.LABEL_FIELD));
+        updateProperties(model, ignoredKeys);
+        return finish();
+    }
+
+    private void updateProperties(final MVStoreModel model, final Set<String> ignoredKeys) {
+        final List<String> keys = new ArrayList<>(model.keySet());
+        Collections.sort(keys);
+        for (final String key : keys)
+            if (!ignoredKeys.contains(key)) {
+                updateString(key);
+                updateValue(model.get(key));
+            }
+    }
+
+    private void updateValue(final Object value) {
+        if (value == null)
+            updateByte(NULL_TAG);
+        else if (value instanceof String) {
+            updateByte(STRING_TAG);
+            updateString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            updateByte(INTEGER_TAG);
+            updateLong(((Number) value).longValue());
+        } else if (value instanceof Long) {
+            updateByte(LONG_TAG);
+            updateLong((Long) value);
+        } else if (value instanceof Double) {
+            updateByte(DOUBLE_TAG);
+            updateLong(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Float) {
+            updateByte(FLOAT_TAG);
+            updateLong(Float.floatToIntBits((Float) value));
+        } else if (value instanceof Boolean) {
+            updateByte(BOOLEAN_TAG);
+            updateByte((Boolean) value ? (byte) 1 : 0);
+        } else if (value instanceof Character) {
+            updateByte(CHARACTER_TAG);
+            updateLong((Character) value);
+        } else if (value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            updateByte(ARRAY_TAG);
+            updateLong(length);
+            for (int i = 0; i < length; i++)
+                updateValue(Array.get(value, i));
+        } else if (value instanceof Collection) {
+            updateByte(ARRAY_TAG);
+            updateLong(((Collection<?>) value).size());
+            for (final Object element : (Collection<?>) value)
+                updateValue(element);
+        } else {
+            updateByte(OTHER_TAG);
+            updateString(value.getClass().getName());
+            updateString(value.toString());
+        }
+    }
+
+    private void updateByte(final byte value) {
+        digest.update(value);
+    }
+
+    private void updateLong(final long value) {
+        for (int i = 0; i < 8; i++)
+            buffer[i] = (byte) (value >>> (56 - i * 8));
+        digest.update(buffer, 0, 8);
+    }
+
+    private void updateString(final String value) {
+        if (value == null) {
+            updateLong(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        updateLong(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void updateStableId(final StableId id) {
+        if (id == null)
+            updateByte(NULL_TAG);
+        else {
+            updateLong(id.getHigh());
+            updateLong(id.getLow());
+        }
+    }
+
+    private StableId finish() {
+        final byte[] hash = digest.digest();
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (hash[i] & 0xff);
+            low = (low << 8) | (hash[i + 8] & 0xff);
+        }
+        return new StableId(high, low);
+    }
+}
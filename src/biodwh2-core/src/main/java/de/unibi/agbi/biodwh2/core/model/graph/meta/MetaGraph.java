@@ -1,33 +1,85 @@
 package de.unibi.agbi.biodwh2.core.model.graph.meta;
 
 import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.EdgeLabelTriple;
 import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphReadSession;
 import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public final class MetaGraph {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetaGraph.class);
+
     private final Map<String, MetaNode> nodes;
     private final Map<String, MetaEdge> edges;
 
     public MetaGraph(final Graph graph) {
+        this(graph, false);
+    }
+
+    /**
+     * The graph is read in a read session, so writers may continue while the meta graph is built. The maintained edge
+     * counts are not part of the session and may include edges written after it was opened.
+     *
+     * @param verify whether the edge counts should be recomputed by iterating all edges instead of using the counts
+     *               maintained by the graph. Differences to the maintained counts are logged.
+     */
+    public MetaGraph(final Graph graph, final boolean verify) {
         nodes = new HashMap<>();
         edges = new HashMap<>();
-        addMetaNodes(graph);
-        addMetaEdges(graph);
+        try (GraphReadSession session = graph.openReadSession()) {
+            addMetaNodes(session);
+            final Map<EdgeLabelTriple, Long> edgeCounts = graph.getEdgeLabelTripleCounts();
+            if (edgeCounts == null || verify) {
+                addMetaEdges(session);
+                if (edgeCounts != null)
+                    verifyEdgeCounts(edgeCounts);
+            } else
+                addMetaEdges(edgeCounts);
+        }
     }
 
-    private void addMetaNodes(final Graph graph) {
+    private void addMetaNodes(final GraphReadSession graph) {
         for (final String label : graph.getNodeLabels()) {
             final MetaNode node = new MetaNode(label);
             node.count = graph.getNumberOfNodes(label);
+            node.properties.putAll(graph.getPropertySchemasForNodeLabel(label));
             nodes.put(label, node);
         }
     }
 
-    private void addMetaEdges(final Graph graph) {
+    private void addMetaEdges(final Map<EdgeLabelTriple, Long> edgeCounts) {
+        for (final Map.Entry<EdgeLabelTriple, Long> entry : edgeCounts.entrySet()) {
+            final EdgeLabelTriple triple = entry.getKey();
+            final MetaEdge edge = new MetaEdge(triple.getFromLabel(), triple.getToLabel(), triple.getLabel());
+            edge.count = entry.getValue();
+            edges.put(getEdgeKey(triple.getLabel(), triple.getFromLabel(), triple.getToLabel()), edge);
+        }
+    }
+
+    private static String getEdgeKey(final String label, final String fromLabel, final String toLabel) {
+        return label + "|" + fromLabel + "|" + toLabel;
+    }
+
+    private void verifyEdgeCounts(final Map<EdgeLabelTriple, Long> edgeCounts) {
+        final Map<EdgeLabelTriple, Long> actualCounts = new HashMap<>();
+        for (final MetaEdge edge : edges.values())
+            actualCounts.put(new EdgeLabelTriple(edge.fromLabel, edge.label, edge.toLabel), edge.count);
+        final Set<EdgeLabelTriple> triples = new HashSet<>(actualCounts.keySet());
+        triples.addAll(edgeCounts.keySet());
+        for (final EdgeLabelTriple triple : triples) {
+            final long actualCount = actualCounts.getOrDefault(triple, 0L);
+            final long maintainedCount = edgeCounts.getOrDefault(triple, 0L);
+            if (actualCount != maintainedCount && LOGGER.isWarnEnabled())
+                LOGGER.warn("Maintained count " + maintainedCount + " of edges " + triple +
+                            " differs from the actual count " + actualCount);
+        }
+    }
+
+    private void addMetaEdges(final GraphReadSession graph) {
         for (final Edge edge : graph.getEdges()) {
             final Node fromNode = graph.getNode(edge.getFromId());
             final Node toNode = graph.getNode(edge.getToId());
@@ -35,7 +87,7 @@ public final class MetaGraph {
                 continue;
             final String fromLabel = fromNode.getLabel();
             final String toLabel = toNode.getLabel();
-            final String key = edge.getLabel() + "|" + fromLabel + "|" + toLabel;
+            final String key = getEdgeKey(edge.getLabel(), fromLabel, toLabel);
             if (!edges.containsKey(key))
                 edges.put(key, new MetaEdge(fromLabel, toLabel, edge.getLabel()));
             edges.get(key).count++;
@@ -1,10 +1,17 @@
 package de.unibi.agbi.biodwh2.core.model.graph.meta;
 
+import de.unibi.agbi.biodwh2.core.io.storage.PropertySchema;
+
+import java.util.HashMap;
+import java.util.Map;
+
 public final class MetaNode {
     public final String label;
     public long count;
+    public final Map<String, PropertySchema> properties;
 
     public MetaNode(final String label) {
         this.label = label;
+        properties = new HashMap<>();
     }
 }
@@ -0,0 +1,20 @@
+package de.unibi.agbi.biodwh2.core.model.graph.migration;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+
+/**
+ * Rewrites the nodes and edges of a graph from its source version to the next version. Ids and endpoints must be
+ * kept, as all nodes and edges are migrated independently.
+ */
+public interface GraphMigration {
+    int getSourceVersion();
+
+    default Node migrateNode(final Node node) {
+        return node;
+    }
+
+    default Edge migrateEdge(final Edge edge) {
+        return edge;
+    }
+}
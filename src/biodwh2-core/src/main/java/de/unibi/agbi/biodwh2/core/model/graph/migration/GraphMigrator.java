@@ -1,11 +1,53 @@
 package de.unibi.agbi.biodwh2.core.model.graph.migration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibi.agbi.biodwh2.core.exceptions.GraphMigrationException;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
 
+/**
+ * Migrates graph files of older versions to the current {@link Graph#VERSION} in a single streaming pass. Nodes and
+ * edges are read label by label, passed through the migrations of all versions in between and written to a target
+ * file next to the graph, which replaces the graph once the element counts and checksums are verified. The target is
+ * committed after each label and the completed labels are recorded in a progress file, so an interrupted migration
+ * continues with the first incomplete label.
+ */
 public final class GraphMigrator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GraphMigrator.class);
+    private static final String TARGET_FILE_SUFFIX = ".migration";
+    private static final String PROGRESS_FILE_SUFFIX = ".migration.json";
+    /**
+     * Migrations of the file layout by source version. A migration needs to be added whenever the version is increased
+     * to keep existing graphs usable without exporting them again.
+     */
+    private static final GraphMigration[] MIGRATIONS = {};
+
+    private final Map<Integer, GraphMigration> migrations;
+
+    public GraphMigrator() {
+        this(MIGRATIONS);
+    }
+
+    public GraphMigrator(final GraphMigration... migrations) {
+        this.migrations = new HashMap<>();
+        for (final GraphMigration migration : migrations)
+            this.migrations.put(migration.getSourceVersion(), migration);
+    }
+
     public static Integer peekVersion(final Path filePath) {
         Integer result = null;
         try (MVStore store = new MVStore.Builder().compress().fileName(filePath.toString()).readOnly().open()) {
@@ -16,4 +58,195 @@ public final class GraphMigrator {
         }
         return result;
     }
+
+    /**
+     * @return whether the graph is outdated and migrations to the current version exist for its version
+     */
+    public boolean canMigrate(final Path filePath) {
+        final Integer version = peekVersion(filePath);
+        return version != null && version < Graph.VERSION && getMigrations(version) != null;
+    }
+
+    private List<GraphMigration> getMigrations(final int version) {
+        final List<GraphMigration> result = new ArrayList<>();
+        for (int i = version; i < Graph.VERSION; i++) {
+            final GraphMigration migration = migrations.get(i);
+            if (migration == null)
+                return null;
+            result.add(migration);
+        }
+        return result;
+    }
+
+    public void migrate(final Path filePath) {
+        final Integer version = peekVersion(filePath);
+        if (version == null)
+            throw new GraphMigrationException("Failed to migrate graph '" + filePath + "' without version");
+        if (version >= Graph.VERSION)
+            return;
+        final List<GraphMigration> chain = getMigrations(version);
+        if (chain == null)
+            throw new GraphMigrationException(
+                    "Failed to migrate graph '" + filePath + "' as no migration from version " + version +
+                    " to version " + Graph.VERSION + " exists");
+        final Path targetFilePath = Paths.get(filePath + TARGET_FILE_SUFFIX);
+        final Path progressFilePath = Paths.get(filePath + PROGRESS_FILE_SUFFIX);
+        try {
+            MigrationProgress progress = loadProgress(filePath, version, targetFilePath, progressFilePath);
+            final boolean resume = progress != null;
+            if (LOGGER.isInfoEnabled())
+                LOGGER.info((resume ? "Resuming" : "Starting") + " migration of graph '" + filePath +
+                            "' from version " + version + " to version " + Graph.VERSION);
+            if (!resume)
+                progress = createProgress(filePath, version);
+            try (Graph source = new Graph(filePath, true, true); Graph target = new Graph(targetFilePath, resume)) {
+                migrate(source, target, chain, progress, progressFilePath);
+            }
+            Files.move(targetFilePath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(progressFilePath);
+        } catch (IOException e) {
+            throw new GraphMigrationException("Failed to migrate graph '" + filePath + "'", e);
+        }
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("Migration of graph '" + filePath + "' finished");
+    }
+
+    private static MigrationProgress loadProgress(final Path filePath, final int version, final Path targetFilePath,
+                                                  final Path progressFilePath) throws IOException {
+        if (Files.notExists(progressFilePath) || Files.notExists(targetFilePath))
+            return null;
+        final MigrationProgress progress;
+        try {
+            progress = new ObjectMapper().readValue(progressFilePath.toFile(), MigrationProgress.class);
+        } catch (IOException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Failed to read migration progress '" + progressFilePath + "', restarting migration", e);
+            return null;
+        }
+        // The progress is only valid for the unchanged source file
+        if (progress.sourceVersion != version || progress.sourceSize != Files.size(filePath) ||
+            progress.sourceLastModified != Files.getLastModifiedTime(filePath).toMillis())
+            return null;
+        return progress;
+    }
+
+    private static MigrationProgress createProgress(final Path filePath, final int version) throws IOException {
+        final MigrationProgress progress = new MigrationProgress();
+        progress.sourceVersion = version;
+        progress.sourceSize = Files.size(filePath);
+        progress.sourceLastModified = Files.getLastModifiedTime(filePath).toMillis();
+        return progress;
+    }
+
+    private static void migrate(final Graph source, final Graph target, final List<GraphMigration> chain,
+                                final MigrationProgress progress, final Path progressFilePath) throws IOException {
+        if (!progress.indicesCopied) {
+            for (final IndexDescription description : source.indexDescriptions())
+                target.addIndex(description);
+            progress.indicesCopied = true;
+            checkpoint(target, progress, progressFilePath);
+        }
+        for (final String label : source.getNodeLabels()) {
+            if (!progress.nodeLabels.containsKey(label)) {
+                progress.nodeLabels.put(label, migrateNodes(source, target, label, chain));
+                checkpoint(target, progress, progressFilePath);
+            }
+        }
+        for (final String label : source.getEdgeLabels()) {
+            if (!progress.edgeLabels.containsKey(label)) {
+                progress.edgeLabels.put(label, migrateEdges(source, target, label, chain));
+                checkpoint(target, progress, progressFilePath);
+            }
+        }
+        for (final String[] key : source.getClosureIndexKeys())
+            target.buildClosureIndex(key[0], key[1]);
+        verify(source.getNumberOfNodes(), progress.nodeLabels.values(), target.getNodes(), "nodes");
+        verify(source.getNumberOfEdges(), progress.edgeLabels.values(), target.getEdges(), "edges");
+    }
+
+    private static void checkpoint(final Graph target, final MigrationProgress progress,
+                                   final Path progressFilePath) throws IOException {
+        target.commit();
+        new ObjectMapper().writeValue(progressFilePath.toFile(), progress);
+    }
+
+    /**
+     * Nodes already written before an interruption are overwritten, as ids are kept.
+     */
+    private static MigrationProgress.LabelResult migrateNodes(final Graph source, final Graph target,
+                                                              final String label, final List<GraphMigration> chain) {
+        final MigrationProgress.LabelResult result = new MigrationProgress.LabelResult();
+        for (final Node node : source.findNodes(label)) {
+            Node migrated = node;
+            for (final GraphMigration migration : chain)
+                migrated = migration.migrateNode(migrated);
+            if (migrated == null || !node.getId().equals(migrated.getId()))
+                throw new GraphMigrationException("Failed to migrate node " + node.getId() + " as its id changed");
+            target.update(migrated);
+            result.count++;
+            result.checksum += checksum(migrated);
+        }
+        return result;
+    }
+
+    private static MigrationProgress.LabelResult migrateEdges(final Graph source, final Graph target,
+                                                              final String label, final List<GraphMigration> chain) {
+        final MigrationProgress.LabelResult result = new MigrationProgress.LabelResult();
+        for (final Edge edge : source.findEdges(label)) {
+            Edge migrated = edge;
+            for (final GraphMigration migration : chain)
+                migrated = migration.migrateEdge(migrated);
+            if (migrated == null || !edge.getId().equals(migrated.getId()) ||
+                !edge.getFromId().equals(migrated.getFromId()) || !edge.getToId().equals(migrated.getToId()))
+                throw new GraphMigrationException(
+                        "Failed to migrate edge " + edge.getId() + " as its id or endpoints changed");
+            target.update(migrated);
+            result.count++;
+            result.checksum += checksum(migrated);
+        }
+        return result;
+    }
+
+    private static void verify(final long sourceCount, final Collection<MigrationProgress.LabelResult> results,
+                               final Iterable<? extends MVStoreModel> migrated, final String elementName) {
+        long expectedCount = 0;
+        long expectedChecksum = 0;
+        for (final MigrationProgress.LabelResult result : results) {
+            expectedCount += result.count;
+            expectedChecksum += result.checksum;
+        }
+        long count = 0;
+        long checksum = 0;
+        for (final MVStoreModel model : migrated) {
+            count++;
+            checksum += checksum(model);
+        }
+        if (count != sourceCount || count != expectedCount || checksum != expectedChecksum)
+            throw new GraphMigrationException(
+                    "Failed to verify migrated " + elementName + ": expected " + sourceCount + " with checksum " +
+                    expectedChecksum + " but found " + count + " with checksum " + checksum);
+    }
+
+    /**
+     * Order independent checksum of all properties, so it can be summed up for all elements in any order.
+     */
+    private static long checksum(final MVStoreModel model) {
+        long result = 0;
+        for (final String key : model.keySet()) {
+            final Object value = model.get(key);
+            final int valueHash = value != null && value.getClass().isArray() ?
+                                  Arrays.deepHashCode(new Object[]{value}) : Objects.hashCode(value);
+            result += mix(key.hashCode() * 31L + valueHash);
+        }
+        return mix(result);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
 }
@@ -0,0 +1,35 @@
+package de.unibi.agbi.biodwh2.core.model.graph.migration;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Labels completely written to the target file of a migration, so an interrupted migration of the same source file
+ * can be resumed.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+final class MigrationProgress {
+    @JsonProperty("sourceVersion")
+    public int sourceVersion;
+    @JsonProperty("sourceSize")
+    public long sourceSize;
+    @JsonProperty("sourceLastModified")
+    public long sourceLastModified;
+    @JsonProperty("nodeLabels")
+    public Map<String, LabelResult> nodeLabels = new HashMap<>();
+    @JsonProperty("edgeLabels")
+    public Map<String, LabelResult> edgeLabels = new HashMap<>();
+    @JsonProperty("indicesCopied")
+    public boolean indicesCopied;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static final class LabelResult {
+        @JsonProperty("count")
+        public long count;
+        @JsonProperty("checksum")
+        public long checksum;
+    }
+}
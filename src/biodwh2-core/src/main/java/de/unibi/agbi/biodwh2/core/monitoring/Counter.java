@@ -0,0 +1,30 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Counter extends Metric implements CounterMXBean {
+    private final LongAdder count;
+
+    Counter(final String name, final String help, final String[] labelNames, final String[] labelValues) {
+        super(name, help, labelNames, labelValues);
+        count = new LongAdder();
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void increment(final long amount) {
+        count.add(amount);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public MetricType getType() {
+        return MetricType.COUNTER;
+    }
+}
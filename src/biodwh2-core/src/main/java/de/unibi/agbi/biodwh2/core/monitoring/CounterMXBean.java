@@ -0,0 +1,5 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+public interface CounterMXBean {
+    long getCount();
+}
@@ -0,0 +1,32 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+/**
+ * Download throughput metrics shared by all network clients. The throughput can be derived as the rate of
+ * {@value #BYTES_METRIC} divided by the rate of the {@value #DURATION_METRIC} sum.
+ */
+public final class DownloadMetrics {
+    private static final String BYTES_METRIC = "biodwh2_download_bytes_total";
+    private static final String DURATION_METRIC = "biodwh2_download_seconds";
+    private static final Counter BYTES = MetricsRegistry.getInstance().counter(BYTES_METRIC,
+                                                                               "Number of bytes downloaded");
+    private static final Timer DURATION = MetricsRegistry.getInstance().timer(DURATION_METRIC,
+                                                                              "Duration of file downloads");
+    private static volatile double lastBytesPerSecond;
+
+    static {
+        MetricsRegistry.getInstance().gauge("biodwh2_download_last_bytes_per_second",
+                                            "Throughput of the most recently finished download",
+                                            () -> lastBytesPerSecond);
+    }
+
+    private DownloadMetrics() {
+    }
+
+    public static void record(final long bytes, final long startNanos) {
+        final long nanos = System.nanoTime() - startNanos;
+        BYTES.increment(bytes);
+        DURATION.record(nanos);
+        if (nanos > 0)
+            lastBytesPerSecond = bytes / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,31 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import java.util.function.DoubleSupplier;
+
+public final class Gauge extends Metric implements GaugeMXBean {
+    private final DoubleSupplier supplier;
+
+    Gauge(final String name, final String help, final String[] labelNames, final String[] labelValues,
+          final DoubleSupplier supplier) {
+        super(name, help, labelNames, labelValues);
+        this.supplier = supplier;
+    }
+
+    /**
+     * Samples the supplier. Failures of the supplier, e.g. because the underlying store was closed concurrently,
+     * are reported as NaN instead of breaking the export of all other metrics.
+     */
+    @Override
+    public double getValue() {
+        try {
+            return supplier.getAsDouble();
+        } catch (RuntimeException ignored) {
+            return Double.NaN;
+        }
+    }
+
+    @Override
+    public MetricType getType() {
+        return MetricType.GAUGE;
+    }
+}
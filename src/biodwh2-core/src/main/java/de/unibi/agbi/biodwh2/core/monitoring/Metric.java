@@ -0,0 +1,46 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import java.util.Arrays;
+
+public abstract class Metric {
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final String[] labelValues;
+
+    Metric(final String name, final String help, final String[] labelNames, final String[] labelValues) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+        this.labelValues = labelValues;
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    public final String getHelp() {
+        return help;
+    }
+
+    public final String[] getLabelNames() {
+        return Arrays.copyOf(labelNames, labelNames.length);
+    }
+
+    public final String[] getLabelValues() {
+        return Arrays.copyOf(labelValues, labelValues.length);
+    }
+
+    public abstract MetricType getType();
+
+    static String createKey(final String name, final String[] labelNames, final String[] labelValues) {
+        final StringBuilder builder = new StringBuilder(name).append('{');
+        for (int i = 0; i < labelNames.length; i++)
+            builder.append(i > 0 ? "," : "").append(labelNames[i]).append("=\"").append(labelValues[i]).append('"');
+        return builder.append('}').toString();
+    }
+
+    final String getKey() {
+        return createKey(name, labelNames, labelValues);
+    }
+}
@@ -0,0 +1,17 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+public enum MetricType {
+    COUNTER("counter"),
+    GAUGE("gauge"),
+    TIMER("summary");
+
+    private final String prometheusName;
+
+    MetricType(final String prometheusName) {
+        this.prometheusName = prometheusName;
+    }
+
+    public String getPrometheusName() {
+        return prometheusName;
+    }
+}
@@ -0,0 +1,63 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically dumps all metrics of a {@link MetricsRegistry} to a local file in Prometheus text format. The file is
+ * replaced atomically so it can be scraped by the node exporter textfile collector or read at any time.
+ */
+public final class MetricsFileReporter implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsFileReporter.class);
+
+    private final MetricsRegistry registry;
+    private final Path filePath;
+    private final PrometheusTextFormatter formatter;
+    private final ScheduledExecutorService executor;
+
+    public MetricsFileReporter(final MetricsRegistry registry, final Path filePath, final int intervalSeconds) {
+        this.registry = registry;
+        this.filePath = filePath.toAbsolutePath();
+        formatter = new PrometheusTextFormatter();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "biodwh2-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final int interval = Math.max(1, intervalSeconds);
+        executor.scheduleAtFixedRate(this::tryReport, interval, interval, TimeUnit.SECONDS);
+    }
+
+    private void tryReport() {
+        try {
+            report();
+        } catch (IOException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Failed to write metrics to file '" + filePath + "'", e);
+        }
+    }
+
+    public synchronized void report() throws IOException {
+        final Path tempFilePath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        Files.write(tempFilePath, formatter.format(registry.getMetrics()).getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFilePath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stops the periodic dumps and writes the final state of all metrics.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        tryReport();
+    }
+}
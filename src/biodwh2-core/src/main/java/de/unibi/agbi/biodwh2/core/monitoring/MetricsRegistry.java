@@ -0,0 +1,149 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process wide registry of {@link Counter}, {@link Gauge} and {@link Timer} metrics. Every registered metric is
+ * exposed as an MXBean in the platform MBean server under the domain {@value #JMX_DOMAIN}.
+ */
+public final class MetricsRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsRegistry.class);
+    public static final String JMX_DOMAIN = "de.unibi.agbi.biodwh2";
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry(true);
+
+    private final boolean registerMBeans;
+    private final Map<String, Metric> metrics;
+
+    MetricsRegistry(final boolean registerMBeans) {
+        this.registerMBeans = registerMBeans;
+        metrics = new ConcurrentHashMap<>();
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get or create a counter. Labels are given as alternating name and value pairs.
+     */
+    public Counter counter(final String name, final String help, final String... labels) {
+        return getOrCreate(name, labels, Counter.class,
+                           (labelNames, labelValues) -> new Counter(name, help, labelNames, labelValues));
+    }
+
+    /**
+     * Get or create a timer. Labels are given as alternating name and value pairs.
+     */
+    public Timer timer(final String name, final String help, final String... labels) {
+        return getOrCreate(name, labels, Timer.class,
+                           (labelNames, labelValues) -> new Timer(name, help, labelNames, labelValues));
+    }
+
+    /**
+     * Register a gauge sampling the supplier. An existing gauge with the same name and labels is replaced, so
+     * resources which are reopened, such as stores, always report their current instance.
+     */
+    public Gauge gauge(final String name, final String help, final DoubleSupplier supplier, final String... labels) {
+        final String[][] splitLabels = splitLabels(labels);
+        final Gauge gauge = new Gauge(name, help, splitLabels[0], splitLabels[1], supplier);
+        final Metric previous = metrics.put(gauge.getKey(), gauge);
+        if (previous != null)
+            unregisterMBean(previous);
+        registerMBean(gauge);
+        return gauge;
+    }
+
+    public void remove(final Metric metric) {
+        if (metrics.remove(metric.getKey(), metric))
+            unregisterMBean(metric);
+    }
+
+    /**
+     * @return all registered metrics sorted by name and labels
+     */
+    public List<Metric> getMetrics() {
+        final List<Metric> result = new ArrayList<>(metrics.values());
+        result.sort(Comparator.comparing(Metric::getKey));
+        return result;
+    }
+
+    private interface MetricFactory<T extends Metric> {
+        T create(final String[] labelNames, final String[] labelValues);
+    }
+
+    private <T extends Metric> T getOrCreate(final String name, final String[] labels, final Class<T> type,
+                                             final MetricFactory<T> factory) {
+        final String[][] splitLabels = splitLabels(labels);
+        final String key = Metric.createKey(name, splitLabels[0], splitLabels[1]);
+        Metric metric = metrics.get(key);
+        if (metric == null)
+            metric = metrics.computeIfAbsent(key, k -> {
+                final T created = factory.create(splitLabels[0], splitLabels[1]);
+                registerMBean(created);
+                return created;
+            });
+        if (!type.isInstance(metric))
+            throw new IllegalArgumentException(
+                    "Metric '" + key + "' is already registered as " + metric.getType().getPrometheusName());
+        return type.cast(metric);
+    }
+
+    private static String[][] splitLabels(final String[] labels) {
+        if (labels.length % 2 != 0)
+            throw new IllegalArgumentException("Labels need to be given as name and value pairs");
+        final String[][] result = new String[2][labels.length / 2];
+        for (int i = 0; i < labels.length; i += 2) {
+            result[0][i / 2] = labels[i];
+            result[1][i / 2] = labels[i + 1] == null ? "" : labels[i + 1];
+        }
+        return result;
+    }
+
+    private void registerMBean(final Metric metric) {
+        if (!registerMBeans)
+            return;
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = getObjectName(metric);
+            if (!server.isRegistered(objectName))
+                server.registerMBean(metric, objectName);
+        } catch (JMException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Failed to register metric '" + metric.getKey() + "' in the MBean server", e);
+        }
+    }
+
+    private void unregisterMBean(final Metric metric) {
+        if (!registerMBeans)
+            return;
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = getObjectName(metric);
+            if (server.isRegistered(objectName))
+                server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Failed to unregister metric '" + metric.getKey() + "' from the MBean server", e);
+        }
+    }
+
+    private static ObjectName getObjectName(final Metric metric) throws JMException {
+        final Hashtable<String, String> properties = new Hashtable<>();
+        properties.put("type", metric.getType().name().toLowerCase(Locale.ROOT));
+        properties.put("name", metric.getName());
+        final String[] labelNames = metric.getLabelNames();
+        final String[] labelValues = metric.getLabelValues();
+        for (int i = 0; i < labelNames.length; i++)
+            properties.put(labelNames[i], ObjectName.quote(labelValues[i]));
+        return new ObjectName(JMX_DOMAIN, properties);
+    }
+}
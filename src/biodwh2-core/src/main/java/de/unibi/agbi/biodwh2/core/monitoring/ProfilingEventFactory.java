@@ -0,0 +1,19 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+/**
+ * Creates application level profiling events. Implementations must return shared no-op instances when the respective
+ * event type is not being recorded, so instrumented code paths do not allocate anything in that case.
+ */
+public interface ProfilingEventFactory {
+    ProfilingEvents.GraphFind beginGraphFind();
+
+    ProfilingEvents.IndexRebuild beginIndexRebuild();
+
+    ProfilingEvents.CollectionPutBatch beginCollectionPutBatch();
+
+    ProfilingEvents.MergeSource beginMergeSource();
+
+    ProfilingEvents.MapDescriber beginMapDescriber();
+
+    ProfilingEvents.ExportFile beginExportFile();
+}
@@ -0,0 +1,126 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entry point for application level profiling events. When running on Java 11 or newer from the multi-release jar,
+ * the events are emitted as Java Flight Recorder events in the "BioDWH2" category. Otherwise, all events are no-ops.
+ */
+public final class ProfilingEvents {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProfilingEvents.class);
+    private static final String JFR_FACTORY_CLASS_NAME = "de.unibi.agbi.biodwh2.core.monitoring.jfr.JfrProfilingEventFactory";
+
+    public interface GraphFind {
+        void end(final String collection, final String[] keys, final boolean scanned, final long resultCount);
+    }
+
+    public interface IndexRebuild {
+        void end(final String collection, final String key, final long entries);
+    }
+
+    public interface CollectionPutBatch {
+        void end(final String collection, final long puts);
+    }
+
+    public interface MergeSource {
+        void end(final String dataSourceId, final long nodes, final long edges);
+    }
+
+    public interface MapDescriber {
+        void end(final String dataSourceId, final String label, final long nodes);
+    }
+
+    public interface ExportFile {
+        void end(final String path, final String format, final boolean success);
+    }
+
+    public static final GraphFind NO_GRAPH_FIND = (collection, keys, scanned, resultCount) -> {
+    };
+    public static final IndexRebuild NO_INDEX_REBUILD = (collection, key, entries) -> {
+    };
+    public static final CollectionPutBatch NO_COLLECTION_PUT_BATCH = (collection, puts) -> {
+    };
+    public static final MergeSource NO_MERGE_SOURCE = (dataSourceId, nodes, edges) -> {
+    };
+    public static final MapDescriber NO_MAP_DESCRIBER = (dataSourceId, label, nodes) -> {
+    };
+    public static final ExportFile NO_EXPORT_FILE = (path, format, success) -> {
+    };
+
+    private static final ProfilingEventFactory FACTORY = loadFactory(JFR_FACTORY_CLASS_NAME);
+
+    private ProfilingEvents() {
+    }
+
+    /**
+     * @return the factory of the class or a no-op factory if it isn't available, as on Java 8
+     */
+    static ProfilingEventFactory loadFactory(final String className) {
+        try {
+            final Class<?> factoryClass = Class.forName(className);
+            final ProfilingEventFactory factory = (ProfilingEventFactory) factoryClass.getConstructor().newInstance();
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Java Flight Recorder profiling events are available");
+            return factory;
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException ignored) {
+            return new NoOpFactory();
+        }
+    }
+
+    public static GraphFind beginGraphFind() {
+        return FACTORY.beginGraphFind();
+    }
+
+    public static IndexRebuild beginIndexRebuild() {
+        return FACTORY.beginIndexRebuild();
+    }
+
+    public static CollectionPutBatch beginCollectionPutBatch() {
+        return FACTORY.beginCollectionPutBatch();
+    }
+
+    public static MergeSource beginMergeSource() {
+        return FACTORY.beginMergeSource();
+    }
+
+    public static MapDescriber beginMapDescriber() {
+        return FACTORY.beginMapDescriber();
+    }
+
+    public static ExportFile beginExportFile() {
+        return FACTORY.beginExportFile();
+    }
+
+    private static final class NoOpFactory implements ProfilingEventFactory {
+        @Override
+        public GraphFind beginGraphFind() {
+            return NO_GRAPH_FIND;
+        }
+
+        @Override
+        public IndexRebuild beginIndexRebuild() {
+            return NO_INDEX_REBUILD;
+        }
+
+        @Override
+        public CollectionPutBatch beginCollectionPutBatch() {
+            return NO_COLLECTION_PUT_BATCH;
+        }
+
+        @Override
+        public MergeSource beginMergeSource() {
+            return NO_MERGE_SOURCE;
+        }
+
+        @Override
+        public MapDescriber beginMapDescriber() {
+            return NO_MAP_DESCRIBER;
+        }
+
+        @Override
+        public ExportFile beginExportFile() {
+            return NO_EXPORT_FILE;
+        }
+    }
+}
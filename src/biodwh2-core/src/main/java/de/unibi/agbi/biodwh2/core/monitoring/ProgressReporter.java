@@ -0,0 +1,119 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Reports all active {@link ProgressTracker}s at a fixed interval to the log and, if configured, to a JSON status
+ * file which can be polled by external watchers.
+ */
+public final class ProgressReporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressReporter.class);
+    public static final int DEFAULT_INTERVAL_SECONDS = 30;
+    private static final ProgressReporter INSTANCE = new ProgressReporter();
+
+    public static final class Status {
+        public String updated;
+        public List<ProgressSnapshot> stages;
+    }
+
+    private final Set<ProgressTracker> trackers;
+    private final ObjectMapper objectMapper;
+    private ScheduledExecutorService executor;
+    private int intervalSeconds;
+    private Path statusFilePath;
+
+    private ProgressReporter() {
+        trackers = new CopyOnWriteArraySet<>();
+        objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        intervalSeconds = DEFAULT_INTERVAL_SECONDS;
+    }
+
+    public static ProgressReporter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param intervalSeconds report interval in seconds
+     * @param statusFilePath  path of the JSON status file or null to only report to the log
+     */
+    public synchronized void configure(final int intervalSeconds, final Path statusFilePath) {
+        this.intervalSeconds = Math.max(1, intervalSeconds);
+        this.statusFilePath = statusFilePath;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            if (!trackers.isEmpty())
+                startExecutor();
+        }
+    }
+
+    synchronized void register(final ProgressTracker tracker) {
+        trackers.add(tracker);
+        if (executor == null)
+            startExecutor();
+        writeStatusFile(createSnapshots(false));
+    }
+
+    private void startExecutor() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "biodwh2-progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    synchronized void unregister(final ProgressTracker tracker) {
+        if (!trackers.remove(tracker))
+            return;
+        final ProgressSnapshot snapshot = tracker.snapshot(false);
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("[" + snapshot.stage + "] finished " + snapshot.records + " records in " +
+                        String.format(Locale.US, "%.1f", snapshot.elapsedSeconds) + " s");
+        writeStatusFile(createSnapshots(false));
+    }
+
+    private List<ProgressSnapshot> createSnapshots(final boolean advanceInterval) {
+        final List<ProgressSnapshot> snapshots = new ArrayList<>();
+        for (final ProgressTracker tracker : trackers)
+            snapshots.add(tracker.snapshot(advanceInterval));
+        return snapshots;
+    }
+
+    private synchronized void report() {
+        final List<ProgressSnapshot> snapshots = createSnapshots(true);
+        if (LOGGER.isInfoEnabled())
+            for (final ProgressSnapshot snapshot : snapshots)
+                LOGGER.info(snapshot.toString());
+        writeStatusFile(snapshots);
+    }
+
+    private void writeStatusFile(final List<ProgressSnapshot> snapshots) {
+        if (statusFilePath == null)
+            return;
+        final Status status = new Status();
+        status.updated = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        status.stages = snapshots;
+        final Path tempFilePath = statusFilePath.resolveSibling(statusFilePath.getFileName() + ".tmp");
+        try {
+            objectMapper.writeValue(tempFilePath.toFile(), status);
+            Files.move(tempFilePath, statusFilePath, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Failed to write progress status file '" + statusFilePath + "'", e);
+        }
+    }
+}
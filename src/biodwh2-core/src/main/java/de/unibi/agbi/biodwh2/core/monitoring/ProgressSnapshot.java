@@ -0,0 +1,63 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Locale;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class ProgressSnapshot {
+    @JsonProperty("stage")
+    public String stage;
+    @JsonProperty("records")
+    public long records;
+    @JsonProperty("totalRecords")
+    public long totalRecords;
+    @JsonProperty("bytes")
+    public long bytes;
+    @JsonProperty("totalBytes")
+    public long totalBytes;
+    @JsonProperty("elapsedSeconds")
+    public double elapsedSeconds;
+    @JsonProperty("recordsPerSecond")
+    public double recordsPerSecond;
+    @JsonProperty("bytesPerSecond")
+    public double bytesPerSecond;
+    @JsonProperty("percent")
+    public Double percent;
+    @JsonProperty("etaSeconds")
+    public Double etaSeconds;
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[").append(stage).append("] ");
+        builder.append(records);
+        if (totalRecords > 0)
+            builder.append('/').append(totalRecords);
+        builder.append(" records");
+        if (bytes > 0 || totalBytes > 0) {
+            builder.append(", ").append(formatBytes(bytes));
+            if (totalBytes > 0)
+                builder.append('/').append(formatBytes(totalBytes));
+        }
+        if (percent != null)
+            builder.append(String.format(Locale.US, " (%.1f%%)", percent));
+        builder.append(String.format(Locale.US, ", %.0f records/s", recordsPerSecond));
+        if (bytes > 0)
+            builder.append(", ").append(formatBytes((long) bytesPerSecond)).append("/s");
+        if (etaSeconds != null)
+            builder.append(", ETA ").append(formatDuration(etaSeconds.longValue()));
+        return builder.toString();
+    }
+
+    private static String formatBytes(final long bytes) {
+        if (bytes < 1024)
+            return bytes + " B";
+        final int exponent = (int) (Math.log(bytes) / Math.log(1024));
+        return String.format(Locale.US, "%.1f %siB", bytes / Math.pow(1024, exponent), "KMGTPE".charAt(exponent - 1));
+    }
+
+    private static String formatDuration(final long seconds) {
+        return String.format(Locale.US, "%02d:%02d:%02d", seconds / 3600, (seconds % 3600) / 60, seconds % 60);
+    }
+}
@@ -0,0 +1,152 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the progress of a long-running stage in processed records and bytes. Totals are optional and should only
+ * be given where they are cheap to get, such as collection sizes or file lengths. Active trackers are periodically
+ * reported by the {@link ProgressReporter} until they are closed.
+ */
+public final class ProgressTracker implements AutoCloseable {
+    public static final long UNKNOWN = -1;
+
+    private final String stage;
+    private final long totalRecords;
+    private final long totalBytes;
+    private final long startNanos;
+    private final AtomicLong records;
+    private final AtomicLong bytes;
+    private long lastReportNanos;
+    private long lastReportRecords;
+    private long lastReportBytes;
+
+    private ProgressTracker(final String stage, final long totalRecords, final long totalBytes) {
+        this.stage = stage;
+        this.totalRecords = totalRecords;
+        this.totalBytes = totalBytes;
+        startNanos = System.nanoTime();
+        records = new AtomicLong();
+        bytes = new AtomicLong();
+        lastReportNanos = startNanos;
+    }
+
+    public static ProgressTracker start(final String stage, final long totalRecords) {
+        return start(stage, totalRecords, UNKNOWN);
+    }
+
+    public static ProgressTracker start(final String stage, final long totalRecords, final long totalBytes) {
+        final ProgressTracker tracker = new ProgressTracker(stage, totalRecords, totalBytes);
+        ProgressReporter.getInstance().register(tracker);
+        return tracker;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public void step() {
+        records.incrementAndGet();
+    }
+
+    public void step(final long count) {
+        records.addAndGet(count);
+    }
+
+    public void addBytes(final long count) {
+        bytes.addAndGet(count);
+    }
+
+    /**
+     * Wrap the stream so all bytes read count towards the progress. For compressed files, the raw file stream should
+     * be wrapped so that the compressed byte position is tracked against the file length.
+     */
+    public InputStream track(final InputStream stream) {
+        return new FilterInputStream(stream) {
+            private long mark;
+
+            @Override
+            public int read() throws IOException {
+                final int result = super.read();
+                if (result != -1)
+                    bytes.incrementAndGet();
+                return result;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int result = super.read(b, off, len);
+                if (result > 0)
+                    bytes.addAndGet(result);
+                return result;
+            }
+
+            @Override
+            public long skip(final long n) throws IOException {
+                final long result = super.skip(n);
+                bytes.addAndGet(result);
+                return result;
+            }
+
+            @Override
+            public synchronized void mark(final int readLimit) {
+                super.mark(readLimit);
+                mark = bytes.get();
+            }
+
+            @Override
+            public synchronized void reset() throws IOException {
+                super.reset();
+                bytes.set(mark);
+            }
+        };
+    }
+
+    /**
+     * @param advanceInterval whether the snapshot starts a new interval for the rate calculation
+     */
+    synchronized ProgressSnapshot snapshot(final boolean advanceInterval) {
+        final long now = System.nanoTime();
+        final long currentRecords = records.get();
+        final long currentBytes = bytes.get();
+        final double intervalSeconds = Math.max(1e-9, (now - lastReportNanos) / 1_000_000_000.0);
+        final double elapsedSeconds = Math.max(1e-9, (now - startNanos) / 1_000_000_000.0);
+        final ProgressSnapshot snapshot = new ProgressSnapshot();
+        snapshot.stage = stage;
+        snapshot.records = currentRecords;
+        snapshot.totalRecords = totalRecords;
+        snapshot.bytes = currentBytes;
+        snapshot.totalBytes = totalBytes;
+        snapshot.elapsedSeconds = elapsedSeconds;
+        snapshot.recordsPerSecond = (currentRecords - lastReportRecords) / intervalSeconds;
+        snapshot.bytesPerSecond = (currentBytes - lastReportBytes) / intervalSeconds;
+        final double fraction = getFraction(currentRecords, currentBytes);
+        snapshot.percent = fraction < 0 ? null : fraction * 100;
+        snapshot.etaSeconds = fraction <= 0 ? null : elapsedSeconds * (1 - fraction) / fraction;
+        if (advanceInterval) {
+            lastReportNanos = now;
+            lastReportRecords = currentRecords;
+            lastReportBytes = currentBytes;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Bytes are preferred over records to estimate the progress as file lengths are usually exact, while record
+     * totals might only be known approximately.
+     */
+    private double getFraction(final long currentRecords, final long currentBytes) {
+        if (totalBytes > 0)
+            return Math.min(1, (double) currentBytes / totalBytes);
+        if (totalRecords > 0)
+            return Math.min(1, (double) currentRecords / totalRecords);
+        return -1;
+    }
+
+    @Override
+    public void close() {
+        ProgressReporter.getInstance().unregister(this);
+    }
+}
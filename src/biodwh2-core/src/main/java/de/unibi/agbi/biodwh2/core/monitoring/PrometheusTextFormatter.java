@@ -0,0 +1,91 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Formats metrics in the Prometheus text exposition format version 0.0.4. Timers are written as summaries in seconds
+ * with an additional "_max" gauge.
+ */
+public final class PrometheusTextFormatter {
+    public String format(final Collection<Metric> metrics) {
+        final StringBuilder builder = new StringBuilder();
+        final Set<String> writtenFamilies = new HashSet<>();
+        for (final Metric metric : metrics) {
+            if (writtenFamilies.add(metric.getName()))
+                appendFamilyHeader(builder, metric.getName(), metric.getHelp(), metric.getType());
+            switch (metric.getType()) {
+                case COUNTER:
+                    appendSample(builder, metric.getName(), metric, ((Counter) metric).getCount());
+                    break;
+                case GAUGE:
+                    appendSample(builder, metric.getName(), metric, ((Gauge) metric).getValue());
+                    break;
+                case TIMER:
+                    final Timer timer = (Timer) metric;
+                    appendSample(builder, metric.getName() + "_count", metric, timer.getCount());
+                    appendSample(builder, metric.getName() + "_sum", metric, timer.getTotalSeconds());
+                    break;
+            }
+        }
+        for (final Metric metric : metrics)
+            if (metric.getType() == MetricType.TIMER) {
+                final String name = metric.getName() + "_max";
+                if (writtenFamilies.add(name))
+                    appendFamilyHeader(builder, name, metric.getHelp() + " (maximum)", MetricType.GAUGE);
+                appendSample(builder, name, metric, ((Timer) metric).getMaxSeconds());
+            }
+        return builder.toString();
+    }
+
+    private static void appendFamilyHeader(final StringBuilder builder, final String name, final String help,
+                                           final MetricType type) {
+        builder.append("# HELP ").append(name).append(' ').append(escapeHelp(help)).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type.getPrometheusName()).append('\n');
+    }
+
+    private static void appendSample(final StringBuilder builder, final String name, final Metric metric,
+                                     final long value) {
+        appendSampleName(builder, name, metric);
+        builder.append(value).append('\n');
+    }
+
+    private static void appendSample(final StringBuilder builder, final String name, final Metric metric,
+                                     final double value) {
+        appendSampleName(builder, name, metric);
+        builder.append(formatDouble(value)).append('\n');
+    }
+
+    private static void appendSampleName(final StringBuilder builder, final String name, final Metric metric) {
+        builder.append(name);
+        final String[] labelNames = metric.getLabelNames();
+        if (labelNames.length > 0) {
+            final String[] labelValues = metric.getLabelValues();
+            builder.append('{');
+            for (int i = 0; i < labelNames.length; i++) {
+                if (i > 0)
+                    builder.append(',');
+                builder.append(labelNames[i]).append("=\"").append(escapeLabelValue(labelValues[i])).append('"');
+            }
+            builder.append('}');
+        }
+        builder.append(' ');
+    }
+
+    private static String formatDouble(final double value) {
+        if (Double.isNaN(value))
+            return "NaN";
+        if (Double.isInfinite(value))
+            return value > 0 ? "+Inf" : "-Inf";
+        return Double.toString(value);
+    }
+
+    private static String escapeHelp(final String help) {
+        return help == null ? "" : help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabelValue(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,55 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Timer extends Metric implements TimerMXBean {
+    private static final double NANOSECONDS_PER_SECOND = 1_000_000_000.0;
+
+    private final LongAdder count;
+    private final LongAdder totalNanos;
+    private final AtomicLong maxNanos;
+
+    Timer(final String name, final String help, final String[] labelNames, final String[] labelValues) {
+        super(name, help, labelNames, labelValues);
+        count = new LongAdder();
+        totalNanos = new LongAdder();
+        maxNanos = new AtomicLong();
+    }
+
+    public void record(final long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public void recordSince(final long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getTotalSeconds() {
+        return totalNanos.sum() / NANOSECONDS_PER_SECOND;
+    }
+
+    @Override
+    public double getMaxSeconds() {
+        return maxNanos.get() / NANOSECONDS_PER_SECOND;
+    }
+
+    @Override
+    public double getMeanSeconds() {
+        final long currentCount = count.sum();
+        return currentCount == 0 ? 0 : getTotalSeconds() / currentCount;
+    }
+
+    @Override
+    public MetricType getType() {
+        return MetricType.TIMER;
+    }
+}
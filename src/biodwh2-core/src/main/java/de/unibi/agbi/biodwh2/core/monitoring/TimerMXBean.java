@@ -0,0 +1,11 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+public interface TimerMXBean {
+    long getCount();
+
+    double getTotalSeconds();
+
+    double getMaxSeconds();
+
+    double getMeanSeconds();
+}
@@ -1,6 +1,8 @@
 package de.unibi.agbi.biodwh2.core.net;
 
 import de.unibi.agbi.biodwh2.core.io.FileUtils;
+import de.unibi.agbi.biodwh2.core.monitoring.DownloadMetrics;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
 import org.slf4j.Logger;
@@ -72,8 +74,11 @@ public final class AnonymousFTPClient {
     }
 
     public boolean downloadFile(final String url, final String outputFilepath) throws IOException {
-        try (OutputStream outputStream = FileUtils.openOutput(outputFilepath)) {
-            return client.retrieveFile(url, outputStream);
+        try (CountingOutputStream outputStream = new CountingOutputStream(FileUtils.openOutput(outputFilepath))) {
+            final long start = System.nanoTime();
+            final boolean success = client.retrieveFile(url, outputStream);
+            DownloadMetrics.record(outputStream.getByteCount(), start);
+            return success;
         }
     }
 }
@@ -1,6 +1,7 @@
 package de.unibi.agbi.biodwh2.core.net;
 
 import de.unibi.agbi.biodwh2.core.io.FileUtils;
+import de.unibi.agbi.biodwh2.core.monitoring.DownloadMetrics;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.net.util.Base64;
@@ -23,14 +24,14 @@ public final class HTTPClient {
     public static void downloadFile(final String uri, final String filePath) throws IOException {
         try (ReadableByteChannel urlByteChannel = Channels.newChannel(new URL(uri).openStream());
              FileOutputStream outputStream = new FileOutputStream(filePath)) {
-            outputStream.getChannel().transferFrom(urlByteChannel, 0, Long.MAX_VALUE);
+            transfer(urlByteChannel, outputStream);
         }
     }
 
     public static void downloadFileAsBrowser(final String uri, final String filePath) throws IOException {
         try (ReadableByteChannel urlByteChannel = Channels.newChannel(getUrlInputStream(uri));
              FileOutputStream outputStream = new FileOutputStream(filePath)) {
-            outputStream.getChannel().transferFrom(urlByteChannel, 0, Long.MAX_VALUE);
+            transfer(urlByteChannel, outputStream);
         }
     }
 
@@ -38,10 +39,17 @@ public final class HTTPClient {
                                              final String password) throws IOException {
         try (ReadableByteChannel urlByteChannel = Channels.newChannel(getUrlInputStream(uri, username, password));
              FileOutputStream outputStream = new FileOutputStream(filePath)) {
-            outputStream.getChannel().transferFrom(urlByteChannel, 0, Long.MAX_VALUE);
+            transfer(urlByteChannel, outputStream);
         }
     }
 
+    private static void transfer(final ReadableByteChannel urlByteChannel,
+                                 final FileOutputStream outputStream) throws IOException {
+        final long start = System.nanoTime();
+        final long bytes = outputStream.getChannel().transferFrom(urlByteChannel, 0, Long.MAX_VALUE);
+        DownloadMetrics.record(bytes, start);
+    }
+
     public static String getWebsiteSource(final String url) throws IOException {
         return getWebsiteSource(url, null, null);
     }
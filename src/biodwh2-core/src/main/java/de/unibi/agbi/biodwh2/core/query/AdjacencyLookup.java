@@ -0,0 +1,90 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.EdgeDirection;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.util.*;
+
+/**
+ * Finds the edges of a node using the start and end node id indices of the edge repositories.
+ */
+final class AdjacencyLookup {
+    private final List<String> labels;
+    private final EdgeDirection direction;
+    private final Map<String, Object> properties;
+    private final Deadline deadline;
+
+    /**
+     * @param labels existing edge labels to follow or null to follow all edge labels
+     */
+    AdjacencyLookup(final List<String> labels, final EdgeDirection direction, final Map<String, Object> properties,
+                    final Deadline deadline) {
+        this.labels = labels;
+        this.direction = direction;
+        this.properties = properties;
+        this.deadline = deadline;
+    }
+
+    Iterator<Edge> getEdges(final Graph graph, final long nodeId) {
+        final List<Iterator<Edge>> iterators = new ArrayList<>(2);
+        if (direction != EdgeDirection.BACKWARD)
+            iterators.add(findEdges(graph, Edge.FROM_ID_FIELD, nodeId));
+        if (direction != EdgeDirection.FORWARD) {
+            final Iterator<Edge> incoming = findEdges(graph, Edge.TO_ID_FIELD, nodeId);
+            // Self loops were already found as outgoing edges
+            iterators.add(direction == EdgeDirection.BIDIRECTIONAL ? Operator.filter(incoming,
+                                                                                     e -> e.getFromId() != nodeId) :
+                          incoming);
+        }
+        final Iterator<Edge> edges = deadline.wrap(iterators.size() == 1 ? iterators.get(0) : concat(iterators));
+        return properties.isEmpty() ? edges : Operator.filter(edges, this::matchesProperties);
+    }
+
+    private Iterator<Edge> findEdges(final Graph graph, final String key, final long nodeId) {
+        if (labels == null)
+            return graph.findEdges(key, nodeId).iterator();
+        if (labels.size() == 1)
+            return graph.findEdges(labels.get(0), key, nodeId).iterator();
+        final List<Iterator<Edge>> iterators = new ArrayList<>(labels.size());
+        for (final String label : labels)
+            iterators.add(graph.findEdges(label, key, nodeId).iterator());
+        return concat(iterators);
+    }
+
+    private static Iterator<Edge> concat(final List<Iterator<Edge>> iterators) {
+        return new Iterator<Edge>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                while (index < iterators.size() && !iterators.get(index).hasNext())
+                    index++;
+                return index < iterators.size();
+            }
+
+            @Override
+            public Edge next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return iterators.get(index).next();
+            }
+        };
+    }
+
+    private boolean matchesProperties(final Edge edge) {
+        for (final Map.Entry<String, Object> entry : properties.entrySet())
+            if (!QueryValues.isEqual(edge.getProperty(entry.getKey()), entry.getValue()))
+                return false;
+        return true;
+    }
+
+    static long getOtherNodeId(final Edge edge, final long nodeId) {
+        return edge.getFromId() == nodeId ? edge.getToId() : edge.getFromId();
+    }
+
+    @Override
+    public String toString() {
+        return (labels == null ? "*" : String.join("|", labels)) + " " + direction;
+    }
+}
@@ -0,0 +1,38 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Combines every row of the left input with every row of the right input, which is materialized once.
+ */
+final class CartesianProductOperator extends Operator {
+    private final Operator left;
+    private final Operator right;
+
+    CartesianProductOperator(final Operator left, final Operator right) {
+        super(left, right);
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        final List<Object[]> rightRows = new ArrayList<>();
+        final Iterator<Object[]> leftRows = left.execute(graph);
+        if (!leftRows.hasNext())
+            return Collections.emptyIterator();
+        right.execute(graph).forEachRemaining(rightRows::add);
+        return flatMap(leftRows, leftRow -> map(rightRows.iterator(),
+                                                rightRow -> HashJoinOperator.combineRows(leftRow, rightRow)));
+    }
+
+    @Override
+    String describe() {
+        return "CartesianProduct";
+    }
+}
@@ -0,0 +1,46 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.exceptions.QueryTimeoutException;
+
+import java.util.Iterator;
+
+/**
+ * Time limit of a query execution. Operators check the deadline while iterating over nodes and edges, so even
+ * queries which produce no rows for a long time are stopped.
+ */
+final class Deadline {
+    static final Deadline NONE = new Deadline(0);
+
+    private final long timeoutMillis;
+    private final long endNanos;
+
+    /**
+     * @param timeoutMillis time limit in milliseconds starting now or a value less than one for no limit
+     */
+    Deadline(final long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        endNanos = System.nanoTime() + timeoutMillis * 1_000_000L;
+    }
+
+    void check() {
+        if (timeoutMillis > 0 && System.nanoTime() - endNanos > 0)
+            throw new QueryTimeoutException("Query exceeded the time limit of " + timeoutMillis + " ms");
+    }
+
+    <T> Iterator<T> wrap(final Iterator<T> iterator) {
+        if (timeoutMillis <= 0)
+            return iterator;
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                check();
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.util.*;
+
+final class DistinctOperator extends Operator {
+    private final Operator input;
+
+    DistinctOperator(final Operator input) {
+        super(input);
+        this.input = input;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        final Set<List<Object>> seen = new HashSet<>();
+        return filter(input.execute(graph), row -> {
+            final List<Object> key = new ArrayList<>(row.length);
+            for (final Object value : row)
+                key.add(QueryValues.toKey(value));
+            return seen.add(key);
+        });
+    }
+
+    @Override
+    String describe() {
+        return "Distinct";
+    }
+}
@@ -0,0 +1,78 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+
+import java.util.Iterator;
+
+/**
+ * Follows the edges of a bound node. If the target variable is already bound, only edges into the bound node are
+ * kept, otherwise the target node is bound if it matches its constraint. An edge is never bound to two relationship
+ * variables of the same row.
+ */
+final class ExpandOperator extends Operator {
+    private final Operator input;
+    private final String description;
+    private final int fromSlot;
+    private final int edgeSlot;
+    private final int toSlot;
+    private final boolean targetBound;
+    private final NodeConstraint targetConstraint;
+    private final AdjacencyLookup lookup;
+    private final int[] boundEdgeSlots;
+
+    ExpandOperator(final Operator input, final String description, final int fromSlot, final int edgeSlot,
+                   final int toSlot, final boolean targetBound, final NodeConstraint targetConstraint,
+                   final AdjacencyLookup lookup, final int[] boundEdgeSlots) {
+        super(input);
+        this.input = input;
+        this.description = description;
+        this.fromSlot = fromSlot;
+        this.edgeSlot = edgeSlot;
+        this.toSlot = toSlot;
+        this.targetBound = targetBound;
+        this.targetConstraint = targetConstraint;
+        this.lookup = lookup;
+        this.boundEdgeSlots = boundEdgeSlots;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        return flatMap(input.execute(graph), row -> {
+            final long nodeId = ((Node) row[fromSlot]).getId();
+            final Iterator<Edge> edges = filter(lookup.getEdges(graph, nodeId), edge -> isUnbound(row, edge));
+            return filter(map(edges, edge -> bind(graph, row, edge, AdjacencyLookup.getOtherNodeId(edge, nodeId))),
+                          result -> result != null);
+        });
+    }
+
+    private boolean isUnbound(final Object[] row, final Edge edge) {
+        for (final int slot : boundEdgeSlots)
+            if (row[slot] != null && ((Edge) row[slot]).getId().equals(edge.getId()))
+                return false;
+        return true;
+    }
+
+    private Object[] bind(final Graph graph, final Object[] row, final Edge edge, final long targetId) {
+        final Object[] result;
+        if (targetBound) {
+            if (((Node) row[toSlot]).getId() != targetId)
+                return null;
+            result = row.clone();
+        } else {
+            final Node target = graph.getNode(targetId);
+            if (!targetConstraint.matches(target))
+                return null;
+            result = row.clone();
+            result[toSlot] = target;
+        }
+        result[edgeSlot] = edge;
+        return result;
+    }
+
+    @Override
+    String describe() {
+        return (targetBound ? "ExpandInto(" : "Expand(") + description + " " + lookup + ")";
+    }
+}
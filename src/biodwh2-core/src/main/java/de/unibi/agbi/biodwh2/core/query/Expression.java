@@ -0,0 +1,357 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.exceptions.QueryException;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expression evaluated against a row of variable bindings. Variables are resolved to row slots before evaluation.
+ * Predicates evaluate to {@link Boolean#TRUE}, {@link Boolean#FALSE} or null if a value is missing.
+ */
+abstract class Expression {
+    abstract Object evaluate(final Object[] row);
+
+    void resolve(final Map<String, Integer> slots) {
+    }
+
+    abstract void collectVariables(final Set<String> variables);
+
+    static int resolveSlot(final Map<String, Integer> slots, final String variable) {
+        final Integer slot = slots.get(variable);
+        if (slot == null)
+            throw new QueryException("Unknown variable '" + variable + "'");
+        return slot;
+    }
+
+    static final class Literal extends Expression {
+        final Object value;
+
+        Literal(final Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(final Object[] row) {
+            return value;
+        }
+
+        @Override
+        void collectVariables(final Set<String> variables) {
+        }
+
+        @Override
+        public String toString() {
+            return value instanceof String ? "'" + value + "'" : QueryValues.format(value);
+        }
+    }
+
+    static final class Variable extends Expression {
+        final String name;
+        private int slot = -1;
+
+        Variable(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(final Object[] row) {
+            return row[slot];
+        }
+
+        @Override
+        void resolve(final Map<String, Integer> slots) {
+            slot = resolveSlot(slots, name);
+        }
+
+        @Override
+        void collectVariables(final Set<String> variables) {
+            variables.add(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static final class Property extends Expression {
+        final String variable;
+        final String key;
+        private int slot = -1;
+
+        Property(final String variable, final String key) {
+            this.variable = variable;
+            this.key = key;
+        }
+
+        @Override
+        Object evaluate(final Object[] row) {
+            final Object value = row[slot];
+            return value instanceof MVStoreModel ? ((MVStoreModel) value).getProperty(key) : null;
+        }
+
+        @Override
+        void resolve(final Map<String, Integer> slots) {
+            slot = resolveSlot(slots, variable);
+        }
+
+        @Override
+        void collectVariables(final Set<String> variables) {
+            variables.add(variable);
+        }
+
+        @Override
+        public String toString() {
+            return variable + "." + key;
+        }
+    }
+
+    /**
+     * The functions id(x) and label(x) of a node or edge.
+     */
+    static final class Function extends Expression {
+        final String name;
+        final Expression argument;
+
+        Function(final String name, final Expression argument) {
+            this.name = name.toLowerCase();
+            this.argument = argument;
+            if (!"id".equals(this.name) && !"label".equals(this.name))
+                throw new QueryException("Unknown function '" + name + "'");
+        }
+
+        @Override
+        Object evaluate(final Object[] row) {
+            final Object value = argument.evaluate(row);
+            if (value instanceof Node)
+                return "id".equals(name) ? ((Node) value).getId() : ((Node) value).getLabel();
+            if (value instanceof Edge)
+                return "id".equals(name) ? ((Edge) value).getId() : ((Edge) value).getLabel();
+            return null;
+        }
+
+        @Override
+        void resolve(final Map<String, Integer> slots) {
+            argument.resolve(slots);
+        }
+
+        @Override
+        void collectVariables(final Set<String> variables) {
+            argument.collectVariables(variables);
+        }
+
+        @Override
+        public String toString() {
+            return name + "(" + argument + ")";
+        }
+    }
+
+    enum ComparisonOperator {
+        EQUAL("="),
+        NOT_EQUAL("<>"),
+        LESS("<"),
+        LESS_OR_EQUAL("<="),
+        GREATER(">"),
+        GREATER_OR_EQUAL(">="),
+        CONTAINS("CONTAINS"),
+        STARTS_WITH("STARTS WITH"),
+        ENDS_WITH("ENDS WITH"),
+        IN("IN"),
+        IS_NULL("IS NULL"),
+        IS_NOT_NULL("IS NOT NULL");
+
+        final String symbol;
+
+        ComparisonOperator(final String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    static final class Comparison extends Expression {
+        final ComparisonOperator operator;
+        final Expression left;
+        final Expression right;
+
+        Comparison(final ComparisonOperator operator, final Expression left, final Expression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(final Object[] row) {
+            final Object leftValue = left.evaluate(row);
+            if (operator == ComparisonOperator.IS_NULL)
+                return leftValue == null;
+            if (operator == ComparisonOperator.IS_NOT_NULL)
+                return leftValue != null;
+            final Object rightValue = right.evaluate(row);
+            if (leftValue == null || rightValue == null)
+                return null;
+            switch (operator) {
+                case EQUAL:
+                    return QueryValues.isEqual(leftValue, rightValue);
+                case NOT_EQUAL:
+                    return !QueryValues.isEqual(leftValue, rightValue);
+                case CONTAINS:
+                    return leftValue.toString().contains(rightValue.toString());
+                case STARTS_WITH:
+                    return leftValue.toString().startsWith(rightValue.toString());
+                case ENDS_WITH:
+                    return leftValue.toString().endsWith(rightValue.toString());
+                case IN:
+                    return isContained(leftValue, rightValue);
+                default:
+                    final Integer comparison = QueryValues.compare(leftValue, rightValue);
+                    if (comparison == null)
+                        return null;
+                    if (operator == ComparisonOperator.LESS)
+                        return comparison < 0;
+                    if (operator == ComparisonOperator.LESS_OR_EQUAL)
+                        return comparison <= 0;
+                    if (operator == ComparisonOperator.GREATER)
+                        return comparison > 0;
+                    return comparison >= 0;
+            }
+        }
+
+        private static Boolean isContained(final Object value, final Object collection) {
+            final List<Object> elements = QueryValues.toList(collection);
+            if (elements == null)
+                return null;
+            for (final Object element : elements)
+                if (QueryValues.isEqual(value, element))
+                    return true;
+            return false;
+        }
+
+        @Override
+        void resolve(final Map<String, Integer> slots) {
+            left.resolve(slots);
+            if (right != null)
+                right.resolve(slots);
+        }
+
+        @Override
+        void collectVariables(final Set<String> variables) {
+            left.collectVariables(variables);
+            if (right != null)
+                right.collectVariables(variables);
+        }
+
+        @Override
+        public String toString() {
+            return left + " " + operator.symbol + (right != null ? " " + right : "");
+        }
+    }
+
+    static final class And extends Expression {
+        final Expression left;
+        final Expression right;
+
+        And(final Expression left, final Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(final Object[] row) {
+            final Object leftValue = left.evaluate(row);
+            if (Boolean.FALSE.equals(leftValue))
+                return false;
+            final Object rightValue = right.evaluate(row);
+            if (Boolean.FALSE.equals(rightValue))
+                return false;
+            return Boolean.TRUE.equals(leftValue) && Boolean.TRUE.equals(rightValue) ? true : null;
+        }
+
+        @Override
+        void resolve(final Map<String, Integer> slots) {
+            left.resolve(slots);
+            right.resolve(slots);
+        }
+
+        @Override
+        void collectVariables(final Set<String> variables) {
+            left.collectVariables(variables);
+            right.collectVariables(variables);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " AND " + right + ")";
+        }
+    }
+
+    static final class Or extends Expression {
+        final Expression left;
+        final Expression right;
+
+        Or(final Expression left, final Expression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(final Object[] row) {
+            final Object leftValue = left.evaluate(row);
+            if (Boolean.TRUE.equals(leftValue))
+                return true;
+            final Object rightValue = right.evaluate(row);
+            if (Boolean.TRUE.equals(rightValue))
+                return true;
+            return Boolean.FALSE.equals(leftValue) && Boolean.FALSE.equals(rightValue) ? false : null;
+        }
+
+        @Override
+        void resolve(final Map<String, Integer> slots) {
+            left.resolve(slots);
+            right.resolve(slots);
+        }
+
+        @Override
+        void collectVariables(final Set<String> variables) {
+            left.collectVariables(variables);
+            right.collectVariables(variables);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " OR " + right + ")";
+        }
+    }
+
+    static final class Not extends Expression {
+        final Expression operand;
+
+        Not(final Expression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(final Object[] row) {
+            final Object value = operand.evaluate(row);
+            return value instanceof Boolean ? !(Boolean) value : null;
+        }
+
+        @Override
+        void resolve(final Map<String, Integer> slots) {
+            operand.resolve(slots);
+        }
+
+        @Override
+        void collectVariables(final Set<String> variables) {
+            operand.collectVariables(variables);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + operand;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.util.Iterator;
+
+final class FilterOperator extends Operator {
+    private final Operator input;
+    private final Expression predicate;
+
+    FilterOperator(final Operator input, final Expression predicate) {
+        super(input);
+        this.input = input;
+        this.predicate = predicate;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        return filter(input.execute(graph), row -> Boolean.TRUE.equals(predicate.evaluate(row)));
+    }
+
+    @Override
+    String describe() {
+        return "Filter(" + predicate + ")";
+    }
+}
@@ -0,0 +1,60 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.util.*;
+
+/**
+ * Joins two inputs on the variables bound by both. The rows of the build input are hashed by the join variables,
+ * then the rows of the probe input are streamed and combined with all matching build rows.
+ */
+final class HashJoinOperator extends Operator {
+    private final Operator build;
+    private final Operator probe;
+    private final String[] variables;
+    private final int[] slots;
+
+    HashJoinOperator(final Operator build, final Operator probe, final String[] variables, final int[] slots) {
+        super(build, probe);
+        this.build = build;
+        this.probe = probe;
+        this.variables = variables;
+        this.slots = slots;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        final Map<List<Object>, List<Object[]>> table = new HashMap<>();
+        final Iterator<Object[]> buildRows = build.execute(graph);
+        while (buildRows.hasNext()) {
+            final Object[] row = buildRows.next();
+            table.computeIfAbsent(getKey(row), k -> new ArrayList<>()).add(row);
+        }
+        return flatMap(probe.execute(graph), probeRow -> {
+            final List<Object[]> matches = table.get(getKey(probeRow));
+            if (matches == null)
+                return Collections.emptyIterator();
+            return map(matches.iterator(), buildRow -> combineRows(buildRow, probeRow));
+        });
+    }
+
+    private List<Object> getKey(final Object[] row) {
+        final List<Object> key = new ArrayList<>(slots.length);
+        for (final int slot : slots)
+            key.add(QueryValues.toKey(row[slot]));
+        return key;
+    }
+
+    static Object[] combineRows(final Object[] first, final Object[] second) {
+        final Object[] result = first.clone();
+        for (int i = 0; i < result.length; i++)
+            if (result[i] == null)
+                result[i] = second[i];
+        return result;
+    }
+
+    @Override
+    String describe() {
+        return "HashJoin(" + String.join(", ", variables) + ")";
+    }
+}
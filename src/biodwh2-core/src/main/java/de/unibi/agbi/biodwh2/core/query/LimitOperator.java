@@ -0,0 +1,43 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+final class LimitOperator extends Operator {
+    private final Operator input;
+    private final long limit;
+
+    LimitOperator(final Operator input, final long limit) {
+        super(input);
+        this.input = input;
+        this.limit = limit;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        final Iterator<Object[]> rows = input.execute(graph);
+        return new Iterator<Object[]>() {
+            private long count;
+
+            @Override
+            public boolean hasNext() {
+                return count < limit && rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                count++;
+                return rows.next();
+            }
+        };
+    }
+
+    @Override
+    String describe() {
+        return "Limit(" + limit + ")";
+    }
+}
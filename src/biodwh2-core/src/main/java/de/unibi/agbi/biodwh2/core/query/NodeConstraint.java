@@ -0,0 +1,38 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+
+import java.util.*;
+
+/**
+ * Labels and property values required for a node variable, collected from all of its occurrences in the patterns and
+ * from equality predicates of the WHERE clause.
+ */
+final class NodeConstraint {
+    final Set<String> labels = new LinkedHashSet<>();
+    final Map<String, Object> properties = new LinkedHashMap<>();
+
+    String getLabel() {
+        return labels.isEmpty() ? null : labels.iterator().next();
+    }
+
+    boolean matches(final Node node) {
+        if (node == null)
+            return false;
+        for (final String label : labels)
+            if (!label.equals(node.getLabel()))
+                return false;
+        for (final Map.Entry<String, Object> entry : properties.entrySet())
+            if (!QueryValues.isEqual(node.getProperty(entry.getKey()), entry.getValue()))
+                return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        final StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (final Map.Entry<String, Object> entry : properties.entrySet())
+            joiner.add(entry.getKey() + ": " + new Expression.Literal(entry.getValue()));
+        return (labels.isEmpty() ? "" : ":" + String.join(":", labels)) + (properties.isEmpty() ? "" : " " + joiner);
+    }
+}
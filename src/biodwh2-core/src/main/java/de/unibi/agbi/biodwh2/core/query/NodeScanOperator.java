@@ -0,0 +1,58 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Produces a row for every node matching the constraint, either by scanning the nodes of a label or all nodes, or by
+ * an index lookup if a property of the constraint is indexed.
+ */
+final class NodeScanOperator extends Operator {
+    private final String variable;
+    private final int slot;
+    private final int width;
+    private final NodeConstraint constraint;
+    private final boolean labelExists;
+    private final String seekKey;
+    private final Deadline deadline;
+
+    /**
+     * @param seekKey property key of the constraint used for the lookup or null to scan
+     */
+    NodeScanOperator(final String variable, final int slot, final int width, final NodeConstraint constraint,
+                     final boolean labelExists, final String seekKey, final Deadline deadline) {
+        this.variable = variable;
+        this.slot = slot;
+        this.width = width;
+        this.constraint = constraint;
+        this.labelExists = labelExists;
+        this.seekKey = seekKey;
+        this.deadline = deadline;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        if (!labelExists)
+            return Collections.emptyIterator();
+        final String label = constraint.getLabel();
+        final Iterable<Node> nodes;
+        if (seekKey != null) {
+            final Comparable<?> value = (Comparable<?>) constraint.properties.get(seekKey);
+            nodes = label != null ? graph.findNodes(label, seekKey, value) : graph.findNodes(seekKey, value);
+        } else
+            nodes = label != null ? graph.findNodes(label) : graph.getNodes();
+        return map(filter(deadline.wrap(nodes.iterator()), constraint::matches), node -> {
+            final Object[] row = new Object[width];
+            row[slot] = node;
+            return row;
+        });
+    }
+
+    @Override
+    String describe() {
+        return (seekKey != null ? "NodeIndexSeek" : "NodeScan") + "(" + variable + constraint + ")";
+    }
+}
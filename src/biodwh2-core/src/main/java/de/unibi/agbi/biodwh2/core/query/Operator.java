@@ -0,0 +1,90 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Operator of a query pipeline. Operators pull rows from their inputs lazily, so a limit stops the evaluation as soon
+ * as enough rows were produced. Rows are arrays with one slot per query variable.
+ */
+abstract class Operator {
+    private final List<Operator> inputs;
+
+    Operator(final Operator... inputs) {
+        this.inputs = Arrays.asList(inputs);
+    }
+
+    abstract Iterator<Object[]> execute(final Graph graph);
+
+    abstract String describe();
+
+    final void explain(final StringBuilder builder, final int depth) {
+        for (int i = 0; i < depth; i++)
+            builder.append("  ");
+        builder.append(describe()).append('\n');
+        for (final Operator input : inputs)
+            input.explain(builder, depth + 1);
+    }
+
+    static <T> Iterator<T> flatMap(final Iterator<Object[]> source, final Function<Object[], Iterator<T>> mapper) {
+        return new Iterator<T>() {
+            private Iterator<T> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && source.hasNext())
+                    current = mapper.apply(source.next());
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+    static <T> Iterator<T> filter(final Iterator<T> source, final Predicate<T> predicate) {
+        return new Iterator<T>() {
+            private T next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && source.hasNext()) {
+                    final T candidate = source.next();
+                    if (predicate.test(candidate))
+                        next = candidate;
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                final T result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    static <S, T> Iterator<T> map(final Iterator<S> source, final Function<S, T> mapper) {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return mapper.apply(source.next());
+            }
+        };
+    }
+}
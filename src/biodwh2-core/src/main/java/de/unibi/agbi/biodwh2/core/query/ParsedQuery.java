@@ -0,0 +1,23 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class ParsedQuery {
+    final List<PathPattern> paths = new ArrayList<>();
+    final List<ReturnItem> returnItems = new ArrayList<>();
+    Expression where;
+    boolean returnAll;
+    boolean distinct;
+    long limit = -1;
+
+    static final class ReturnItem {
+        final Expression expression;
+        final String name;
+
+        ReturnItem(final Expression expression, final String name) {
+            this.expression = expression;
+            this.name = name;
+        }
+    }
+}
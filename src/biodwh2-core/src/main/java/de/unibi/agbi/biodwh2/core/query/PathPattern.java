@@ -0,0 +1,79 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.EdgeDirection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alternating sequence of node and relationship patterns as written in a MATCH clause.
+ */
+final class PathPattern {
+    final List<NodePattern> nodes = new ArrayList<>();
+    final List<RelationshipPattern> relationships = new ArrayList<>();
+
+    static final class NodePattern {
+        final String variable;
+        final String label;
+        final Map<String, Object> properties;
+
+        NodePattern(final String variable, final String label, final Map<String, Object> properties) {
+            this.variable = variable;
+            this.label = label;
+            this.properties = properties;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + variable + (label != null ? ":" + label : "") + ")";
+        }
+    }
+
+    static final class RelationshipPattern {
+        final String variable;
+        final List<String> labels;
+        final Map<String, Object> properties;
+        /**
+         * Direction relative to the order in which the pattern is written.
+         */
+        final EdgeDirection direction;
+        final boolean variableLength;
+        final int minHops;
+        final int maxHops;
+
+        RelationshipPattern(final String variable, final List<String> labels, final Map<String, Object> properties,
+                            final EdgeDirection direction, final boolean variableLength, final int minHops,
+                            final int maxHops) {
+            this.variable = variable;
+            this.labels = Collections.unmodifiableList(labels);
+            this.properties = properties;
+            this.direction = direction;
+            this.variableLength = variableLength;
+            this.minHops = minHops;
+            this.maxHops = maxHops;
+        }
+
+        RelationshipPattern reverse() {
+            final EdgeDirection reversed = direction == EdgeDirection.FORWARD ? EdgeDirection.BACKWARD :
+                                           direction == EdgeDirection.BACKWARD ? EdgeDirection.FORWARD :
+                                           EdgeDirection.BIDIRECTIONAL;
+            return new RelationshipPattern(variable, labels, properties, reversed, variableLength, minHops, maxHops);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder();
+            builder.append(direction == EdgeDirection.BACKWARD ? "<-[" : "-[");
+            if (!QueryParser.isAnonymous(variable))
+                builder.append(variable);
+            if (!labels.isEmpty())
+                builder.append(':').append(String.join("|", labels));
+            if (variableLength)
+                builder.append('*').append(minHops).append("..").append(maxHops == Integer.MAX_VALUE ? "" : maxHops);
+            builder.append(direction == EdgeDirection.FORWARD ? "]->" : "]-");
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.StringJoiner;
+
+final class ProjectionOperator extends Operator {
+    private final Operator input;
+    private final List<Expression> expressions;
+
+    ProjectionOperator(final Operator input, final List<Expression> expressions) {
+        super(input);
+        this.input = input;
+        this.expressions = expressions;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        return map(input.execute(graph), row -> {
+            final Object[] result = new Object[expressions.size()];
+            for (int i = 0; i < result.length; i++)
+                result[i] = expressions.get(i).evaluate(row);
+            return result;
+        });
+    }
+
+    @Override
+    String describe() {
+        final StringJoiner joiner = new StringJoiner(", ", "Projection(", ")");
+        for (final Expression expression : expressions)
+            joiner.add(expression.toString());
+        return joiner.toString();
+    }
+}
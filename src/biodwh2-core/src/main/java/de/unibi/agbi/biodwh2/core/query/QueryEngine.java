@@ -0,0 +1,51 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.exceptions.QueryException;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+
+/**
+ * Evaluates pattern matching queries directly on a graph:
+ * <pre>
+ * MATCH (d:DrugBank_Drug)-[:DrugBank_TARGETS]->(t)-[:DrugBank_IS_A*0..2]->(p)
+ * WHERE d.id = 'DB00001' AND t.name CONTAINS 'receptor'
+ * RETURN DISTINCT d.name, label(p) AS type
+ * LIMIT 10
+ * </pre>
+ * Node patterns may have a label and property values, relationship patterns a direction, alternative labels,
+ * property values and, for variable-length paths, a hop range. Property values of nodes are looked up in the node
+ * indices of the graph if possible. Query errors are reported as {@link QueryException}.
+ */
+public final class QueryEngine {
+    private final Graph graph;
+
+    public QueryEngine(final Graph graph) {
+        this.graph = graph;
+    }
+
+    public QueryResult execute(final String query) {
+        return execute(query, 0);
+    }
+
+    /**
+     * Executes the query with a time limit, which is checked while iterating over the result and before the next
+     * result row is ready. A {@link QueryException} is thrown if the time limit is exceeded.
+     *
+     * @param timeoutMillis time limit in milliseconds or a value less than one for no limit
+     */
+    public QueryResult execute(final String query, final long timeoutMillis) {
+        final Deadline deadline = new Deadline(timeoutMillis);
+        final QueryPlanner planner = new QueryPlanner(graph, QueryParser.parse(query), deadline);
+        final Operator plan = planner.plan();
+        return new QueryResult(planner.getColumns(), deadline.wrap(plan.execute(graph)));
+    }
+
+    /**
+     * @return the operator tree of the query with one operator per line and the inputs of an operator indented
+     * below it
+     */
+    public String explain(final String query) {
+        final StringBuilder builder = new StringBuilder();
+        new QueryPlanner(graph, QueryParser.parse(query), Deadline.NONE).plan().explain(builder, 0);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,150 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.exceptions.QueryException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a query into tokens. Keywords are returned as identifiers and recognized case-insensitively by the parser.
+ */
+final class QueryLexer {
+    enum TokenType {
+        IDENTIFIER,
+        STRING,
+        INTEGER,
+        FLOAT,
+        SYMBOL,
+        END
+    }
+
+    static final class Token {
+        final TokenType type;
+        final String text;
+        final int position;
+
+        Token(final TokenType type, final String text, final int position) {
+            this.type = type;
+            this.text = text;
+            this.position = position;
+        }
+
+        boolean is(final String symbol) {
+            return type == TokenType.SYMBOL && text.equals(symbol);
+        }
+
+        boolean isKeyword(final String keyword) {
+            return type == TokenType.IDENTIFIER && text.equalsIgnoreCase(keyword);
+        }
+
+        @Override
+        public String toString() {
+            return type == TokenType.END ? "end of query" : "'" + text + "'";
+        }
+    }
+
+    private static final String[] TWO_CHARACTER_SYMBOLS = {"..", "<=", ">=", "<>", "!="};
+    private static final String SINGLE_CHARACTER_SYMBOLS = "()[]{}:,.*-<>=|";
+
+    private QueryLexer() {
+    }
+
+    static List<Token> tokenize(final String query) {
+        final List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            final char c = query.charAt(i);
+            if (Character.isWhitespace(c))
+                i++;
+            else if (c == '\'' || c == '"')
+                i = readString(query, i, tokens);
+            else if (Character.isDigit(c))
+                i = readNumber(query, i, tokens);
+            else if (Character.isLetter(c) || c == '_')
+                i = readIdentifier(query, i, tokens);
+            else if (c == '`')
+                i = readQuotedIdentifier(query, i, tokens);
+            else
+                i = readSymbol(query, i, tokens);
+        }
+        tokens.add(new Token(TokenType.END, "", query.length()));
+        return tokens;
+    }
+
+    private static int readString(final String query, final int start, final List<Token> tokens) {
+        final char quote = query.charAt(start);
+        final StringBuilder builder = new StringBuilder();
+        int i = start + 1;
+        while (i < query.length() && query.charAt(i) != quote) {
+            char c = query.charAt(i);
+            if (c == '\\' && i + 1 < query.length()) {
+                i++;
+                c = query.charAt(i);
+                if (c == 'n')
+                    c = '\n';
+                else if (c == 't')
+                    c = '\t';
+            }
+            builder.append(c);
+            i++;
+        }
+        if (i == query.length())
+            throw new QueryException("Unterminated string starting at position " + start);
+        tokens.add(new Token(TokenType.STRING, builder.toString(), start));
+        return i + 1;
+    }
+
+    private static int readNumber(final String query, final int start, final List<Token> tokens) {
+        int i = start;
+        while (i < query.length() && Character.isDigit(query.charAt(i)))
+            i++;
+        boolean isFloat = false;
+        // A dot followed by a digit is a fraction, otherwise it may be part of a range such as "1..3".
+        if (i + 1 < query.length() && query.charAt(i) == '.' && Character.isDigit(query.charAt(i + 1))) {
+            isFloat = true;
+            i++;
+            while (i < query.length() && Character.isDigit(query.charAt(i)))
+                i++;
+        }
+        if (i < query.length() && (query.charAt(i) == 'e' || query.charAt(i) == 'E')) {
+            isFloat = true;
+            i++;
+            if (i < query.length() && (query.charAt(i) == '+' || query.charAt(i) == '-'))
+                i++;
+            while (i < query.length() && Character.isDigit(query.charAt(i)))
+                i++;
+        }
+        tokens.add(new Token(isFloat ? TokenType.FLOAT : TokenType.INTEGER, query.substring(start, i), start));
+        return i;
+    }
+
+    private static int readIdentifier(final String query, final int start, final List<Token> tokens) {
+        int i = start;
+        while (i < query.length() && (Character.isLetterOrDigit(query.charAt(i)) || query.charAt(i) == '_'))
+            i++;
+        tokens.add(new Token(TokenType.IDENTIFIER, query.substring(start, i), start));
+        return i;
+    }
+
+    private static int readQuotedIdentifier(final String query, final int start, final List<Token> tokens) {
+        final int end = query.indexOf('`', start + 1);
+        if (end == -1)
+            throw new QueryException("Unterminated identifier starting at position " + start);
+        tokens.add(new Token(TokenType.IDENTIFIER, query.substring(start + 1, end), start));
+        return end + 1;
+    }
+
+    private static int readSymbol(final String query, final int start, final List<Token> tokens) {
+        for (final String symbol : TWO_CHARACTER_SYMBOLS) {
+            if (query.startsWith(symbol, start)) {
+                tokens.add(new Token(TokenType.SYMBOL, symbol, start));
+                return start + 2;
+            }
+        }
+        final char c = query.charAt(start);
+        if (SINGLE_CHARACTER_SYMBOLS.indexOf(c) == -1)
+            throw new QueryException("Unexpected character '" + c + "' at position " + start);
+        tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c), start));
+        return start + 1;
+    }
+}
@@ -0,0 +1,355 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.exceptions.QueryException;
+import de.unibi.agbi.biodwh2.core.model.graph.EdgeDirection;
+import de.unibi.agbi.biodwh2.core.query.Expression.ComparisonOperator;
+import de.unibi.agbi.biodwh2.core.query.PathPattern.NodePattern;
+import de.unibi.agbi.biodwh2.core.query.PathPattern.RelationshipPattern;
+import de.unibi.agbi.biodwh2.core.query.QueryLexer.Token;
+import de.unibi.agbi.biodwh2.core.query.QueryLexer.TokenType;
+
+import java.util.*;
+
+/**
+ * Recursive descent parser for the query language:
+ * <pre>
+ * MATCH (a:Label {key: 'value'})-[r:EDGE_LABEL]->(b), (b)-[:IS_A*1..3]->(c)
+ * WHERE a.score >= 0.5 AND NOT c.name STARTS WITH 'x'
+ * RETURN DISTINCT a.id AS id, c.name
+ * LIMIT 10
+ * </pre>
+ */
+final class QueryParser {
+    /**
+     * Prefix of generated names for anonymous variables. It contains a space, so it cannot clash with identifiers.
+     */
+    static final String ANONYMOUS_PREFIX = " anonymous";
+
+    private final List<Token> tokens;
+    private int position;
+    private int anonymousCount;
+
+    private QueryParser(final String query) {
+        tokens = QueryLexer.tokenize(query);
+    }
+
+    static ParsedQuery parse(final String query) {
+        return new QueryParser(query).parseQuery();
+    }
+
+    static boolean isAnonymous(final String variable) {
+        return variable.startsWith(ANONYMOUS_PREFIX);
+    }
+
+    private ParsedQuery parseQuery() {
+        final ParsedQuery query = new ParsedQuery();
+        expectKeyword("MATCH");
+        do {
+            query.paths.add(parsePath());
+            while (acceptSymbol(","))
+                query.paths.add(parsePath());
+        } while (acceptKeyword("MATCH"));
+        if (acceptKeyword("WHERE"))
+            query.where = parseExpression();
+        expectKeyword("RETURN");
+        query.distinct = acceptKeyword("DISTINCT");
+        if (acceptSymbol("*"))
+            query.returnAll = true;
+        else {
+            do {
+                final int start = position;
+                final Expression expression = parseExpression();
+                final String name = acceptKeyword("AS") ? expectIdentifier() : describe(start);
+                query.returnItems.add(new ParsedQuery.ReturnItem(expression, name));
+            } while (acceptSymbol(","));
+        }
+        if (acceptKeyword("LIMIT")) {
+            final Token token = expect(TokenType.INTEGER);
+            query.limit = Long.parseLong(token.text);
+        }
+        if (peek().type != TokenType.END)
+            throw error("Unexpected " + peek());
+        return query;
+    }
+
+    private String describe(final int start) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = start; i < position; i++)
+            builder.append(tokens.get(i).type == TokenType.STRING ? "'" + tokens.get(i).text + "'" :
+                           tokens.get(i).text);
+        return builder.toString();
+    }
+
+    private PathPattern parsePath() {
+        final PathPattern path = new PathPattern();
+        path.nodes.add(parseNode());
+        while (peek().is("-") || peek().is("<")) {
+            path.relationships.add(parseRelationship());
+            path.nodes.add(parseNode());
+        }
+        return path;
+    }
+
+    private NodePattern parseNode() {
+        expectSymbol("(");
+        String variable = null;
+        if (peek().type == TokenType.IDENTIFIER)
+            variable = expectIdentifier();
+        String label = null;
+        if (acceptSymbol(":"))
+            label = expectIdentifier();
+        final Map<String, Object> properties = peek().is("{") ? parseProperties() : new LinkedHashMap<>();
+        expectSymbol(")");
+        return new NodePattern(variable != null ? variable : nextAnonymousName(), label, properties);
+    }
+
+    private RelationshipPattern parseRelationship() {
+        final boolean leftArrow = acceptSymbol("<");
+        expectSymbol("-");
+        String variable = null;
+        final List<String> labels = new ArrayList<>();
+        Map<String, Object> properties = new LinkedHashMap<>();
+        boolean variableLength = false;
+        int minHops = 1;
+        int maxHops = 1;
+        if (acceptSymbol("[")) {
+            if (peek().type == TokenType.IDENTIFIER)
+                variable = expectIdentifier();
+            if (acceptSymbol(":")) {
+                labels.add(expectIdentifier());
+                while (acceptSymbol("|")) {
+                    acceptSymbol(":");
+                    labels.add(expectIdentifier());
+                }
+            }
+            if (acceptSymbol("*")) {
+                variableLength = true;
+                maxHops = Integer.MAX_VALUE;
+                if (peek().type == TokenType.INTEGER) {
+                    minHops = parseHops();
+                    maxHops = minHops;
+                }
+                if (acceptSymbol(".."))
+                    maxHops = peek().type == TokenType.INTEGER ? parseHops() : Integer.MAX_VALUE;
+                if (minHops > maxHops)
+                    throw error("Invalid hop range " + minHops + ".." + maxHops);
+            }
+            if (peek().is("{"))
+                properties = parseProperties();
+            expectSymbol("]");
+        }
+        expectSymbol("-");
+        final boolean rightArrow = acceptSymbol(">");
+        if (leftArrow && rightArrow)
+            throw error("A relationship cannot point in both directions");
+        if (variableLength && variable != null)
+            throw error("Variables for variable-length relationships are not supported");
+        final EdgeDirection direction = rightArrow ? EdgeDirection.FORWARD : leftArrow ? EdgeDirection.BACKWARD :
+                                        EdgeDirection.BIDIRECTIONAL;
+        return new RelationshipPattern(variable != null ? variable : nextAnonymousName(), labels, properties,
+                                       direction, variableLength, minHops, maxHops);
+    }
+
+    private int parseHops() {
+        final Token token = expect(TokenType.INTEGER);
+        try {
+            return Integer.parseInt(token.text);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number of hops " + token);
+        }
+    }
+
+    private Map<String, Object> parseProperties() {
+        final Map<String, Object> properties = new LinkedHashMap<>();
+        expectSymbol("{");
+        if (!peek().is("}")) {
+            do {
+                final String key = expectIdentifier();
+                expectSymbol(":");
+                properties.put(key, parseLiteralValue());
+            } while (acceptSymbol(","));
+        }
+        expectSymbol("}");
+        return properties;
+    }
+
+    private Object parseLiteralValue() {
+        final Token token = peek();
+        if (token.type == TokenType.STRING) {
+            position++;
+            return token.text;
+        }
+        if (token.is("-") || token.type == TokenType.INTEGER || token.type == TokenType.FLOAT)
+            return parseNumber();
+        if (token.isKeyword("TRUE") || token.isKeyword("FALSE")) {
+            position++;
+            return Boolean.valueOf(token.text.toLowerCase());
+        }
+        if (token.isKeyword("NULL")) {
+            position++;
+            return null;
+        }
+        if (acceptSymbol("[")) {
+            final List<Object> values = new ArrayList<>();
+            if (!peek().is("]")) {
+                do {
+                    values.add(parseLiteralValue());
+                } while (acceptSymbol(","));
+            }
+            expectSymbol("]");
+            return values;
+        }
+        throw error("Expected a literal but found " + token);
+    }
+
+    private Number parseNumber() {
+        final boolean negative = acceptSymbol("-");
+        final Token token = peek();
+        position++;
+        try {
+            if (token.type == TokenType.INTEGER) {
+                final long value = Long.parseLong(token.text);
+                return negative ? -value : value;
+            }
+            if (token.type == TokenType.FLOAT) {
+                final double value = Double.parseDouble(token.text);
+                return negative ? -value : value;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw error("Expected a number but found " + token);
+    }
+
+    private Expression parseExpression() {
+        Expression expression = parseAnd();
+        while (acceptKeyword("OR"))
+            expression = new Expression.Or(expression, parseAnd());
+        return expression;
+    }
+
+    private Expression parseAnd() {
+        Expression expression = parseNot();
+        while (acceptKeyword("AND"))
+            expression = new Expression.And(expression, parseNot());
+        return expression;
+    }
+
+    private Expression parseNot() {
+        if (acceptKeyword("NOT"))
+            return new Expression.Not(parseNot());
+        return parseComparison();
+    }
+
+    private Expression parseComparison() {
+        final Expression left = parsePrimary();
+        if (acceptKeyword("IS")) {
+            final boolean not = acceptKeyword("NOT");
+            expectKeyword("NULL");
+            return new Expression.Comparison(not ? ComparisonOperator.IS_NOT_NULL : ComparisonOperator.IS_NULL, left,
+                                             null);
+        }
+        final ComparisonOperator operator = parseComparisonOperator();
+        if (operator == null)
+            return left;
+        return new Expression.Comparison(operator, left, parsePrimary());
+    }
+
+    private ComparisonOperator parseComparisonOperator() {
+        final Token token = peek();
+        if (token.type == TokenType.SYMBOL) {
+            for (final ComparisonOperator operator : ComparisonOperator.values()) {
+                final boolean alias = operator == ComparisonOperator.NOT_EQUAL && token.is("!=");
+                if (alias || operator.symbol.equals(token.text)) {
+                    position++;
+                    return operator;
+                }
+            }
+            return null;
+        }
+        if (acceptKeyword("CONTAINS"))
+            return ComparisonOperator.CONTAINS;
+        if (acceptKeyword("IN"))
+            return ComparisonOperator.IN;
+        if (acceptKeyword("STARTS")) {
+            expectKeyword("WITH");
+            return ComparisonOperator.STARTS_WITH;
+        }
+        if (acceptKeyword("ENDS")) {
+            expectKeyword("WITH");
+            return ComparisonOperator.ENDS_WITH;
+        }
+        return null;
+    }
+
+    private Expression parsePrimary() {
+        if (acceptSymbol("(")) {
+            final Expression expression = parseExpression();
+            expectSymbol(")");
+            return expression;
+        }
+        final Token token = peek();
+        if (token.type == TokenType.IDENTIFIER && !token.isKeyword("TRUE") && !token.isKeyword("FALSE") &&
+            !token.isKeyword("NULL")) {
+            position++;
+            if (acceptSymbol("(")) {
+                final Expression argument = parseExpression();
+                expectSymbol(")");
+                return new Expression.Function(token.text, argument);
+            }
+            if (acceptSymbol("."))
+                return new Expression.Property(token.text, expectIdentifier());
+            return new Expression.Variable(token.text);
+        }
+        return new Expression.Literal(parseLiteralValue());
+    }
+
+    private String nextAnonymousName() {
+        return ANONYMOUS_PREFIX + (anonymousCount++);
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private Token expect(final TokenType type) {
+        final Token token = peek();
+        if (token.type != type)
+            throw error("Expected " + type.name().toLowerCase() + " but found " + token);
+        position++;
+        return token;
+    }
+
+    private String expectIdentifier() {
+        return expect(TokenType.IDENTIFIER).text;
+    }
+
+    private boolean acceptSymbol(final String symbol) {
+        if (peek().is(symbol)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectSymbol(final String symbol) {
+        if (!acceptSymbol(symbol))
+            throw error("Expected '" + symbol + "' but found " + peek());
+    }
+
+    private boolean acceptKeyword(final String keyword) {
+        if (peek().isKeyword(keyword)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectKeyword(final String keyword) {
+        if (!acceptKeyword(keyword))
+            throw error("Expected " + keyword + " but found " + peek());
+    }
+
+    private QueryException error(final String message) {
+        return new QueryException(message + " at position " + peek().position);
+    }
+}
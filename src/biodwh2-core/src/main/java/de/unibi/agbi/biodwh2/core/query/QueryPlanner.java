@@ -0,0 +1,402 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.exceptions.QueryException;
+import de.unibi.agbi.biodwh2.core.io.storage.PropertySchema;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.query.Expression.ComparisonOperator;
+import de.unibi.agbi.biodwh2.core.query.PathPattern.NodePattern;
+import de.unibi.agbi.biodwh2.core.query.PathPattern.RelationshipPattern;
+
+import java.util.*;
+
+/**
+ * Translates a parsed query into an operator pipeline. Every path is started at its cheapest node, which is either a
+ * lookup in a unique or non-unique property index or the scan of the smallest label, and expanded along its
+ * relationships in both directions. A path sharing nodes with the paths planned before is expanded from the shared
+ * nodes, unless one of its other nodes can be found with an index lookup. In that case the path is planned on its own
+ * and hash joined on the shared nodes. Predicates are evaluated as soon as all of their variables are bound.
+ */
+final class QueryPlanner {
+    private static final long UNIQUE_SEEK_COST = 1;
+    private static final long NON_UNIQUE_SEEK_COST = 10;
+
+    private final Graph graph;
+    private final ParsedQuery query;
+    private final Deadline deadline;
+    private final Set<String> nodeLabels;
+    private final Set<String> edgeLabels;
+    private final Map<String, Map<String, IndexDescription.Type>> nodeIndexTypes = new HashMap<>();
+    private final Map<String, Map<String, PropertySchema>> nodePropertySchemas = new HashMap<>();
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+    private final Set<String> relationshipVariables = new HashSet<>();
+    private final Map<String, NodeConstraint> constraints = new HashMap<>();
+    private final List<Expression> pendingPredicates = new ArrayList<>();
+    private final List<String> columns = new ArrayList<>();
+
+    QueryPlanner(final Graph graph, final ParsedQuery query, final Deadline deadline) {
+        this.graph = graph;
+        this.query = query;
+        this.deadline = deadline;
+        nodeLabels = new HashSet<>(Arrays.asList(graph.getNodeLabels()));
+        edgeLabels = new HashSet<>(Arrays.asList(graph.getEdgeLabels()));
+        for (final IndexDescription description : graph.indexDescriptions())
+            if (description.getTarget() == IndexDescription.Target.NODE && !description.isArrayProperty())
+                nodeIndexTypes.computeIfAbsent(description.getLabel(), k -> new HashMap<>()).put(
+                        description.getProperty(), description.getType());
+    }
+
+    Operator plan() {
+        registerPatterns();
+        registerPredicates();
+        return planReturn(planPaths());
+    }
+
+    List<String> getColumns() {
+        return columns;
+    }
+
+    private void registerPatterns() {
+        for (final PathPattern path : query.paths) {
+            for (final NodePattern node : path.nodes) {
+                if (relationshipVariables.contains(node.variable))
+                    throw createMixedVariableException(node.variable);
+                slots.putIfAbsent(node.variable, slots.size());
+                final NodeConstraint constraint = constraints.computeIfAbsent(node.variable,
+                                                                              k -> new NodeConstraint());
+                if (node.label != null)
+                    constraint.labels.add(node.label);
+                for (final Map.Entry<String, Object> entry : node.properties.entrySet())
+                    addPropertyConstraint(node.variable, entry.getKey(), entry.getValue());
+            }
+            for (final RelationshipPattern relationship : path.relationships) {
+                if (relationship.variableLength)
+                    continue;
+                if (constraints.containsKey(relationship.variable))
+                    throw createMixedVariableException(relationship.variable);
+                if (relationshipVariables.contains(relationship.variable))
+                    throw new QueryException(
+                            "Relationship variable '" + relationship.variable + "' is used more than once");
+                relationshipVariables.add(relationship.variable);
+                slots.put(relationship.variable, slots.size());
+            }
+        }
+    }
+
+    private static QueryException createMixedVariableException(final String variable) {
+        return new QueryException("Variable '" + variable + "' is used for a node and a relationship");
+    }
+
+    private void addPropertyConstraint(final String variable, final String key, final Object value) {
+        final NodeConstraint constraint = constraints.get(variable);
+        if (constraint.properties.containsKey(key))
+            pendingPredicates.add(new Expression.Comparison(ComparisonOperator.EQUAL,
+                                                            new Expression.Property(variable, key),
+                                                            new Expression.Literal(value)));
+        else
+            constraint.properties.put(key, value);
+    }
+
+    private void registerPredicates() {
+        if (query.where != null)
+            for (final Expression conjunct : splitConjuncts(query.where))
+                if (!pushDownEquality(conjunct))
+                    pendingPredicates.add(conjunct);
+        for (final Expression predicate : pendingPredicates)
+            predicate.resolve(slots);
+    }
+
+    private static List<Expression> splitConjuncts(final Expression expression) {
+        final List<Expression> result = new ArrayList<>();
+        if (expression instanceof Expression.And) {
+            result.addAll(splitConjuncts(((Expression.And) expression).left));
+            result.addAll(splitConjuncts(((Expression.And) expression).right));
+        } else
+            result.add(expression);
+        return result;
+    }
+
+    /**
+     * Moves a "node.key = literal" predicate into the constraint of the node, so it can be used for an index lookup.
+     */
+    private boolean pushDownEquality(final Expression expression) {
+        if (!(expression instanceof Expression.Comparison))
+            return false;
+        final Expression.Comparison comparison = (Expression.Comparison) expression;
+        if (comparison.operator != ComparisonOperator.EQUAL)
+            return false;
+        final boolean propertyLeft = comparison.left instanceof Expression.Property;
+        final Expression property = propertyLeft ? comparison.left : comparison.right;
+        final Expression literal = propertyLeft ? comparison.right : comparison.left;
+        if (!(property instanceof Expression.Property) || !(literal instanceof Expression.Literal))
+            return false;
+        final String variable = ((Expression.Property) property).variable;
+        final String key = ((Expression.Property) property).key;
+        final Object value = ((Expression.Literal) literal).value;
+        if (!constraints.containsKey(variable) || value == null || QueryValues.toList(value) != null ||
+            constraints.get(variable).properties.containsKey(key))
+            return false;
+        constraints.get(variable).properties.put(key, value);
+        return true;
+    }
+
+    private Operator planPaths() {
+        final Set<String> bound = new HashSet<>();
+        final List<PathPattern> remaining = new ArrayList<>(query.paths);
+        Operator plan = null;
+        while (!remaining.isEmpty()) {
+            PathPattern next = null;
+            boolean nextConnected = false;
+            int nextAnchor = -1;
+            long nextCost = Long.MAX_VALUE;
+            for (final PathPattern path : remaining) {
+                final boolean connected = isConnected(path, bound);
+                if (nextConnected && !connected)
+                    continue;
+                final int anchor = findCheapestUnboundNode(path, bound);
+                final long cost = anchor == -1 ? 0 : estimateCost(path.nodes.get(anchor).variable);
+                if (next == null || (connected && !nextConnected) || cost < nextCost) {
+                    next = path;
+                    nextConnected = connected;
+                    nextAnchor = anchor;
+                    nextCost = cost;
+                }
+            }
+            remaining.remove(next);
+            if (plan == null) {
+                plan = planPath(next, nextAnchor, null, bound);
+            } else if (nextConnected && (nextAnchor == -1 || nextCost > NON_UNIQUE_SEEK_COST)) {
+                plan = planPath(next, findBoundNode(next, bound), plan, bound);
+            } else {
+                final Set<String> pathBound = new HashSet<>();
+                final Operator pathPlan = planPath(next, nextAnchor, null, pathBound);
+                plan = combine(plan, bound, pathPlan, pathBound);
+                bound.addAll(pathBound);
+            }
+        }
+        return plan;
+    }
+
+    private static boolean isConnected(final PathPattern path, final Set<String> bound) {
+        return findBoundNode(path, bound) != -1;
+    }
+
+    private static int findBoundNode(final PathPattern path, final Set<String> bound) {
+        for (int i = 0; i < path.nodes.size(); i++)
+            if (bound.contains(path.nodes.get(i).variable))
+                return i;
+        return -1;
+    }
+
+    private int findCheapestUnboundNode(final PathPattern path, final Set<String> bound) {
+        int result = -1;
+        long resultCost = Long.MAX_VALUE;
+        for (int i = 0; i < path.nodes.size(); i++) {
+            final String variable = path.nodes.get(i).variable;
+            if (!bound.contains(variable)) {
+                final long cost = estimateCost(variable);
+                if (cost < resultCost) {
+                    result = i;
+                    resultCost = cost;
+                }
+            }
+        }
+        return result;
+    }
+
+    private long estimateCost(final String variable) {
+        final NodeConstraint constraint = constraints.get(variable);
+        final String label = constraint.getLabel();
+        if (label == null)
+            return graph.getNumberOfNodes();
+        if (!nodeLabels.contains(label))
+            return 0;
+        final long count = graph.getNumberOfNodes(label);
+        final String seekKey = findSeekKey(constraint);
+        if (seekKey == null)
+            return count;
+        if (nodeIndexTypes.get(label).get(seekKey) == IndexDescription.Type.UNIQUE)
+            return Math.min(UNIQUE_SEEK_COST, count);
+        return Math.min(estimateNonUniqueSeekCost(label, seekKey), count);
+    }
+
+    /**
+     * Estimates the number of nodes per value from the statistics of the schema catalog, assuming evenly distributed
+     * values.
+     */
+    private long estimateNonUniqueSeekCost(final String label, final String key) {
+        final Map<String, PropertySchema> schemas = nodePropertySchemas.computeIfAbsent(
+                label, graph::getPropertySchemasForNodeLabel);
+        final PropertySchema schema = schemas.get(key);
+        if (schema == null)
+            return 0;
+        if (schema.getCount() < 0 || schema.getEstimatedDistinctValues() <= 0)
+            return NON_UNIQUE_SEEK_COST;
+        return Math.max(UNIQUE_SEEK_COST, (schema.getCount() + schema.getEstimatedDistinctValues() - 1) /
+                                          schema.getEstimatedDistinctValues());
+    }
+
+    /**
+     * Finds an indexed property of the constraint preferring unique indices. Only string values are looked up, as the
+     * indices compare numbers by their exact type.
+     */
+    private String findSeekKey(final NodeConstraint constraint) {
+        final Map<String, IndexDescription.Type> indexTypes = nodeIndexTypes.get(constraint.getLabel());
+        if (indexTypes == null)
+            return null;
+        String result = null;
+        for (final Map.Entry<String, Object> entry : constraint.properties.entrySet()) {
+            final IndexDescription.Type type = indexTypes.get(entry.getKey());
+            if (type != null && entry.getValue() instanceof String) {
+                if (type == IndexDescription.Type.UNIQUE)
+                    return entry.getKey();
+                if (result == null)
+                    result = entry.getKey();
+            }
+        }
+        return result;
+    }
+
+    private Operator planPath(final PathPattern path, final int anchor, final Operator input,
+                              final Set<String> bound) {
+        Operator plan = input;
+        final String anchorVariable = path.nodes.get(anchor).variable;
+        if (!bound.contains(anchorVariable)) {
+            plan = createScan(anchorVariable);
+            bound.add(anchorVariable);
+            plan = applyPredicates(plan, bound);
+        }
+        for (int i = anchor; i < path.relationships.size(); i++)
+            plan = expand(plan, path.nodes.get(i).variable, path.relationships.get(i), path.nodes.get(i + 1).variable,
+                          bound);
+        for (int i = anchor - 1; i >= 0; i--)
+            plan = expand(plan, path.nodes.get(i + 1).variable, path.relationships.get(i).reverse(),
+                          path.nodes.get(i).variable, bound);
+        return plan;
+    }
+
+    private Operator createScan(final String variable) {
+        final NodeConstraint constraint = constraints.get(variable);
+        final String label = constraint.getLabel();
+        final boolean labelExists = label == null || nodeLabels.contains(label);
+        final String seekKey = label != null && labelExists ? findSeekKey(constraint) : null;
+        return new NodeScanOperator(getDisplayName(variable), slots.get(variable), slots.size(), constraint,
+                                    labelExists, seekKey, deadline);
+    }
+
+    private Operator expand(final Operator input, final String from, final RelationshipPattern relationship,
+                            final String to, final Set<String> bound) {
+        final boolean targetBound = bound.contains(to);
+        final List<String> labels = relationship.labels.isEmpty() ? null : new ArrayList<>();
+        for (final String label : relationship.labels)
+            if (edgeLabels.contains(label))
+                labels.add(label);
+        final AdjacencyLookup lookup = new AdjacencyLookup(labels, relationship.direction,
+                                                           relationship.properties, deadline);
+        final String description =
+                "(" + getDisplayName(from) + ")" + relationship + "(" + getDisplayName(to) + ")";
+        final Operator plan;
+        if (relationship.variableLength) {
+            plan = new VarLengthExpandOperator(input, description, slots.get(from), slots.get(to), targetBound,
+                                               constraints.get(to), lookup, relationship.minHops,
+                                               relationship.maxHops);
+        } else {
+            plan = new ExpandOperator(input, description, slots.get(from), slots.get(relationship.variable),
+                                      slots.get(to), targetBound, constraints.get(to), lookup,
+                                      getRelationshipSlots(bound));
+            bound.add(relationship.variable);
+        }
+        bound.add(to);
+        return applyPredicates(plan, bound);
+    }
+
+    private int[] getRelationshipSlots(final Set<String> bound) {
+        return bound.stream().filter(relationshipVariables::contains).mapToInt(slots::get).toArray();
+    }
+
+    private Operator combine(final Operator plan, final Set<String> bound, final Operator pathPlan,
+                             final Set<String> pathBound) {
+        final List<String> shared = new ArrayList<>();
+        for (final String variable : pathBound)
+            if (bound.contains(variable))
+                shared.add(variable);
+        Operator result;
+        if (shared.isEmpty())
+            result = new CartesianProductOperator(plan, pathPlan);
+        else {
+            final int[] sharedSlots = shared.stream().mapToInt(slots::get).toArray();
+            final String[] sharedNames = shared.stream().map(QueryPlanner::getDisplayName).toArray(String[]::new);
+            result = new HashJoinOperator(pathPlan, plan, sharedNames, sharedSlots);
+        }
+        // Edges bound on both sides were expanded independently and may be the same
+        Expression uniqueness = null;
+        for (final String variable : bound) {
+            if (!relationshipVariables.contains(variable))
+                continue;
+            for (final String pathVariable : pathBound) {
+                if (!relationshipVariables.contains(pathVariable))
+                    continue;
+                final Expression predicate = createIdInequality(variable, pathVariable);
+                uniqueness = uniqueness == null ? predicate : new Expression.And(uniqueness, predicate);
+            }
+        }
+        if (uniqueness != null) {
+            uniqueness.resolve(slots);
+            result = new FilterOperator(result, uniqueness);
+        }
+        final Set<String> combinedBound = new HashSet<>(bound);
+        combinedBound.addAll(pathBound);
+        return applyPredicates(result, combinedBound);
+    }
+
+    private static Expression createIdInequality(final String first, final String second) {
+        return new Expression.Comparison(ComparisonOperator.NOT_EQUAL,
+                                         new Expression.Function("id", new Expression.Variable(first)),
+                                         new Expression.Function("id", new Expression.Variable(second)));
+    }
+
+    private Operator applyPredicates(Operator plan, final Set<String> bound) {
+        final Iterator<Expression> iterator = pendingPredicates.iterator();
+        while (iterator.hasNext()) {
+            final Expression predicate = iterator.next();
+            final Set<String> variables = new HashSet<>();
+            predicate.collectVariables(variables);
+            if (bound.containsAll(variables)) {
+                plan = new FilterOperator(plan, predicate);
+                iterator.remove();
+            }
+        }
+        return plan;
+    }
+
+    private Operator planReturn(Operator plan) {
+        final List<Expression> expressions = new ArrayList<>();
+        if (query.returnAll) {
+            for (final String variable : slots.keySet()) {
+                if (!QueryParser.isAnonymous(variable)) {
+                    expressions.add(new Expression.Variable(variable));
+                    columns.add(variable);
+                }
+            }
+            if (expressions.isEmpty())
+                throw new QueryException("RETURN * requires at least one named variable");
+        } else {
+            for (final ParsedQuery.ReturnItem item : query.returnItems) {
+                expressions.add(item.expression);
+                columns.add(item.name);
+            }
+        }
+        for (final Expression expression : expressions)
+            expression.resolve(slots);
+        plan = new ProjectionOperator(plan, expressions);
+        if (query.distinct)
+            plan = new DistinctOperator(plan);
+        if (query.limit >= 0)
+            plan = new LimitOperator(plan, query.limit);
+        return plan;
+    }
+
+    private static String getDisplayName(final String variable) {
+        return QueryParser.isAnonymous(variable) ? "" : variable;
+    }
+}
@@ -0,0 +1,41 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import java.util.*;
+
+/**
+ * Rows of a query result. The rows are computed while iterating, so the result can only be iterated once.
+ */
+public final class QueryResult implements Iterator<List<Object>> {
+    private final List<String> columns;
+    private final Iterator<Object[]> rows;
+
+    QueryResult(final List<String> columns, final Iterator<Object[]> rows) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.rows = rows;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return rows.hasNext();
+    }
+
+    /**
+     * @return the values of the next row in the order of the columns. Nodes and edges are returned as
+     * {@link de.unibi.agbi.biodwh2.core.model.graph.Node} and {@link de.unibi.agbi.biodwh2.core.model.graph.Edge}.
+     */
+    @Override
+    public List<Object> next() {
+        return Arrays.asList(rows.next());
+    }
+
+    /**
+     * Formats a result value for tabular output. Nodes are written as "(id:Label)" and edges as "[id:Label]".
+     */
+    public static String formatValue(final Object value) {
+        return QueryValues.format(value);
+    }
+}
@@ -0,0 +1,127 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * Comparison and formatting of property values. Numbers are compared by value regardless of their type, as the
+ * exporters store the same property with different number types.
+ */
+final class QueryValues {
+    private QueryValues() {
+    }
+
+    static boolean isEqual(final Object a, final Object b) {
+        if (a == null || b == null)
+            return false;
+        if (a instanceof Number && b instanceof Number)
+            return compareNumbers((Number) a, (Number) b) == 0;
+        if (a instanceof Character || b instanceof Character)
+            return a.toString().equals(b.toString());
+        if (a.getClass().isArray() || a instanceof Collection || b.getClass().isArray() || b instanceof Collection) {
+            final List<Object> first = toList(a);
+            final List<Object> second = toList(b);
+            if (first == null || second == null || first.size() != second.size())
+                return false;
+            for (int i = 0; i < first.size(); i++)
+                if (!isEqual(first.get(i), second.get(i)))
+                    return false;
+            return true;
+        }
+        return a.equals(b);
+    }
+
+    /**
+     * @return the comparison result or null if the values are not comparable
+     */
+    static Integer compare(final Object a, final Object b) {
+        if (a == null || b == null)
+            return null;
+        if (a instanceof Number && b instanceof Number)
+            return compareNumbers((Number) a, (Number) b);
+        if ((a instanceof String || a instanceof Character) && (b instanceof String || b instanceof Character))
+            return a.toString().compareTo(b.toString());
+        if (a instanceof Boolean && b instanceof Boolean)
+            return Boolean.compare((Boolean) a, (Boolean) b);
+        return null;
+    }
+
+    private static int compareNumbers(final Number a, final Number b) {
+        if (isIntegral(a) && isIntegral(b))
+            return Long.compare(a.longValue(), b.longValue());
+        return Double.compare(a.doubleValue(), b.doubleValue());
+    }
+
+    private static boolean isIntegral(final Number value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * @return the elements of an array or collection or null if the value is neither
+     */
+    static List<Object> toList(final Object value) {
+        if (value instanceof List)
+            //noinspection unchecked
+            return (List<Object>) value;
+        if (value instanceof Collection)
+            return new ArrayList<>((Collection<?>) value);
+        if (value != null && value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            final List<Object> result = new ArrayList<>(length);
+            for (int i = 0; i < length; i++)
+                result.add(Array.get(value, i));
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * Key for hashing values, which are equal according to {@link #isEqual(Object, Object)}.
+     */
+    static Object toKey(final Object value) {
+        if (value instanceof Number && isIntegral((Number) value))
+            return ((Number) value).longValue();
+        if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            return number == Math.rint(number) && !Double.isInfinite(number) ? (Object) (long) number : number;
+        }
+        if (value instanceof Character)
+            return value.toString();
+        if (value instanceof Node)
+            return ((Node) value).getId();
+        if (value instanceof Edge)
+            return ((Edge) value).getId();
+        final List<Object> list = toList(value);
+        if (list != null) {
+            final List<Object> keys = new ArrayList<>(list.size());
+            for (final Object element : list)
+                keys.add(toKey(element));
+            return keys;
+        }
+        return value;
+    }
+
+    static String format(final Object value) {
+        if (value == null)
+            return "null";
+        if (value instanceof Node) {
+            final Node node = (Node) value;
+            return "(" + node.getId() + ":" + node.getLabel() + ")";
+        }
+        if (value instanceof Edge) {
+            final Edge edge = (Edge) value;
+            return "[" + edge.getId() + ":" + edge.getLabel() + "]";
+        }
+        final List<Object> list = toList(value);
+        if (list != null) {
+            final StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (final Object element : list)
+                joiner.add(format(element));
+            return joiner.toString();
+        }
+        return value.toString();
+    }
+}
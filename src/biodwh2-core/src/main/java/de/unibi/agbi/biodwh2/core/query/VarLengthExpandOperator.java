@@ -0,0 +1,121 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+
+import java.util.*;
+
+/**
+ * Enumerates the paths from a bound node with a number of edges within the bounds using a lazy depth-first search.
+ * An edge is used at most once per path, so every path yields one row for its last node.
+ */
+final class VarLengthExpandOperator extends Operator {
+    private final Operator input;
+    private final String description;
+    private final int fromSlot;
+    private final int toSlot;
+    private final boolean targetBound;
+    private final NodeConstraint targetConstraint;
+    private final AdjacencyLookup lookup;
+    private final int minHops;
+    private final int maxHops;
+
+    VarLengthExpandOperator(final Operator input, final String description, final int fromSlot, final int toSlot,
+                            final boolean targetBound, final NodeConstraint targetConstraint,
+                            final AdjacencyLookup lookup, final int minHops, final int maxHops) {
+        super(input);
+        this.input = input;
+        this.description = description;
+        this.fromSlot = fromSlot;
+        this.toSlot = toSlot;
+        this.targetBound = targetBound;
+        this.targetConstraint = targetConstraint;
+        this.lookup = lookup;
+        this.minHops = minHops;
+        this.maxHops = maxHops;
+    }
+
+    @Override
+    Iterator<Object[]> execute(final Graph graph) {
+        return flatMap(input.execute(graph), row -> new PathIterator(graph, row));
+    }
+
+    @Override
+    String describe() {
+        return (targetBound ? "VarLengthExpandInto(" : "VarLengthExpand(") + description + " " + lookup + " " +
+               minHops + ".." + (maxHops == Integer.MAX_VALUE ? "" : maxHops) + ")";
+    }
+
+    private final class PathIterator implements Iterator<Object[]> {
+        private final Graph graph;
+        private final Object[] row;
+        private final Deque<Long> nodeIds = new ArrayDeque<>();
+        private final Deque<Long> edgeIds = new ArrayDeque<>();
+        private final Deque<Iterator<Edge>> edgeIterators = new ArrayDeque<>();
+        private final Set<Long> usedEdgeIds = new HashSet<>();
+        private Object[] next;
+
+        PathIterator(final Graph graph, final Object[] row) {
+            this.graph = graph;
+            this.row = row;
+            final long startId = ((Node) row[fromSlot]).getId();
+            if (minHops == 0)
+                next = bind(startId);
+            if (maxHops > 0) {
+                nodeIds.push(startId);
+                edgeIterators.push(lookup.getEdges(graph, startId));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !edgeIterators.isEmpty())
+                next = advance();
+            return next != null;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            final Object[] result = next;
+            next = null;
+            return result;
+        }
+
+        private Object[] advance() {
+            final Iterator<Edge> edges = edgeIterators.peek();
+            if (!edges.hasNext()) {
+                edgeIterators.pop();
+                nodeIds.pop();
+                if (!edgeIds.isEmpty())
+                    usedEdgeIds.remove(edgeIds.pop());
+                return null;
+            }
+            final Edge edge = edges.next();
+            if (usedEdgeIds.contains(edge.getId()))
+                return null;
+            final long nextNodeId = AdjacencyLookup.getOtherNodeId(edge, nodeIds.peek());
+            final int depth = edgeIds.size() + 1;
+            if (depth < maxHops) {
+                usedEdgeIds.add(edge.getId());
+                edgeIds.push(edge.getId());
+                nodeIds.push(nextNodeId);
+                edgeIterators.push(lookup.getEdges(graph, nextNodeId));
+            }
+            return depth >= minHops ? bind(nextNodeId) : null;
+        }
+
+        private Object[] bind(final long targetId) {
+            if (targetBound)
+                return ((Node) row[toSlot]).getId() == targetId ? row.clone() : null;
+            final Node target = graph.getNode(targetId);
+            if (!targetConstraint.matches(target))
+                return null;
+            final Object[] result = row.clone();
+            result[toSlot] = target;
+            return result;
+        }
+    }
+}
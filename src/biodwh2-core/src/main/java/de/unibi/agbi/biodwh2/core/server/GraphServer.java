@@ -0,0 +1,469 @@
+package de.unibi.agbi.biodwh2.core.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.unibi.agbi.biodwh2.core.exceptions.QueryException;
+import de.unibi.agbi.biodwh2.core.exceptions.QueryTimeoutException;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreModel;
+import de.unibi.agbi.biodwh2.core.model.graph.*;
+import de.unibi.agbi.biodwh2.core.monitoring.MetricsRegistry;
+import de.unibi.agbi.biodwh2.core.monitoring.Timer;
+import de.unibi.agbi.biodwh2.core.query.QueryEngine;
+import de.unibi.agbi.biodwh2.core.query.QueryResult;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only HTTP server for lookups and queries on a graph, which only listens on the loopback interface. Requests
+ * are handled by a fixed pool of threads reading the graph concurrently. Results are streamed as JSON, so the
+ * response starts before all results are found. Every request has a time limit. If it is exceeded before the first
+ * result, the request fails with status 503, otherwise the streamed result is marked as incomplete. Applications
+ * should set {@link #NO_DELAY_PROPERTY} on startup, so small streamed packets are sent without delay.
+ * <ul>
+ * <li>GET /labels</li>
+ * <li>GET /nodes/{id}</li>
+ * <li>GET /nodes?label=...&amp;key=...&amp;value=...[&amp;type=string|int|long|double|boolean][&amp;limit=...]</li>
+ * <li>GET /nodes/{id}/neighbours[?direction=out|in|both][&amp;label=...][&amp;limit=...]</li>
+ * <li>GET /edges/{id}</li>
+ * <li>GET /query?q=...[&amp;limit=...] or POST /query with the query as body</li>
+ * </ul>
+ */
+public final class GraphServer implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GraphServer.class);
+    private static final String REQUEST_METRIC = "biodwh2_server_request_seconds";
+    /**
+     * Streamed responses are written in several small packets, which are delayed by Nagle's algorithm unless this
+     * system property is set to true. The JDK server reads it only once, so it needs to be set before any server is
+     * created in the process.
+     */
+    public static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    public static final int DEFAULT_PORT = 8090;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30000;
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_INTERNAL_ERROR = 500;
+    private static final int STATUS_UNAVAILABLE = 503;
+
+    private final Graph graph;
+    private final QueryEngine queryEngine;
+    private final long timeoutMillis;
+    private final Map<String, Set<String>> indexedNodeProperties = new HashMap<>();
+    private final Set<String> nodeLabels;
+    private final Set<String> edgeLabels;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    /**
+     * @param port          port on the loopback interface or 0 for any free port
+     * @param threads       number of requests handled concurrently
+     * @param timeoutMillis time limit per request in milliseconds or a value less than one for no limit
+     */
+    public GraphServer(final Graph graph, final int port, final int threads,
+                       final long timeoutMillis) throws IOException {
+        this.graph = graph;
+        this.timeoutMillis = timeoutMillis;
+        queryEngine = new QueryEngine(graph);
+        nodeLabels = new HashSet<>(Arrays.asList(graph.getNodeLabels()));
+        edgeLabels = new HashSet<>(Arrays.asList(graph.getEdgeLabels()));
+        for (final IndexDescription description : graph.indexDescriptions())
+            if (description.getTarget() == IndexDescription.Target.NODE)
+                indexedNodeProperties.computeIfAbsent(description.getLabel(), k -> new HashSet<>()).add(
+                        description.getProperty());
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/labels", exchange -> handle(exchange, "labels", this::handleLabels));
+        server.createContext("/nodes", exchange -> handle(exchange, "nodes", this::handleNodes));
+        server.createContext("/edges", exchange -> handle(exchange, "edges", this::handleEdges));
+        server.createContext("/query", exchange -> handle(exchange, "query", this::handleQuery));
+    }
+
+    public void start() {
+        server.start();
+        if (LOGGER.isInfoEnabled())
+            LOGGER.info("Serving the graph on http://" + server.getAddress().getHostString() + ":" + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(timeoutMillis > 0 ? timeoutMillis : 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Handler {
+        void handle(final Request request) throws IOException;
+    }
+
+    private interface ResultWriter<T> {
+        void write(final JsonGenerator generator, final T result) throws IOException;
+    }
+
+    private static final class Request {
+        final HttpExchange exchange;
+        final Map<String, String> parameters;
+        final String[] pathSegments;
+        final long startNanos = System.nanoTime();
+
+        Request(final HttpExchange exchange) throws UnsupportedEncodingException {
+            this.exchange = exchange;
+            parameters = parseParameters(exchange.getRequestURI().getRawQuery());
+            final String path = exchange.getRequestURI().getPath();
+            pathSegments = Arrays.stream(path.split("/")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        }
+
+        private static Map<String, String> parseParameters(final String query) throws UnsupportedEncodingException {
+            final Map<String, String> result = new HashMap<>();
+            if (query != null) {
+                for (final String parameter : query.split("&")) {
+                    final int index = parameter.indexOf('=');
+                    final String key = index == -1 ? parameter : parameter.substring(0, index);
+                    final String value = index == -1 ? "" : parameter.substring(index + 1);
+                    result.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class RequestException extends RuntimeException {
+        private static final long serialVersionUID = -2803405385427314598L;
+
+        private final int status;
+
+        RequestException(final int status, final String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(final HttpExchange exchange, final String endpoint, final Handler handler) {
+        final long startNanos = System.nanoTime();
+        try {
+            handler.handle(new Request(exchange));
+        } catch (RequestException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (QueryTimeoutException e) {
+            sendError(exchange, STATUS_UNAVAILABLE, e.getMessage());
+        } catch (QueryException e) {
+            sendError(exchange, STATUS_BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Failed to send the response of " + exchange.getRequestURI(), e);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to handle the request " + exchange.getRequestURI(), e);
+            sendError(exchange, STATUS_INTERNAL_ERROR, "Internal server error");
+        } finally {
+            exchange.close();
+            getRequestTimer(endpoint).recordSince(startNanos);
+        }
+    }
+
+    private static Timer getRequestTimer(final String endpoint) {
+        return MetricsRegistry.getInstance().timer(REQUEST_METRIC, "Duration of graph server requests", "endpoint",
+                                                   endpoint);
+    }
+
+    private void sendError(final HttpExchange exchange, final int status, final String message) {
+        try {
+            final Map<String, Object> body = new LinkedHashMap<>();
+            body.put("error", message);
+            final byte[] bytes = mapper.writeValueAsBytes(body);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (IOException | IllegalStateException ignored) {
+            // The response was already started or the client disconnected
+        }
+    }
+
+    private void handleLabels(final Request request) throws IOException {
+        requireGet(request);
+        try (JsonGenerator generator = startResponse(request)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("nodes");
+            for (final String label : new TreeSet<>(nodeLabels))
+                generator.writeNumberField(label, graph.getNumberOfNodes(label));
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("edges");
+            for (final String label : new TreeSet<>(edgeLabels))
+                generator.writeNumberField(label, graph.getNumberOfEdges(label));
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    private void handleNodes(final Request request) throws IOException {
+        requireGet(request);
+        if (request.pathSegments.length == 1)
+            handleNodeLookup(request);
+        else if (request.pathSegments.length == 2)
+            handleElement(request, graph.getNode(parseId(request.pathSegments[1])));
+        else if (request.pathSegments.length == 3 && "neighbours".equals(request.pathSegments[2]))
+            handleNeighbours(request, parseId(request.pathSegments[1]));
+        else
+            throw new RequestException(STATUS_NOT_FOUND, "Unknown path " + request.exchange.getRequestURI());
+    }
+
+    private void handleEdges(final Request request) throws IOException {
+        requireGet(request);
+        if (request.pathSegments.length != 2)
+            throw new RequestException(STATUS_NOT_FOUND, "Unknown path " + request.exchange.getRequestURI());
+        handleElement(request, graph.getEdge(parseId(request.pathSegments[1])));
+    }
+
+    private void handleElement(final Request request, final MVStoreModel element) throws IOException {
+        if (element == null)
+            throw new RequestException(STATUS_NOT_FOUND, "Element " + request.pathSegments[1] + " not found");
+        try (JsonGenerator generator = startResponse(request)) {
+            writeElement(generator, element);
+        }
+    }
+
+    private void handleNodeLookup(final Request request) throws IOException {
+        final String label = requireParameter(request, "label");
+        final String key = requireParameter(request, "key");
+        final Comparable<?> value = parseValue(requireParameter(request, "value"),
+                                               request.parameters.getOrDefault("type", "string"));
+        if (!indexedNodeProperties.getOrDefault(label, Collections.emptySet()).contains(key))
+            throw new RequestException(STATUS_BAD_REQUEST,
+                                          "Property '" + key + "' of label '" + label + "' is not indexed");
+        streamResults(request, null, "results", graph.findNodes(label, key, value).iterator(), this::writeElement);
+    }
+
+    private void handleNeighbours(final Request request, final long nodeId) throws IOException {
+        if (graph.getNode(nodeId) == null)
+            throw new RequestException(STATUS_NOT_FOUND, "Element " + nodeId + " not found");
+        final String direction = request.parameters.getOrDefault("direction", "both");
+        if (!"out".equals(direction) && !"in".equals(direction) && !"both".equals(direction))
+            throw new RequestException(STATUS_BAD_REQUEST, "Unknown direction '" + direction + "'");
+        final String label = request.parameters.get("label");
+        Iterator<Edge> outgoing = null;
+        Iterator<Edge> incoming = null;
+        if (label == null || edgeLabels.contains(label)) {
+            if (!"in".equals(direction))
+                outgoing = findEdges(label, Edge.FROM_ID_FIELD, nodeId);
+            if (!"out".equals(direction))
+                incoming = findEdges(label, Edge.TO_ID_FIELD, nodeId);
+        }
+        final Iterator<Edge> edges = concatEdges(outgoing, incoming, nodeId);
+        streamResults(request, null, "results", edges, (generator, edge) -> {
+            final long neighbourId = edge.getFromId() == nodeId ? edge.getToId() : edge.getFromId();
+            generator.writeStartObject();
+            generator.writeFieldName("edge");
+            writeElement(generator, edge);
+            generator.writeFieldName("node");
+            writeElement(generator, graph.getNode(neighbourId));
+            generator.writeEndObject();
+        });
+    }
+
+    private static Iterator<Edge> concatEdges(final Iterator<Edge> outgoing, final Iterator<Edge> incoming,
+                                              final long nodeId) {
+        return new Iterator<Edge>() {
+            private Edge next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && outgoing != null && outgoing.hasNext())
+                    next = outgoing.next();
+                while (next == null && incoming != null && incoming.hasNext()) {
+                    final Edge edge = incoming.next();
+                    // Self loops were already found as outgoing edges
+                    if (outgoing == null || edge.getFromId() != nodeId)
+                        next = edge;
+                }
+                return next != null;
+            }
+
+            @Override
+            public Edge next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                final Edge result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    private Iterator<Edge> findEdges(final String label, final String key, final long nodeId) {
+        return (label != null ? graph.findEdges(label, key, nodeId) : graph.findEdges(key, nodeId)).iterator();
+    }
+
+    private void handleQuery(final Request request) throws IOException {
+        final String query;
+        if ("POST".equals(request.exchange.getRequestMethod()))
+            query = IOUtils.toString(request.exchange.getRequestBody(), StandardCharsets.UTF_8);
+        else {
+            requireGet(request);
+            query = requireParameter(request, "q");
+        }
+        final QueryResult result = queryEngine.execute(query, timeoutMillis);
+        streamResults(request, result.getColumns(), "rows", result, (generator, row) -> {
+            generator.writeStartArray();
+            for (final Object value : row)
+                writeValue(generator, value);
+            generator.writeEndArray();
+        });
+    }
+
+    private <T> void streamResults(final Request request, final List<String> columns, final String fieldName,
+                                   final Iterator<T> results, final ResultWriter<T> writer) throws IOException {
+        final long limit = parseLimit(request);
+        // Errors before the first result are reported with a status code
+        if (limit > 0)
+            results.hasNext();
+        try (JsonGenerator generator = startResponse(request)) {
+            generator.writeStartObject();
+            if (columns != null) {
+                generator.writeArrayFieldStart("columns");
+                for (final String column : columns)
+                    generator.writeString(column);
+                generator.writeEndArray();
+            }
+            generator.writeArrayFieldStart(fieldName);
+            String error = null;
+            try {
+                for (long count = 0; count < limit && results.hasNext(); count++) {
+                    checkTimeout(request);
+                    writer.write(generator, results.next());
+                }
+            } catch (QueryException e) {
+                error = e.getMessage();
+            }
+            generator.writeEndArray();
+            generator.writeBooleanField("complete", error == null);
+            if (error != null)
+                generator.writeStringField("error", error);
+            generator.writeEndObject();
+        }
+    }
+
+    private void checkTimeout(final Request request) {
+        if (timeoutMillis > 0 && System.nanoTime() - request.startNanos > timeoutMillis * 1_000_000L)
+            throw new QueryTimeoutException("Request exceeded the time limit of " + timeoutMillis + " ms");
+    }
+
+    private JsonGenerator startResponse(final Request request) throws IOException {
+        request.exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // A response length of zero uses chunked encoding
+        request.exchange.sendResponseHeaders(STATUS_OK, 0);
+        final OutputStream body = request.exchange.getResponseBody();
+        return mapper.getFactory().createGenerator(body);
+    }
+
+    private void writeElement(final JsonGenerator generator, final MVStoreModel element) throws IOException {
+        if (element == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeNumberField("id", element.getId());
+        if (element instanceof Node) {
+            generator.writeStringField("label", ((Node) element).getLabel());
+        } else if (element instanceof Edge) {
+            final Edge edge = (Edge) element;
+            generator.writeStringField("label", edge.getLabel());
+            generator.writeNumberField("from", edge.getFromId());
+            generator.writeNumberField("to", edge.getToId());
+        }
+        generator.writeObjectFieldStart("properties");
+        for (final String key : new TreeSet<>(element.keySet())) {
+            if (!key.startsWith("__")) {
+                generator.writeFieldName(key);
+                generator.writeObject(element.get(key));
+            }
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private void writeValue(final JsonGenerator generator, final Object value) throws IOException {
+        if (value instanceof MVStoreModel)
+            writeElement(generator, (MVStoreModel) value);
+        else
+            generator.writeObject(value);
+    }
+
+    private static void requireGet(final Request request) {
+        if (!"GET".equals(request.exchange.getRequestMethod()))
+            throw new RequestException(STATUS_METHOD_NOT_ALLOWED,
+                                          "Method " + request.exchange.getRequestMethod() + " is not allowed");
+    }
+
+    private static String requireParameter(final Request request, final String name) {
+        final String value = request.parameters.get(name);
+        if (value == null || value.isEmpty())
+            throw new RequestException(STATUS_BAD_REQUEST, "Missing parameter '" + name + "'");
+        return value;
+    }
+
+    private static long parseId(final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new RequestException(STATUS_BAD_REQUEST, "Invalid id '" + value + "'");
+        }
+    }
+
+    private static long parseLimit(final Request request) {
+        final String value = request.parameters.get("limit");
+        if (value == null)
+            return Long.MAX_VALUE;
+        try {
+            final long limit = Long.parseLong(value);
+            if (limit >= 0)
+                return limit;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new RequestException(STATUS_BAD_REQUEST, "Invalid limit '" + value + "'");
+    }
+
+    private static Comparable<?> parseValue(final String value, final String type) {
+        try {
+            switch (type) {
+                case "string":
+                    return value;
+                case "int":
+                    return Integer.parseInt(value);
+                case "long":
+                    return Long.parseLong(value);
+                case "double":
+                    return Double.parseDouble(value);
+                case "boolean":
+                    return Boolean.parseBoolean(value);
+                default:
+                    throw new RequestException(STATUS_BAD_REQUEST, "Unknown value type '" + type + "'");
+            }
+        } catch (NumberFormatException e) {
+            throw new RequestException(STATUS_BAD_REQUEST, "Invalid " + type + " value '" + value + "'");
+        }
+    }
+}
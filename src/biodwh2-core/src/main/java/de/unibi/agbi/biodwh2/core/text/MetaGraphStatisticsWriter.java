@@ -1,5 +1,6 @@
 package de.unibi.agbi.biodwh2.core.text;
 
+import de.unibi.agbi.biodwh2.core.io.storage.PropertySchema;
 import de.unibi.agbi.biodwh2.core.model.graph.meta.MetaEdge;
 import de.unibi.agbi.biodwh2.core.model.graph.meta.MetaGraph;
 import de.unibi.agbi.biodwh2.core.model.graph.meta.MetaNode;
@@ -24,6 +25,11 @@ public final class MetaGraphStatisticsWriter {
         for (final MetaNode node : getLabelSortedMetaNodes())
             nodeLabelCountRows.add(Arrays.asList(String.valueOf(node.count), node.label));
         builder.append(tableFormatter.format(Arrays.asList("Count", "Node label"), nodeLabelCountRows));
+        final List<List<String>> nodePropertyRows = getNodePropertyRows();
+        if (nodePropertyRows.size() > 0)
+            builder.append(tableFormatter.format(
+                    Arrays.asList("Node label", "Property", "Type", "Count", "Distinct (est.)", "Nullable"),
+                    nodePropertyRows));
         if (graph.getEdgeLabelCount() > 0) {
             final List<List<String>> edgeLabelCountRows = new ArrayList<>();
             for (final MetaEdge edge : getLabelSortedMetaEdges()) {
@@ -39,6 +45,25 @@ public final class MetaGraphStatisticsWriter {
         return graph.getNodes().stream().sorted(Comparator.comparing(a -> a.label)).collect(Collectors.toList());
     }
 
+    private List<List<String>> getNodePropertyRows() {
+        final List<List<String>> rows = new ArrayList<>();
+        for (final MetaNode node : getLabelSortedMetaNodes()) {
+            final List<PropertySchema> properties = new ArrayList<>(node.properties.values());
+            properties.sort(Comparator.comparing(PropertySchema::getKey));
+            for (final PropertySchema property : properties) {
+                final String type = property.getType() != null ? property.getType().getType().getSimpleName() : "";
+                rows.add(Arrays.asList(node.label, property.getKey(), type, formatStatistic(property.getCount()),
+                                       formatStatistic(property.getEstimatedDistinctValues()),
+                                       String.valueOf(property.isNullable())));
+            }
+        }
+        return rows;
+    }
+
+    private static String formatStatistic(final long value) {
+        return value >= 0 ? String.valueOf(value) : "-";
+    }
+
     private Collection<MetaEdge> getLabelSortedMetaEdges() {
         return graph.getEdges().stream().sorted(
                 Comparator.comparing(a -> a.label + "|" + a.fromLabel + "|" + a.toLabel)).collect(Collectors.toList());
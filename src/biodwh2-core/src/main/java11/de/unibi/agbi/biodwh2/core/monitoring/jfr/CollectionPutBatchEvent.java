@@ -0,0 +1,25 @@
+package de.unibi.agbi.biodwh2.core.monitoring.jfr;
+
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import jdk.jfr.*;
+
+@Name("de.unibi.agbi.biodwh2.CollectionPutBatch")
+@Label("Collection Put Batch")
+@Category("BioDWH2")
+@Description("Batch of consecutive puts into a graph collection")
+final class CollectionPutBatchEvent extends Event implements ProfilingEvents.CollectionPutBatch {
+    @Label("Collection")
+    String collection;
+    @Label("Puts")
+    long puts;
+
+    @Override
+    public void end(final String collection, final long puts) {
+        end();
+        if (shouldCommit()) {
+            this.collection = collection;
+            this.puts = puts;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.unibi.agbi.biodwh2.core.monitoring.jfr;
+
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import jdk.jfr.*;
+
+@Name("de.unibi.agbi.biodwh2.ExportFile")
+@Label("Export File")
+@Category("BioDWH2")
+@Description("Export of a graph to a file")
+final class ExportFileEvent extends Event implements ProfilingEvents.ExportFile {
+    @Label("Path")
+    String path;
+    @Label("Format")
+    String format;
+    @Label("Success")
+    boolean success;
+
+    @Override
+    public void end(final String path, final String format, final boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            this.format = format;
+            this.success = success;
+            commit();
+        }
+    }
+}
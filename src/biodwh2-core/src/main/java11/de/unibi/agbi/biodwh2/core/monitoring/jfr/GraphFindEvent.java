@@ -0,0 +1,32 @@
+package de.unibi.agbi.biodwh2.core.monitoring.jfr;
+
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import jdk.jfr.*;
+
+@Name("de.unibi.agbi.biodwh2.GraphFind")
+@Label("Graph Find")
+@Category("BioDWH2")
+@Description("Find of models by property values in a graph collection")
+final class GraphFindEvent extends Event implements ProfilingEvents.GraphFind {
+    @Label("Collection")
+    String collection;
+    @Label("Keys")
+    String keys;
+    @Label("Scanned")
+    @Description("Whether at least one key was not indexed and the collection had to be scanned")
+    boolean scanned;
+    @Label("Result Count")
+    long resultCount;
+
+    @Override
+    public void end(final String collection, final String[] keys, final boolean scanned, final long resultCount) {
+        end();
+        if (shouldCommit()) {
+            this.collection = collection;
+            this.keys = String.join(",", keys);
+            this.scanned = scanned;
+            this.resultCount = resultCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.unibi.agbi.biodwh2.core.monitoring.jfr;
+
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import jdk.jfr.*;
+
+@Name("de.unibi.agbi.biodwh2.IndexRebuild")
+@Label("Index Rebuild")
+@Category("BioDWH2")
+@Description("Population of a new index for an existing graph collection")
+final class IndexRebuildEvent extends Event implements ProfilingEvents.IndexRebuild {
+    @Label("Collection")
+    String collection;
+    @Label("Key")
+    String key;
+    @Label("Entries")
+    long entries;
+
+    @Override
+    public void end(final String collection, final String key, final long entries) {
+        end();
+        if (shouldCommit()) {
+            this.collection = collection;
+            this.key = key;
+            this.entries = entries;
+            commit();
+        }
+    }
+}
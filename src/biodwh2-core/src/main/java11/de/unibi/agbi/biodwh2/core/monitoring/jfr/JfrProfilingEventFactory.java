@@ -0,0 +1,72 @@
+package de.unibi.agbi.biodwh2.core.monitoring.jfr;
+
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEventFactory;
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import jdk.jfr.EventType;
+
+/**
+ * Java Flight Recorder backed profiling events. Only packaged in the Java 11 section of the multi-release jar and
+ * loaded reflectively by {@link ProfilingEvents}.
+ */
+public final class JfrProfilingEventFactory implements ProfilingEventFactory {
+    private static final EventType GRAPH_FIND = EventType.getEventType(GraphFindEvent.class);
+    private static final EventType INDEX_REBUILD = EventType.getEventType(IndexRebuildEvent.class);
+    private static final EventType COLLECTION_PUT_BATCH = EventType.getEventType(CollectionPutBatchEvent.class);
+    private static final EventType MERGE_SOURCE = EventType.getEventType(MergeSourceEvent.class);
+    private static final EventType MAP_DESCRIBER = EventType.getEventType(MapDescriberEvent.class);
+    private static final EventType EXPORT_FILE = EventType.getEventType(ExportFileEvent.class);
+
+    @Override
+    public ProfilingEvents.GraphFind beginGraphFind() {
+        if (!GRAPH_FIND.isEnabled())
+            return ProfilingEvents.NO_GRAPH_FIND;
+        final GraphFindEvent event = new GraphFindEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public ProfilingEvents.IndexRebuild beginIndexRebuild() {
+        if (!INDEX_REBUILD.isEnabled())
+            return ProfilingEvents.NO_INDEX_REBUILD;
+        final IndexRebuildEvent event = new IndexRebuildEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public ProfilingEvents.CollectionPutBatch beginCollectionPutBatch() {
+        if (!COLLECTION_PUT_BATCH.isEnabled())
+            return ProfilingEvents.NO_COLLECTION_PUT_BATCH;
+        final CollectionPutBatchEvent event = new CollectionPutBatchEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public ProfilingEvents.MergeSource beginMergeSource() {
+        if (!MERGE_SOURCE.isEnabled())
+            return ProfilingEvents.NO_MERGE_SOURCE;
+        final MergeSourceEvent event = new MergeSourceEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public ProfilingEvents.MapDescriber beginMapDescriber() {
+        if (!MAP_DESCRIBER.isEnabled())
+            return ProfilingEvents.NO_MAP_DESCRIBER;
+        final MapDescriberEvent event = new MapDescriberEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public ProfilingEvents.ExportFile beginExportFile() {
+        if (!EXPORT_FILE.isEnabled())
+            return ProfilingEvents.NO_EXPORT_FILE;
+        final ExportFileEvent event = new ExportFileEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,28 @@
+package de.unibi.agbi.biodwh2.core.monitoring.jfr;
+
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import jdk.jfr.*;
+
+@Name("de.unibi.agbi.biodwh2.MapDescriber")
+@Label("Map Describer")
+@Category("BioDWH2")
+@Description("Mapping of all nodes of a label using a data source mapping describer")
+final class MapDescriberEvent extends Event implements ProfilingEvents.MapDescriber {
+    @Label("Data Source")
+    String dataSourceId;
+    @Label("Label")
+    String label;
+    @Label("Nodes")
+    long nodes;
+
+    @Override
+    public void end(final String dataSourceId, final String label, final long nodes) {
+        end();
+        if (shouldCommit()) {
+            this.dataSourceId = dataSourceId;
+            this.label = label;
+            this.nodes = nodes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.unibi.agbi.biodwh2.core.monitoring.jfr;
+
+import de.unibi.agbi.biodwh2.core.monitoring.ProfilingEvents;
+import jdk.jfr.*;
+
+@Name("de.unibi.agbi.biodwh2.MergeSource")
+@Label("Merge Source")
+@Category("BioDWH2")
+@Description("Merge of a data source graph into the merged graph")
+final class MergeSourceEvent extends Event implements ProfilingEvents.MergeSource {
+    @Label("Data Source")
+    String dataSourceId;
+    @Label("Nodes")
+    long nodes;
+    @Label("Edges")
+    long edges;
+
+    @Override
+    public void end(final String dataSourceId, final long nodes, final long edges) {
+        end();
+        if (shouldCommit()) {
+            this.dataSourceId = dataSourceId;
+            this.nodes = nodes;
+            this.edges = edges;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package de.unibi.agbi.biodwh2.core;
+
+public final class TestUtils {
+    private TestUtils() {
+    }
+
+    public static int count(final Iterable<?> iterable) {
+        int result = 0;
+        for (final Object ignored : iterable)
+            result++;
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    @Test
+    void addedValuesAreAlwaysFound() {
+        final BloomFilter filter = new BloomFilter(10000);
+        for (int i = 0; i < 10000; i++)
+            filter.add("value" + i);
+        for (int i = 0; i < 10000; i++)
+            assertTrue(filter.mightContain("value" + i));
+        assertFalse(filter.mightContain(null));
+        assertFalse(filter.isSaturated());
+        assertEquals(10000, filter.getInsertions());
+    }
+
+    @Test
+    void falsePositiveRateIsConfigurable() {
+        final BloomFilter filter = new BloomFilter(10000, 0.05);
+        final BloomFilter smallFilter = new BloomFilter(10000, 0.001);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("value" + i);
+            smallFilter.add("value" + i);
+        }
+        int falsePositives = 0;
+        int smallFalsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("missing" + i))
+                falsePositives++;
+            if (smallFilter.mightContain("missing" + i))
+                smallFalsePositives++;
+        }
+        assertEquals(0.05, falsePositives / 100000.0, 0.01);
+        assertEquals(0.05, filter.estimateFalsePositiveRate(), 0.01);
+        assertEquals(0.001, smallFalsePositives / 100000.0, 0.001);
+        assertTrue(smallFilter.getSizeInBytes() > filter.getSizeInBytes());
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    }
+
+    @Test
+    void integralNumbersAreFoundRegardlessOfType() {
+        final BloomFilter filter = new BloomFilter(100);
+        filter.add(42);
+        assertTrue(filter.mightContain(42L));
+        assertTrue(filter.mightContain((short) 42));
+    }
+
+    @Test
+    void valuesWithoutStableHashAreNeverRejected() {
+        final BloomFilter filter = new BloomFilter(100);
+        filter.add(Thread.State.NEW);
+        assertEquals(0, filter.getInsertions());
+        assertTrue(filter.mightContain(Thread.State.BLOCKED));
+        filter.add(true);
+        filter.add('c');
+        assertTrue(filter.mightContain(true));
+        assertTrue(filter.mightContain('c'));
+        assertEquals(2, filter.getInsertions());
+    }
+
+    @Test
+    void saturationAndCopy() {
+        final BloomFilter filter = new BloomFilter(100);
+        for (int i = 0; i < 100; i++)
+            filter.add(i);
+        final BloomFilter copy = filter.copy();
+        filter.add(100);
+        assertTrue(filter.isSaturated());
+        assertFalse(copy.isSaturated());
+        assertTrue(copy.mightContain(99));
+    }
+}
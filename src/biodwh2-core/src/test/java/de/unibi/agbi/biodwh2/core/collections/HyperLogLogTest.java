@@ -0,0 +1,55 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+    @Test
+    void estimatesSmallCardinalities() {
+        final HyperLogLog sketch = new HyperLogLog();
+        assertEquals(0, sketch.estimate());
+        for (int i = 0; i < 3; i++) {
+            sketch.add("a");
+            sketch.add("b");
+            sketch.add(null);
+        }
+        assertEquals(2, sketch.estimate());
+    }
+
+    @Test
+    void estimatesLargeCardinalities() {
+        final HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 200000; i++) {
+            sketch.add("value" + i);
+            sketch.add("value" + i / 2);
+        }
+        assertEquals(200000, sketch.estimate(), 200000 * 0.05);
+    }
+
+    @Test
+    void integralNumbersAreCountedOnce() {
+        final HyperLogLog sketch = new HyperLogLog();
+        sketch.add(1);
+        sketch.add(1L);
+        sketch.add((short) 1);
+        sketch.add(2L);
+        assertEquals(2, sketch.estimate());
+    }
+
+    @Test
+    void mergeAndCopy() {
+        final HyperLogLog first = new HyperLogLog();
+        final HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            first.add(i);
+            second.add(i + 500);
+        }
+        final HyperLogLog copy = first.copy();
+        first.merge(second);
+        assertEquals(1500, first.estimate(), 1500 * 0.05);
+        assertEquals(1000, copy.estimate(), 1000 * 0.05);
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(12)));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+    }
+}
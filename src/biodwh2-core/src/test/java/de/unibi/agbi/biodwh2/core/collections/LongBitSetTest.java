@@ -0,0 +1,37 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongBitSetTest {
+    @Test
+    void setAndGetSpreadValues() {
+        final LongBitSet set = new LongBitSet();
+        final long[] values = {0, 63, 64, 65535, 65536, System.nanoTime(), Long.MAX_VALUE, -1};
+        for (final long value : values)
+            assertTrue(set.set(value));
+        assertFalse(set.set(63));
+        assertEquals(values.length, set.cardinality());
+        for (final long value : values)
+            assertTrue(set.get(value));
+        assertFalse(set.get(1));
+        assertFalse(set.get(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void orAddsAllValues() {
+        final LongBitSet a = new LongBitSet();
+        a.set(1);
+        a.set(100000);
+        final LongBitSet b = new LongBitSet();
+        b.set(1);
+        b.set(2);
+        b.set(1L << 40);
+        a.or(b);
+        assertEquals(4, a.cardinality());
+        assertTrue(a.get(2));
+        assertTrue(a.get(1L << 40));
+        assertTrue(a.get(100000));
+    }
+}
@@ -0,0 +1,69 @@
+package de.unibi.agbi.biodwh2.core.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillableMapTest {
+    @Test
+    void spilledEntriesAreStillAccessible() {
+        try (SpillableMap<String, Long> map = new SpillableMap<>("test", "test", 64)) {
+            map.put("a", 1L);
+            map.put("b", 2L);
+            map.spill();
+            assertTrue(map.hasSpilled());
+            assertEquals(0, map.getEstimatedBytes());
+            map.put("c", 3L);
+            assertEquals(3, map.size());
+            assertEquals(1L, map.get("a"));
+            assertEquals(3L, map.get("c"));
+            assertTrue(map.containsKey("b"));
+            assertNull(map.get("d"));
+            long sum = 0;
+            for (final Map.Entry<String, Long> entry : map.entrySet())
+                sum += entry.getValue();
+            assertEquals(6, sum);
+        }
+    }
+
+    @Test
+    void putReplacesSpilledValue() {
+        try (SpillableMap<String, Long> map = new SpillableMap<>("test", "test", 64)) {
+            map.put("a", 1L);
+            map.spill();
+            assertEquals(1L, map.put("a", 2L));
+            assertEquals(1, map.size());
+            assertEquals(2L, map.get("a"));
+            assertEquals(2L, map.remove("a"));
+            assertTrue(map.isEmpty());
+        }
+    }
+
+    @Test
+    void promotedValuesKeepMutations() {
+        try (SpillableMap<Long, Set<String>> map = new SpillableMap<>("test", "test", 64, true)) {
+            map.put(1L, new HashSet<>());
+            map.get(1L).add("x");
+            map.spill();
+            map.get(1L).add("y");
+            map.spill();
+            assertEquals(2, map.get(1L).size());
+        }
+    }
+
+    @Test
+    void releaseRequestSpillsOnNextPut() {
+        try (SpillableMap<String, Long> map = new SpillableMap<>("test", "test", 64)) {
+            map.put("a", 1L);
+            map.requestRelease();
+            map.put("b", 2L);
+            assertTrue(map.hasSpilled());
+            assertEquals(0, map.getEstimatedBytes());
+            assertEquals(2, map.size());
+        }
+    }
+}
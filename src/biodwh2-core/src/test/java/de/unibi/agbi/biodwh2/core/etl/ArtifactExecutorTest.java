@@ -0,0 +1,37 @@
+package de.unibi.agbi.biodwh2.core.etl;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactExecutorTest {
+    @Test
+    void artifactsReadGraphAndReportFailures() throws IOException {
+        final ArtifactExecutor executor = new ArtifactExecutor(1);
+        final Graph graph = Graph.createTempGraph();
+        graph.addNode("Drug", "id", 1);
+        final AtomicLong numberOfNodes = new AtomicLong();
+        executor.submit("test", graph, Arrays.asList(ArtifactExecutor.artifact("count", g -> {
+            numberOfNodes.set(g.getNumberOfNodes());
+            return true;
+        }), ArtifactExecutor.artifact("unsuccessful", g -> false), ArtifactExecutor.artifact("throwing", g -> {
+            throw new IllegalStateException("expected");
+        })));
+        executor.await("test");
+        assertEquals(1, numberOfNodes.get());
+        final List<ArtifactExecutor.Failure> failures = executor.getFailures();
+        assertEquals(2, failures.size());
+        assertEquals("unsuccessful", failures.get(0).getArtifactName());
+        assertNull(failures.get(0).getException());
+        assertEquals("throwing", failures.get(1).getArtifactName());
+        assertEquals("test", failures.get(1).getDataSourceId());
+        executor.awaitAll();
+        assertTrue(executor.getFailures().isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.io.graph.ColumnarFormat.ColumnType;
+import de.unibi.agbi.biodwh2.core.io.graph.ColumnarFormat.TableKind;
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarGraphWriterTest {
+    @Test
+    void writtenTablesCanBeReadBack() throws Exception {
+        final Path outputPath = Files.createTempDirectory("columnar-writer-test");
+        try (Graph g = Graph.createTempGraph()) {
+            final Node first = g.addNode("Gene", "name", "a", "ids", new int[]{1, 2}, "score", 0.5);
+            final Node second = g.addNode("Gene", "name", "a");
+            final Node third = g.addNode("Gene", "name", "b", "ids", new int[0]);
+            final Edge edge = g.addEdge(first, second, "INTERACTS", "source", "x");
+            assertTrue(new ColumnarGraphWriter(2).write(outputPath, g));
+
+            try (ColumnarTableReader reader = new ColumnarTableReader(outputPath.resolve("nodes_Gene.bcol"))) {
+                assertEquals(TableKind.NODES, reader.getKind());
+                assertEquals("Gene", reader.getLabel());
+                assertEquals(4, reader.getColumns().size());
+                assertEquals(Node.ID_FIELD, reader.getColumns().get(0).getName());
+                assertEquals("ids", reader.getColumns().get(1).getName());
+                assertTrue(reader.getColumns().get(1).isList());
+                assertEquals(ColumnType.INT, reader.getColumns().get(1).getType());
+                assertEquals(ColumnType.DOUBLE, reader.getColumns().get(3).getType());
+                final Map<Long, Map<String, Object>> rows = new HashMap<>();
+                ColumnarTableReader.RowGroup rowGroup = reader.readRowGroup();
+                assertEquals(2, rowGroup.getRowCount());
+                addRows(rows, reader, rowGroup);
+                rowGroup = reader.readRowGroup();
+                assertEquals(1, rowGroup.getRowCount());
+                addRows(rows, reader, rowGroup);
+                assertEquals(3, rows.size());
+                assertArrayEquals(new Object[]{1, 2}, (Object[]) rows.get(first.getId()).get("ids"));
+                assertEquals(0.5, rows.get(first.getId()).get("score"));
+                assertEquals("a", rows.get(second.getId()).get("name"));
+                assertNull(rows.get(second.getId()).get("ids"));
+                assertNull(rows.get(second.getId()).get("score"));
+                assertArrayEquals(new Object[0], (Object[]) rows.get(third.getId()).get("ids"));
+                assertNull(reader.readRowGroup());
+            }
+            try (ColumnarTableReader reader = new ColumnarTableReader(outputPath.resolve("edges_INTERACTS.bcol"))) {
+                assertEquals(TableKind.EDGES, reader.getKind());
+                final ColumnarTableReader.RowGroup rowGroup = reader.readRowGroup();
+                assertEquals(1, rowGroup.getRowCount());
+                assertEquals(edge.getId(), rowGroup.getValue(Edge.ID_FIELD, 0));
+                assertEquals(first.getId(), rowGroup.getValue(Edge.FROM_ID_FIELD, 0));
+                assertEquals(second.getId(), rowGroup.getValue(Edge.TO_ID_FIELD, 0));
+                assertEquals("x", rowGroup.getValue("source", 0));
+                assertNull(reader.readRowGroup());
+            }
+        } finally {
+            FileUtils.deleteDirectory(outputPath.toFile());
+        }
+    }
+
+    private static void addRows(final Map<Long, Map<String, Object>> rows, final ColumnarTableReader reader,
+                                final ColumnarTableReader.RowGroup rowGroup) {
+        for (int i = 0; i < rowGroup.getRowCount(); i++) {
+            final Map<String, Object> row = new HashMap<>();
+            for (int j = 0; j < reader.getColumns().size(); j++)
+                row.put(reader.getColumns().get(j).getName(), rowGroup.getValue(j, i));
+            rows.put((Long) row.get(Node.ID_FIELD), row);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.ElementType;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.GraphDiffSummary;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.IdentityMode;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.StableIdentityHasher;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphDeltaExporterTest {
+    @Test
+    void exportsChangesRelativeToThePreviousManifest() throws Exception {
+        final Path outputPath = Files.createTempDirectory("delta-exporter-test");
+        try (Graph oldGraph = Graph.createTempGraph(); Graph newGraph = Graph.createTempGraph()) {
+            for (final Graph g : new Graph[]{oldGraph, newGraph})
+                g.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
+            final Node a1 = oldGraph.addNode("Gene", "id", "a", "name", "old");
+            final Node b1 = oldGraph.addNode("Gene", "id", "b");
+            oldGraph.addEdge(a1, b1, "INTERACTS", "score", 1.0);
+            newGraph.addNode("Gene", "id", "a", "name", "new");
+            newGraph.addNode("Gene", "id", "c");
+
+            final GraphDeltaExporter exporter = new GraphDeltaExporter(DeltaFormat.CSV, IdentityMode.KEYS, null, 1);
+            exporter.export(oldGraph, outputPath, null);
+            assertTrue(Files.exists(outputPath.resolve(GraphDeltaExporter.MANIFEST_FILE_NAME)));
+            assertEquals(2, readRows(outputPath, CsvGraphDeltaWriter.NODE_UPSERTS_FILE_NAME).size());
+            final List<String> edgeUpserts = readRows(outputPath, CsvGraphDeltaWriter.EDGE_UPSERTS_FILE_NAME);
+            assertEquals(1, edgeUpserts.size());
+            assertTrue(edgeUpserts.get(0).endsWith(",\"{\"\"score\"\":1.0}\""));
+            assertEquals(0, readRows(outputPath, GraphDeltaWriter.NODE_DELETES_FILE_NAME).size());
+
+            exporter.export(newGraph, outputPath, null);
+            final List<String> nodeUpserts = readRows(outputPath, CsvGraphDeltaWriter.NODE_UPSERTS_FILE_NAME);
+            assertEquals(2, nodeUpserts.size());
+            assertTrue(nodeUpserts.stream().anyMatch(row -> row.contains("\"\"name\"\":\"\"new\"\"")));
+            assertEquals(0, readRows(outputPath, CsvGraphDeltaWriter.EDGE_UPSERTS_FILE_NAME).size());
+            final StableIdentityHasher hasher = new StableIdentityHasher(oldGraph, IdentityMode.KEYS);
+            final List<String> nodeDeletes = readRows(outputPath, GraphDeltaWriter.NODE_DELETES_FILE_NAME);
+            assertEquals(1, nodeDeletes.size());
+            assertEquals(hasher.getNodeIdentity(b1) + ",\"Gene\"", nodeDeletes.get(0));
+            assertEquals(1, readRows(outputPath, GraphDeltaWriter.EDGE_DELETES_FILE_NAME).size());
+
+            exporter.export(newGraph, outputPath, null);
+            assertEquals(0, readRows(outputPath, CsvGraphDeltaWriter.NODE_UPSERTS_FILE_NAME).size());
+            assertEquals(0, readRows(outputPath, GraphDeltaWriter.NODE_DELETES_FILE_NAME).size());
+
+            final GraphDeltaExporter propertiesExporter = new GraphDeltaExporter(DeltaFormat.CSV,
+                                                                                 IdentityMode.PROPERTIES);
+            assertThrows(IOException.class, () -> propertiesExporter.export(newGraph, outputPath, null));
+        } finally {
+            FileUtils.deleteDirectory(outputPath.toFile());
+        }
+    }
+
+    @Test
+    void graphMLUpsertsUseStableIdentities() throws Exception {
+        final Path outputPath = Files.createTempDirectory("delta-exporter-test");
+        try (Graph g = Graph.createTempGraph()) {
+            final Node a = g.addNode("Gene", "id", "a");
+            final Node b = g.addNode("Gene", "id", "b");
+            g.addEdge(a, b, "INTERACTS");
+            new GraphDeltaExporter(DeltaFormat.GRAPH_ML, IdentityMode.KEYS).export(g, outputPath, null);
+
+            final String content = new String(Files.readAllBytes(
+                    outputPath.resolve(GraphMLGraphDeltaWriter.UPSERTS_FILE_NAME)), StandardCharsets.UTF_8);
+            final StableIdentityHasher hasher = new StableIdentityHasher(g, IdentityMode.KEYS);
+            final String aId = "n" + hasher.getNodeIdentity(a).toString();
+            final String bId = "n" + hasher.getNodeIdentity(b).toString();
+            assertTrue(content.contains("<node id=\"" + aId + "\""));
+            assertTrue(content.contains("<node id=\"" + bId + "\""));
+            assertTrue(content.contains("source=\"" + aId + "\" target=\"" + bId + "\""));
+            assertTrue(content.trim().endsWith("</graphml>"));
+        } finally {
+            FileUtils.deleteDirectory(outputPath.toFile());
+        }
+    }
+
+    @Test
+    void parallelEdgesAreExportedIndividuallyAndDanglingEdgesSkipped() throws Exception {
+        final Path outputPath = Files.createTempDirectory("delta-exporter-test");
+        try (Graph oldGraph = Graph.createTempGraph(); Graph newGraph = Graph.createTempGraph()) {
+            for (final Graph g : new Graph[]{oldGraph, newGraph})
+                g.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
+            final Node a1 = oldGraph.addNode("Gene", "id", "a");
+            final Node b1 = oldGraph.addNode("Gene", "id", "b");
+            oldGraph.addEdge(a1, b1, "INTERACTS", "score", 1.0);
+            oldGraph.addEdge(a1, b1, "INTERACTS", "score", 2.0);
+            oldGraph.addEdge(a1, Long.MAX_VALUE, "INTERACTS");
+            final Node a2 = newGraph.addNode("Gene", "id", "a");
+            final Node b2 = newGraph.addNode("Gene", "id", "b");
+            newGraph.addEdge(a2, b2, "INTERACTS", "score", 1.0);
+
+            final GraphDeltaExporter exporter = new GraphDeltaExporter(DeltaFormat.CSV, IdentityMode.KEYS, null, 1);
+            final GraphDiffSummary summary = exporter.export(oldGraph, outputPath, null);
+            assertEquals(1, summary.getDuplicateIdentityCount(ElementType.EDGE));
+            final List<String> edgeUpserts = readRows(outputPath, CsvGraphDeltaWriter.EDGE_UPSERTS_FILE_NAME);
+            assertEquals(2, edgeUpserts.size());
+            final Set<String> edgeIds = new HashSet<>();
+            for (final String row : edgeUpserts)
+                edgeIds.add(row.substring(0, row.indexOf(',')));
+            assertEquals(2, edgeIds.size());
+
+            exporter.export(newGraph, outputPath, null);
+            assertEquals(1, readRows(outputPath, CsvGraphDeltaWriter.EDGE_UPSERTS_FILE_NAME).size());
+            final List<String> edgeDeletes = readRows(outputPath, GraphDeltaWriter.EDGE_DELETES_FILE_NAME);
+            assertEquals(3, edgeDeletes.size());
+            for (final String row : edgeDeletes)
+                edgeIds.remove(row.substring(0, row.indexOf(',')));
+            assertTrue(edgeIds.isEmpty());
+            assertEquals(0, readRows(outputPath, CsvGraphDeltaWriter.NODE_UPSERTS_FILE_NAME).size());
+        } finally {
+            FileUtils.deleteDirectory(outputPath.toFile());
+        }
+    }
+
+    private static List<String> readRows(final Path outputPath, final String fileName) throws IOException {
+        final List<String> lines = Files.readAllLines(outputPath.resolve(fileName), StandardCharsets.UTF_8);
+        return lines.subList(1, lines.size());
+    }
+}
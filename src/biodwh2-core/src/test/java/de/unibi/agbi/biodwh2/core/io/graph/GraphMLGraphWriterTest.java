@@ -0,0 +1,111 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphMLGraphWriterTest {
+    @Test
+    void writtenGraphIsWellFormedAndComplete() throws Exception {
+        final Path filePath = Files.createTempFile("graphml-writer-test", ".graphml");
+        try (Graph g = Graph.createTempGraph()) {
+            final Node a = g.addNode("Gene", "name", "A & <B>", "ids", new int[]{1, 2});
+            final Node b = g.addNode("Drug", "name", "say \"hi\"\n");
+            final Edge e = g.addEdge(a, b, "TARGETS", "score", 0.5);
+            assertTrue(new GraphMLGraphWriter().write(filePath, g));
+            final Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+                    filePath.toFile());
+            final Map<String, String> keyNames = new HashMap<>();
+            final NodeList keys = document.getElementsByTagName("key");
+            for (int i = 0; i < keys.getLength(); i++) {
+                final Element key = (Element) keys.item(i);
+                keyNames.put(key.getAttribute("id"), key.getAttribute("for") + "|" + key.getAttribute("attr.name"));
+            }
+            assertEquals(6, keyNames.size());
+            final NodeList nodes = document.getElementsByTagName("node");
+            assertEquals(2, nodes.getLength());
+            final Element nodeA = findById(nodes, "n" + a.getId());
+            assertEquals(":Gene", nodeA.getAttribute("labels"));
+            final Map<String, String> nodeAData = getData(nodeA, keyNames);
+            assertEquals(":Gene", nodeAData.get("node|labels"));
+            assertEquals("A & <B>", nodeAData.get("node|name"));
+            assertEquals("[1,2]", nodeAData.get("node|ids"));
+            assertEquals("say \"hi\"\n", getData(findById(nodes, "n" + b.getId()), keyNames).get("node|name"));
+            final NodeList edges = document.getElementsByTagName("edge");
+            assertEquals(1, edges.getLength());
+            final Element edge = (Element) edges.item(0);
+            assertEquals("e" + e.getId(), edge.getAttribute("id"));
+            assertEquals("n" + a.getId(), edge.getAttribute("source"));
+            assertEquals("n" + b.getId(), edge.getAttribute("target"));
+            final Map<String, String> edgeData = getData(edge, keyNames);
+            assertEquals("TARGETS", edgeData.get("edge|label"));
+            assertEquals("0.5", edgeData.get("edge|score"));
+        } finally {
+            Files.deleteIfExists(filePath);
+        }
+    }
+
+    @Test
+    void parallelCompressedOutputEqualsSerialOutput() throws Exception {
+        final Path filePath = Files.createTempFile("graphml-writer-test", ".graphml");
+        final Path compressedFilePath = Files.createTempFile("graphml-writer-test", ".graphml.gz");
+        try (Graph g = Graph.createTempGraph()) {
+            Node previous = null;
+            for (int i = 0; i < 10000; i++) {
+                final Node node = g.addNode(i % 3 == 0 ? "A" : "B", "index", i, "name", "node <" + i + ">");
+                if (previous != null)
+                    g.addEdge(previous, node, "NEXT", "weight", i * 0.5);
+                previous = node;
+            }
+            assertTrue(new GraphMLGraphWriter().write(filePath, g));
+            assertTrue(new GraphMLGraphWriter(true, 4).write(compressedFilePath, g));
+            final byte[] expected = Files.readAllBytes(filePath);
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            try (InputStream stream = new GZIPInputStream(Files.newInputStream(compressedFilePath))) {
+                final byte[] buffer = new byte[8192];
+                int length;
+                while ((length = stream.read(buffer)) != -1)
+                    actual.write(buffer, 0, length);
+            }
+            assertArrayEquals(expected, actual.toByteArray());
+            assertTrue(Files.size(compressedFilePath) < expected.length);
+        } finally {
+            Files.deleteIfExists(filePath);
+            Files.deleteIfExists(compressedFilePath);
+        }
+    }
+
+    private static Element findById(final NodeList elements, final String id) {
+        for (int i = 0; i < elements.getLength(); i++)
+            if (id.equals(((Element) elements.item(i)).getAttribute("id")))
+                return (Element) elements.item(i);
+        return fail("Element '" + id + "' not found");
+    }
+
+    private static Map<String, String> getData(final Element element, final Map<String, String> keyNames) {
+        final Map<String, String> data = new HashMap<>();
+        final NodeList children = element.getElementsByTagName("data");
+        for (int i = 0; i < children.getLength(); i++) {
+            final Element child = (Element) children.item(i);
+            final String keyName = keyNames.get(child.getAttribute("key"));
+            assertNotNull(keyName);
+            data.put(keyName, child.getTextContent());
+        }
+        return data;
+    }
+}
@@ -0,0 +1,49 @@
+package de.unibi.agbi.biodwh2.core.io.graph;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Neo4jCsvGraphWriterTest {
+    @Test
+    void writesTypedHeadersAndRows() throws Exception {
+        final Path outputPath = Files.createTempDirectory("neo4j-csv-writer-test");
+        try (Graph g = Graph.createTempGraph()) {
+            final Node gene = g.addNode("Gene", "name", "say \"hi\"", "ids", new int[]{1, 2}, "score", 0.5);
+            final Node drug = g.addNode("Drug", "names", new String[]{"a", "b"}, "approved", true);
+            g.addEdge(drug, gene, "TARGETS", "source", "x,y");
+            assertTrue(new Neo4jCsvGraphWriter(2).write(outputPath, g));
+
+            final List<String> genes = Files.readAllLines(outputPath.resolve("nodes_Gene.csv"), StandardCharsets.UTF_8);
+            assertEquals(2, genes.size());
+            assertEquals(":ID,:LABEL,ids:int[],name:string,score:double", genes.get(0));
+            assertEquals(gene.getId() + ",\"Gene\",\"1;2\",\"say \"\"hi\"\"\",0.5", genes.get(1));
+
+            final List<String> drugs = Files.readAllLines(outputPath.resolve("nodes_Drug.csv"), StandardCharsets.UTF_8);
+            assertEquals(":ID,:LABEL,approved:boolean,names:string[]", drugs.get(0));
+            assertEquals(drug.getId() + ",\"Drug\",true,\"a;b\"", drugs.get(1));
+
+            final List<String> edges = Files.readAllLines(outputPath.resolve("relationships_TARGETS.csv"),
+                                                          StandardCharsets.UTF_8);
+            assertEquals(2, edges.size());
+            assertEquals(":START_ID,:END_ID,:TYPE,source:string", edges.get(0));
+            assertEquals(drug.getId() + "," + gene.getId() + ",\"TARGETS\",\"x,y\"", edges.get(1));
+
+            final List<String> arguments = Files.readAllLines(
+                    outputPath.resolve(Neo4jCsvGraphWriter.ARGUMENTS_FILE_NAME), StandardCharsets.UTF_8);
+            assertTrue(arguments.contains("--id-type=INTEGER"));
+            assertEquals(2, arguments.stream().filter(a -> a.startsWith("--nodes=")).count());
+            assertEquals(1, arguments.stream().filter(a -> a.startsWith("--relationships=")).count());
+        } finally {
+            FileUtils.deleteDirectory(outputPath.toFile());
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package de.unibi.agbi.biodwh2.core.io.mvstore;
 
+import de.unibi.agbi.biodwh2.core.io.storage.BloomFilterStatistics;
+import de.unibi.agbi.biodwh2.core.io.storage.PropertySchema;
+import org.h2.mvstore.MVStore;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
+
+import static de.unibi.agbi.biodwh2.core.TestUtils.count;
+import static org.junit.jupiter.api.Assertions.*;
 
 class MVStoreCollectionTest {
     private static class TestModel1 extends MVStoreModel {
@@ -49,4 +57,130 @@ class MVStoreCollectionTest {
             collection2.put(TestModel2.newTestModel());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void schemaCatalogIsStoredOnClose() throws IOException {
+        final Path tempFilePath = Files.createTempFile("MVStoreCollectionTest.schemaCatalogIsStoredOnClose", ".db");
+        TestModel1 updated = null;
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString())) {
+            final MVStoreCollection<TestModel1> collection = db.getCollection("test");
+            for (int i = 0; i < 1000; i++) {
+                final TestModel1 model = TestModel1.newTestModel();
+                model.put("name", "name" + i);
+                model.put("tags", new String[]{"tag" + i % 10, "tag" + (i + 1) % 10});
+                if (i % 2 == 0)
+                    model.put("group", i % 5);
+                collection.put(model);
+                updated = model;
+            }
+            updated.put("group", 1);
+            collection.put(updated);
+            assertSchemas(collection.getPropertySchemas(), 501);
+        }
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString(), true)) {
+            final MVStoreCollection<TestModel1> collection = db.getCollection("test");
+            assertSchemas(collection.getPropertySchemas(), 501);
+            assertEquals(1, count(collection.find("name", "name7")));
+        }
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString())) {
+            final MVStoreCollection<TestModel1> collection = db.getCollection("test");
+            collection.remove(updated);
+            final Map<String, PropertySchema> schemas = collection.getPropertySchemas();
+            assertEquals(999, schemas.get("name").getCount());
+            assertEquals(500, schemas.get("group").getCount());
+        }
+    }
+
+    @Test
+    void bloomFiltersAnswerMissesAndAreRebuiltIfStale() throws IOException {
+        final Path tempFilePath = Files.createTempFile("MVStoreCollectionTest.bloomFiltersAnswerMisses", ".db");
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString())) {
+            final MVStoreCollection<TestModel1> collection = db.getCollection("test");
+            collection.addIndex("name", false, MVStoreIndexType.UNIQUE, 0.01);
+            collection.addIndex("tags", true, MVStoreIndexType.NON_UNIQUE, 0.05);
+            // More values than the initial capacity, so the filters are rebuilt while writing
+            for (int i = 0; i < 3000; i++) {
+                final TestModel1 model = TestModel1.newTestModel();
+                model.put("name", "name" + i);
+                model.put("tags", new String[]{"tag" + i % 10});
+                collection.put(model);
+            }
+            assertBloomFilters(collection);
+            assertEquals(0.05, collection.getBloomFilterStatistics().get("tags").getFalsePositiveRate());
+        }
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString(), true)) {
+            final MVStoreCollection<TestModel1> collection = db.getCollection("test");
+            assertEquals(2, collection.getBloomFilterStatistics().size());
+            for (final MVIndexDescription description : collection.getIndexDescriptions())
+                assertTrue(description.getBloomFilterFalsePositiveRate() > 0);
+            assertBloomFilters(collection);
+        }
+        // Write a model without maintaining the filters, as older versions would
+        final TestModel1 model = TestModel1.newTestModel();
+        model.put("name", "unfiltered");
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString())) {
+            db.openMap("test").put(model.getId(), model);
+            db.openMap("test$name").put("unfiltered", model.getId());
+        }
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString())) {
+            final MVStoreCollection<TestModel1> collection = db.getCollection("test");
+            assertEquals(1, count(collection.find("name", "unfiltered")));
+            assertBloomFilters(collection);
+        }
+    }
+
+    @Test
+    void bloomFiltersAreNotReusedAfterUnstoredModifications() throws Exception {
+        final Path tempFilePath = Files.createTempFile("MVStoreCollectionTest.bloomFiltersNotReused", ".db");
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString())) {
+            final MVStoreCollection<TestModel1> collection = db.getCollection("test");
+            collection.addIndex("name", false, MVStoreIndexType.UNIQUE, 0.01);
+            final TestModel1 model = TestModel1.newTestModel();
+            model.put("name", "before");
+            collection.put(model);
+            db.commit();
+            // Change the indexed value without changing the number of models and stop without storing the filters
+            model.put("name", "after");
+            collection.put(model);
+            final Field storeField = MVStoreDB.class.getDeclaredField("store");
+            storeField.setAccessible(true);
+            final MVStore store = (MVStore) storeField.get(db);
+            store.commit();
+            store.closeImmediately();
+        }
+        try (MVStoreDB db = new MVStoreDB(tempFilePath.toString(), true)) {
+            final MVStoreCollection<TestModel1> collection = db.getCollection("test");
+            assertEquals(1, count(collection.find("name", "after")));
+            assertEquals(0, count(collection.find("name", "before")));
+        }
+    }
+
+    private static void assertBloomFilters(final MVStoreCollection<TestModel1> collection) {
+        assertEquals(1, count(collection.find("name", "name7")));
+        assertEquals(300, count(collection.find("tags", "tag3")));
+        for (int i = 0; i < 1000; i++)
+            assertEquals(0, count(collection.find("name", "missing" + i)));
+        final BloomFilterStatistics statistics = collection.getBloomFilterStatistics().get("name");
+        assertEquals(0.01, statistics.getFalsePositiveRate());
+        assertTrue(statistics.getInsertions() >= 3000);
+        assertEquals(1000, statistics.getNegatives() + statistics.getFalsePositives());
+        assertTrue(statistics.getObservedFalsePositiveRate() < 0.05);
+    }
+
+    private static void assertSchemas(final Map<String, PropertySchema> schemas, final long groupCount) {
+        final PropertySchema name = schemas.get("name");
+        assertEquals(String.class, name.getType().getType());
+        assertEquals(1000, name.getCount());
+        assertFalse(name.isNullable());
+        assertEquals(1000, name.getEstimatedDistinctValues(), 50);
+        final PropertySchema tags = schemas.get("tags");
+        assertTrue(tags.isArray());
+        assertEquals(String.class, tags.getType().getComponentType());
+        assertEquals(10, tags.getEstimatedDistinctValues());
+        final PropertySchema group = schemas.get("group");
+        assertEquals(Integer.class, group.getType().getType());
+        assertEquals(groupCount, group.getCount());
+        assertTrue(group.isNullable());
+        assertEquals(5, group.getEstimatedDistinctValues());
+    }
+}
@@ -0,0 +1,108 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClosureIndexTest {
+    @Test
+    void matchesTraversalOnRandomDag() throws Exception {
+        try (Graph g = Graph.createTempGraph()) {
+            final Random random = new Random(42);
+            final List<Node> nodes = new ArrayList<>();
+            for (int i = 0; i < 200; i++)
+                nodes.add(g.addNode("Term", "id", i));
+            final Map<Long, Set<Long>> parents = new HashMap<>();
+            for (int i = 1; i < nodes.size(); i++) {
+                final int parentCount = 1 + random.nextInt(3);
+                for (int j = 0; j < parentCount; j++) {
+                    final Node parent = nodes.get(random.nextInt(i));
+                    g.addEdge(nodes.get(i), parent, "IS_A");
+                    parents.computeIfAbsent(nodes.get(i).getId(), k -> new HashSet<>()).add(parent.getId());
+                }
+            }
+            g.addEdge(nodes.get(5), g.addNode("Other"), "IS_A");
+            final ClosureIndex index = g.buildClosureIndex("Term", "IS_A");
+            assertEquals(200, index.size());
+            for (final Node ancestor : nodes) {
+                final Set<Long> expected = new HashSet<>();
+                for (final Node node : nodes)
+                    if (node != ancestor && collectAncestors(node.getId(), parents).contains(ancestor.getId()))
+                        expected.add(node.getId());
+                for (final Node node : nodes)
+                    assertEquals(expected.contains(node.getId()), index.isDescendant(node.getId(), ancestor.getId()));
+                final List<Long> descendants = index.descendants(ancestor.getId()).boxed().collect(
+                        Collectors.toList());
+                assertEquals(expected.size(), descendants.size());
+                assertEquals(expected, new HashSet<>(descendants));
+            }
+        }
+    }
+
+    private static Set<Long> collectAncestors(final Long nodeId, final Map<Long, Set<Long>> parents) {
+        final Set<Long> result = new HashSet<>();
+        final Deque<Long> queue = new ArrayDeque<>(parents.getOrDefault(nodeId, Collections.emptySet()));
+        while (!queue.isEmpty()) {
+            final Long next = queue.poll();
+            if (result.add(next))
+                queue.addAll(parents.getOrDefault(next, Collections.emptySet()));
+        }
+        return result;
+    }
+
+    @Test
+    void isPersistedAndCarriedOverWhenMerging() throws Exception {
+        final Path path;
+        try (Graph g = Graph.createTempGraph()) {
+            path = g.getFilePath();
+            final Node root = g.addNode("Term", "id", "root");
+            final Node child = g.addNode("Term", "id", "child");
+            final Node grandchild = g.addNode("Term", "id", "grandchild");
+            g.addEdge(child, root, "IS_A");
+            g.addEdge(grandchild, child, "IS_A");
+            g.addEdge(root, grandchild, "IS_A");
+            g.buildClosureIndex("Term", "IS_A");
+        }
+        try (Graph g = new Graph(path, true); Graph merged = Graph.createTempGraph()) {
+            assertNull(g.getClosureIndex("Term", "PART_OF"));
+            final ClosureIndex index = g.getClosureIndex("Term", "IS_A");
+            final long rootId = g.findNode("Term", "id", "root").getId();
+            final long grandchildId = g.findNode("Term", "id", "grandchild").getId();
+            assertTrue(index.isAncestor(rootId, grandchildId));
+            assertEquals(2, index.descendants(rootId).count());
+
+            merged.mergeDatabase("GO", g);
+            assertEquals(1, merged.getClosureIndexKeys().size());
+            final ClosureIndex mergedIndex = merged.getClosureIndex("GO_Term", "GO_IS_A");
+            final long mergedRootId = merged.findNode("GO_Term", "id", "root").getId();
+            final long mergedGrandchildId = merged.findNode("GO_Term", "id", "grandchild").getId();
+            assertTrue(mergedIndex.isDescendant(mergedGrandchildId, mergedRootId));
+            assertFalse(mergedIndex.isDescendant(mergedRootId, mergedRootId));
+        }
+    }
+
+    @Test
+    void isRebuiltAfterMergingNodes() throws Exception {
+        try (Graph g = Graph.createTempGraph()) {
+            final Node root = g.addNode("Term", "id", "root");
+            final Node child = g.addNode("Term", "id", "child");
+            final Node duplicate = g.addNode("Term", "id", "duplicate");
+            final Node grandchild = g.addNode("Term", "id", "grandchild");
+            g.addEdge(child, root, "IS_A");
+            g.addEdge(grandchild, duplicate, "IS_A");
+            g.buildClosureIndex("Term", "IS_A");
+            assertFalse(g.getClosureIndex("Term", "IS_A").isDescendant(grandchild.getId(), root.getId()));
+
+            g.mergeNodes(child, duplicate);
+            g.rebuildStaleClosureIndices();
+            final ClosureIndex index = g.getClosureIndex("Term", "IS_A");
+            assertEquals(3, index.size());
+            assertTrue(index.isDescendant(grandchild.getId(), child.getId()));
+            assertTrue(index.isDescendant(grandchild.getId(), root.getId()));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static de.unibi.agbi.biodwh2.core.TestUtils.count;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilteredGraphViewTest {
+    @Test
+    void sourceAndLabelFiltersSelectLabelsAndConnectingEdges() throws Exception {
+        try (Graph g = Graph.createTempGraph()) {
+            final Node drug = g.addNode("DrugBank_Drug");
+            final Node gene = g.addNode("HGNC_Gene");
+            final Node other = g.addNode("KEGG_Gene");
+            final Node mapped = g.addNode("Gene");
+            g.addEdge(drug, gene, "DrugBank_TARGETS");
+            g.addEdge(drug, other, "DrugBank_TARGETS");
+            g.addEdge(gene, mapped, "MAPPED_TO");
+            final SubgraphFilter filter = new SubgraphFilter().includeSources("DrugBank", "HGNC",
+                                                                              SubgraphFilter.MAPPING_LAYER_SOURCE)
+                                                              .dataSourceIds("DrugBank", "HGNC", "KEGG");
+            final FilteredGraphView view = new FilteredGraphView(g, filter);
+            assertEquals(3, view.getNodeLabels().length);
+            assertEquals(3, count(view.getNodes()));
+            assertEquals(2, count(view.getEdges()));
+            assertEquals(2, view.getNumberOfEdges());
+            assertEquals(0, count(view.findNodes("KEGG_Gene")));
+
+            final SubgraphFilter excludeGenes = new SubgraphFilter().excludeNodeLabels("*Gene");
+            final FilteredGraphView excluded = new FilteredGraphView(g, excludeGenes);
+            assertEquals(1, count(excluded.getNodes()));
+            assertEquals(0, count(excluded.getEdges()));
+            assertEquals(0, excluded.getNumberOfEdges());
+            assertEquals(3, new FilteredGraphView(g, new SubgraphFilter()).getNumberOfEdges());
+        }
+    }
+
+    @Test
+    void seedLabelsAreExpandedByHops() throws Exception {
+        try (Graph g = Graph.createTempGraph()) {
+            final Node a = g.addNode("A");
+            final Node b = g.addNode("B");
+            final Node c = g.addNode("C");
+            final Node d = g.addNode("D");
+            g.addEdge(a, b, "R");
+            g.addEdge(c, b, "R");
+            g.addEdge(c, d, "R");
+            final Set<Long> ids = new HashSet<>();
+            final SubgraphFilter twoHops = new SubgraphFilter().seedNodeLabels("A").hops(2);
+            for (final Node node : new FilteredGraphView(g, twoHops).getNodes())
+                ids.add(node.getId());
+            assertEquals(3, ids.size());
+            assertTrue(ids.contains(a.getId()) && ids.contains(b.getId()) && ids.contains(c.getId()));
+            final FilteredGraphView oneHop = new FilteredGraphView(g, new SubgraphFilter().seedNodeLabels("A").hops(1));
+            assertEquals(2, oneHop.getNumberOfNodes());
+            assertEquals(1, count(oneHop.getEdges()));
+            assertEquals(1, oneHop.getNumberOfEdges());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphConcurrencyTest {
+    private static final int READERS = 4;
+    private static final int NODES = 2000;
+    private static final int GROUPS = 10;
+
+    @Test
+    void readersRunConcurrentlyWithWriter() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        try (final Graph g = Graph.createTempGraph()) {
+            g.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
+            g.addIndex(IndexDescription.forNode("Gene", "group", IndexDescription.Type.NON_UNIQUE));
+            final List<Long> ids = new CopyOnWriteArrayList<>();
+            final AtomicBoolean writing = new AtomicBoolean(true);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Long>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                final Random random = new Random(i);
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    long reads = 0;
+                    while (writing.get() || reads == 0)
+                        reads += readGraph(g, ids, random);
+                    return reads;
+                }));
+            }
+            final Future<?> writer = executor.submit(() -> {
+                start.await();
+                try {
+                    Node previous = null;
+                    for (int i = 0; i < NODES; i++) {
+                        final Node node = g.addNode("Gene", "id", "G" + i, "group", i % GROUPS);
+                        // Modify the written node in place, as readers must not observe it
+                        node.setProperty("status", "updated");
+                        g.update(node);
+                        node.setProperty("status", "modified after update");
+                        if (previous != null)
+                            g.addEdge(previous, node, "NEXT");
+                        ids.add(node.getId());
+                        previous = node;
+                    }
+                } finally {
+                    writing.set(false);
+                }
+                return null;
+            });
+            start.countDown();
+            writer.get(60, TimeUnit.SECONDS);
+            for (final Future<Long> reader : readers)
+                assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+            assertEquals(NODES, g.getNumberOfNodes("Gene"));
+            assertEquals(NODES - 1, g.getNumberOfEdges("NEXT"));
+            for (final Node node : g.findNodes("Gene"))
+                assertEquals("updated", node.getProperty("status"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long readGraph(final Graph g, final List<Long> ids, final Random random) {
+        long reads = 0;
+        if (!ids.isEmpty()) {
+            final long id = ids.get(random.nextInt(ids.size()));
+            final Node node = g.getNode(id);
+            assertNotNull(node);
+            assertEquals("Gene", node.getLabel());
+            assertEquals(node.getId(), g.findNode("Gene", "id", node.<String>getProperty("id")).getId());
+            for (final Edge edge : g.findEdges("NEXT", Edge.FROM_ID_FIELD, id))
+                assertEquals(node.getId(), edge.getFromId());
+            reads += 3;
+        }
+        final int group = random.nextInt(GROUPS);
+        for (final Node node : g.findNodes("Gene", "group", group)) {
+            assertEquals(group, (int) node.getProperty("group"));
+            reads++;
+        }
+        for (final Node node : g.findNodes("Gene", "status", "updated"))
+            assertEquals("Gene", node.getLabel());
+        assertTrue(g.getNumberOfNodes() >= 0);
+        return reads;
+    }
+
+    @Test
+    void repositoriesAreCreatedOnceByConcurrentReaders() throws Exception {
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (final Graph g = Graph.createTempGraph()) {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final String label = "Label" + (i % 3);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        assertFalse(g.findNodes(label).iterator().hasNext());
+                        assertFalse(g.findEdges(label, Edge.FROM_ID_FIELD, 1L).iterator().hasNext());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures)
+                future.get(60, TimeUnit.SECONDS);
+            assertEquals(3, g.getNodeLabels().length);
+            assertEquals(3, g.getEdgeLabels().length);
+            final Node node = g.addNode("Label0");
+            assertEquals(node.getId(), g.findNode("Label0").getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void writersOfDifferentAndSameLabelsRunConcurrently() throws Exception {
+        final String[] labels = {"Gene", "Protein", "Pathway"};
+        final int writersPerLabel = 2;
+        final ExecutorService executor = Executors.newFixedThreadPool(labels.length * writersPerLabel);
+        try (final Graph g = Graph.createTempGraph()) {
+            for (final String label : labels)
+                g.addIndex(IndexDescription.forNode(label, "id", IndexDescription.Type.UNIQUE));
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> writers = new ArrayList<>();
+            for (final String label : labels) {
+                for (int i = 0; i < writersPerLabel; i++) {
+                    final int writer = i;
+                    writers.add(executor.submit(() -> {
+                        start.await();
+                        Node previous = null;
+                        for (int j = 0; j < NODES / 4; j++) {
+                            final Node node = g.addNode(label, "id", label + writer + "_" + j, "group", j % GROUPS);
+                            if (previous != null)
+                                g.addEdge(previous, node, label + "_NEXT");
+                            previous = node;
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (final Future<?> writer : writers)
+                writer.get(60, TimeUnit.SECONDS);
+            for (final String label : labels) {
+                assertEquals(writersPerLabel * NODES / 4, g.getNumberOfNodes(label));
+                assertEquals(writersPerLabel * (NODES / 4 - 1), g.getNumberOfEdges(label + "_NEXT"));
+                assertNotNull(g.findNode(label, "id", label + "1_7"));
+                int found = 0;
+                for (final Node ignored : g.findNodes(label, "group", 3))
+                    found++;
+                assertEquals(writersPerLabel * NODES / 4 / GROUPS, found);
+                final Map<EdgeLabelTriple, Long> counts = g.getEdgeLabelTripleCounts();
+                assertEquals(writersPerLabel * (NODES / 4 - 1),
+                             counts.get(new EdgeLabelTriple(label, label + "_NEXT", label)));
+            }
+            assertEquals(labels.length * writersPerLabel * NODES / 4, g.getNumberOfNodes());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void mergeDatabaseWritesLabelsInParallel() throws Exception {
+        try (final Graph source = Graph.createTempGraph(); final Graph merged = Graph.createTempGraph()) {
+            for (int i = 0; i < 5; i++) {
+                Node previous = source.addNode("Label" + i, "id", 0);
+                for (int j = 1; j < 100; j++) {
+                    final Node node = source.addNode("Label" + i, "id", j);
+                    source.addEdge(previous, node, "NEXT" + i);
+                    previous = node;
+                }
+            }
+            merged.mergeDatabase("Test", source, 4);
+            assertEquals(500, merged.getNumberOfNodes());
+            assertEquals(495, merged.getNumberOfEdges());
+            for (int i = 0; i < 5; i++) {
+                final String label = "Test_Label" + i;
+                for (final Edge edge : merged.findEdges("Test_NEXT" + i)) {
+                    final Node from = merged.getNode(edge.getFromId());
+                    final Node to = merged.getNode(edge.getToId());
+                    assertEquals(label, from.getLabel());
+                    assertEquals((int) from.getProperty("id") + 1, (int) to.getProperty("id"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVMapWrapper;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreDB;
+import de.unibi.agbi.biodwh2.core.io.mvstore.MVStoreIndex;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphIntegrityReport.ProblemType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphIntegrityCheckerTest {
+    @Test
+    void consistentGraphHasNoProblems() throws IOException {
+        try (Graph g = createGraph()) {
+            final GraphIntegrityReport report = new GraphIntegrityChecker(2).check(g, false);
+            assertTrue(report.isEmpty());
+        }
+        try (Graph g = Graph.createInMemoryGraph()) {
+            fill(g);
+            assertTrue(new GraphIntegrityChecker(2).check(g, false).isEmpty());
+        }
+    }
+
+    @Test
+    void danglingEdgesAreReported() throws IOException {
+        try (Graph g = createGraph()) {
+            final Node node = g.findNode("Gene", "id", "G1");
+            g.addEdge(node.getId(), 42L, "X");
+            final GraphIntegrityReport report = new GraphIntegrityChecker(2).check(g, false);
+            assertEquals(1, report.getCount(ProblemType.DANGLING_EDGE));
+            assertEquals(1, report.getProblems().size());
+            assertEquals("X", report.getProblems().get(0).getLabel());
+            assertEquals("Edge " + g.findEdge("X").getId() + " to missing node 42",
+                         report.getProblems().get(0).getExamples().get(0));
+        }
+    }
+
+    @Test
+    void inconsistentIndicesAreRepaired() throws IOException {
+        final Path filePath;
+        final long firstId;
+        final long secondId;
+        try (Graph g = createGraph()) {
+            filePath = g.getFilePath();
+            firstId = g.findNode("Gene", "id", "G1").getId();
+            secondId = g.findNode("Gene", "id", "G2").getId();
+        }
+        try (MVStoreDB db = new MVStoreDB(filePath.toString())) {
+            final MVStoreIndex idIndex = db.getCollection("$Gene").getIndex("id");
+            idIndex.remove("G1", firstId);
+            idIndex.put("X", 42L);
+            db.getCollection("$Gene").getIndex("group").put("b", secondId);
+        }
+        try (Graph g = new Graph(filePath, true)) {
+            final GraphIntegrityReport report = new GraphIntegrityChecker(2).check(g, true);
+            assertEquals(1, report.getCount(ProblemType.MISSING_INDEX_ENTRY));
+            assertEquals(1, report.getCount(ProblemType.INDEX_ENTRY_WITHOUT_RECORD));
+            assertEquals(1, report.getCount(ProblemType.STALE_INDEX_ENTRY));
+            assertEquals(0, report.getCount(ProblemType.DUPLICATE_UNIQUE_KEY));
+            assertEquals(2, report.getRepairedIndices().size());
+            assertTrue(new GraphIntegrityChecker(2).check(g, false).isEmpty());
+            assertEquals(firstId, g.findNode("Gene", "id", "G1").getId());
+        }
+    }
+
+    @Test
+    void duplicateUniqueKeysAreNotRepaired() throws IOException {
+        final Path filePath;
+        final Node second;
+        try (Graph g = createGraph()) {
+            filePath = g.getFilePath();
+            second = g.findNode("Gene", "id", "G2");
+        }
+        second.setProperty("id", "G1");
+        try (MVStoreDB db = new MVStoreDB(filePath.toString())) {
+            // Bypasses the collection, so the index still maps G2 to the node
+            final MVMapWrapper<Long, Node> nodes = db.openMap("$Gene");
+            nodes.put(second.getId(), second);
+        }
+        try (Graph g = new Graph(filePath, true)) {
+            final GraphIntegrityReport report = new GraphIntegrityChecker(2).check(g, true);
+            assertEquals(1, report.getCount(ProblemType.DUPLICATE_UNIQUE_KEY));
+            assertEquals(1, report.getCount(ProblemType.STALE_INDEX_ENTRY));
+            assertTrue(report.getRepairedIndices().isEmpty());
+        }
+    }
+
+    private static Graph createGraph() throws IOException {
+        final Graph g = Graph.createTempGraph();
+        fill(g);
+        return g;
+    }
+
+    private static void fill(final Graph g) {
+        g.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
+        g.addIndex(IndexDescription.forNode("Gene", "group"));
+        g.addIndex(IndexDescription.forNode("Gene", "aliases", true));
+        Node previous = null;
+        for (int i = 0; i < 10; i++) {
+            final Node node = g.addNode("Gene", "id", "G" + i, "group", i % 2 == 0 ? "a" : "b", "aliases",
+                                        new String[]{"A" + i, "B"});
+            if (previous != null)
+                g.addEdge(previous, node, "NEXT");
+            previous = node;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static de.unibi.agbi.biodwh2.core.TestUtils.count;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphReadSessionTest {
+    @Test
+    void sessionSeesVersionWhenOpened() throws Exception {
+        try (final Graph g = Graph.createTempGraph()) {
+            g.addIndex(IndexDescription.forNode("Gene", "group", IndexDescription.Type.NON_UNIQUE));
+            g.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
+            final Node first = g.addNode("Gene", "id", "G1", "group", "a");
+            final Node second = g.addNode("Gene", "id", "G2", "group", "a");
+            g.addEdge(first, second, "NEXT");
+            try (final GraphReadSession session = g.openReadSession()) {
+                second.setProperty("group", "b");
+                g.update(second);
+                g.addNode("Gene", "id", "G3", "group", "a");
+                g.addNode("Protein", "id", "P1");
+                g.addEdge(second, first, "NEXT");
+
+                assertEquals(2, session.getNumberOfNodes("Gene"));
+                assertEquals(2, count(session.findNodes("Gene", "group", "a")));
+                assertEquals(0, count(session.findNodes("Gene", "group", "b")));
+                assertEquals("a", session.getNode(second.getId()).getProperty("group"));
+                assertEquals(0, count(session.findNodes("Gene", "id", "G3")));
+                assertEquals(0, session.getNumberOfNodes("Protein"));
+                assertArrayEquals(new String[]{"Gene"}, session.getNodeLabels());
+                assertEquals(1, count(session.getEdges()));
+                assertEquals(1, count(session.findEdges("NEXT", Edge.FROM_ID_FIELD, first.getId())));
+                assertEquals(0, count(session.findEdges("NEXT", Edge.FROM_ID_FIELD, second.getId())));
+
+                assertEquals(3, g.getNumberOfNodes("Gene"));
+                assertEquals(2, count(g.findNodes("Gene", "group", "a")));
+                assertEquals(1, count(g.findNodes("Gene", "group", "b")));
+                assertEquals(2, g.getNumberOfEdges("NEXT"));
+            }
+            try (final GraphReadSession session = g.openReadSession()) {
+                assertEquals(3, session.getNumberOfNodes("Gene"));
+                assertEquals(1, count(session.findNodes("Gene", "group", "b")));
+                assertEquals(1, session.getNumberOfNodes("Protein"));
+            }
+        }
+    }
+
+    @Test
+    void sessionOnReadOnlyGraph() throws Exception {
+        final Path filePath;
+        try (final Graph g = Graph.createTempGraph()) {
+            filePath = g.getFilePath();
+            g.addIndex(IndexDescription.forNode("Gene", "group", IndexDescription.Type.NON_UNIQUE));
+            g.addNode("Gene", "group", "a");
+            g.addNode("Gene", "group", "a");
+        }
+        try (final Graph g = new Graph(filePath, true, true);
+             final GraphReadSession session = g.openReadSession()) {
+            assertEquals(2, session.getNumberOfNodes());
+            assertEquals(2, count(session.findNodes("Gene", "group", "a")));
+        }
+    }
+
+    @Test
+    void indexLookupsAndScansAgreeWhileWriting() throws Exception {
+        try (final Graph g = Graph.createTempGraph()) {
+            g.addIndex(IndexDescription.forNode("Gene", "group", IndexDescription.Type.NON_UNIQUE));
+            final List<Node> nodes = new ArrayList<>();
+            for (int i = 0; i < 100; i++)
+                nodes.add(g.addNode("Gene", "group", "a"));
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final Thread writer = new Thread(() -> {
+                for (int i = 0; running.get(); i++) {
+                    final Node node = nodes.get(i % nodes.size());
+                    node.setProperty("group", "a".equals(node.getProperty("group")) ? "b" : "a");
+                    g.update(node);
+                    if (i % 10 == 0)
+                        g.addNode("Gene", "group", "a");
+                }
+            });
+            writer.start();
+            try {
+                for (int i = 0; i < 50; i++)
+                    try (final GraphReadSession session = g.openReadSession()) {
+                        int scanned = 0;
+                        for (final Node node : session.findNodes("Gene"))
+                            if ("a".equals(node.getProperty("group")))
+                                scanned++;
+                        assertEquals(scanned, count(session.findNodes("Gene", "group", "a")));
+                    }
+            } finally {
+                running.set(false);
+                writer.join();
+            }
+        }
+    }
+}
@@ -1,21 +1,26 @@
 package de.unibi.agbi.biodwh2.core.model.graph;
 
+import de.unibi.agbi.biodwh2.core.model.graph.meta.MetaGraph;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class GraphTest {
+    /**
+     * Graph of the backend under test. Tests of reopening graphs always use file graphs.
+     */
+    Graph createGraph() throws IOException {
+        return Graph.createTempGraph();
+    }
+
     @Test
     void testFindNode() throws Exception {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         Node node = g.addNode("Gene");
         node.setProperty("test", "Hello");
         g.update(node);
@@ -28,7 +33,7 @@ class GraphTest {
 
     @Test
     void testFindNodeWithDifferingTypes() throws Exception {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         g.addNode("A", "test1", 1234, "test2", 56789L, "test3", -12, "test4", (byte) 42);
         assertNotNull(g.findNode("A", "test1", (short) 1234));
         assertNotNull(g.findNode("A", "test1", 1234));
@@ -47,7 +52,7 @@ class GraphTest {
 
     @Test
     void nodeKeepsIdOnRetrieve() throws IOException {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         Node n = g.addNode("Test");
         long id = n.getId();
         n = g.getNodes().iterator().next();
@@ -56,7 +61,7 @@ class GraphTest {
 
     @Test
     void nodeKeepsIdOnUpdate() throws IOException {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         final Node n = g.addNode("Test");
         long id = n.getId();
         n.setProperty("key", "value");
@@ -78,7 +83,7 @@ class GraphTest {
 
     @Test
     void numberOfNodesAndEdges() throws IOException {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         final Node n1 = g.addNode("Test");
         final Node n2 = g.addNode("Test");
         g.addEdge(n1, n2, "LABEL1");
@@ -90,7 +95,7 @@ class GraphTest {
 
     @Test
     void differentEdgeLabelsAreRetrievedCorrectly() throws IOException {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         final Node n1 = g.addNode("Test");
         final Node n2 = g.addNode("Test");
         final Edge e1 = g.addEdge(n1, n2, "LABEL1");
@@ -103,7 +108,7 @@ class GraphTest {
 
     @Test
     void getEdgesReturnsAllEdges() throws IOException {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         final Node n1 = g.addNode("Test");
         final Node n2 = g.addNode("Test");
         final Edge e1 = g.addEdge(n1, n2, "LABEL1");
@@ -118,7 +123,7 @@ class GraphTest {
 
     @Test
     void findEdgeByLongFromId() throws IOException {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         final Node n1 = g.addNode("Test");
         final Node n2 = g.addNode("Test");
         final Edge e1 = g.addEdge(n1, n2, "LABEL1");
@@ -129,7 +134,7 @@ class GraphTest {
 
     @Test
     void indexDescriptionsTest() throws IOException {
-        final Graph g = Graph.createTempGraph();
+        final Graph g = createGraph();
         assertEquals(0, g.indexDescriptions().length);
         g.addIndex(IndexDescription.forNode("Test", "id", false, IndexDescription.Type.UNIQUE));
         assertEquals(1, g.indexDescriptions().length);
@@ -174,4 +179,33 @@ class GraphTest {
         assertFalse(description.get().isArrayProperty());
         assertEquals(IndexDescription.Type.NON_UNIQUE, description.get().getType());
     }
+
+    @Test
+    void edgeLabelTripleCountsAreMaintained() throws IOException {
+        final Path path;
+        try (Graph g = Graph.createTempGraph()) {
+            path = g.getFilePath();
+            final Node a = g.addNode("A");
+            final Node b = g.addNode("B");
+            final Node otherB = g.addNode("B");
+            g.addEdge(a, b, "X");
+            final Node otherA = g.addNode("A");
+            g.addEdge(otherA, otherB, "X");
+            g.addEdge(b, a, "Y");
+            assertEquals(2L, g.getEdgeLabelTripleCounts().get(new EdgeLabelTriple("A", "X", "B")));
+            g.mergeNodes(otherB, otherA);
+            assertEquals(1L, g.getEdgeLabelTripleCounts().get(new EdgeLabelTriple("A", "X", "B")));
+            assertEquals(1L, g.getEdgeLabelTripleCounts().get(new EdgeLabelTriple("B", "X", "B")));
+            assertEquals(1L, g.getEdgeLabelTripleCounts().get(new EdgeLabelTriple("B", "Y", "A")));
+        }
+        try (Graph g = new Graph(path, true, true)) {
+            final Map<EdgeLabelTriple, Long> counts = g.getEdgeLabelTripleCounts();
+            assertEquals(3, counts.size());
+            assertEquals(1L, counts.get(new EdgeLabelTriple("B", "X", "B")));
+            final MetaGraph metaGraph = new MetaGraph(g);
+            assertEquals(3, metaGraph.getTotalEdgeCount());
+            assertEquals(2, metaGraph.getEdgeLabelCount());
+            assertEquals(3, new MetaGraph(g, true).getTotalEdgeCount());
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryGraphTest extends GraphTest {
+    @Override
+    Graph createGraph() {
+        return Graph.createInMemoryGraph();
+    }
+
+    @Test
+    void readSessionIsNotAffectedByLaterWrites() {
+        try (final Graph g = createGraph()) {
+            g.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
+            final Node node = g.addNode("Gene", "id", "G1", "group", "a");
+            try (GraphReadSession session = g.openReadSession()) {
+                node.setProperty("group", "b");
+                g.update(node);
+                g.addNode("Gene", "id", "G2", "group", "a");
+                assertEquals(1, session.getNumberOfNodes());
+                assertEquals("a", session.getNode(node.getId()).getProperty("group"));
+                assertFalse(session.findNodes("Gene", "id", "G2").iterator().hasNext());
+            }
+            assertEquals(2, g.getNumberOfNodes());
+            assertNotNull(g.findNode("Gene", "id", "G2"));
+            assertNull(g.findNode("Gene", "id", "G1", "group", "a"));
+        }
+    }
+
+    @Test
+    void arrayIndexFindsEachElement() {
+        try (final Graph g = createGraph()) {
+            g.addIndex(IndexDescription.forNode("Gene", "aliases", true, IndexDescription.Type.NON_UNIQUE));
+            final Node node = g.addNode("Gene", "aliases", new String[]{"A", "B", "A"});
+            assertEquals(node.getId(), g.findNode("Gene", "aliases", "B").getId());
+            node.setProperty("aliases", new String[]{"C"});
+            g.update(node);
+            assertNull(g.findNode("Gene", "aliases", "A"));
+            assertNotNull(g.findNode("Gene", "aliases", "C"));
+        }
+    }
+}
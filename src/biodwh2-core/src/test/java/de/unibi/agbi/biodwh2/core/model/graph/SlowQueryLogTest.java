@@ -0,0 +1,53 @@
+package de.unibi.agbi.biodwh2.core.model.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowQueryLogTest {
+    @Test
+    void unindexedFindIsReportedWithSuggestedIndexTest() throws Exception {
+        final SlowQueryLog log = SlowQueryLog.getInstance();
+        log.reset();
+        log.configure(60000);
+        try (Graph g = Graph.createTempGraph()) {
+            g.addIndex(IndexDescription.forNode("SlowQueryLogTest", "id", IndexDescription.Type.UNIQUE));
+            g.addNode("SlowQueryLogTest", "id", "A", "names", new String[]{"a", "b"}, "name", "a");
+            assertNotNull(g.findNode("SlowQueryLogTest", "id", "A"));
+            assertNotNull(g.findNode("SlowQueryLogTest", "id", "A", "names", "a"));
+            assertNotNull(g.findNode("SlowQueryLogTest", "id", "A", "names", "b"));
+            final List<SlowQueryLog.QueryStatistics> worstOffenders = log.getWorstOffenders();
+            assertEquals(1, worstOffenders.size());
+            final SlowQueryLog.QueryStatistics statistics = worstOffenders.get(0);
+            assertEquals(IndexDescription.Target.NODE, statistics.getTarget());
+            assertEquals("SlowQueryLogTest", statistics.getLabel());
+            assertEquals(Arrays.asList("id", "names"), Arrays.asList(statistics.getPropertyKeys()));
+            assertEquals(2, statistics.getCount());
+            assertEquals(2, statistics.getScanCount());
+            assertEquals(2, statistics.getResultCount());
+            assertEquals(1, statistics.getSuggestedIndices().size());
+            assertEquals("IndexDescription.forNode(\"SlowQueryLogTest\", \"names\", true)",
+                         statistics.getSuggestedIndices().get(0));
+        } finally {
+            log.configure(SlowQueryLog.DEFAULT_THRESHOLD_MILLIS);
+            log.reset();
+        }
+    }
+
+    @Test
+    void disabledLogRecordsNothingTest() throws Exception {
+        final SlowQueryLog log = SlowQueryLog.getInstance();
+        log.reset();
+        log.configure(-1);
+        try (Graph g = Graph.createTempGraph()) {
+            g.addNode("SlowQueryLogTest", "name", "a");
+            assertNotNull(g.findNode("SlowQueryLogTest", "name", "a"));
+            assertTrue(log.getWorstOffenders().isEmpty());
+        } finally {
+            log.configure(SlowQueryLog.DEFAULT_THRESHOLD_MILLIS);
+        }
+    }
+}
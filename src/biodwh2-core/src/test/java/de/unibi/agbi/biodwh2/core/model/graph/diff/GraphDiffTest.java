@@ -0,0 +1,95 @@
+package de.unibi.agbi.biodwh2.core.model.graph.diff;
+
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphDiffTest {
+    @Test
+    void identicalContentInDifferentOrderHasNoDifferences() throws Exception {
+        try (Graph first = Graph.createTempGraph(); Graph second = Graph.createTempGraph()) {
+            final Node a1 = first.addNode("Gene", "id", "a", "names", new String[]{"x", "y"});
+            final Node b1 = first.addNode("Gene", "id", "b");
+            first.addEdge(a1, b1, "INTERACTS", "score", 1.5);
+            final Node b2 = second.addNode("Gene", "id", "b");
+            final Node a2 = second.addNode("Gene", "id", "a", "names", new String[]{"x", "y"});
+            second.addEdge(a2, b2, "INTERACTS", "score", 1.5);
+            assertTrue(new GraphDiff(IdentityMode.KEYS, null, 1).compare(first, second, null).isEmpty());
+            assertTrue(new GraphDiff(IdentityMode.PROPERTIES).compare(first, second, null).isEmpty());
+        }
+    }
+
+    @Test
+    void reportsAddedRemovedAndChangedElementsPerLabel() throws Exception {
+        try (Graph oldGraph = Graph.createTempGraph(); Graph newGraph = Graph.createTempGraph()) {
+            for (final Graph g : new Graph[]{oldGraph, newGraph})
+                g.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
+            final Node a1 = oldGraph.addNode("Gene", "id", "a", "name", "old");
+            final Node b1 = oldGraph.addNode("Gene", "id", "b");
+            oldGraph.addEdge(a1, b1, "INTERACTS", "score", 1.0);
+            oldGraph.addEdge(a1, b1, "INTERACTS", "score", 2.0);
+            final Node a2 = newGraph.addNode("Gene", "id", "a", "name", "new");
+            newGraph.addNode("Gene", "id", "c");
+            newGraph.addNode("Drug", "id", "d");
+            final Node b2 = newGraph.addNode("Gene", "id", "b");
+            newGraph.addEdge(a2, b2, "INTERACTS", "score", 2.0);
+
+            final List<String> changes = new ArrayList<>();
+            final GraphDiffSummary summary = new GraphDiff(IdentityMode.KEYS, null, 2).compare(
+                    oldGraph, newGraph, (change, type, oldRecord, newRecord) -> changes.add(change + " " + type));
+            assertEquals(1, summary.getCount(ChangeType.CHANGED, ElementType.NODE, "Gene"));
+            assertEquals(1, summary.getCount(ChangeType.ADDED, ElementType.NODE, "Gene"));
+            assertEquals(1, summary.getCount(ChangeType.ADDED, ElementType.NODE, "Drug"));
+            assertEquals(0, summary.getTotalCount(ChangeType.REMOVED, ElementType.NODE));
+            assertEquals(1, summary.getCount(ChangeType.REMOVED, ElementType.EDGE, "INTERACTS"));
+            assertEquals(0, summary.getTotalCount(ChangeType.CHANGED, ElementType.EDGE));
+            assertEquals(4, changes.size());
+            assertEquals(0, summary.getDuplicateIdentityCount(ElementType.NODE));
+            assertEquals(1, summary.getDuplicateIdentityCount(ElementType.EDGE));
+
+            final GraphDiffSummary propertiesSummary = new GraphDiff(IdentityMode.PROPERTIES).compare(oldGraph,
+                                                                                                    newGraph, null);
+            assertEquals(1, propertiesSummary.getCount(ChangeType.REMOVED, ElementType.NODE, "Gene"));
+            assertEquals(0, propertiesSummary.getTotalCount(ChangeType.CHANGED, ElementType.NODE));
+        }
+    }
+
+    @Test
+    void sharedIdentitiesAreMadeUniqueByContentAndOccurrence() {
+        final StableId identity = new StableId(1, 2);
+        final StableId content = new StableId(3, 4);
+        final List<ElementRecord> group = Arrays.asList(new ElementRecord(identity, content, "Gene", 1),
+                                                        new ElementRecord(identity, content, "Gene", 2),
+                                                        new ElementRecord(identity, new StableId(5, 6), "Gene", 3));
+        final StableId[] identities = StableIdentityHasher.getUniqueIdentities(group);
+        assertEquals(3, new HashSet<>(Arrays.asList(identities)).size());
+        assertArrayEquals(identities, StableIdentityHasher.getUniqueIdentities(group));
+        assertEquals(identities[2], StableIdentityHasher.getUniqueIdentities(
+                Arrays.asList(new ElementRecord(identity, content, "Gene", 7), group.get(2)))[1]);
+        assertArrayEquals(new StableId[]{identity}, StableIdentityHasher.getUniqueIdentities(group.subList(0, 1)));
+    }
+
+    @Test
+    void edgesOfNodesSharingAnIdentityAreDistinguished() throws Exception {
+        try (Graph g = Graph.createTempGraph()) {
+            final Node a = g.addNode("Gene", "id", "a");
+            final Node b = g.addNode("Gene", "id", "a");
+            final Node c = g.addNode("Gene", "id", "c");
+            g.addEdge(a, c, "INTERACTS");
+            g.addEdge(b, c, "INTERACTS");
+            try (ElementRecordCollector collector = ElementRecordCollector.collect(g, IdentityMode.KEYS, null, 1);
+                 ElementRecordSource edges = collector.sortedEdges()) {
+                assertNotEquals(collector.getNodeIdentity(a.getId()), collector.getNodeIdentity(b.getId()));
+                assertNotEquals(edges.next().getIdentity(), edges.next().getIdentity());
+            }
+        }
+    }
+}
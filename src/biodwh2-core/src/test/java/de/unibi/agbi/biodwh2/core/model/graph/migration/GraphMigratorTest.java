@@ -1,9 +1,18 @@
 package de.unibi.agbi.biodwh2.core.model.graph.migration;
 
+import de.unibi.agbi.biodwh2.core.model.graph.Edge;
 import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,4 +25,104 @@ class GraphMigratorTest {
         assertNotNull(version);
         assertEquals(Graph.VERSION, version);
     }
-}
\ No newline at end of file
+
+    @Test
+    void migrateToCurrentVersion() throws IOException {
+        final Path filePath = createOutdatedGraph();
+        assertFalse(new GraphMigrator().canMigrate(filePath));
+        final GraphMigrator migrator = new GraphMigrator(new TestMigration(false));
+        assertTrue(migrator.canMigrate(filePath));
+        migrator.migrate(filePath);
+        assertEquals(Graph.VERSION, GraphMigrator.peekVersion(filePath));
+        assertFalse(migrator.canMigrate(filePath));
+        assertFalse(Files.exists(Paths.get(filePath + ".migration")));
+        assertFalse(Files.exists(Paths.get(filePath + ".migration.json")));
+        assertMigratedGraph(filePath);
+    }
+
+    @Test
+    void resumeInterruptedMigration() throws IOException {
+        final Path filePath = createOutdatedGraph();
+        final TestMigration interrupted = new TestMigration(true);
+        assertThrows(IllegalStateException.class, () -> new GraphMigrator(interrupted).migrate(filePath));
+        assertEquals(Graph.VERSION - 1, GraphMigrator.peekVersion(filePath));
+        assertTrue(Files.exists(Paths.get(filePath + ".migration.json")));
+        final TestMigration migration = new TestMigration(false);
+        new GraphMigrator(migration).migrate(filePath);
+        assertEquals(Graph.VERSION, GraphMigrator.peekVersion(filePath));
+        // Only the labels incomplete at the interruption are migrated again
+        assertEquals(30 - interrupted.migratedNodes.get(), migration.migratedNodes.get());
+        assertMigratedGraph(filePath);
+    }
+
+    private static Path createOutdatedGraph() throws IOException {
+        final Path filePath;
+        try (final Graph g = Graph.createTempGraph()) {
+            filePath = g.getFilePath();
+            g.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
+            Node previous = null;
+            for (int i = 0; i < 20; i++) {
+                final Node node = g.addNode("Gene", "id", "G" + i, "aliases", new String[]{"A" + i});
+                if (previous != null)
+                    g.addEdge(node, previous, "IS_A");
+                previous = node;
+            }
+            for (int i = 0; i < 10; i++)
+                g.addNode("Protein", "id", "P" + i);
+            g.buildClosureIndex("Gene", "IS_A");
+        }
+        try (MVStore store = new MVStore.Builder().compress().fileName(filePath.toString()).open()) {
+            final MVMap<String, Object> map = store.openMap("metadata");
+            map.put("version", Graph.VERSION - 1);
+        }
+        return filePath;
+    }
+
+    private static void assertMigratedGraph(final Path filePath) {
+        try (final Graph g = new Graph(filePath, true, true)) {
+            assertEquals(30, g.getNumberOfNodes());
+            assertEquals(19, g.getNumberOfEdges());
+            for (final Node node : g.getNodes())
+                assertEquals(Boolean.TRUE, node.getProperty("migrated"));
+            for (final Edge edge : g.getEdges())
+                assertEquals(Boolean.TRUE, edge.getProperty("migrated"));
+            final Node first = g.findNode("Gene", "id", "G0");
+            assertArrayEquals(new String[]{"A0"}, first.getProperty("aliases"));
+            assertEquals(1, g.indexDescriptions().length);
+            final Node last = g.findNode("Gene", "id", "G19");
+            assertTrue(g.getClosureIndex("Gene", "IS_A").isDescendant(last.getId(), first.getId()));
+        }
+    }
+
+    private static final class TestMigration implements GraphMigration {
+        private final boolean failOnSecondLabel;
+        private final AtomicInteger migratedNodes = new AtomicInteger();
+        private String firstLabel;
+
+        TestMigration(final boolean failOnSecondLabel) {
+            this.failOnSecondLabel = failOnSecondLabel;
+        }
+
+        @Override
+        public int getSourceVersion() {
+            return Graph.VERSION - 1;
+        }
+
+        @Override
+        public Node migrateNode(final Node node) {
+            if (firstLabel == null)
+                firstLabel = node.getLabel();
+            if (failOnSecondLabel && !firstLabel.equals(node.getLabel()))
+                throw new IllegalStateException("Interrupted");
+            migratedNodes.incrementAndGet();
+            node.setProperty("migrated", true);
+            return node;
+        }
+
+        @Override
+        public Edge migrateEdge(final Edge edge) {
+            edge.setProperty("migrated", true);
+            return edge;
+        }
+    }
+}
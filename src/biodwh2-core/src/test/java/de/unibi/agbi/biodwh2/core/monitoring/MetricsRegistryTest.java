@@ -0,0 +1,67 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+    @Test
+    void counterIsReusedForSameLabelsTest() {
+        final MetricsRegistry registry = new MetricsRegistry(false);
+        final Counter counter = registry.counter("test_total", "Test", "label", "A");
+        counter.increment();
+        counter.increment(2);
+        assertSame(counter, registry.counter("test_total", "Test", "label", "A"));
+        assertNotSame(counter, registry.counter("test_total", "Test", "label", "B"));
+        assertEquals(3, counter.getCount());
+        assertEquals(2, registry.getMetrics().size());
+    }
+
+    @Test
+    void conflictingMetricTypeTest() {
+        final MetricsRegistry registry = new MetricsRegistry(false);
+        registry.counter("test", "Test");
+        assertThrows(IllegalArgumentException.class, () -> registry.timer("test", "Test"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("test", "Test", "label"));
+    }
+
+    @Test
+    void timerTest() {
+        final MetricsRegistry registry = new MetricsRegistry(false);
+        final Timer timer = registry.timer("test_seconds", "Test");
+        timer.record(1_000_000_000L);
+        timer.record(3_000_000_000L);
+        assertEquals(2, timer.getCount());
+        assertEquals(4.0, timer.getTotalSeconds(), 1e-9);
+        assertEquals(3.0, timer.getMaxSeconds(), 1e-9);
+        assertEquals(2.0, timer.getMeanSeconds(), 1e-9);
+    }
+
+    @Test
+    void gaugeIsReplacedAndRemovedTest() {
+        final MetricsRegistry registry = new MetricsRegistry(false);
+        registry.gauge("test_ratio", "Test", () -> 1, "store", "a.db");
+        final Gauge gauge = registry.gauge("test_ratio", "Test", () -> 2, "store", "a.db");
+        assertEquals(1, registry.getMetrics().size());
+        assertEquals(2.0, ((Gauge) registry.getMetrics().get(0)).getValue());
+        registry.remove(gauge);
+        assertTrue(registry.getMetrics().isEmpty());
+    }
+
+    @Test
+    void prometheusTextFormatTest() {
+        final MetricsRegistry registry = new MetricsRegistry(false);
+        registry.counter("nodes_total", "Nodes written", "label", "Drug").increment(5);
+        registry.counter("nodes_total", "Nodes written", "label", "Gene \"A\"").increment();
+        registry.timer("find_seconds", "Find latency").record(500_000_000L);
+        registry.gauge("ratio", "Ratio", () -> Double.NaN);
+        final String expected = "# HELP find_seconds Find latency\n" + "# TYPE find_seconds summary\n" +
+                                "find_seconds_count 1\n" + "find_seconds_sum 0.5\n" +
+                                "# HELP nodes_total Nodes written\n" + "# TYPE nodes_total counter\n" +
+                                "nodes_total{label=\"Drug\"} 5\n" + "nodes_total{label=\"Gene \\\"A\\\"\"} 1\n" +
+                                "# HELP ratio Ratio\n" + "# TYPE ratio gauge\n" + "ratio NaN\n" +
+                                "# HELP find_seconds_max Find latency (maximum)\n" +
+                                "# TYPE find_seconds_max gauge\n" + "find_seconds_max 0.5\n";
+        assertEquals(expected, new PrometheusTextFormatter().format(registry.getMetrics()));
+    }
+}
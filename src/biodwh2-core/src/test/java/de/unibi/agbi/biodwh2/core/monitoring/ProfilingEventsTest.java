@@ -0,0 +1,38 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfilingEventsTest {
+    @Test
+    void unavailableFactoryFallsBackToNoOps() {
+        final ProfilingEventFactory factory = ProfilingEvents.loadFactory(
+                "de.unibi.agbi.biodwh2.core.monitoring.jfr.MissingProfilingEventFactory");
+        assertNotNull(factory);
+        assertSame(ProfilingEvents.NO_GRAPH_FIND, factory.beginGraphFind());
+        assertSame(ProfilingEvents.NO_INDEX_REBUILD, factory.beginIndexRebuild());
+        assertSame(ProfilingEvents.NO_COLLECTION_PUT_BATCH, factory.beginCollectionPutBatch());
+        assertSame(ProfilingEvents.NO_MERGE_SOURCE, factory.beginMergeSource());
+        assertSame(ProfilingEvents.NO_MAP_DESCRIBER, factory.beginMapDescriber());
+        assertSame(ProfilingEvents.NO_EXPORT_FILE, factory.beginExportFile());
+    }
+
+    @Test
+    void wrongFactoryClassFallsBackToNoOps() {
+        final ProfilingEventFactory factory = ProfilingEvents.loadFactory(String.class.getName());
+        assertSame(ProfilingEvents.NO_GRAPH_FIND, factory.beginGraphFind());
+    }
+
+    @Test
+    void eventsCanBeEndedWithOrWithoutRecorder() {
+        assertDoesNotThrow(() -> {
+            ProfilingEvents.beginGraphFind().end("test", new String[]{"id"}, false, 1);
+            ProfilingEvents.beginIndexRebuild().end("test", "id", 1);
+            ProfilingEvents.beginCollectionPutBatch().end("test", 1);
+            ProfilingEvents.beginMergeSource().end("source", 1, 1);
+            ProfilingEvents.beginMapDescriber().end("source", "Gene", 1);
+            ProfilingEvents.beginExportFile().end("graph.graphml", "GraphML", true);
+        });
+    }
+}
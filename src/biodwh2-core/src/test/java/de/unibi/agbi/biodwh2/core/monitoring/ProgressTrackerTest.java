@@ -0,0 +1,46 @@
+package de.unibi.agbi.biodwh2.core.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressTrackerTest {
+    @Test
+    void snapshotEstimatesPercentFromRecords() {
+        try (ProgressTracker tracker = ProgressTracker.start("test", 200)) {
+            tracker.step(50);
+            final ProgressSnapshot snapshot = tracker.snapshot(true);
+            assertEquals(50, snapshot.records);
+            assertEquals(25.0, snapshot.percent, 1e-9);
+            assertNotNull(snapshot.etaSeconds);
+            assertTrue(snapshot.etaSeconds >= 0);
+        }
+    }
+
+    @Test
+    void snapshotWithoutTotalsHasNoEstimate() {
+        try (ProgressTracker tracker = ProgressTracker.start("test", ProgressTracker.UNKNOWN)) {
+            tracker.step();
+            final ProgressSnapshot snapshot = tracker.snapshot(true);
+            assertNull(snapshot.percent);
+            assertNull(snapshot.etaSeconds);
+        }
+    }
+
+    @Test
+    void trackedStreamCountsBytesTowardsTotal() throws IOException {
+        final byte[] data = new byte[1000];
+        try (ProgressTracker tracker = ProgressTracker.start("test", ProgressTracker.UNKNOWN, data.length);
+             InputStream stream = tracker.track(new ByteArrayInputStream(data))) {
+            assertEquals(400, stream.read(new byte[400]));
+            assertEquals(0, stream.read());
+            final ProgressSnapshot snapshot = tracker.snapshot(false);
+            assertEquals(401, snapshot.bytes);
+            assertEquals(40.1, snapshot.percent, 1e-9);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package de.unibi.agbi.biodwh2.core.query;
+
+import de.unibi.agbi.biodwh2.core.exceptions.QueryException;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryEngineTest {
+    private static List<List<Object>> collect(final QueryResult result) {
+        final List<List<Object>> rows = new ArrayList<>();
+        result.forEachRemaining(rows::add);
+        return rows;
+    }
+
+    private static Set<Object> collectColumn(final QueryResult result) {
+        final Set<Object> values = new HashSet<>();
+        result.forEachRemaining(row -> values.add(row.get(0)));
+        return values;
+    }
+
+    /**
+     * Drugs d1 and d2 target gene g1, d2 also targets g2. The genes form the hierarchy g1 -> g2 -> g3.
+     */
+    private static void createExampleGraph(final Graph graph) {
+        graph.addIndex(IndexDescription.forNode("Drug", "id", IndexDescription.Type.UNIQUE));
+        final Node d1 = graph.addNode("Drug", "id", "d1", "name", "Aspirin");
+        final Node d2 = graph.addNode("Drug", "id", "d2", "name", "Ibuprofen");
+        final Node g1 = graph.addNode("Gene", "id", "g1", "score", 5);
+        final Node g2 = graph.addNode("Gene", "id", "g2", "score", 2);
+        final Node g3 = graph.addNode("Gene", "id", "g3", "score", 8);
+        graph.addEdge(d1, g1, "TARGETS", "effect", "inhibitor");
+        graph.addEdge(d2, g1, "TARGETS", "effect", "agonist");
+        graph.addEdge(d2, g2, "TARGETS", "effect", "inhibitor");
+        graph.addEdge(g1, g2, "IS_A");
+        graph.addEdge(g2, g3, "IS_A");
+    }
+
+    @Test
+    void matchesPatternWithIndexLookup() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createExampleGraph(graph);
+            final QueryEngine engine = new QueryEngine(graph);
+            final String query = "MATCH (d:Drug {id: 'd2'})-[r:TARGETS]->(g:Gene) RETURN g.id, r.effect AS effect";
+            final QueryResult result = engine.execute(query);
+            assertEquals(Arrays.asList("g.id", "effect"), result.getColumns());
+            final Set<List<Object>> rows = new HashSet<>(collect(result));
+            assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("g1", "agonist"), Arrays.asList("g2", "inhibitor"))),
+                         rows);
+            assertTrue(engine.explain(query).contains("NodeIndexSeek(d:Drug {id: 'd2'})"));
+        }
+    }
+
+    @Test
+    void pushesWhereEqualityIntoIndexLookup() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createExampleGraph(graph);
+            final QueryEngine engine = new QueryEngine(graph);
+            final String query = "MATCH (g:Gene)<-[:TARGETS]-(d:Drug) WHERE d.id = 'd1' RETURN g.id";
+            assertEquals(Collections.singleton("g1"), collectColumn(engine.execute(query)));
+            final String plan = engine.explain(query);
+            assertTrue(plan.contains("NodeIndexSeek(d:Drug {id: 'd1'})"));
+            assertFalse(plan.contains("Filter"));
+        }
+    }
+
+    @Test
+    void filtersWithWhereClause() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createExampleGraph(graph);
+            final QueryEngine engine = new QueryEngine(graph);
+            assertEquals(new HashSet<>(Arrays.asList("g1", "g3")),
+                         collectColumn(engine.execute("MATCH (g:Gene) WHERE g.score > 3 RETURN g.id")));
+            assertEquals(Collections.singleton("g3"), collectColumn(engine.execute(
+                    "MATCH (g:Gene) WHERE g.score >= 3 AND NOT g.id IN ['g1'] OR g.id STARTS WITH 'x' RETURN g.id")));
+            assertEquals(Collections.singleton("d2"), collectColumn(
+                    engine.execute("MATCH (d:Drug)-[:TARGETS {effect: 'inhibitor'}]->(g {id: 'g2'}) RETURN d.id")));
+            assertEquals(0, collect(engine.execute("MATCH (g:Gene) WHERE g.missing = 1 RETURN g")).size());
+        }
+    }
+
+    @Test
+    void matchesVariableLengthPaths() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createExampleGraph(graph);
+            final QueryEngine engine = new QueryEngine(graph);
+            assertEquals(new HashSet<>(Arrays.asList("g2", "g3")),
+                         collectColumn(engine.execute("MATCH (:Gene {id: 'g1'})-[:IS_A*]->(p) RETURN p.id")));
+            assertEquals(new HashSet<>(Arrays.asList("g1", "g2")),
+                         collectColumn(engine.execute("MATCH (:Gene {id: 'g1'})-[:IS_A*0..1]->(p) RETURN p.id")));
+            assertEquals(Collections.singleton("g1"),
+                         collectColumn(engine.execute("MATCH (c)-[:IS_A*2]->(:Gene {id: 'g3'}) RETURN c.id")));
+            assertEquals(new HashSet<>(Arrays.asList("g1", "g3")),
+                         collectColumn(engine.execute("MATCH (:Gene {id: 'g2'})-[:IS_A*1..1]-(n) RETURN n.id")));
+        }
+    }
+
+    @Test
+    void joinsPathsOnSharedVariables() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createExampleGraph(graph);
+            final QueryEngine engine = new QueryEngine(graph);
+            final String query = "MATCH (a:Drug)-[:TARGETS]->(g)<-[:TARGETS]-(b:Drug) MATCH (g)-[:IS_A]->(p) " +
+                                 "RETURN a.id, b.id, p.id";
+            final List<List<Object>> rows = collect(engine.execute(query));
+            assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("d1", "d2", "g2"), Arrays.asList("d2", "d1", "g2"))),
+                         new HashSet<>(rows));
+            assertEquals(2, rows.size());
+            assertEquals(6, collect(engine.execute("MATCH (d:Drug), (g:Gene) RETURN d, g")).size());
+        }
+    }
+
+    @Test
+    void appliesDistinctAndLimit() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createExampleGraph(graph);
+            final QueryEngine engine = new QueryEngine(graph);
+            assertEquals(3, collect(engine.execute("MATCH (d:Drug)-->(g) RETURN g.id")).size());
+            assertEquals(2, collect(engine.execute("MATCH (d:Drug)-->(g) RETURN DISTINCT g.id")).size());
+            assertEquals(1, collect(engine.execute("MATCH (d:Drug)-->(g) RETURN DISTINCT g.id LIMIT 1")).size());
+            final QueryResult result = engine.execute("MATCH (d:Drug)-[r]->(g) RETURN * LIMIT 1");
+            assertEquals(Arrays.asList("d", "g", "r"), result.getColumns());
+            final List<Object> row = result.next();
+            assertEquals("(" + ((Node) row.get(0)).getId() + ":Drug)", QueryResult.formatValue(row.get(0)));
+        }
+    }
+
+    @Test
+    void returnsEmptyResultForUnknownLabels() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createExampleGraph(graph);
+            final QueryEngine engine = new QueryEngine(graph);
+            assertFalse(engine.execute("MATCH (x:Unknown) RETURN x").hasNext());
+            assertFalse(engine.execute("MATCH (d:Drug)-[:UNKNOWN]->(g) RETURN g").hasNext());
+            assertEquals(0, graph.getNumberOfNodes("Unknown"));
+        }
+    }
+
+    @Test
+    void reportsInvalidQueries() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            final QueryEngine engine = new QueryEngine(graph);
+            assertThrows(QueryException.class, () -> engine.execute("MATCH (a RETURN a"));
+            assertThrows(QueryException.class, () -> engine.execute("MATCH (a) RETURN b"));
+            assertThrows(QueryException.class, () -> engine.execute("MATCH (a)-[a]->(b) RETURN a"));
+            assertThrows(QueryException.class, () -> engine.execute("MATCH (a)-[*3..1]->(b) RETURN a"));
+            assertThrows(QueryException.class, () -> engine.execute("MATCH (a) RETURN unknown(a)"));
+            final QueryException exception = assertThrows(QueryException.class,
+                                                          () -> engine.execute("MATCH (a) RETURN a LIMIT x"));
+            assertTrue(exception.getMessage().contains("at position 25"));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package de.unibi.agbi.biodwh2.core.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphServerTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final class Response {
+        final int status;
+        final JsonNode body;
+
+        Response(final int status, final JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static Response request(final GraphServer server, final String path, final String postBody) throws
+                                                                                                         IOException {
+        final URL url = new URL("http://127.0.0.1:" + server.getPort() + path);
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        if (postBody != null) {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            try (OutputStream stream = connection.getOutputStream()) {
+                stream.write(postBody.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        final int status = connection.getResponseCode();
+        try (InputStream stream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, MAPPER.readTree(IOUtils.toString(stream, StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static Response get(final GraphServer server, final String path) throws IOException {
+        return request(server, path, null);
+    }
+
+    private static List<Node> createGenes(final Graph graph, final int count) {
+        graph.addIndex(IndexDescription.forNode("Gene", "symbol", IndexDescription.Type.UNIQUE));
+        final List<Node> genes = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            genes.add(graph.addNode("Gene", "symbol", "G" + i, "score", i));
+        for (int i = 1; i < count; i++)
+            graph.addEdge(genes.get(i), genes.get(i - 1), "REGULATES");
+        return genes;
+    }
+
+    @Test
+    void answersLookups() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            final List<Node> genes = createGenes(graph, 10);
+            try (GraphServer server = new GraphServer(graph, 0, 2, 10000)) {
+                server.start();
+                Response response = get(server, "/nodes/" + genes.get(3).getId());
+                assertEquals(200, response.status);
+                assertEquals("Gene", response.body.get("label").asText());
+                assertEquals("G3", response.body.get("properties").get("symbol").asText());
+                assertNull(response.body.get("properties").get("__label"));
+
+                response = get(server, "/nodes?label=Gene&key=symbol&value=G5");
+                assertEquals(200, response.status);
+                assertTrue(response.body.get("complete").asBoolean());
+                assertEquals(1, response.body.get("results").size());
+                assertEquals(genes.get(5).getId().longValue(), response.body.get("results").get(0).get("id").asLong());
+
+                response = get(server, "/nodes/" + genes.get(5).getId() + "/neighbours");
+                assertEquals(2, response.body.get("results").size());
+                response = get(server, "/nodes/" + genes.get(5).getId() + "/neighbours?direction=out");
+                assertEquals(1, response.body.get("results").size());
+                assertEquals("G4", response.body.get("results").get(0).get("node").get("properties").get("symbol")
+                                                .asText());
+
+                final long edgeId = response.body.get("results").get(0).get("edge").get("id").asLong();
+                response = get(server, "/edges/" + edgeId);
+                assertEquals(genes.get(4).getId().longValue(), response.body.get("to").asLong());
+            }
+        }
+    }
+
+    @Test
+    void answersQueries() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createGenes(graph, 10);
+            try (GraphServer server = new GraphServer(graph, 0, 2, 10000)) {
+                server.start();
+                final String query = "MATCH (a:Gene {symbol: 'G2'})-[:REGULATES*1..2]->(b) RETURN b.symbol AS symbol";
+                Response response = get(server, "/query?q=" + URLEncoder.encode(query, "UTF-8"));
+                assertEquals(200, response.status);
+                assertEquals("symbol", response.body.get("columns").get(0).asText());
+                assertEquals(2, response.body.get("rows").size());
+                assertTrue(response.body.get("complete").asBoolean());
+
+                response = request(server, "/query?limit=1", "MATCH (g:Gene) RETURN g");
+                assertEquals(1, response.body.get("rows").size());
+                assertEquals("Gene", response.body.get("rows").get(0).get(0).get("label").asText());
+            }
+        }
+    }
+
+    @Test
+    void reportsErrors() throws Exception {
+        try (Graph graph = Graph.createTempGraph()) {
+            createGenes(graph, 3);
+            try (GraphServer server = new GraphServer(graph, 0, 2, 10000)) {
+                server.start();
+                assertEquals(404, get(server, "/nodes/123456").status);
+                assertEquals(400, get(server, "/nodes/abc").status);
+                assertEquals(400, get(server, "/nodes?label=Gene&key=score&value=1").status);
+                assertEquals(400, get(server, "/nodes?label=Gene&key=symbol").status);
+                final Response response = get(server, "/query?q=MATCH");
+                assertEquals(400, response.status);
+                assertTrue(response.body.get("error").asText().contains("position"));
+                assertEquals(405, request(server, "/labels", "").status);
+            }
+        }
+    }
+
+    @Test
+    void answersConcurrentRequests() throws Exception {
+        final int geneCount = 500;
+        final int clients = 8;
+        final int requestsPerClient = 100;
+        try (Graph graph = Graph.createTempGraph()) {
+            final List<Node> genes = createGenes(graph, geneCount);
+            try (GraphServer server = new GraphServer(graph, 0, 4, 10000)) {
+                server.start();
+                final ExecutorService clientPool = Executors.newFixedThreadPool(clients);
+                try {
+                    final List<Future<Integer>> futures = new ArrayList<>();
+                    for (int c = 0; c < clients; c++) {
+                        final int seed = c;
+                        futures.add(clientPool.submit(() -> {
+                            int successful = 0;
+                            for (int i = 0; i < requestsPerClient; i++) {
+                                final int index = (seed * 31 + i * 7) % geneCount;
+                                final Response response;
+                                if (i % 3 == 0)
+                                    response = get(server, "/nodes/" + genes.get(index).getId());
+                                else if (i % 3 == 1)
+                                    response = get(server, "/nodes?label=Gene&key=symbol&value=G" + index);
+                                else
+                                    response = get(server, "/nodes/" + genes.get(index).getId() + "/neighbours");
+                                if (response.status == 200)
+                                    successful++;
+                            }
+                            return successful;
+                        }));
+                    }
+                    for (final Future<Integer> future : futures)
+                        assertEquals(requestsPerClient, future.get().intValue());
+                } finally {
+                    clientPool.shutdown();
+                }
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import de.unibi.agbi.biodwh2.core.etl.GraphExporter;
 import de.unibi.agbi.biodwh2.core.exceptions.ExporterException;
 import de.unibi.agbi.biodwh2.core.exceptions.ExporterFormatException;
 import de.unibi.agbi.biodwh2.core.model.graph.*;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
 import de.unibi.agbi.biodwh2.drugbank.DrugBankDataSource;
 import de.unibi.agbi.biodwh2.drugbank.model.*;
 import de.unibi.agbi.biodwh2.drugbank.model.MetaboliteStructure;
@@ -204,7 +205,7 @@ public class DrugBankGraphExporter extends GraphExporter<DrugBankDataSource> {
 
     @Override
     protected boolean exportGraph(final Workspace workspace, final Graph graph) {
-        drugLookUp = new HashMap<>();
+        drugLookUp = createSpillableMap("drugLookUp", 64);
         referenceLookUp = new HashMap<>();
         foodInteractionLookUp = new HashMap<>();
         calculatedPropertyLookUp = new HashMap<>();
@@ -213,8 +214,8 @@ public class DrugBankGraphExporter extends GraphExporter<DrugBankDataSource> {
         mixtureLookUp = new HashMap<>();
         dosageLookUp = new HashMap<>();
         drugInteractionCache = new HashMap<>();
-        pathwayEnzymeCache = new HashMap<>();
-        pathwayDrugCache = new HashMap<>();
+        pathwayEnzymeCache = createSpillableMap("pathwayEnzymeCache", 256, true);
+        pathwayDrugCache = createSpillableMap("pathwayDrugCache", 256, true);
         reactionCache = new LinkedList<>();
         graph.addIndex(IndexDescription.forNode(MESH_TERM_LABEL, ID_KEY, IndexDescription.Type.UNIQUE));
         graph.addIndex(IndexDescription.forNode(POLYPEPTIDE_LABEL, ID_KEY, IndexDescription.Type.UNIQUE));
@@ -235,16 +236,18 @@ public class DrugBankGraphExporter extends GraphExporter<DrugBankDataSource> {
         exportDrugs(workspace, graph);
         if (LOGGER.isInfoEnabled())
             LOGGER.info("Export remaining " + pathwayEnzymeCache.size() + " pathway relationships...");
-        for (final Long pathwayNodeId : pathwayEnzymeCache.keySet()) {
-            for (final String enzymeId : pathwayEnzymeCache.get(pathwayNodeId)) {
+        for (final Map.Entry<Long, Set<String>> entry : pathwayEnzymeCache.entrySet()) {
+            final Long pathwayNodeId = entry.getKey();
+            for (final String enzymeId : entry.getValue()) {
                 Node polypeptideNode = graph.findNode(POLYPEPTIDE_LABEL, ID_KEY, enzymeId);
                 if (polypeptideNode == null)
                     polypeptideNode = graph.addNode(POLYPEPTIDE_LABEL, ID_KEY, enzymeId);
                 graph.addEdge(pathwayNodeId, polypeptideNode, HAS_ENZYME_LABEL);
             }
         }
-        for (final Long pathwayNodeId : pathwayDrugCache.keySet()) {
-            for (final String drugbankId : pathwayDrugCache.get(pathwayNodeId)) {
+        for (final Map.Entry<Long, Set<String>> entry : pathwayDrugCache.entrySet()) {
+            final Long pathwayNodeId = entry.getKey();
+            for (final String drugbankId : entry.getValue()) {
                 if (drugLookUp.containsKey(drugbankId))
                     graph.addEdge(drugLookUp.get(drugbankId), pathwayNodeId, IS_IN_PATHWAY_LABEL);
                 else {
@@ -309,9 +312,9 @@ public class DrugBankGraphExporter extends GraphExporter<DrugBankDataSource> {
         final File zipFile = new File(filePath);
         if (!zipFile.exists())
             throw new ExporterException("Failed to find file '" + DrugBankUpdater.FULL_DATABASE_FILE_NAME + "'");
-        try {
-            final ZipInputStream zipInputStream = openZipInputStream(zipFile);
-            int counter = 1;
+        try (ProgressTracker tracker = ProgressTracker.start("Exporting DrugBank drugs", ProgressTracker.UNKNOWN,
+                                                             zipFile.length())) {
+            final ZipInputStream zipInputStream = openZipInputStream(zipFile, tracker);
             ZipEntry zipEntry;
             while ((zipEntry = zipInputStream.getNextEntry()) != null) {
                 if (isZipEntryCoreXml(zipEntry.getName())) {
@@ -322,10 +325,8 @@ public class DrugBankGraphExporter extends GraphExporter<DrugBankDataSource> {
                     JsonToken token = parser.nextToken();
                     while ((token = parser.nextToken()) != null)
                         if (token.isStructStart()) {
-                            if (counter % 250 == 0 && LOGGER.isInfoEnabled())
-                                LOGGER.info("Exporting drug progress " + counter);
-                            counter++;
                             exportDrug(graph, xmlMapper.readValue(parser, Drug.class));
+                            tracker.step();
                         }
                 }
             }
@@ -335,8 +336,9 @@ public class DrugBankGraphExporter extends GraphExporter<DrugBankDataSource> {
         }
     }
 
-    private static ZipInputStream openZipInputStream(final File file) throws FileNotFoundException {
-        final FileInputStream inputStream = new FileInputStream(file);
+    private static ZipInputStream openZipInputStream(final File file,
+                                                     final ProgressTracker tracker) throws FileNotFoundException {
+        final InputStream inputStream = tracker.track(new FileInputStream(file));
         final BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
         return new ZipInputStream(bufferedInputStream);
     }
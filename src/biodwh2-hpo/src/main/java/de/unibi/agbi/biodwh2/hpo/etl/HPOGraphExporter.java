@@ -35,7 +35,7 @@ public final class HPOGraphExporter extends OntologyGraphExporter<HPODataSource>
 
     @Override
     public long getExportVersion() {
-        return 2;
+        return 3;
     }
 
     @Override
@@ -3,8 +3,20 @@ package de.unibi.agbi.biodwh2;
 import de.unibi.agbi.biodwh2.core.DataSource;
 import de.unibi.agbi.biodwh2.core.DataSourceLoader;
 import de.unibi.agbi.biodwh2.core.Workspace;
+import de.unibi.agbi.biodwh2.core.exceptions.QueryException;
 import de.unibi.agbi.biodwh2.core.io.ResourceUtils;
+import de.unibi.agbi.biodwh2.core.io.graph.DeltaFormat;
+import de.unibi.agbi.biodwh2.core.model.graph.Graph;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphFileFormat;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphIntegrityChecker;
+import de.unibi.agbi.biodwh2.core.model.graph.GraphIntegrityReport;
+import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
+import de.unibi.agbi.biodwh2.core.model.graph.SubgraphFilter;
+import de.unibi.agbi.biodwh2.core.model.graph.diff.*;
 import de.unibi.agbi.biodwh2.core.net.BioDWH2Updater;
+import de.unibi.agbi.biodwh2.core.query.QueryEngine;
+import de.unibi.agbi.biodwh2.core.query.QueryResult;
+import de.unibi.agbi.biodwh2.core.server.GraphServer;
 import de.unibi.agbi.biodwh2.core.text.TableFormatter;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -12,9 +24,13 @@ import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 public final class BioDWH2 {
     private static final Logger LOGGER = LoggerFactory.getLogger(BioDWH2.class);
@@ -49,6 +65,18 @@ public final class BioDWH2 {
             checkWorkspaceState(commandLine);
         else if (commandLine.update != null)
             updateWorkspace(commandLine.update, commandLine.skipUpdate);
+        else if (commandLine.export != null)
+            exportWorkspace(commandLine);
+        else if (commandLine.diff != null)
+            diffGraphs(commandLine);
+        else if (commandLine.exportDelta != null)
+            exportWorkspaceDelta(commandLine);
+        else if (commandLine.query != null)
+            queryGraph(commandLine);
+        else if (commandLine.serve != null)
+            serveGraph(commandLine);
+        else if (commandLine.check != null)
+            checkGraph(commandLine);
         else if (commandLine.version)
             printVersion();
         else
@@ -134,6 +162,238 @@ public final class BioDWH2 {
         workspace.processDataSources(dataSourceId, version, skipUpdate);
     }
 
+    private void exportWorkspace(final CmdArgs commandLine) {
+        final List<String> exportParameters = commandLine.export;
+        final String workspacePath = exportParameters.get(0);
+        final GraphFileFormat format = parseGraphFileFormat(exportParameters.get(1));
+        if (format == null) {
+            LOGGER.error("Unknown export format '" + exportParameters.get(1) + "', available formats: " +
+                         StringUtils.join(getGraphFileFormatNames(), ", "));
+            return;
+        }
+        final Path outputPath = exportParameters.size() > 2 ? Paths.get(exportParameters.get(2)) : null;
+        final Workspace workspace = new Workspace(workspacePath);
+        if (workspace.exportMappedGraph(format, outputPath, createSubgraphFilter(commandLine)))
+            LOGGER.info("Successfully exported the mapped graph");
+    }
+
+    private void exportWorkspaceDelta(final CmdArgs commandLine) {
+        final List<String> exportParameters = commandLine.exportDelta;
+        final DeltaFormat format = parseDeltaFormat(exportParameters.get(1));
+        if (format == null) {
+            LOGGER.error("Unknown delta format '" + exportParameters.get(1) + "', available formats: graphml, csv");
+            return;
+        }
+        final IdentityMode mode = parseIdentityMode(commandLine.identity);
+        if (mode == null) {
+            LOGGER.error("Unknown identity mode '" + commandLine.identity + "', available modes: keys, properties");
+            return;
+        }
+        final Path outputPath = Paths.get(exportParameters.get(2));
+        final Path previousManifestPath = exportParameters.size() > 3 ? Paths.get(exportParameters.get(3)) : null;
+        final Workspace workspace = new Workspace(exportParameters.get(0));
+        if (workspace.exportMappedGraphDelta(format, outputPath, previousManifestPath, mode))
+            LOGGER.info("Successfully exported the mapped graph delta");
+    }
+
+    private static DeltaFormat parseDeltaFormat(final String name) {
+        if ("graphml".equalsIgnoreCase(name))
+            return DeltaFormat.GRAPH_ML;
+        if ("csv".equalsIgnoreCase(name))
+            return DeltaFormat.CSV;
+        return null;
+    }
+
+    private void diffGraphs(final CmdArgs commandLine) {
+        final IdentityMode mode = parseIdentityMode(commandLine.identity);
+        if (mode == null) {
+            LOGGER.error("Unknown identity mode '" + commandLine.identity + "', available modes: keys, properties");
+            return;
+        }
+        final Path oldGraphPath = Paths.get(commandLine.diff.get(0));
+        final Path newGraphPath = Paths.get(commandLine.diff.get(1));
+        final Path changesPath = commandLine.diff.size() > 2 ? Paths.get(commandLine.diff.get(2)) : null;
+        for (final Path graphPath : new Path[]{oldGraphPath, newGraphPath}) {
+            if (Files.notExists(graphPath)) {
+                LOGGER.error("Graph file '" + graphPath + "' does not exist");
+                return;
+            }
+        }
+        try (Graph oldGraph = new Graph(oldGraphPath, true, true);
+             Graph newGraph = new Graph(newGraphPath, true, true);
+             ChangeFileWriter changesWriter = changesPath != null ? new ChangeFileWriter(changesPath) : null) {
+            final GraphDiffSummary summary = new GraphDiff(mode).compare(oldGraph, newGraph, changesWriter);
+            printDiffSummary(summary);
+        } catch (IOException e) {
+            LOGGER.error("Failed to compare the graphs", e);
+        }
+    }
+
+    private static IdentityMode parseIdentityMode(final String name) {
+        if (name == null)
+            return IdentityMode.KEYS;
+        for (final IdentityMode mode : IdentityMode.values())
+            if (mode.name().equalsIgnoreCase(name))
+                return mode;
+        return null;
+    }
+
+    private static void printDiffSummary(final GraphDiffSummary summary) {
+        for (final ElementType type : ElementType.values())
+            if (summary.getDuplicateIdentityCount(type) > 0 && LOGGER.isWarnEnabled())
+                LOGGER.warn(summary.getDuplicateIdentityCount(type) + " " + type.name().toLowerCase(Locale.ROOT) +
+                            " identities are shared by multiple elements, whose changes are matched by content");
+        if (summary.isEmpty()) {
+            if (LOGGER.isInfoEnabled())
+                LOGGER.info("The graphs contain no differences");
+            return;
+        }
+        final List<List<String>> rows = new ArrayList<>();
+        for (final ElementType type : ElementType.values())
+            for (final String label : summary.getChangedLabels(type))
+                rows.add(Arrays.asList(type.name(), label,
+                                       String.valueOf(summary.getCount(ChangeType.ADDED, type, label)),
+                                       String.valueOf(summary.getCount(ChangeType.REMOVED, type, label)),
+                                       String.valueOf(summary.getCount(ChangeType.CHANGED, type, label))));
+        final TableFormatter formatter = new TableFormatter(false);
+        System.out.println(formatter.format(Arrays.asList("Type", "Label", "Added", "Removed", "Changed"), rows));
+    }
+
+    private void queryGraph(final CmdArgs commandLine) {
+        final Path graphPath = Paths.get(commandLine.query.get(0));
+        if (Files.notExists(graphPath)) {
+            LOGGER.error("Graph file '" + graphPath + "' does not exist");
+            return;
+        }
+        try (Graph graph = new Graph(graphPath, true, true)) {
+            final QueryEngine engine = new QueryEngine(graph);
+            if (commandLine.explain) {
+                System.out.println(engine.explain(commandLine.query.get(1)));
+                return;
+            }
+            final QueryResult result = engine.execute(commandLine.query.get(1));
+            final List<List<String>> rows = new ArrayList<>();
+            while (result.hasNext()) {
+                final List<String> row = new ArrayList<>();
+                for (final Object value : result.next())
+                    row.add(QueryResult.formatValue(value));
+                rows.add(row);
+            }
+            System.out.println(new TableFormatter(false).format(result.getColumns(), rows));
+            if (LOGGER.isInfoEnabled())
+                LOGGER.info(rows.size() + " row(s)");
+        } catch (QueryException e) {
+            LOGGER.error("Invalid query: " + e.getMessage());
+        }
+    }
+
+    private void serveGraph(final CmdArgs commandLine) {
+        // Read once by the JDK server implementation, so it is set before any server is created
+        if (System.getProperty(GraphServer.NO_DELAY_PROPERTY) == null)
+            System.setProperty(GraphServer.NO_DELAY_PROPERTY, "true");
+        final Path graphPath = Paths.get(commandLine.serve.get(0));
+        if (Files.notExists(graphPath)) {
+            LOGGER.error("Graph file '" + graphPath + "' does not exist");
+            return;
+        }
+        final int port;
+        try {
+            port = commandLine.serve.size() > 1 ? Integer.parseInt(commandLine.serve.get(1)) :
+                   GraphServer.DEFAULT_PORT;
+        } catch (NumberFormatException e) {
+            LOGGER.error("Invalid port '" + commandLine.serve.get(1) + "'");
+            return;
+        }
+        final int threads = commandLine.threads != null ? commandLine.threads :
+                            Runtime.getRuntime().availableProcessors();
+        final long timeout = commandLine.timeout != null ? commandLine.timeout : GraphServer.DEFAULT_TIMEOUT_MILLIS;
+        final Graph graph = new Graph(graphPath, true, true);
+        final GraphServer server;
+        try {
+            server = new GraphServer(graph, port, threads, timeout);
+        } catch (IOException e) {
+            LOGGER.error("Failed to start the server on port " + port, e);
+            graph.close();
+            return;
+        }
+        // The server threads keep running until the process is stopped
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            graph.close();
+        }));
+        server.start();
+    }
+
+    private void checkGraph(final CmdArgs commandLine) {
+        final Path graphPath = Paths.get(commandLine.check);
+        if (Files.notExists(graphPath)) {
+            LOGGER.error("Graph file '" + graphPath + "' does not exist");
+            return;
+        }
+        final int threads = commandLine.threads != null ? commandLine.threads :
+                            Runtime.getRuntime().availableProcessors();
+        final GraphIntegrityReport report;
+        try (Graph graph = new Graph(graphPath, true, !commandLine.repair)) {
+            report = new GraphIntegrityChecker(threads).check(graph, commandLine.repair);
+        }
+        printIntegrityReport(report);
+    }
+
+    private static void printIntegrityReport(final GraphIntegrityReport report) {
+        if (report.isEmpty()) {
+            if (LOGGER.isInfoEnabled())
+                LOGGER.info("The graph contains no integrity problems");
+            return;
+        }
+        final List<List<String>> rows = new ArrayList<>();
+        for (final GraphIntegrityReport.Problem problem : report.getProblems())
+            rows.add(Arrays.asList(problem.getType().name(), problem.getTarget().name(), problem.getLabel(),
+                                   problem.getProperty() != null ? problem.getProperty() : "",
+                                   String.valueOf(problem.getCount()), String.join("; ", problem.getExamples())));
+        final TableFormatter formatter = new TableFormatter(false);
+        System.out.println(formatter.format(Arrays.asList("Problem", "Type", "Label", "Property", "Count", "Examples"),
+                                            rows));
+        if (LOGGER.isInfoEnabled())
+            for (final IndexDescription index : report.getRepairedIndices())
+                LOGGER.info("Rebuilt index " + index.getProperty() + " of " +
+                            index.getTarget().name().toLowerCase(Locale.US) + " label " + index.getLabel());
+    }
+
+    private static SubgraphFilter createSubgraphFilter(final CmdArgs commandLine) {
+        if (commandLine.includeNodeLabels == null && commandLine.excludeNodeLabels == null &&
+            commandLine.includeEdgeLabels == null && commandLine.excludeEdgeLabels == null &&
+            commandLine.includeSources == null && commandLine.excludeSources == null && commandLine.seedLabels == null)
+            return null;
+        final SubgraphFilter filter = new SubgraphFilter();
+        if (commandLine.includeNodeLabels != null)
+            filter.includeNodeLabels(commandLine.includeNodeLabels);
+        if (commandLine.excludeNodeLabels != null)
+            filter.excludeNodeLabels(commandLine.excludeNodeLabels);
+        if (commandLine.includeEdgeLabels != null)
+            filter.includeEdgeLabels(commandLine.includeEdgeLabels);
+        if (commandLine.excludeEdgeLabels != null)
+            filter.excludeEdgeLabels(commandLine.excludeEdgeLabels);
+        if (commandLine.includeSources != null)
+            filter.includeSources(commandLine.includeSources);
+        if (commandLine.excludeSources != null)
+            filter.excludeSources(commandLine.excludeSources);
+        if (commandLine.seedLabels != null)
+            filter.seedNodeLabels(commandLine.seedLabels).hops(commandLine.hops != null ? commandLine.hops : 1);
+        return filter;
+    }
+
+    private static GraphFileFormat parseGraphFileFormat(final String name) {
+        for (final GraphFileFormat format : GraphFileFormat.values())
+            if (format.name().replace('_', '-').equalsIgnoreCase(name) || format.name().equalsIgnoreCase(name))
+                return format;
+        return null;
+    }
+
+    private static String[] getGraphFileFormatNames() {
+        return Arrays.stream(GraphFileFormat.values()).map(f -> f.name().replace('_', '-').toLowerCase(Locale.US))
+                     .toArray(String[]::new);
+    }
+
     private void printVersion() {
         LOGGER.info("Version " + ResourceUtils.getManifestBioDWH2Version());
     }
@@ -33,10 +33,82 @@ public class CmdArgs {
             "-s", "--status"
     }, arity = "1", paramLabel = "<workspacePath>", description = "Check and output the state of a workspace", order = 15)
     public String status;
+    @CommandLine.Option(names = {
+            "--export"
+    }, arity = "2..3", paramLabel = "<workspacePath> <format> [<outputPath>]", hideParamSyntax = true, description = "Export the mapped graph of a workspace (formats: graphml, neo4j-csv, columnar)", order = 16)
+    public List<String> export;
+    @CommandLine.Option(names = {
+            "--diff"
+    }, arity = "2..3", paramLabel = "<oldGraphPath> <newGraphPath> [<changesPath>]", hideParamSyntax = true, description = "Compare two graph files and report the changes per label", order = 17)
+    public List<String> diff;
+    @CommandLine.Option(names = {
+            "--export-delta"
+    }, arity = "3..4", paramLabel = "<workspacePath> <format> <outputPath> [<previousManifestPath>]", hideParamSyntax = true, description = "Export the changes of the mapped graph since the previous delta export (formats: graphml, csv)", order = 18)
+    public List<String> exportDelta;
+    @CommandLine.Option(names = {
+            "--query"
+    }, arity = "2", paramLabel = "<graphPath> <query>", hideParamSyntax = true, description = "Run a pattern matching query on a graph file and print the results as a table", order = 19)
+    public List<String> query;
+    @CommandLine.Option(names = {
+            "--serve"
+    }, arity = "1..2", paramLabel = "<graphPath> [<port>]", hideParamSyntax = true, description = "Serve read-only lookups and queries on a graph file over HTTP on localhost (default port: 8090)", order = 20)
+    public List<String> serve;
+    @CommandLine.Option(names = {
+            "--check"
+    }, arity = "1", paramLabel = "<graphPath>", description = "Verify the edges and indices of a graph file and report inconsistencies", order = 21)
+    public String check;
     @CommandLine.Option(names = {"--skip-update"}, description = "Skip update, only parse and export", order = 100)
     public boolean skipUpdate;
     @CommandLine.Option(names = {
             "-v", "--verbose"
     }, description = "Output detailed information about the state of the workspace", order = 101)
     public boolean verbose;
+    @CommandLine.Option(names = {
+            "--include-node-labels"
+    }, split = ",", paramLabel = "<pattern>", description = "Only export node labels matching the patterns", order = 102)
+    public String[] includeNodeLabels;
+    @CommandLine.Option(names = {
+            "--exclude-node-labels"
+    }, split = ",", paramLabel = "<pattern>", description = "Do not export node labels matching the patterns", order = 103)
+    public String[] excludeNodeLabels;
+    @CommandLine.Option(names = {
+            "--include-edge-labels"
+    }, split = ",", paramLabel = "<pattern>", description = "Only export edge labels matching the patterns", order = 104)
+    public String[] includeEdgeLabels;
+    @CommandLine.Option(names = {
+            "--exclude-edge-labels"
+    }, split = ",", paramLabel = "<pattern>", description = "Do not export edge labels matching the patterns", order = 105)
+    public String[] excludeEdgeLabels;
+    @CommandLine.Option(names = {
+            "--include-sources"
+    }, split = ",", paramLabel = "<dataSourceId>", description = "Only export labels of the data sources (mapping for the mapping layer)", order = 106)
+    public String[] includeSources;
+    @CommandLine.Option(names = {
+            "--exclude-sources"
+    }, split = ",", paramLabel = "<dataSourceId>", description = "Do not export labels of the data sources (mapping for the mapping layer)", order = 107)
+    public String[] excludeSources;
+    @CommandLine.Option(names = {
+            "--seed-labels"
+    }, split = ",", paramLabel = "<pattern>", description = "Only export nodes reachable from nodes with the labels", order = 108)
+    public String[] seedLabels;
+    @CommandLine.Option(names = {
+            "--hops"
+    }, paramLabel = "<hops>", description = "Maximum number of hops from the seed nodes (default: 1)", order = 109)
+    public Integer hops;
+    @CommandLine.Option(names = {
+            "--identity"
+    }, paramLabel = "<mode>", description = "Element identity used by diff and delta export (keys, properties; default: keys)", order = 110)
+    public String identity;
+    @CommandLine.Option(names = {"--explain"}, description = "Print the operator plan of a query instead of its results", order = 111)
+    public boolean explain;
+    @CommandLine.Option(names = {
+            "--threads"
+    }, paramLabel = "<threads>", description = "Number of requests served concurrently or labels checked in parallel (default: number of processors)", order = 112)
+    public Integer threads;
+    @CommandLine.Option(names = {
+            "--timeout"
+    }, paramLabel = "<milliseconds>", description = "Time limit of served requests (default: 30000)", order = 113)
+    public Long timeout;
+    @CommandLine.Option(names = {"--repair"}, description = "Rebuild inconsistent indices found by the check", order = 114)
+    public boolean repair;
 }
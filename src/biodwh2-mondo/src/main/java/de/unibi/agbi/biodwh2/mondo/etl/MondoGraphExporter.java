@@ -10,7 +10,7 @@ public class MondoGraphExporter extends OntologyGraphExporter<MondoDataSource> {
 
     @Override
     public long getExportVersion() {
-        return 1;
+        return 2;
     }
 
     @Override
@@ -13,6 +13,7 @@ import de.unibi.agbi.biodwh2.core.model.graph.Edge;
 import de.unibi.agbi.biodwh2.core.model.graph.Graph;
 import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
 import de.unibi.agbi.biodwh2.core.model.graph.Node;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
 import de.unibi.agbi.biodwh2.ncbi.NCBIDataSource;
 import de.unibi.agbi.biodwh2.ncbi.model.GeneAccession;
 import de.unibi.agbi.biodwh2.ncbi.model.GeneGo;
@@ -24,10 +25,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 public class NCBIGraphExporter extends GraphExporter<NCBIDataSource> {
     private static final Logger LOGGER = LoggerFactory.getLogger(NCBIGraphExporter.class);
@@ -46,7 +49,8 @@ public class NCBIGraphExporter extends GraphExporter<NCBIDataSource> {
     protected boolean exportGraph(final Workspace workspace, final Graph graph) throws ExporterException {
         graph.addIndex(IndexDescription.forNode("Gene", "id", IndexDescription.Type.UNIQUE));
         graph.addIndex(IndexDescription.forNode("Compound", "id", IndexDescription.Type.UNIQUE));
-        geneIdNodeIdMap = new HashMap<>();
+        graph.addIndex(IndexDescription.forNode("GoTerm", "id", IndexDescription.Type.UNIQUE).withBloomFilter());
+        geneIdNodeIdMap = createSpillableMap("geneIdNodeIdMap", 64);
         try {
             exportGeneDatabase(workspace, dataSource, graph);
         } catch (IOException e) {
@@ -63,115 +67,141 @@ public class NCBIGraphExporter extends GraphExporter<NCBIDataSource> {
     private void exportGeneDatabase(final Workspace workspace, final DataSource dataSource,
                                     final Graph graph) throws IOException {
         LOGGER.info("Exporting gene_info.gz...");
-        MappingIterator<GeneInfo> geneInfos = FileUtils.openGzipTsv(workspace, dataSource, "gene_info.gz",
-                                                                    GeneInfo.class);
-        while (geneInfos.hasNext()) {
-            GeneInfo geneInfo = geneInfos.next();
-            if (!geneInfo.taxonomyId.equals("9606"))
-                continue;
-            long geneId = Long.parseLong(geneInfo.geneId);
-            Node geneNode = graph.addNode("Gene");
-            geneNode.setProperty("id", geneId);
-            setPropertyIfNotDash(geneNode, "symbol", geneInfo.symbol);
-            setPropertyIfNotDash(geneNode, "chromosome", geneInfo.chromosome);
-            setPropertyIfNotDash(geneNode, "locus_tag", geneInfo.locusTag);
-            setPropertyIfNotDash(geneNode, "type", geneInfo.typeOfGene);
-            setPropertyIfNotDash(geneNode, "description", geneInfo.description);
-            setArrayPropertyIfNotDash(geneNode, "synonyms", geneInfo.synonyms);
-            setArrayPropertyIfNotDash(geneNode, "xrefs", geneInfo.dbXrefs);
-            setArrayPropertyIfNotDash(geneNode, "feature_types", geneInfo.featureType);
-            // TODO: mapLocation, symbolFromNomenclatureAuthority, fullNameFromNomenclatureAuthority,
-            // TODO: nomenclatureStatus, otherDesignations
-            geneIdNodeIdMap.put(geneId, geneNode.getId());
-            graph.update(geneNode);
+        try (ProgressTracker tracker = startTracker(workspace, dataSource, "gene_info.gz")) {
+            MappingIterator<GeneInfo> geneInfos = FileUtils.openGzipTsv(workspace, dataSource, "gene_info.gz",
+                                                                        GeneInfo.class, tracker);
+            while (geneInfos.hasNext()) {
+                tracker.step();
+                GeneInfo geneInfo = geneInfos.next();
+                if (!geneInfo.taxonomyId.equals("9606"))
+                    continue;
+                long geneId = Long.parseLong(geneInfo.geneId);
+                Node geneNode = graph.addNode("Gene");
+                geneNode.setProperty("id", geneId);
+                setPropertyIfNotDash(geneNode, "symbol", geneInfo.symbol);
+                setPropertyIfNotDash(geneNode, "chromosome", geneInfo.chromosome);
+                setPropertyIfNotDash(geneNode, "locus_tag", geneInfo.locusTag);
+                setPropertyIfNotDash(geneNode, "type", geneInfo.typeOfGene);
+                setPropertyIfNotDash(geneNode, "description", geneInfo.description);
+                setArrayPropertyIfNotDash(geneNode, "synonyms", geneInfo.synonyms);
+                setArrayPropertyIfNotDash(geneNode, "xrefs", geneInfo.dbXrefs);
+                setArrayPropertyIfNotDash(geneNode, "feature_types", geneInfo.featureType);
+                // TODO: mapLocation, symbolFromNomenclatureAuthority, fullNameFromNomenclatureAuthority,
+                // TODO: nomenclatureStatus, otherDesignations
+                geneIdNodeIdMap.put(geneId, geneNode.getId());
+                graph.update(geneNode);
+            }
         }
         LOGGER.info("Exporting gene2accession.gz...");
-        MappingIterator<GeneAccession> accessions = FileUtils.openGzipTsv(workspace, dataSource, "gene2accession.gz",
-                                                                          GeneAccession.class);
-        while (accessions.hasNext()) {
-            GeneAccession accession = accessions.next();
-            if (!accession.taxonomyId.equals("9606"))
-                continue;
-            long geneId = Long.parseLong(accession.geneId);
-            Node accessionNode = createAccessionNode(graph, accession);
-            graph.addEdge(geneIdNodeIdMap.get(geneId), accessionNode, "HAS_ACCESSION");
+        try (ProgressTracker tracker = startTracker(workspace, dataSource, "gene2accession.gz")) {
+            MappingIterator<GeneAccession> accessions = FileUtils.openGzipTsv(workspace, dataSource,
+                                                                              "gene2accession.gz",
+                                                                              GeneAccession.class, tracker);
+            while (accessions.hasNext()) {
+                tracker.step();
+                GeneAccession accession = accessions.next();
+                if (!accession.taxonomyId.equals("9606"))
+                    continue;
+                long geneId = Long.parseLong(accession.geneId);
+                Node accessionNode = createAccessionNode(graph, accession);
+                graph.addEdge(geneIdNodeIdMap.get(geneId), accessionNode, "HAS_ACCESSION");
+            }
         }
         LOGGER.info("Exporting gene2go.gz...");
-        MappingIterator<GeneGo> goAnnotations = FileUtils.openGzipTsv(workspace, dataSource, "gene2go.gz",
-                                                                      GeneGo.class);
-        while (goAnnotations.hasNext()) {
-            GeneGo go = goAnnotations.next();
-            if (!go.taxonomyId.equals("9606"))
-                continue;
-            long geneId = Long.parseLong(go.geneId);
-            Node goTermNode = graph.findNode("GoTerm", "id", go.goId);
-            if (goTermNode == null) {
-                goTermNode = graph.addNode("GoTerm");
-                goTermNode.setProperty("id", go.goId);
-                goTermNode.setProperty("category", go.category);
-                goTermNode.setProperty("term", go.goTerm);
-                graph.update(goTermNode);
+        try (ProgressTracker tracker = startTracker(workspace, dataSource, "gene2go.gz")) {
+            MappingIterator<GeneGo> goAnnotations = FileUtils.openGzipTsv(workspace, dataSource, "gene2go.gz",
+                                                                          GeneGo.class, tracker);
+            while (goAnnotations.hasNext()) {
+                tracker.step();
+                GeneGo go = goAnnotations.next();
+                if (!go.taxonomyId.equals("9606"))
+                    continue;
+                long geneId = Long.parseLong(go.geneId);
+                Node goTermNode = graph.findNode("GoTerm", "id", go.goId);
+                if (goTermNode == null) {
+                    goTermNode = graph.addNode("GoTerm");
+                    goTermNode.setProperty("id", go.goId);
+                    goTermNode.setProperty("category", go.category);
+                    goTermNode.setProperty("term", go.goTerm);
+                    graph.update(goTermNode);
+                }
+                Edge edge = graph.addEdge(geneIdNodeIdMap.get(geneId), goTermNode, "HAS_GO_TERM");
+                setPropertyIfNotDash(edge, "evidence", go.evidence);
+                setPropertyIfNotDash(edge, "qualifier", go.qualifier);
+                setArrayPropertyIfNotDash(edge, "pubmed_ids", go.pubMedIds);
+                graph.update(edge);
             }
-            Edge edge = graph.addEdge(geneIdNodeIdMap.get(geneId), goTermNode, "HAS_GO_TERM");
-            setPropertyIfNotDash(edge, "evidence", go.evidence);
-            setPropertyIfNotDash(edge, "qualifier", go.qualifier);
-            setArrayPropertyIfNotDash(edge, "pubmed_ids", go.pubMedIds);
-            graph.update(edge);
         }
         LOGGER.info("Exporting gene_group.gz...");
-        MappingIterator<GeneRelationship> groups = FileUtils.openGzipTsv(workspace, dataSource, "gene_group.gz",
-                                                                         GeneRelationship.class);
-        while (groups.hasNext()) {
-            GeneRelationship group = groups.next();
-            if (!group.taxonomyId.equals("9606") || !group.otherTaxonomyId.equals("9606"))
-                continue;
-            long geneId = Long.parseLong(group.geneId);
-            long otherGeneId = Long.parseLong(group.otherGeneId);
-            Edge edge = graph.addEdge(geneId, otherGeneId, "RELATED_TO");
-            edge.setProperty("type", group.relationship);
-            graph.update(edge);
+        try (ProgressTracker tracker = startTracker(workspace, dataSource, "gene_group.gz")) {
+            MappingIterator<GeneRelationship> groups = FileUtils.openGzipTsv(workspace, dataSource, "gene_group.gz",
+                                                                             GeneRelationship.class, tracker);
+            while (groups.hasNext()) {
+                tracker.step();
+                GeneRelationship group = groups.next();
+                if (!group.taxonomyId.equals("9606") || !group.otherTaxonomyId.equals("9606"))
+                    continue;
+                long geneId = Long.parseLong(group.geneId);
+                long otherGeneId = Long.parseLong(group.otherGeneId);
+                Edge edge = graph.addEdge(geneId, otherGeneId, "RELATED_TO");
+                edge.setProperty("type", group.relationship);
+                graph.update(edge);
+            }
         }
         LOGGER.info("Exporting gene_orthologs.gz...");
-        MappingIterator<GeneRelationship> orthologs = FileUtils.openGzipTsv(workspace, dataSource, "gene_orthologs.gz",
-                                                                            GeneRelationship.class);
-        while (orthologs.hasNext()) {
-            GeneRelationship ortholog = orthologs.next();
-            if (!ortholog.taxonomyId.equals("9606") || !ortholog.otherTaxonomyId.equals("9606"))
-                continue;
-            long geneId = Long.parseLong(ortholog.geneId);
-            long otherGeneId = Long.parseLong(ortholog.otherGeneId);
-            Edge edge = graph.addEdge(geneId, otherGeneId, "RELATED_TO");
-            edge.setProperty("type", ortholog.relationship);
-            graph.update(edge);
+        try (ProgressTracker tracker = startTracker(workspace, dataSource, "gene_orthologs.gz")) {
+            MappingIterator<GeneRelationship> orthologs = FileUtils.openGzipTsv(workspace, dataSource,
+                                                                                "gene_orthologs.gz",
+                                                                                GeneRelationship.class, tracker);
+            while (orthologs.hasNext()) {
+                tracker.step();
+                GeneRelationship ortholog = orthologs.next();
+                if (!ortholog.taxonomyId.equals("9606") || !ortholog.otherTaxonomyId.equals("9606"))
+                    continue;
+                long geneId = Long.parseLong(ortholog.geneId);
+                long otherGeneId = Long.parseLong(ortholog.otherGeneId);
+                Edge edge = graph.addEdge(geneId, otherGeneId, "RELATED_TO");
+                edge.setProperty("type", ortholog.relationship);
+                graph.update(edge);
+            }
         }
         LOGGER.info("Exporting gene2pubmed.gz...");
-        MappingIterator<String[]> genePubMed = FileUtils.openGzipTsv(workspace, dataSource, "gene2pubmed.gz",
-                                                                     String[].class);
-        long lastGeneId = -1;
-        Set<Long> currentPubMedIds = new HashSet<>();
-        while (genePubMed.hasNext()) {
-            String[] pubMedAnnotation = genePubMed.next();
-            if (!pubMedAnnotation[0].equals("9606"))
-                continue;
-            long geneId = Long.parseLong(pubMedAnnotation[1]);
-            if (geneId != lastGeneId) {
-                if (lastGeneId != -1) {
-                    Node geneNode = graph.getNode(geneIdNodeIdMap.get(lastGeneId));
-                    geneNode.setProperty("pubmed_ids", currentPubMedIds.toArray(new Long[0]));
-                    graph.update(geneNode);
-                    currentPubMedIds.clear();
+        try (ProgressTracker tracker = startTracker(workspace, dataSource, "gene2pubmed.gz")) {
+            MappingIterator<String[]> genePubMed = FileUtils.openGzipTsv(workspace, dataSource, "gene2pubmed.gz",
+                                                                         String[].class, tracker);
+            long lastGeneId = -1;
+            Set<Long> currentPubMedIds = new HashSet<>();
+            while (genePubMed.hasNext()) {
+                tracker.step();
+                String[] pubMedAnnotation = genePubMed.next();
+                if (!pubMedAnnotation[0].equals("9606"))
+                    continue;
+                long geneId = Long.parseLong(pubMedAnnotation[1]);
+                if (geneId != lastGeneId) {
+                    if (lastGeneId != -1) {
+                        Node geneNode = graph.getNode(geneIdNodeIdMap.get(lastGeneId));
+                        geneNode.setProperty("pubmed_ids", currentPubMedIds.toArray(new Long[0]));
+                        graph.update(geneNode);
+                        currentPubMedIds.clear();
+                    }
+                    lastGeneId = geneId;
                 }
-                lastGeneId = geneId;
+                currentPubMedIds.add(Long.parseLong(pubMedAnnotation[2]));
+            }
+            if (currentPubMedIds.size() > 0) {
+                Node geneNode = graph.getNode(geneIdNodeIdMap.get(lastGeneId));
+                geneNode.setProperty("pubmed_ids", currentPubMedIds.toArray(new Long[0]));
+                graph.update(geneNode);
             }
-            currentPubMedIds.add(Long.parseLong(pubMedAnnotation[2]));
-        }
-        if (currentPubMedIds.size() > 0) {
-            Node geneNode = graph.getNode(geneIdNodeIdMap.get(lastGeneId));
-            geneNode.setProperty("pubmed_ids", currentPubMedIds.toArray(new Long[0]));
-            graph.update(geneNode);
         }
     }
 
+    private static ProgressTracker startTracker(final Workspace workspace, final DataSource dataSource,
+                                                final String fileName) throws IOException {
+        final long fileLength = Files.size(Paths.get(dataSource.resolveSourceFilePath(workspace, fileName)));
+        return ProgressTracker.start("Exporting " + fileName, ProgressTracker.UNKNOWN, fileLength);
+    }
+
     private Node createAccessionNode(final Graph graph, final GeneAccession accession) {
         Node accessionNode = graph.addNode("Accession");
         setPropertyIfNotDash(accessionNode, "status", accession.status);
@@ -215,12 +245,16 @@ public class NCBIGraphExporter extends GraphExporter<NCBIDataSource> {
                                        final Graph graph) throws IOException {
         final String[] fileNames = dataSource.listSourceFiles(workspace);
         for (final String fileName : fileNames)
-            if (fileName.startsWith("Compound_") && fileName.endsWith(".sdf.gz")) {
-                final SdfReader reader = new SdfReader(FileUtils.openGzip(workspace, dataSource, fileName),
-                                                       StandardCharsets.UTF_8);
-                for (final SdfEntry entry : reader)
-                    createPubChemCompoundNode(graph, entry);
-            }
+            if (fileName.startsWith("Compound_") && fileName.endsWith(".sdf.gz"))
+                try (ProgressTracker tracker = startTracker(workspace, dataSource, fileName)) {
+                    final SdfReader reader = new SdfReader(
+                            new GZIPInputStream(FileUtils.openInput(workspace, dataSource, fileName, tracker)),
+                            StandardCharsets.UTF_8);
+                    for (final SdfEntry entry : reader) {
+                        createPubChemCompoundNode(graph, entry);
+                        tracker.step();
+                    }
+                }
     }
 
     private void createPubChemCompoundNode(final Graph graph, final SdfEntry entry) {
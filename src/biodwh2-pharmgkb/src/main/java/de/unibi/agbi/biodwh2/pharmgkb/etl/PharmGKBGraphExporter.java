@@ -37,8 +37,8 @@ public class PharmGKBGraphExporter extends GraphExporter<PharmGKBDataSource> {
             "Taiwan-Hakka", "Gifu-like", "Agrigento-like", "Dallas", "Panama' Sassari", "Cagliari", "Birmingham"
     };
 
-    private final Map<String, Long> accessionNodeIdMap = new HashMap<>();
-    private final Map<String, Long> literatureIdNodeIdMap = new HashMap<>();
+    private Map<String, Long> accessionNodeIdMap;
+    private Map<String, Long> literatureIdNodeIdMap;
     private final Map<String, Long> webUrlNodeIdMap = new HashMap<>();
     private final Map<Integer, Long> variantAnnotationIdNodeIdMap = new HashMap<>();
 
@@ -53,6 +53,8 @@ public class PharmGKBGraphExporter extends GraphExporter<PharmGKBDataSource> {
 
     @Override
     protected boolean exportGraph(final Workspace workspace, final Graph graph) throws ExporterException {
+        accessionNodeIdMap = createSpillableMap("accessionNodeIdMap", 96);
+        literatureIdNodeIdMap = createSpillableMap("literatureIdNodeIdMap", 96);
         graph.addIndex(IndexDescription.forNode(LITERATURE_LABEL, ID_PROPERTY, IndexDescription.Type.UNIQUE));
         graph.addIndex(IndexDescription.forNode(VARIANT_LABEL, ID_PROPERTY, IndexDescription.Type.UNIQUE));
         graph.addIndex(IndexDescription.forNode(HAPLOTYPE_LABEL, ID_PROPERTY, IndexDescription.Type.UNIQUE));
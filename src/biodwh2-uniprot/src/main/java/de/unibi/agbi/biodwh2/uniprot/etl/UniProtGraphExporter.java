@@ -11,6 +11,7 @@ import de.unibi.agbi.biodwh2.core.model.graph.Graph;
 import de.unibi.agbi.biodwh2.core.model.graph.IndexDescription;
 import de.unibi.agbi.biodwh2.core.model.graph.Node;
 import de.unibi.agbi.biodwh2.core.model.graph.NodeBuilder;
+import de.unibi.agbi.biodwh2.core.monitoring.ProgressTracker;
 import de.unibi.agbi.biodwh2.uniprot.UniProtDataSource;
 import de.unibi.agbi.biodwh2.uniprot.model.*;
 
@@ -40,24 +41,28 @@ public class UniProtGraphExporter extends GraphExporter<UniProtDataSource> {
         final File zipFile = new File(filePath);
         if (!zipFile.exists())
             throw new ExporterException("Failed to parse the file '" + UniProtUpdater.HUMAN_SPROT_FILE_NAME + "'");
-        try {
-            final GZIPInputStream zipStream = openZipInputStream(zipFile);
+        try (ProgressTracker tracker = ProgressTracker.start("Exporting UniProt entries", ProgressTracker.UNKNOWN,
+                                                             zipFile.length())) {
+            final GZIPInputStream zipStream = openZipInputStream(zipFile, tracker);
             final XmlMapper xmlMapper = new XmlMapper();
             final FromXmlParser parser = createXmlParser(zipStream, xmlMapper);
             // Skip the first structure token which is the root UniProt node
             //noinspection UnusedAssignment
             JsonToken token = parser.nextToken();
             while ((token = parser.nextToken()) != null)
-                if (token.isStructStart())
+                if (token.isStructStart()) {
                     exportEntry(graph, xmlMapper.readValue(parser, Entry.class));
+                    tracker.step();
+                }
         } catch (IOException | XMLStreamException e) {
             throw new ExporterFormatException(e);
         }
         return false;
     }
 
-    private static GZIPInputStream openZipInputStream(final File file) throws IOException {
-        final FileInputStream inputStream = new FileInputStream(file);
+    private static GZIPInputStream openZipInputStream(final File file,
+                                                      final ProgressTracker tracker) throws IOException {
+        final InputStream inputStream = tracker.track(new FileInputStream(file));
         final BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
         return new GZIPInputStream(bufferedInputStream);
     }